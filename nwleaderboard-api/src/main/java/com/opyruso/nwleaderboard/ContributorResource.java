@@ -5,13 +5,17 @@ import com.opyruso.nwleaderboard.dto.ContributionExtractionResponseDto;
 import com.opyruso.nwleaderboard.dto.ContributionRunDto;
 import com.opyruso.nwleaderboard.dto.ContributionScanDetailDto;
 import com.opyruso.nwleaderboard.dto.ContributionScanSummaryDto;
+import com.opyruso.nwleaderboard.dto.ContributionSubmissionResponse;
 import com.opyruso.nwleaderboard.dto.UpdateContributionScanRequest;
 import com.opyruso.nwleaderboard.dto.UpdateDungeonHighlightsRequest;
 import com.opyruso.nwleaderboard.dto.RegionResponse;
 import com.opyruso.nwleaderboard.dto.RescanContributionScanRequest;
 import com.opyruso.nwleaderboard.service.ContributorExtractionService;
 import com.opyruso.nwleaderboard.service.ContributorExtractionService.ContributorRequestException;
+import com.opyruso.nwleaderboard.service.ContributorSubmissionQueue;
+import com.opyruso.nwleaderboard.service.ContributorSubmissionQueue.SubmissionStatus;
 import com.opyruso.nwleaderboard.service.ContributorSubmissionService;
+import com.opyruso.nwleaderboard.service.ContributorSubmissionService.ConcurrentSubmissionException;
 import com.opyruso.nwleaderboard.service.ContributorSubmissionService.ContributorSubmissionException;
 import com.opyruso.nwleaderboard.service.DungeonService;
 import com.opyruso.nwleaderboard.service.RegionService;
@@ -61,6 +65,9 @@ public class ContributorResource {
     @Inject
     ContributorSubmissionService submissionService;
 
+    @Inject
+    ContributorSubmissionQueue submissionQueue;
+
     @Inject
     DungeonService dungeonService;
     
@@ -107,6 +114,12 @@ public class ContributorResource {
         }
 
         try {
+            if (submissionQueue.isEnabled()) {
+                String trackingId = submissionQueue.enqueue(payload);
+                return Response.status(Status.ACCEPTED)
+                        .entity(new ContributionSubmissionResponse(trackingId, "queued", "Runs queued for storage"))
+                        .build();
+            }
             submissionService.persistRuns(payload);
             return Response.status(Status.CREATED)
                     .entity(new ApiMessageResponse("Runs stored successfully", null))
@@ -116,6 +129,11 @@ public class ContributorResource {
             return Response.status(Status.BAD_REQUEST)
                     .entity(new ApiMessageResponse(e.getMessage(), null))
                     .build();
+        } catch (ConcurrentSubmissionException e) {
+            LOG.debug("Contributor data stored concurrently", e);
+            return Response.status(Status.CONFLICT)
+                    .entity(new ApiMessageResponse(e.getMessage(), null))
+                    .build();
         } catch (Exception e) {
             LOG.error("Unexpected error while storing contributor data", e);
             return Response.status(Status.BAD_GATEWAY)
@@ -124,6 +142,23 @@ public class ContributorResource {
         }
     }
 
+    @GET
+    @Path("/submissions/{trackingId}")
+    public Response getSubmissionStatus(@PathParam("trackingId") String trackingId) {
+        if (!hasContributorRole()) {
+            return Response.status(Status.FORBIDDEN)
+                    .entity(new ApiMessageResponse("Contributor role required", null))
+                    .build();
+        }
+        SubmissionStatus status = submissionQueue.getStatus(trackingId);
+        if (status == null) {
+            return Response.status(Status.NOT_FOUND)
+                    .entity(new ApiMessageResponse("Submission not found", null))
+                    .build();
+        }
+        return Response.ok(new ContributionSubmissionResponse(trackingId, status.status(), status.message())).build();
+    }
+
     @PUT
     @Path("/dungeons/highlights")
     @Consumes(MediaType.APPLICATION_JSON)
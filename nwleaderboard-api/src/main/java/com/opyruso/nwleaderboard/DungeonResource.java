@@ -3,13 +3,18 @@ package com.opyruso.nwleaderboard;
 import com.opyruso.nwleaderboard.dto.DungeonResponse;
 import com.opyruso.nwleaderboard.entity.Dungeon;
 import com.opyruso.nwleaderboard.repository.DungeonRepository;
+import com.opyruso.nwleaderboard.service.DataVersionService;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
 import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.Response.ResponseBuilder;
 import java.text.Collator;
 import java.util.Comparator;
 import java.util.LinkedHashMap;
@@ -30,14 +35,24 @@ public class DungeonResource {
     @Inject
     DungeonRepository dungeonRepository;
 
+    @Inject
+    DataVersionService dataVersionService;
+
     @GET
-    public List<DungeonResponse> list(@Context HttpHeaders headers) {
+    public Response list(@Context HttpHeaders headers, @Context Request request) {
+        String acceptLanguage = headers != null ? headers.getHeaderString(HttpHeaders.ACCEPT_LANGUAGE) : null;
+        EntityTag tag = dataVersionService.globalTag(acceptLanguage != null ? acceptLanguage : "");
+        ResponseBuilder notModified = request.evaluatePreconditions(tag);
+        if (notModified != null) {
+            return notModified.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_LANGUAGE).build();
+        }
+
         List<Locale> acceptable = headers != null ? headers.getAcceptableLanguages() : List.of();
         Locale displayLocale = selectDisplayLocale(acceptable);
         Collator collator = Collator.getInstance(displayLocale);
         collator.setStrength(Collator.PRIMARY);
 
-        return dungeonRepository.listAll().stream()
+        List<DungeonResponse> dungeons = dungeonRepository.listAllCached().stream()
                 .filter(Objects::nonNull)
                 .map(dungeon -> {
                     Map<String, String> names = buildNameMap(dungeon);
@@ -51,6 +66,10 @@ public class DungeonResource {
                 })
                 .sorted(Comparator.comparing(DungeonResponse::name, collator))
                 .toList();
+        return Response.ok(dungeons)
+                .tag(tag)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_LANGUAGE)
+                .build();
     }
 
     private Locale selectDisplayLocale(List<Locale> acceptable) {
@@ -2,22 +2,30 @@ package com.opyruso.nwleaderboard;
 
 import com.opyruso.nwleaderboard.dto.ApiMessageResponse;
 import com.opyruso.nwleaderboard.dto.HighlightResponse;
-import com.opyruso.nwleaderboard.dto.LeaderboardChartResponse;
 import com.opyruso.nwleaderboard.dto.LeaderboardEntryResponse;
-import com.opyruso.nwleaderboard.dto.LeaderboardPageResponse;
 import com.opyruso.nwleaderboard.dto.IndividualRankingEntryResponse;
 import com.opyruso.nwleaderboard.dto.RegionResponse;
+import com.opyruso.nwleaderboard.event.RunsChanged;
+import com.opyruso.nwleaderboard.service.DataVersionService;
 import com.opyruso.nwleaderboard.service.IndividualRankingService;
+import com.opyruso.nwleaderboard.service.LeaderboardResponseCache;
 import com.opyruso.nwleaderboard.service.LeaderboardService;
 import com.opyruso.nwleaderboard.service.RegionService;
+import com.opyruso.nwleaderboard.service.RequestCoalescer;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.Response.ResponseBuilder;
 import jakarta.ws.rs.core.Response.Status;
+import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -37,6 +45,15 @@ public class LeaderboardResource {
     @Inject
     RegionService regionService;
 
+    @Inject
+    DataVersionService dataVersionService;
+
+    @Inject
+    LeaderboardResponseCache responseCache;
+
+    @Inject
+    RequestCoalescer requestCoalescer;
+
     @GET
     @Path("/score")
     public Response getScore(
@@ -48,13 +65,21 @@ public class LeaderboardResource {
             @QueryParam("mutationCurse") List<String> mutationCurseIds,
             @QueryParam("region") List<String> regionIds,
             @QueryParam("week") List<Integer> weekNumbers,
-            @QueryParam("seasonId") Integer seasonId) {
+            @QueryParam("seasonId") Integer seasonId,
+            @Context Request request,
+            @Context HttpHeaders headers) {
         if (dungeonId == null) {
             return Response.status(Status.BAD_REQUEST)
                     .entity(new ApiMessageResponse("dungeonId query parameter is required", null))
                     .build();
         }
-        LeaderboardPageResponse response = leaderboardService.getScoreEntries(
+        EntityTag tag = encodedTag(dataVersionService.leaderboardTag(dungeonId, RunsChanged.Mode.SCORE), headers);
+        ResponseBuilder notModified = request.evaluatePreconditions(tag);
+        if (notModified != null) {
+            return notModified.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING).build();
+        }
+        LeaderboardResponseCache.Key key = responseCache.key(
+                LeaderboardResponseCache.View.SCORE_PAGE,
                 dungeonId,
                 page,
                 pageSize,
@@ -64,7 +89,18 @@ public class LeaderboardResource {
                 regionIds,
                 weekNumbers,
                 seasonId);
-        return Response.ok(response).build();
+        LeaderboardResponseCache.CachedResponse cached = responseCache.getOrLoad(key,
+                () -> leaderboardService.getScoreEntries(
+                        dungeonId,
+                        page,
+                        pageSize,
+                        mutationTypeIds,
+                        mutationPromotionIds,
+                        mutationCurseIds,
+                        regionIds,
+                        weekNumbers,
+                        seasonId));
+        return cachedResponse(cached, tag, headers);
     }
 
     @GET
@@ -76,21 +112,40 @@ public class LeaderboardResource {
             @QueryParam("mutationCurse") List<String> mutationCurseIds,
             @QueryParam("region") List<String> regionIds,
             @QueryParam("week") List<Integer> weekNumbers,
-            @QueryParam("seasonId") Integer seasonId) {
+            @QueryParam("seasonId") Integer seasonId,
+            @Context Request request,
+            @Context HttpHeaders headers) {
         if (dungeonId == null) {
             return Response.status(Status.BAD_REQUEST)
                     .entity(new ApiMessageResponse("dungeonId query parameter is required", null))
                     .build();
         }
-        LeaderboardChartResponse response = leaderboardService.getScoreChartData(
+        EntityTag tag = encodedTag(dataVersionService.leaderboardTag(dungeonId, RunsChanged.Mode.SCORE), headers);
+        ResponseBuilder notModified = request.evaluatePreconditions(tag);
+        if (notModified != null) {
+            return notModified.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING).build();
+        }
+        LeaderboardResponseCache.Key key = responseCache.key(
+                LeaderboardResponseCache.View.SCORE_CHART,
                 dungeonId,
+                null,
+                null,
                 mutationTypeIds,
                 mutationPromotionIds,
                 mutationCurseIds,
                 regionIds,
                 weekNumbers,
                 seasonId);
-        return Response.ok(response).build();
+        LeaderboardResponseCache.CachedResponse cached = responseCache.getOrLoad(key,
+                () -> leaderboardService.getScoreChartData(
+                        dungeonId,
+                        mutationTypeIds,
+                        mutationPromotionIds,
+                        mutationCurseIds,
+                        regionIds,
+                        weekNumbers,
+                        seasonId));
+        return cachedResponse(cached, tag, headers);
     }
 
     @GET
@@ -104,13 +159,21 @@ public class LeaderboardResource {
             @QueryParam("mutationCurse") List<String> mutationCurseIds,
             @QueryParam("region") List<String> regionIds,
             @QueryParam("week") List<Integer> weekNumbers,
-            @QueryParam("seasonId") Integer seasonId) {
+            @QueryParam("seasonId") Integer seasonId,
+            @Context Request request,
+            @Context HttpHeaders headers) {
         if (dungeonId == null) {
             return Response.status(Status.BAD_REQUEST)
                     .entity(new ApiMessageResponse("dungeonId query parameter is required", null))
                     .build();
         }
-        LeaderboardPageResponse response = leaderboardService.getTimeEntries(
+        EntityTag tag = encodedTag(dataVersionService.leaderboardTag(dungeonId, RunsChanged.Mode.TIME), headers);
+        ResponseBuilder notModified = request.evaluatePreconditions(tag);
+        if (notModified != null) {
+            return notModified.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING).build();
+        }
+        LeaderboardResponseCache.Key key = responseCache.key(
+                LeaderboardResponseCache.View.TIME_PAGE,
                 dungeonId,
                 page,
                 pageSize,
@@ -120,7 +183,18 @@ public class LeaderboardResource {
                 regionIds,
                 weekNumbers,
                 seasonId);
-        return Response.ok(response).build();
+        LeaderboardResponseCache.CachedResponse cached = responseCache.getOrLoad(key,
+                () -> leaderboardService.getTimeEntries(
+                        dungeonId,
+                        page,
+                        pageSize,
+                        mutationTypeIds,
+                        mutationPromotionIds,
+                        mutationCurseIds,
+                        regionIds,
+                        weekNumbers,
+                        seasonId));
+        return cachedResponse(cached, tag, headers);
     }
 
     @GET
@@ -132,50 +206,89 @@ public class LeaderboardResource {
             @QueryParam("mutationCurse") List<String> mutationCurseIds,
             @QueryParam("region") List<String> regionIds,
             @QueryParam("week") List<Integer> weekNumbers,
-            @QueryParam("seasonId") Integer seasonId) {
+            @QueryParam("seasonId") Integer seasonId,
+            @Context Request request,
+            @Context HttpHeaders headers) {
         if (dungeonId == null) {
             return Response.status(Status.BAD_REQUEST)
                     .entity(new ApiMessageResponse("dungeonId query parameter is required", null))
                     .build();
         }
-        LeaderboardChartResponse response = leaderboardService.getTimeChartData(
+        EntityTag tag = encodedTag(dataVersionService.leaderboardTag(dungeonId, RunsChanged.Mode.TIME), headers);
+        ResponseBuilder notModified = request.evaluatePreconditions(tag);
+        if (notModified != null) {
+            return notModified.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING).build();
+        }
+        LeaderboardResponseCache.Key key = responseCache.key(
+                LeaderboardResponseCache.View.TIME_CHART,
                 dungeonId,
+                null,
+                null,
                 mutationTypeIds,
                 mutationPromotionIds,
                 mutationCurseIds,
                 regionIds,
                 weekNumbers,
                 seasonId);
-        return Response.ok(response).build();
+        LeaderboardResponseCache.CachedResponse cached = responseCache.getOrLoad(key,
+                () -> leaderboardService.getTimeChartData(
+                        dungeonId,
+                        mutationTypeIds,
+                        mutationPromotionIds,
+                        mutationCurseIds,
+                        regionIds,
+                        weekNumbers,
+                        seasonId));
+        return cachedResponse(cached, tag, headers);
     }
 
     @GET
     @Path("/weeks")
     public Response listWeeks(
-            @QueryParam("dungeonId") Long dungeonId, @QueryParam("seasonId") Integer seasonId) {
+            @QueryParam("dungeonId") Long dungeonId, @QueryParam("seasonId") Integer seasonId,
+            @Context Request request) {
         if (dungeonId == null) {
             return Response.status(Status.BAD_REQUEST)
                     .entity(new ApiMessageResponse("dungeonId query parameter is required", null))
                     .build();
         }
+        EntityTag tag = dataVersionService.dungeonTag(dungeonId);
+        ResponseBuilder notModified = request.evaluatePreconditions(tag);
+        if (notModified != null) {
+            return notModified.build();
+        }
         List<Integer> weeks = leaderboardService.listAvailableWeeks(dungeonId, seasonId);
-        return Response.ok(weeks).build();
+        return Response.ok(weeks).tag(tag).build();
     }
 
     @GET
     @Path("/highlights")
-    public Response getHighlights() {
-        List<HighlightResponse> highlights = leaderboardService.getHighlights();
-        return Response.ok(highlights).build();
+    public Response getHighlights(@Context Request request) {
+        EntityTag tag = dataVersionService.globalTag(null);
+        ResponseBuilder notModified = request.evaluatePreconditions(tag);
+        if (notModified != null) {
+            return notModified.build();
+        }
+        List<HighlightResponse> highlights =
+                requestCoalescer.execute("highlights", tag.getValue(), leaderboardService::getHighlights);
+        return Response.ok(highlights).tag(tag).build();
     }
 
     @GET
     @Path("/individual")
     public Response getIndividualRanking(
-            @QueryParam("mode") String modeParam, @QueryParam("seasonId") Integer seasonId) {
+            @QueryParam("mode") String modeParam, @QueryParam("seasonId") Integer seasonId,
+            @Context Request request) {
+        EntityTag tag = dataVersionService.globalTag(null);
+        ResponseBuilder notModified = request.evaluatePreconditions(tag);
+        if (notModified != null) {
+            return notModified.build();
+        }
         IndividualRankingService.Mode mode = IndividualRankingService.Mode.fromQuery(modeParam);
-        List<IndividualRankingEntryResponse> entries = individualRankingService.getRanking(mode, seasonId);
-        return Response.ok(entries).build();
+        List<IndividualRankingEntryResponse> entries = requestCoalescer.execute("individual-ranking",
+                Arrays.asList(mode, seasonId, tag.getValue()),
+                () -> individualRankingService.getRanking(mode, seasonId));
+        return Response.ok(entries).tag(tag).build();
     }
 
     @GET
@@ -186,4 +299,45 @@ public class LeaderboardResource {
                 .collect(Collectors.toList());
         return Response.ok(regions).build();
     }
+
+    /**
+     * Gives the representations sent to clients accepting gzip their own tag, as a strong tag must not match both the
+     * compressed and the plain body.
+     */
+    private EntityTag encodedTag(EntityTag tag, HttpHeaders headers) {
+        return acceptsGzip(headers) ? new EntityTag(tag.getValue() + "-gzip") : tag;
+    }
+
+    private Response cachedResponse(
+            LeaderboardResponseCache.CachedResponse cached, EntityTag tag, HttpHeaders headers) {
+        ResponseBuilder builder = Response.ok()
+                .type(MediaType.APPLICATION_JSON_TYPE)
+                .tag(tag)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (cached.gzip() != null && acceptsGzip(headers)) {
+            return builder.entity(cached.gzip()).header(HttpHeaders.CONTENT_ENCODING, "gzip").build();
+        }
+        return builder.entity(cached.json()).build();
+    }
+
+    private boolean acceptsGzip(HttpHeaders headers) {
+        String acceptEncoding = headers != null ? headers.getHeaderString(HttpHeaders.ACCEPT_ENCODING) : null;
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String token : acceptEncoding.split(",")) {
+            String[] parts = token.split(";");
+            if (!"gzip".equalsIgnoreCase(parts[0].strip())) {
+                continue;
+            }
+            for (int index = 1; index < parts.length; index++) {
+                String parameter = parts[index].strip();
+                if (parameter.startsWith("q=") && parameter.substring(2).strip().matches("0(\\.0*)?")) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
 }
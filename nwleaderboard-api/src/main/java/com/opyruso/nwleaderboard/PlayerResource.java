@@ -4,9 +4,18 @@ import com.opyruso.nwleaderboard.dto.ApiMessageResponse;
 import com.opyruso.nwleaderboard.dto.LeaderboardPlayerResponse;
 import com.opyruso.nwleaderboard.dto.PlayerProfileResponse;
 import com.opyruso.nwleaderboard.dto.PlayerRelationshipGraphResponse;
+import com.opyruso.nwleaderboard.dto.TeammateNetworkResponse;
+import com.opyruso.nwleaderboard.dto.TeammatePathResponse;
+import com.opyruso.nwleaderboard.dto.TeammateRunResponse;
+import com.opyruso.nwleaderboard.event.RunsChanged;
 import com.opyruso.nwleaderboard.entity.Player;
+import com.opyruso.nwleaderboard.service.DataVersionService;
+import com.opyruso.nwleaderboard.service.PlayerAutocompleteService;
 import com.opyruso.nwleaderboard.service.PlayerProfileService;
 import com.opyruso.nwleaderboard.service.PlayerRelationshipService;
+import com.opyruso.nwleaderboard.service.PlayerSearchService;
+import com.opyruso.nwleaderboard.service.RunPlayerIndexService;
+import com.opyruso.nwleaderboard.service.TeammateGraphService;
 import com.opyruso.nwleaderboard.repository.PlayerRepository;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.GET;
@@ -14,13 +23,19 @@ import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.Response.ResponseBuilder;
 import jakarta.ws.rs.core.Response.Status;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -30,6 +45,13 @@ import java.util.stream.Collectors;
 @Produces(MediaType.APPLICATION_JSON)
 public class PlayerResource {
 
+    private static final int MAX_BATCH_SIZE = 50;
+    private static final int MAX_TEAMMATE_DEPTH = 3;
+    private static final int MAX_TEAMMATES_PER_DEPTH = 50;
+    private static final int MAX_PATH_HOPS = 6;
+    private static final int MAX_TEAM_SIZE = 10;
+    private static final int MAX_TEAM_RUNS = 100;
+
     @Inject
     PlayerProfileService playerProfileService;
 
@@ -39,17 +61,38 @@ public class PlayerResource {
     @Inject
     PlayerRelationshipService playerRelationshipService;
 
+    @Inject
+    PlayerSearchService playerSearchService;
+
+    @Inject
+    PlayerAutocompleteService playerAutocompleteService;
+
+    @Inject
+    TeammateGraphService teammateGraphService;
+
+    @Inject
+    RunPlayerIndexService runPlayerIndexService;
+
+    @Inject
+    DataVersionService dataVersionService;
+
     @GET
     public Response searchPlayers(
             @QueryParam("q") String query,
             @QueryParam("limit") Integer limit,
-            @QueryParam("region") String region) {
+            @QueryParam("region") String region,
+            @Context Request request) {
         if (query == null || query.trim().isEmpty()) {
             return Response.ok(List.of()).build();
         }
+        EntityTag tag = dataVersionService.globalTag(null);
+        ResponseBuilder notModified = request.evaluatePreconditions(tag);
+        if (notModified != null) {
+            return notModified.build();
+        }
 
         int maxResults = limit != null && limit > 0 ? Math.min(limit, 20) : 10;
-        List<Player> matches = new ArrayList<>(playerRepository.searchByName(query, maxResults, region));
+        List<Player> matches = new ArrayList<>(playerSearchService.search(query, maxResults, region));
 
         if (matches.isEmpty()) {
             try {
@@ -67,26 +110,123 @@ public class PlayerResource {
                 .map(this::toLeaderboardPlayer)
                 .collect(Collectors.toList());
 
-        return Response.ok(payload).build();
+        return Response.ok(payload).tag(tag).build();
+    }
+
+    /**
+     * Completes a player name prefix with the most active players, served from memory. Activity is refreshed
+     * periodically, so the response carries no entity tag.
+     */
+    @GET
+    @Path("/autocomplete")
+    public Response autocomplete(
+            @QueryParam("q") String query,
+            @QueryParam("limit") Integer limit,
+            @QueryParam("region") String region) {
+        if (query == null || query.trim().isEmpty()) {
+            return Response.ok(List.of()).build();
+        }
+        int maxResults = limit != null && limit > 0 ? Math.min(limit, PlayerAutocompleteService.MAX_LIMIT) : 10;
+        return Response.ok(playerAutocompleteService.autocomplete(query, maxResults, region)).build();
+    }
+
+    @GET
+    @Path("/batch")
+    public Response getProfiles(
+            @QueryParam("ids") List<String> rawIds, @QueryParam("seasonId") Integer seasonId,
+            @Context Request request) {
+        Set<Long> playerIds;
+        try {
+            playerIds = parsePlayerIds(rawIds);
+        } catch (IllegalArgumentException e) {
+            return Response.status(Status.BAD_REQUEST)
+                    .entity(new ApiMessageResponse(e.getMessage(), null))
+                    .build();
+        }
+        if (playerIds.size() > MAX_BATCH_SIZE) {
+            return Response.status(Status.BAD_REQUEST)
+                    .entity(new ApiMessageResponse("at most " + MAX_BATCH_SIZE + " players can be requested", null))
+                    .build();
+        }
+        if (playerIds.isEmpty()) {
+            return Response.ok(List.of()).build();
+        }
+        EntityTag tag = dataVersionService.globalTag(null);
+        ResponseBuilder notModified = request.evaluatePreconditions(tag);
+        if (notModified != null) {
+            return notModified.build();
+        }
+        List<PlayerProfileResponse> profiles = playerProfileService.getProfiles(playerIds, seasonId);
+        return Response.ok(profiles).tag(tag).build();
+    }
+
+    /** Lists the most recent runs every requested player took part in, resolved from the run player index. */
+    @GET
+    @Path("/teammates/runs")
+    public Response getTeamRuns(
+            @QueryParam("ids") List<String> rawIds, @QueryParam("mode") String modeParam,
+            @QueryParam("limit") Integer limit, @Context Request request) {
+        Set<Long> playerIds;
+        try {
+            playerIds = parsePlayerIds(rawIds);
+        } catch (IllegalArgumentException e) {
+            return Response.status(Status.BAD_REQUEST)
+                    .entity(new ApiMessageResponse(e.getMessage(), null))
+                    .build();
+        }
+        if (playerIds.size() > MAX_TEAM_SIZE) {
+            return Response.status(Status.BAD_REQUEST)
+                    .entity(new ApiMessageResponse("at most " + MAX_TEAM_SIZE + " players can be requested", null))
+                    .build();
+        }
+        RunsChanged.Mode mode = parseMode(modeParam);
+        if (mode == null) {
+            return Response.status(Status.BAD_REQUEST)
+                    .entity(new ApiMessageResponse("invalid mode", null))
+                    .build();
+        }
+        if (playerIds.isEmpty()) {
+            return Response.ok(List.of()).build();
+        }
+        EntityTag tag = dataVersionService.globalTag(null);
+        ResponseBuilder notModified = request.evaluatePreconditions(tag);
+        if (notModified != null) {
+            return notModified.build();
+        }
+        int safeLimit = limit != null && limit > 0 ? Math.min(limit, MAX_TEAM_RUNS) : 20;
+        List<TeammateRunResponse> runs = runPlayerIndexService.listRunsWithPlayers(playerIds, mode, safeLimit);
+        return Response.ok(runs).tag(tag).build();
     }
 
     @GET
     @Path("/{playerId}")
     public Response getProfile(
-            @PathParam("playerId") Long playerId, @QueryParam("seasonId") Integer seasonId) {
+            @PathParam("playerId") Long playerId, @QueryParam("seasonId") Integer seasonId,
+            @Context Request request) {
+        EntityTag tag = dataVersionService.globalTag(null);
+        ResponseBuilder notModified = request.evaluatePreconditions(tag);
+        if (notModified != null) {
+            return notModified.build();
+        }
         Optional<PlayerProfileResponse> profile = playerProfileService.getProfile(playerId, seasonId);
         if (profile.isEmpty()) {
             return Response.status(Status.NOT_FOUND)
                     .entity(new ApiMessageResponse("player not found", null))
                     .build();
         }
-        return Response.ok(profile.get()).build();
+        return Response.ok(profile.get()).tag(tag).build();
     }
 
     @GET
     @Path("/{playerId}/relationships")
     public Response getRelationships(
-            @PathParam("playerId") Long playerId, @QueryParam("seasonId") Integer seasonId) {
+            @PathParam("playerId") Long playerId, @QueryParam("seasonId") Integer seasonId,
+            @Context Request request) {
+        EntityTag tag = dataVersionService.globalTag(null);
+        ResponseBuilder notModified = request.evaluatePreconditions(tag);
+        if (notModified != null) {
+            return notModified.build();
+        }
         Optional<PlayerRelationshipGraphResponse> graph =
                 playerRelationshipService.getRelationships(playerId, seasonId);
         if (graph.isEmpty()) {
@@ -94,7 +234,101 @@ public class PlayerResource {
                     .entity(new ApiMessageResponse("player not found", null))
                     .build();
         }
-        return Response.ok(graph.get()).build();
+        return Response.ok(graph.get()).tag(tag).build();
+    }
+
+    @GET
+    @Path("/{playerId}/teammates")
+    public Response getTeammates(
+            @PathParam("playerId") Long playerId, @QueryParam("mode") String modeParam,
+            @QueryParam("depth") Integer depth, @QueryParam("limit") Integer limit,
+            @Context Request request) {
+        RunsChanged.Mode mode = parseMode(modeParam);
+        if (mode == null) {
+            return Response.status(Status.BAD_REQUEST)
+                    .entity(new ApiMessageResponse("invalid mode", null))
+                    .build();
+        }
+        EntityTag tag = dataVersionService.globalTag(null);
+        ResponseBuilder notModified = request.evaluatePreconditions(tag);
+        if (notModified != null) {
+            return notModified.build();
+        }
+        int safeDepth = depth != null && depth > 0 ? Math.min(depth, MAX_TEAMMATE_DEPTH) : 2;
+        int safeLimit = limit != null && limit > 0 ? Math.min(limit, MAX_TEAMMATES_PER_DEPTH) : 20;
+        Optional<TeammateNetworkResponse> network =
+                teammateGraphService.getNetwork(playerId, mode, safeDepth, safeLimit);
+        if (network.isEmpty()) {
+            return Response.status(Status.NOT_FOUND)
+                    .entity(new ApiMessageResponse("player not found", null))
+                    .build();
+        }
+        return Response.ok(network.get()).tag(tag).build();
+    }
+
+    @GET
+    @Path("/{playerId}/teammates/path/{otherPlayerId}")
+    public Response getTeammatePath(
+            @PathParam("playerId") Long playerId, @PathParam("otherPlayerId") Long otherPlayerId,
+            @QueryParam("mode") String modeParam, @QueryParam("maxHops") Integer maxHops,
+            @Context Request request) {
+        RunsChanged.Mode mode = parseMode(modeParam);
+        if (mode == null) {
+            return Response.status(Status.BAD_REQUEST)
+                    .entity(new ApiMessageResponse("invalid mode", null))
+                    .build();
+        }
+        EntityTag tag = dataVersionService.globalTag(null);
+        ResponseBuilder notModified = request.evaluatePreconditions(tag);
+        if (notModified != null) {
+            return notModified.build();
+        }
+        int safeMaxHops = maxHops != null && maxHops > 0 ? Math.min(maxHops, MAX_PATH_HOPS) : MAX_PATH_HOPS;
+        Optional<TeammatePathResponse> path =
+                teammateGraphService.findPath(playerId, otherPlayerId, mode, safeMaxHops);
+        if (path.isEmpty()) {
+            return Response.status(Status.NOT_FOUND)
+                    .entity(new ApiMessageResponse("player not found", null))
+                    .build();
+        }
+        return Response.ok(path.get()).tag(tag).build();
+    }
+
+    /** Reads player identifiers given as repeated and/or comma separated values. */
+    private Set<Long> parsePlayerIds(List<String> rawIds) {
+        Set<Long> playerIds = new LinkedHashSet<>();
+        if (rawIds == null) {
+            return playerIds;
+        }
+        for (String raw : rawIds) {
+            if (raw == null) {
+                continue;
+            }
+            for (String token : raw.split(",")) {
+                String trimmed = token.strip();
+                if (trimmed.isEmpty()) {
+                    continue;
+                }
+                try {
+                    playerIds.add(Long.valueOf(trimmed));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("invalid player id: " + trimmed, e);
+                }
+            }
+        }
+        return playerIds;
+    }
+
+    /** Reads the leaderboard of a teammate query, score by default; {@code null} when unknown. */
+    private RunsChanged.Mode parseMode(String raw) {
+        if (raw == null || raw.isBlank()) {
+            return RunsChanged.Mode.SCORE;
+        }
+        try {
+            return RunsChanged.Mode.valueOf(raw.strip().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
     }
 
     private boolean matchesRegion(Player player, String regionFilter) {
@@ -0,0 +1,49 @@
+package com.opyruso.nwleaderboard.config;
+
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import java.util.List;
+import org.jboss.logging.Logger;
+
+/**
+ * Moves the pooled identifier sequences past the identifiers already stored in their tables. The tables were
+ * historically filled through AUTO_INCREMENT columns, so freshly created sequences would otherwise hand out
+ * identifiers that are already taken.
+ */
+@ApplicationScoped
+public class IdSequenceInitializer {
+
+    private static final Logger LOG = Logger.getLogger(IdSequenceInitializer.class);
+
+    /** Must match the {@code allocationSize} declared on the entity sequence generators. */
+    private static final int ALLOCATION_SIZE = 50;
+
+    private static final List<SequenceTarget> TARGETS = List.of(
+            new SequenceTarget("player_seq", "player", "id_player"),
+            new SequenceTarget("run_score_seq", "run_score", "id_run"),
+            new SequenceTarget("run_time_seq", "run_time", "id_run"));
+
+    @Inject
+    EntityManager entityManager;
+
+    @Transactional
+    void alignSequences(@Observes StartupEvent event) {
+        for (SequenceTarget target : TARGETS) {
+            Number maxId = (Number) entityManager
+                    .createNativeQuery("SELECT COALESCE(MAX(" + target.column() + "), 0) FROM " + target.table())
+                    .getSingleResult();
+            long floor = (maxId != null ? maxId.longValue() : 0L) + ALLOCATION_SIZE;
+            // SETVAL never moves a MariaDB sequence backwards, so this is a no-op once the sequence is ahead.
+            entityManager.createNativeQuery("SELECT SETVAL(" + target.sequence() + ", " + floor + ")")
+                    .getSingleResult();
+            LOG.debugf("Sequence %s aligned above %s.%s", target.sequence(), target.table(), target.column());
+        }
+    }
+
+    private record SequenceTarget(String sequence, String table, String column) {
+    }
+}
@@ -0,0 +1,80 @@
+package com.opyruso.nwleaderboard.config;
+
+import com.opyruso.nwleaderboard.entity.Player;
+import com.opyruso.nwleaderboard.entity.PlayerNameListener;
+import com.opyruso.nwleaderboard.repository.PlayerRepository;
+import com.opyruso.nwleaderboard.service.ContributorPlayerService;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.jboss.logging.Logger;
+
+/**
+ * Fills the normalised name of the players stored before the column existed. A player whose normalised name collides
+ * with another player is merged into it; when the two cannot be merged automatically, because they belong to different
+ * regions, it is given a flagged normalised name (see {@link PlayerNameListener#conflictName(String, Long)}) and
+ * logged so that a contributor can merge or rename it.
+ */
+@ApplicationScoped
+public class PlayerNameInitializer {
+
+    private static final Logger LOG = Logger.getLogger(PlayerNameInitializer.class);
+
+    @Inject
+    PlayerRepository playerRepository;
+
+    @Inject
+    ContributorPlayerService contributorPlayerService;
+
+    @Transactional
+    void backfillNormalisedNames(@Observes StartupEvent event) {
+        List<Player> players = playerRepository.list("normalisedName IS NULL");
+        if (players.isEmpty()) {
+            return;
+        }
+        Map<String, Long> holders = new HashMap<>();
+        for (Object[] row : playerRepository.getEntityManager()
+                .createQuery("SELECT p.normalisedName, p.id FROM Player p WHERE p.normalisedName IS NOT NULL",
+                        Object[].class)
+                .getResultList()) {
+            holders.put((String) row[0], (Long) row[1]);
+        }
+
+        // Every player is given a value first, so that no flush made by a merge can write a clashing name.
+        Map<Long, Long> clashes = new LinkedHashMap<>();
+        int updated = 0;
+        for (Player player : players) {
+            String normalised = PlayerNameListener.normalise(player.getPlayerName());
+            Long holderId = normalised != null ? holders.putIfAbsent(normalised, player.getId()) : null;
+            if (normalised != null && holderId == null) {
+                player.setNormalisedName(normalised);
+                updated++;
+                continue;
+            }
+            player.setNormalisedName(PlayerNameListener.conflictName(normalised, player.getId()));
+            if (holderId != null) {
+                clashes.put(player.getId(), holderId);
+            } else {
+                LOG.warnf("Player %s has a blank name, flagged for a contributor to rename", player.getId());
+            }
+        }
+        playerRepository.flush();
+
+        int merged = 0;
+        for (Map.Entry<Long, Long> clash : clashes.entrySet()) {
+            if (contributorPlayerService.mergeDuplicate(clash.getKey(), clash.getValue())) {
+                merged++;
+            } else {
+                LOG.warnf("Player %s clashes with the name of player %s in another region, flagged for a contributor"
+                        + " to merge or rename", clash.getKey(), clash.getValue());
+            }
+        }
+        LOG.infof("Normalised the name of %d players and merged %d duplicates", updated, merged);
+    }
+}
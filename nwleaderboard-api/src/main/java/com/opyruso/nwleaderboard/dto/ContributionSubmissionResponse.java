@@ -0,0 +1,14 @@
+package com.opyruso.nwleaderboard.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * DTO describing a contributor submission queued for asynchronous storage.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ContributionSubmissionResponse(
+        @JsonProperty("tracking_id") String trackingId,
+        @JsonProperty("status") String status,
+        @JsonProperty("message") String message) {
+}
@@ -14,6 +14,7 @@ public record PlayerProfileResponse(
         String mainPlayerName,
         List<PlayerDungeonBestResponse> dungeons,
         Integer adaptabilityIndex,
+        Integer timeAdaptabilityIndex,
         List<PlayerProfileAlternateResponse> alternatePlayers) {
 
     public PlayerProfileResponse {
@@ -39,6 +40,9 @@ public record PlayerProfileResponse(
             int clamped = Math.max(0, Math.min(100, adaptabilityIndex));
             adaptabilityIndex = clamped;
         }
+        if (timeAdaptabilityIndex != null) {
+            timeAdaptabilityIndex = Math.max(0, Math.min(100, timeAdaptabilityIndex));
+        }
         alternatePlayers =
                 alternatePlayers == null ? List.of() : List.copyOf(alternatePlayers);
     }
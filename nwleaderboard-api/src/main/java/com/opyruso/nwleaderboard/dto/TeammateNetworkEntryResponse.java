@@ -0,0 +1,13 @@
+package com.opyruso.nwleaderboard.dto;
+
+/**
+ * Player reached while exploring the teammates of a player.
+ *
+ * @param player reached player
+ * @param depth number of hops from the explored player, 1 for direct teammates
+ * @param weight runs shared with the players of the previous hop
+ * @param viaPlayerId player of the previous hop sharing the most runs with it, {@code null} for direct teammates
+ */
+public record TeammateNetworkEntryResponse(
+        LeaderboardPlayerResponse player, Integer depth, Long weight, Long viaPlayerId) {
+}
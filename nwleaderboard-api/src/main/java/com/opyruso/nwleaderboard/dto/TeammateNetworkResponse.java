@@ -0,0 +1,13 @@
+package com.opyruso.nwleaderboard.dto;
+
+import java.util.List;
+
+/**
+ * Response payload describing the teammates of a player up to a few hops away.
+ */
+public record TeammateNetworkResponse(Long playerId, String mode, List<TeammateNetworkEntryResponse> teammates) {
+
+    public TeammateNetworkResponse {
+        teammates = teammates == null ? List.of() : List.copyOf(teammates);
+    }
+}
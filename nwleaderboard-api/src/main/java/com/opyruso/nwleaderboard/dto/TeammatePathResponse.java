@@ -0,0 +1,14 @@
+package com.opyruso.nwleaderboard.dto;
+
+import java.util.List;
+
+/**
+ * Response payload describing a shortest chain of teammates linking two players.
+ */
+public record TeammatePathResponse(
+        Long fromPlayerId, Long toPlayerId, String mode, boolean connected, List<TeammatePathStepResponse> steps) {
+
+    public TeammatePathResponse {
+        steps = steps == null ? List.of() : List.copyOf(steps);
+    }
+}
@@ -0,0 +1,10 @@
+package com.opyruso.nwleaderboard.dto;
+
+/**
+ * Player of a chain of teammates.
+ *
+ * @param player player of the chain
+ * @param sharedRuns runs shared with the previous player of the chain, {@code null} for the first one
+ */
+public record TeammatePathStepResponse(LeaderboardPlayerResponse player, Integer sharedRuns) {
+}
@@ -0,0 +1,22 @@
+package com.opyruso.nwleaderboard.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.List;
+
+/**
+ * Response payload describing a run completed together by a set of players.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record TeammateRunResponse(
+        Long runId,
+        Long dungeonId,
+        Integer week,
+        String region,
+        Integer score,
+        Integer time,
+        List<LeaderboardPlayerResponse> players) {
+
+    public TeammateRunResponse {
+        players = players == null ? List.of() : List.copyOf(players);
+    }
+}
@@ -0,0 +1,53 @@
+package com.opyruso.nwleaderboard.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Processing status of a contributor submission stored asynchronously through the submission queue, shared by every
+ * instance of the API.
+ */
+@Entity
+@Table(name = "contributor_submission")
+public class ContributorSubmission extends Auditable {
+
+    public static final String QUEUED = "queued";
+    public static final String STORED = "stored";
+    public static final String FAILED = "failed";
+
+    @Id
+    @Column(name = "tracking_id", length = 36)
+    private String trackingId;
+
+    @Column(name = "status", nullable = false, length = 16)
+    private String status;
+
+    @Column(name = "message", length = 512)
+    private String message;
+
+    public String getTrackingId() {
+        return trackingId;
+    }
+
+    public void setTrackingId(String trackingId) {
+        this.trackingId = trackingId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
@@ -1,5 +1,6 @@
 package com.opyruso.nwleaderboard.entity;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
@@ -11,6 +12,7 @@ import jakarta.persistence.Table;
  * Entity representing a dungeon.
  */
 @Entity
+@Cacheable
 @Table(name = "dungeon")
 public class Dungeon extends Auditable {
 
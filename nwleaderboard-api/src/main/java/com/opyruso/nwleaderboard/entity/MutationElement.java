@@ -1,5 +1,6 @@
 package com.opyruso.nwleaderboard.entity;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
@@ -9,6 +10,7 @@ import jakarta.persistence.Table;
  * Entity representing a mutation element configuration.
  */
 @Entity
+@Cacheable
 @Table(name = "mutation_element")
 public class MutationElement extends Auditable {
 
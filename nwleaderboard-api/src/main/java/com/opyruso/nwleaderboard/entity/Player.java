@@ -2,12 +2,14 @@ package com.opyruso.nwleaderboard.entity;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 
 /**
@@ -15,16 +17,22 @@ import jakarta.persistence.Table;
  */
 @Entity
 @Table(name = "player")
+@EntityListeners(PlayerNameListener.class)
 public class Player extends Auditable {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "player_seq")
+    @SequenceGenerator(name = "player_seq", sequenceName = "player_seq", allocationSize = 50)
     @Column(name = "id_player")
     private Long id;
 
     @Column(name = "playername", nullable = false, unique = true)
     private String playerName;
 
+    /** Lowercased and trimmed copy of {@link #playerName} maintained by {@link PlayerNameListener}. */
+    @Column(name = "playername_normalised", unique = true)
+    private String normalisedName;
+
     @Column(name = "is_valid", nullable = false, columnDefinition = "BOOLEAN DEFAULT FALSE")
     private boolean valid = false;
 
@@ -52,6 +60,14 @@ public class Player extends Auditable {
         this.playerName = playerName;
     }
 
+    public String getNormalisedName() {
+        return normalisedName;
+    }
+
+    public void setNormalisedName(String normalisedName) {
+        this.normalisedName = normalisedName;
+    }
+
     public boolean isValid() {
         return valid;
     }
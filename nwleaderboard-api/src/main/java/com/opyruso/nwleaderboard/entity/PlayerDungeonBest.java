@@ -0,0 +1,66 @@
+package com.opyruso.nwleaderboard.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * Best run of a player in a dungeon for one leaderboard and season, maintained by the services writing runs so that a
+ * profile reads one row per dungeon instead of every run of the account. The season {@link #ALL_SEASONS} holds the
+ * best run across every week.
+ */
+@Entity
+@Table(name = "player_dungeon_best", indexes = {
+        @Index(name = "idx_player_dungeon_best_dungeon", columnList = "id_dungeon, mode")
+})
+public class PlayerDungeonBest {
+
+    /** Season identifier of the rows covering every week. */
+    public static final int ALL_SEASONS = 0;
+
+    @EmbeddedId
+    private PlayerDungeonBestId id;
+
+    @Column(name = "id_run", nullable = false)
+    private Long runId;
+
+    @Column(name = "best_value", nullable = false)
+    private Integer value;
+
+    @Column(name = "week")
+    private Integer week;
+
+    public PlayerDungeonBestId getId() {
+        return id;
+    }
+
+    public void setId(PlayerDungeonBestId id) {
+        this.id = id;
+    }
+
+    public Long getRunId() {
+        return runId;
+    }
+
+    public void setRunId(Long runId) {
+        this.runId = runId;
+    }
+
+    public Integer getValue() {
+        return value;
+    }
+
+    public void setValue(Integer value) {
+        this.value = value;
+    }
+
+    public Integer getWeek() {
+        return week;
+    }
+
+    public void setWeek(Integer week) {
+        this.week = week;
+    }
+}
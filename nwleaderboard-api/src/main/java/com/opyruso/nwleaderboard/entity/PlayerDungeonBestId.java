@@ -0,0 +1,88 @@
+package com.opyruso.nwleaderboard.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Composite identifier for the player_dungeon_best read model.
+ */
+@Embeddable
+public class PlayerDungeonBestId implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Column(name = "id_player")
+    private Long playerId;
+
+    @Column(name = "id_dungeon")
+    private Long dungeonId;
+
+    @Column(name = "mode", length = 8)
+    private String mode;
+
+    @Column(name = "id_season")
+    private Integer seasonId;
+
+    public PlayerDungeonBestId() {
+    }
+
+    public PlayerDungeonBestId(Long playerId, Long dungeonId, String mode, Integer seasonId) {
+        this.playerId = playerId;
+        this.dungeonId = dungeonId;
+        this.mode = mode;
+        this.seasonId = seasonId;
+    }
+
+    public Long getPlayerId() {
+        return playerId;
+    }
+
+    public void setPlayerId(Long playerId) {
+        this.playerId = playerId;
+    }
+
+    public Long getDungeonId() {
+        return dungeonId;
+    }
+
+    public void setDungeonId(Long dungeonId) {
+        this.dungeonId = dungeonId;
+    }
+
+    public String getMode() {
+        return mode;
+    }
+
+    public void setMode(String mode) {
+        this.mode = mode;
+    }
+
+    public Integer getSeasonId() {
+        return seasonId;
+    }
+
+    public void setSeasonId(Integer seasonId) {
+        this.seasonId = seasonId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PlayerDungeonBestId that)) {
+            return false;
+        }
+        return Objects.equals(playerId, that.playerId)
+                && Objects.equals(dungeonId, that.dungeonId)
+                && Objects.equals(mode, that.mode)
+                && Objects.equals(seasonId, that.seasonId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(playerId, dungeonId, mode, seasonId);
+    }
+}
@@ -0,0 +1,60 @@
+package com.opyruso.nwleaderboard.entity;
+
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import java.util.Locale;
+
+/**
+ * JPA entity listener keeping the normalised player name in sync with the displayed name.
+ */
+public class PlayerNameListener {
+
+    private static final String CONFLICT_MARKER = "#conflict-";
+
+    /**
+     * Normalises a player name the same way it is stored in the normalised column.
+     *
+     * @param rawName name to normalise
+     * @return lowercased and trimmed name, or {@code null} when blank
+     */
+    public static String normalise(String rawName) {
+        if (rawName == null) {
+            return null;
+        }
+        String trimmed = rawName.strip();
+        return trimmed.isEmpty() ? null : trimmed.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Builds the normalised name of a player clashing with another player of the same name, unique thanks to its
+     * identifier, until a contributor merges or renames it.
+     *
+     * @param normalisedName normalised name held by the other player, {@code null} for a blank name
+     * @param playerId identifier of the clashing player
+     * @return flagged normalised name
+     */
+    public static String conflictName(String normalisedName, Long playerId) {
+        return (normalisedName != null ? normalisedName : "") + CONFLICT_MARKER + playerId;
+    }
+
+    /** Indicates whether a normalised name flags a player clashing with another one. */
+    public static boolean isConflictName(String normalisedName) {
+        return normalisedName != null && normalisedName.contains(CONFLICT_MARKER);
+    }
+
+    @PrePersist
+    public void initialiseNormalisedName(Player player) {
+        player.setNormalisedName(normalise(player.getPlayerName()));
+    }
+
+    @PreUpdate
+    public void updateNormalisedName(Player player) {
+        String normalised = normalise(player.getPlayerName());
+        String current = player.getNormalisedName();
+        // A flagged player keeps its flag until renamed: its plain normalised name belongs to another player.
+        if (isConflictName(current) && current.startsWith((normalised != null ? normalised : "") + CONFLICT_MARKER)) {
+            return;
+        }
+        player.setNormalisedName(normalised);
+    }
+}
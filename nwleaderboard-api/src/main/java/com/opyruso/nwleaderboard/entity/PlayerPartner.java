@@ -0,0 +1,40 @@
+package com.opyruso.nwleaderboard.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * Number of runs two players completed together on one leaderboard, maintained by the services writing runs. Every
+ * pair is stored in both directions so that the partners of a player are read from its own rows.
+ */
+@Entity
+@Table(name = "player_partner", indexes = {
+        @Index(name = "idx_player_partner_partner", columnList = "id_partner, mode")
+})
+public class PlayerPartner {
+
+    @EmbeddedId
+    private PlayerPartnerId id;
+
+    @Column(name = "run_count", nullable = false)
+    private Integer runCount;
+
+    public PlayerPartnerId getId() {
+        return id;
+    }
+
+    public void setId(PlayerPartnerId id) {
+        this.id = id;
+    }
+
+    public Integer getRunCount() {
+        return runCount;
+    }
+
+    public void setRunCount(Integer runCount) {
+        this.runCount = runCount;
+    }
+}
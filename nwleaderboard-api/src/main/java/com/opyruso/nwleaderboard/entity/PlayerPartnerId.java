@@ -0,0 +1,75 @@
+package com.opyruso.nwleaderboard.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Composite identifier for the player_partner read model.
+ */
+@Embeddable
+public class PlayerPartnerId implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Column(name = "id_player")
+    private Long playerId;
+
+    @Column(name = "id_partner")
+    private Long partnerId;
+
+    @Column(name = "mode", length = 8)
+    private String mode;
+
+    public PlayerPartnerId() {
+    }
+
+    public PlayerPartnerId(Long playerId, Long partnerId, String mode) {
+        this.playerId = playerId;
+        this.partnerId = partnerId;
+        this.mode = mode;
+    }
+
+    public Long getPlayerId() {
+        return playerId;
+    }
+
+    public void setPlayerId(Long playerId) {
+        this.playerId = playerId;
+    }
+
+    public Long getPartnerId() {
+        return partnerId;
+    }
+
+    public void setPartnerId(Long partnerId) {
+        this.partnerId = partnerId;
+    }
+
+    public String getMode() {
+        return mode;
+    }
+
+    public void setMode(String mode) {
+        this.mode = mode;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PlayerPartnerId that)) {
+            return false;
+        }
+        return Objects.equals(playerId, that.playerId)
+                && Objects.equals(partnerId, that.partnerId)
+                && Objects.equals(mode, that.mode);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(playerId, partnerId, mode);
+    }
+}
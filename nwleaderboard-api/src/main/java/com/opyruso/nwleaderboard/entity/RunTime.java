@@ -8,17 +8,25 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 
 /**
  * Entity representing the completion time for a dungeon run.
  */
 @Entity
-@Table(name = "run_time")
+@Table(
+        name = "run_time",
+        uniqueConstraints = @UniqueConstraint(name = RunTime.FINGERPRINT_CONSTRAINT, columnNames = "fingerprint"))
 public class RunTime extends Auditable {
 
+    /** Name of the unique index on {@link #fingerprint}, reported when a duplicate run is flushed. */
+    public static final String FINGERPRINT_CONSTRAINT = "uk_run_time_fingerprint";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "run_time_seq")
+    @SequenceGenerator(name = "run_time_seq", sequenceName = "run_time_seq", allocationSize = 50)
     @Column(name = "id_run")
     private Long id;
 
@@ -36,6 +44,10 @@ public class RunTime extends Auditable {
     @Column(name = "time_in_second", nullable = false)
     private Integer timeInSecond;
 
+    /** Hash of the run identity used to reject duplicate submissions, see {@code RunFingerprintService}. */
+    @Column(name = "fingerprint", length = 64)
+    private String fingerprint;
+
     public Long getId() {
         return id;
     }
@@ -75,4 +87,12 @@ public class RunTime extends Auditable {
     public void setTimeInSecond(Integer timeInSecond) {
         this.timeInSecond = timeInSecond;
     }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public void setFingerprint(String fingerprint) {
+        this.fingerprint = fingerprint;
+    }
 }
@@ -1,5 +1,6 @@
 package com.opyruso.nwleaderboard.entity;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
@@ -10,6 +11,7 @@ import java.time.LocalDate;
  * Entity representing a gameplay season.
  */
 @Entity
+@Cacheable
 @Table(name = "season")
 public class Season extends Auditable {
 
@@ -1,5 +1,6 @@
 package com.opyruso.nwleaderboard.entity;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.EmbeddedId;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
@@ -12,6 +13,7 @@ import jakarta.persistence.Table;
  * Entity linking dungeon mutations configured for a specific week.
  */
 @Entity
+@Cacheable
 @Table(name = "week_mutation_dungeon")
 public class WeekMutationDungeon extends Auditable {
 
@@ -0,0 +1,10 @@
+package com.opyruso.nwleaderboard.event;
+
+/**
+ * Marker for the events announcing committed changes to leaderboard data. Events are fired through
+ * {@link com.opyruso.nwleaderboard.service.DataChangeEventBus} once the surrounding transaction has committed, so
+ * observers always see the new state when they reload it.
+ */
+public sealed interface DataChangeEvent permits RunsChanged, PlayerCreated, PlayerChanged, PlayerMerged,
+        PlayerPartnersChanged, PlayerRunsChanged, WeekCalendarChanged, DungeonsChanged {
+}
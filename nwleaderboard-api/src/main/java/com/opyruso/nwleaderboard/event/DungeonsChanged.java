@@ -0,0 +1,7 @@
+package com.opyruso.nwleaderboard.event;
+
+/**
+ * Dungeon metadata such as the highlighted selection changed.
+ */
+public record DungeonsChanged() implements DataChangeEvent {
+}
@@ -0,0 +1,9 @@
+package com.opyruso.nwleaderboard.event;
+
+/**
+ * The name, validity or main character of a player changed.
+ *
+ * @param playerId identifier of the player
+ */
+public record PlayerChanged(Long playerId) implements DataChangeEvent {
+}
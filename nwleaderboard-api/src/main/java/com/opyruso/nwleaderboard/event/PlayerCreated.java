@@ -0,0 +1,9 @@
+package com.opyruso.nwleaderboard.event;
+
+/**
+ * A player was created, for instance by a run submission naming an unknown character.
+ *
+ * @param playerId identifier of the new player
+ */
+public record PlayerCreated(Long playerId) implements DataChangeEvent {
+}
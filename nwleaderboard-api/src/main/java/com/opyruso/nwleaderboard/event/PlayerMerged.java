@@ -0,0 +1,10 @@
+package com.opyruso.nwleaderboard.event;
+
+/**
+ * A player was merged into another one: its runs now belong to the target and the source no longer exists.
+ *
+ * @param fromPlayerId identifier of the removed player
+ * @param toPlayerId identifier of the player that received the runs
+ */
+public record PlayerMerged(Long fromPlayerId, Long toPlayerId) implements DataChangeEvent {
+}
@@ -0,0 +1,16 @@
+package com.opyruso.nwleaderboard.event;
+
+import java.util.Set;
+
+/**
+ * The shared run counts of some players were recounted in the {@code player_partner} read model.
+ *
+ * @param playerIds players whose pairs were recounted
+ * @param mode leaderboard of the recounted pairs, {@code null} for both
+ */
+public record PlayerPartnersChanged(Set<Long> playerIds, RunsChanged.Mode mode) implements DataChangeEvent {
+
+    public PlayerPartnersChanged {
+        playerIds = playerIds == null ? Set.of() : Set.copyOf(playerIds);
+    }
+}
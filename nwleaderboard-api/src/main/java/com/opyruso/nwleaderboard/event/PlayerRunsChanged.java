@@ -0,0 +1,16 @@
+package com.opyruso.nwleaderboard.event;
+
+import java.util.Set;
+
+/**
+ * Runs of some players were created, edited, deleted or moved by a merge.
+ *
+ * @param playerIds players whose runs changed, before and after the change
+ * @param mode leaderboard of the changed runs, {@code null} for both
+ */
+public record PlayerRunsChanged(Set<Long> playerIds, RunsChanged.Mode mode) implements DataChangeEvent {
+
+    public PlayerRunsChanged {
+        playerIds = playerIds == null ? Set.of() : Set.copyOf(playerIds);
+    }
+}
@@ -0,0 +1,23 @@
+package com.opyruso.nwleaderboard.event;
+
+import java.util.Set;
+
+/**
+ * Runs of a dungeon were created, edited or deleted.
+ *
+ * @param dungeonId identifier of the dungeon
+ * @param mode leaderboard the runs belong to
+ * @param weeks weeks holding the changed runs
+ */
+public record RunsChanged(Long dungeonId, Mode mode, Set<Integer> weeks) implements DataChangeEvent {
+
+    public RunsChanged {
+        weeks = weeks == null ? Set.of() : Set.copyOf(weeks);
+    }
+
+    /** Leaderboard a run belongs to. */
+    public enum Mode {
+        SCORE,
+        TIME
+    }
+}
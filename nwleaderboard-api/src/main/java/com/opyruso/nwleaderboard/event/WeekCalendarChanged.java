@@ -0,0 +1,7 @@
+package com.opyruso.nwleaderboard.event;
+
+/**
+ * Weekly mutations or seasons changed, so any week-to-mutation or week-to-season mapping must be reloaded.
+ */
+public record WeekCalendarChanged() implements DataChangeEvent {
+}
@@ -0,0 +1,12 @@
+package com.opyruso.nwleaderboard.repository;
+
+import com.opyruso.nwleaderboard.entity.ContributorSubmission;
+import io.quarkus.hibernate.orm.panache.PanacheRepositoryBase;
+import jakarta.enterprise.context.ApplicationScoped;
+
+/**
+ * Repository handling persistence for {@link ContributorSubmission} entities.
+ */
+@ApplicationScoped
+public class ContributorSubmissionRepository implements PanacheRepositoryBase<ContributorSubmission, String> {
+}
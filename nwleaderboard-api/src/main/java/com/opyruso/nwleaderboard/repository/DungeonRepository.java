@@ -3,7 +3,9 @@ package com.opyruso.nwleaderboard.repository;
 import com.opyruso.nwleaderboard.entity.Dungeon;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
 import jakarta.enterprise.context.ApplicationScoped;
+import java.util.Collection;
 import java.util.List;
+import org.hibernate.jpa.HibernateHints;
 
 /**
  * Repository exposing read operations for {@link Dungeon} entities.
@@ -11,7 +13,19 @@ import java.util.List;
 @ApplicationScoped
 public class DungeonRepository implements PanacheRepository<Dungeon> {
 
+    /** Lists every dungeon through the query cache. */
+    public List<Dungeon> listAllCached() {
+        return findAll().withHint(HibernateHints.HINT_CACHEABLE, true).list();
+    }
+
     public List<Dungeon> listHighlighted() {
-        return list("highlighted", true);
+        return find("highlighted", true).withHint(HibernateHints.HINT_CACHEABLE, true).list();
+    }
+
+    public List<Dungeon> listByIds(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return List.of();
+        }
+        return list("id IN ?1", ids);
     }
 }
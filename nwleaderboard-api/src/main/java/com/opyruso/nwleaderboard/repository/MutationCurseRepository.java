@@ -4,6 +4,7 @@ import com.opyruso.nwleaderboard.entity.MutationCurse;
 import io.quarkus.hibernate.orm.panache.PanacheRepositoryBase;
 import jakarta.enterprise.context.ApplicationScoped;
 import java.util.List;
+import org.hibernate.jpa.HibernateHints;
 
 /**
  * Repository exposing read operations for {@link MutationCurse} records.
@@ -12,6 +13,6 @@ import java.util.List;
 public class MutationCurseRepository implements PanacheRepositoryBase<MutationCurse, String> {
 
     public List<MutationCurse> listEnabled() {
-        return list("enable", true);
+        return find("enable", true).withHint(HibernateHints.HINT_CACHEABLE, true).list();
     }
 }
@@ -4,6 +4,7 @@ import com.opyruso.nwleaderboard.entity.MutationPromotion;
 import io.quarkus.hibernate.orm.panache.PanacheRepositoryBase;
 import jakarta.enterprise.context.ApplicationScoped;
 import java.util.List;
+import org.hibernate.jpa.HibernateHints;
 
 /**
  * Repository exposing read operations for {@link MutationPromotion} records.
@@ -12,6 +13,6 @@ import java.util.List;
 public class MutationPromotionRepository implements PanacheRepositoryBase<MutationPromotion, String> {
 
     public List<MutationPromotion> listEnabled() {
-        return list("enable", true);
+        return find("enable", true).withHint(HibernateHints.HINT_CACHEABLE, true).list();
     }
 }
@@ -0,0 +1,66 @@
+package com.opyruso.nwleaderboard.repository;
+
+import com.opyruso.nwleaderboard.entity.PlayerDungeonBest;
+import com.opyruso.nwleaderboard.entity.PlayerDungeonBestId;
+import io.quarkus.hibernate.orm.panache.PanacheRepositoryBase;
+import io.quarkus.panache.common.Parameters;
+import jakarta.enterprise.context.ApplicationScoped;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository exposing CRUD operations for {@link PlayerDungeonBest} entities.
+ */
+@ApplicationScoped
+public class PlayerDungeonBestRepository implements PanacheRepositoryBase<PlayerDungeonBest, PlayerDungeonBestId> {
+
+    /**
+     * Lists the best runs of the provided players for a leaderboard and season.
+     *
+     * @param playerIds identifiers of the players
+     * @param mode leaderboard name
+     * @param seasonId season identifier or {@link PlayerDungeonBest#ALL_SEASONS}
+     * @return best runs, at most one per player and dungeon
+     */
+    public List<PlayerDungeonBest> listByPlayers(Collection<Long> playerIds, String mode, int seasonId) {
+        if (playerIds == null || playerIds.isEmpty() || mode == null) {
+            return List.of();
+        }
+        return list("id.playerId IN :playerIds AND id.mode = :mode AND id.seasonId = :seasonId",
+                Parameters.with("playerIds", playerIds).and("mode", mode).and("seasonId", seasonId));
+    }
+
+    /**
+     * Deletes the best runs of the provided players.
+     *
+     * @param playerIds identifiers of the players
+     * @param dungeonId dungeon to restrict the deletion to, {@code null} for every dungeon
+     * @param mode leaderboard to restrict the deletion to, {@code null} for every leaderboard
+     * @return number of deleted rows
+     */
+    public long deleteByPlayers(Collection<Long> playerIds, Long dungeonId, String mode) {
+        if (playerIds == null || playerIds.isEmpty()) {
+            return 0L;
+        }
+        StringBuilder query = new StringBuilder("id.playerId IN :playerIds");
+        Parameters parameters = Parameters.with("playerIds", playerIds);
+        if (dungeonId != null) {
+            query.append(" AND id.dungeonId = :dungeonId");
+            parameters = parameters.and("dungeonId", dungeonId);
+        }
+        if (mode != null) {
+            query.append(" AND id.mode = :mode");
+            parameters = parameters.and("mode", mode);
+        }
+        return delete(query.toString(), parameters);
+    }
+
+    /** Deletes the best runs of every player of a dungeon for a leaderboard. */
+    public long deleteByDungeon(Long dungeonId, String mode) {
+        if (dungeonId == null || mode == null) {
+            return 0L;
+        }
+        return delete("id.dungeonId = :dungeonId AND id.mode = :mode",
+                Parameters.with("dungeonId", dungeonId).and("mode", mode));
+    }
+}
@@ -0,0 +1,102 @@
+package com.opyruso.nwleaderboard.repository;
+
+import com.opyruso.nwleaderboard.entity.PlayerPartner;
+import com.opyruso.nwleaderboard.entity.PlayerPartnerId;
+import io.quarkus.hibernate.orm.panache.PanacheRepositoryBase;
+import io.quarkus.panache.common.Parameters;
+import jakarta.enterprise.context.ApplicationScoped;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Repository exposing CRUD operations for {@link PlayerPartner} entities.
+ */
+@ApplicationScoped
+public class PlayerPartnerRepository implements PanacheRepositoryBase<PlayerPartner, PlayerPartnerId> {
+
+    /**
+     * Summarises the partners of the provided players on a leaderboard.
+     *
+     * @param playerIds identifiers of the players
+     * @param mode leaderboard name
+     * @return mapping between player identifier and {@code partner slots, distinct partners}, the slots being the runs
+     *         shared with each partner summed; players without partner are left out
+     */
+    public Map<Long, long[]> summariseByPlayers(Collection<Long> playerIds, String mode) {
+        if (playerIds == null || playerIds.isEmpty() || mode == null) {
+            return Map.of();
+        }
+        List<Object[]> rows = getEntityManager()
+                .createQuery(
+                        "SELECT pp.id.playerId, SUM(pp.runCount), COUNT(pp) FROM PlayerPartner pp "
+                                + "WHERE pp.id.playerId IN :playerIds AND pp.id.mode = :mode "
+                                + "GROUP BY pp.id.playerId",
+                        Object[].class)
+                .setParameter("playerIds", playerIds)
+                .setParameter("mode", mode)
+                .getResultList();
+        Map<Long, long[]> summaries = new HashMap<>();
+        for (Object[] row : rows) {
+            if (row != null && row.length >= 3 && row[0] instanceof Number playerId
+                    && row[1] instanceof Number slots && row[2] instanceof Number partners) {
+                summaries.put(playerId.longValue(), new long[] {slots.longValue(), partners.longValue()});
+            }
+        }
+        return summaries;
+    }
+
+    /**
+     * Lists the partners of players on a leaderboard.
+     *
+     * @param playerIds identifiers of the players, {@code null} for every player
+     * @param mode leaderboard name
+     * @return {@code player id, partner id, shared run count} rows
+     */
+    public List<Object[]> listEdgeColumns(Collection<Long> playerIds, String mode) {
+        if ((playerIds != null && playerIds.isEmpty()) || mode == null) {
+            return List.of();
+        }
+        String filter = playerIds != null ? "AND pp.id.playerId IN :playerIds " : "";
+        var query = getEntityManager()
+                .createQuery(
+                        "SELECT pp.id.playerId, pp.id.partnerId, pp.runCount FROM PlayerPartner pp "
+                                + "WHERE pp.id.mode = :mode " + filter,
+                        Object[].class)
+                .setParameter("mode", mode);
+        if (playerIds != null) {
+            query.setParameter("playerIds", playerIds);
+        }
+        return query.getResultList();
+    }
+
+    /**
+     * Deletes the pairs linking two of the provided players, in both directions.
+     *
+     * @param playerIds identifiers of the players
+     * @param mode leaderboard name
+     * @return number of deleted rows
+     */
+    public long deletePairs(Collection<Long> playerIds, String mode) {
+        if (playerIds == null || playerIds.isEmpty() || mode == null) {
+            return 0L;
+        }
+        return delete("id.playerId IN :playerIds AND id.partnerId IN :playerIds AND id.mode = :mode",
+                Parameters.with("playerIds", playerIds).and("mode", mode));
+    }
+
+    /**
+     * Deletes every pair involving one of the provided players, in both directions and on every leaderboard.
+     *
+     * @param playerIds identifiers of the players
+     * @return number of deleted rows
+     */
+    public long deleteByPlayers(Collection<Long> playerIds) {
+        if (playerIds == null || playerIds.isEmpty()) {
+            return 0L;
+        }
+        return delete("id.playerId IN :playerIds OR id.partnerId IN :playerIds",
+                Parameters.with("playerIds", playerIds));
+    }
+}
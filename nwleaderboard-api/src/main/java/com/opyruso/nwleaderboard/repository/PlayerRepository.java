@@ -1,13 +1,16 @@
 package com.opyruso.nwleaderboard.repository;
 
 import com.opyruso.nwleaderboard.entity.Player;
+import com.opyruso.nwleaderboard.entity.PlayerNameListener;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
 import jakarta.enterprise.context.ApplicationScoped;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Repository exposing player lookup helpers.
@@ -22,15 +25,34 @@ public class PlayerRepository implements PanacheRepository<Player> {
      * @return the matching player if present
      */
     public Optional<Player> findByPlayerNameIgnoreCase(String rawName) {
-        if (rawName == null) {
+        String normalised = PlayerNameListener.normalise(rawName);
+        if (normalised == null) {
             return Optional.empty();
         }
-        String trimmed = rawName.strip();
-        if (trimmed.isEmpty()) {
-            return Optional.empty();
+        return find("normalisedName", normalised).firstResultOptional();
+    }
+
+    /**
+     * Loads the players whose name matches any of the provided names ignoring case and surrounding whitespace.
+     *
+     * @param rawNames player names provided by the client
+     * @return matching players
+     */
+    public List<Player> listByPlayerNamesIgnoreCase(Collection<String> rawNames) {
+        if (rawNames == null || rawNames.isEmpty()) {
+            return List.of();
         }
-        String normalised = trimmed.toLowerCase(Locale.ROOT);
-        return find("LOWER(playerName) = ?1", normalised).firstResultOptional();
+        Set<String> normalised = new HashSet<>();
+        for (String rawName : rawNames) {
+            String name = PlayerNameListener.normalise(rawName);
+            if (name != null) {
+                normalised.add(name);
+            }
+        }
+        if (normalised.isEmpty()) {
+            return List.of();
+        }
+        return list("normalisedName IN ?1", normalised);
     }
 
     /**
@@ -61,25 +83,55 @@ public class PlayerRepository implements PanacheRepository<Player> {
         if (regionId != null) {
             return new ArrayList<>(
                     find(
-                                    "LOWER(playerName) LIKE ?1 ESCAPE '\\' AND region.id = ?2 ORDER BY LOWER(playerName) ASC",
+                                    "normalisedName LIKE ?1 ESCAPE '\\' AND region.id = ?2 ORDER BY normalisedName ASC",
                                     pattern,
                                     regionId)
                             .range(0, safeLimit - 1)
                             .list());
         }
 
-        return new ArrayList<>(find("LOWER(playerName) LIKE ?1 ESCAPE '\\' ORDER BY LOWER(playerName) ASC", pattern)
+        return new ArrayList<>(find("normalisedName LIKE ?1 ESCAPE '\\' ORDER BY normalisedName ASC", pattern)
                 .range(0, safeLimit - 1)
                 .list());
     }
 
+    /**
+     * Lists every player whose name contains the provided fragment, ignoring case. The player name is matched as well
+     * as the normalised name, so that players whose normalised name is not filled yet are found too, as the contributor
+     * run search filters runs on the player name.
+     *
+     * @param rawFragment fragment supplied by the client
+     * @return identifiers of the matching players
+     */
+    public List<Long> listIdsByNameContaining(String rawFragment) {
+        String normalised = PlayerNameListener.normalise(rawFragment);
+        if (normalised == null) {
+            return List.of();
+        }
+        return getEntityManager()
+                .createQuery(
+                        "SELECT p.id FROM Player p WHERE p.normalisedName LIKE :normalised ESCAPE '\\' "
+                                + "OR LOWER(p.playerName) LIKE :name ESCAPE '\\'",
+                        Long.class)
+                .setParameter("normalised", "%" + escapeLike(normalised) + "%")
+                .setParameter("name", "%" + escapeLike(rawFragment.trim().toLowerCase(Locale.ROOT)) + "%")
+                .getResultList();
+    }
+
+    private static String escapeLike(String value) {
+        return value
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+
     /**
      * Lists all players ordered alphabetically by name.
      *
      * @return ordered list of players
      */
     public List<Player> listAllOrderedByName() {
-        return list("ORDER BY LOWER(playerName) ASC");
+        return list("ORDER BY normalisedName ASC");
     }
 
     /**
@@ -105,6 +157,19 @@ public class PlayerRepository implements PanacheRepository<Player> {
         return list("mainCharacter.id", mainPlayerId);
     }
 
+    /**
+     * Lists all players referencing one of the provided main players.
+     *
+     * @param mainPlayerIds identifiers of the main players
+     * @return list of alternate characters
+     */
+    public List<Player> listByMainCharacterIds(Collection<Long> mainPlayerIds) {
+        if (mainPlayerIds == null || mainPlayerIds.isEmpty()) {
+            return List.of();
+        }
+        return list("mainCharacter.id IN ?1", mainPlayerIds);
+    }
+
     /**
      * Counts the number of alternate characters referencing the provided main player.
      *
@@ -131,6 +196,49 @@ public class PlayerRepository implements PanacheRepository<Player> {
         return list("id IN ?1", ids);
     }
 
+    /**
+     * Loads players matching the provided identifiers together with their main character.
+     *
+     * @param ids identifiers to load
+     * @return list of matching players
+     */
+    public List<Player> listByIdsWithMain(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return List.of();
+        }
+        return find("SELECT p FROM Player p LEFT JOIN FETCH p.mainCharacter WHERE p.id IN ?1", ids).list();
+    }
+
+    /**
+     * Lists the identity of every player without loading the entities.
+     *
+     * @return rows of {@code id, main character id, player name, region id}
+     */
+    public List<Object[]> listIdentityColumns() {
+        return getEntityManager()
+                .createQuery(
+                        "SELECT p.id, p.mainCharacter.id, p.playerName, p.region.id FROM Player p", Object[].class)
+                .getResultList();
+    }
+
+    /**
+     * Lists the identity of the provided players without loading the entities.
+     *
+     * @param ids identifiers of the players
+     * @return rows of {@code id, main character id, player name, region id}
+     */
+    public List<Object[]> listIdentityColumnsByIds(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return List.of();
+        }
+        return getEntityManager()
+                .createQuery(
+                        "SELECT p.id, p.mainCharacter.id, p.playerName, p.region.id FROM Player p WHERE p.id IN :ids",
+                        Object[].class)
+                .setParameter("ids", ids)
+                .getResultList();
+    }
+
     private String normaliseRegionId(String rawRegionId) {
         if (rawRegionId == null) {
             return null;
@@ -3,7 +3,9 @@ package com.opyruso.nwleaderboard.repository;
 import com.opyruso.nwleaderboard.entity.RunTimePlayer;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
 import jakarta.enterprise.context.ApplicationScoped;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -29,7 +31,7 @@ public class RunTimePlayerRepository implements PanacheRepository<RunTimePlayer>
                         "SELECT rtp FROM RunTimePlayer rtp "
                                 + "JOIN FETCH rtp.player "
                                 + "WHERE rtp.runTime.id IN ?1 "
-                                + "ORDER BY rtp.runTime.id ASC, LOWER(rtp.player.playerName) ASC",
+                                + "ORDER BY rtp.runTime.id ASC, rtp.player.normalisedName ASC",
                         runIds)
                 .list();
     }
@@ -122,4 +124,201 @@ public class RunTimePlayerRepository implements PanacheRepository<RunTimePlayer>
         }
         return counts;
     }
+
+    /**
+     * Counts the time runs of every player.
+     *
+     * @return mapping between player identifier and associated run count, players without runs are omitted
+     */
+    public Map<Long, Long> countPerPlayer() {
+        List<Object[]> rows = getEntityManager()
+                .createQuery("SELECT rtp.player.id, COUNT(rtp) FROM RunTimePlayer rtp GROUP BY rtp.player.id",
+                        Object[].class)
+                .getResultList();
+        Map<Long, Long> counts = new HashMap<>();
+        for (Object[] row : rows) {
+            if (row != null && row.length >= 2 && row[0] instanceof Number playerId
+                    && row[1] instanceof Number count) {
+                counts.put(playerId.longValue(), count.longValue());
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Lists the player identifiers of each provided run.
+     *
+     * @param runIds identifiers of the runs
+     * @return mapping between run identifier and the identifiers of its players
+     */
+    public Map<Long, Set<Long>> listPlayerIdsByRunIds(Collection<Long> runIds) {
+        if (runIds == null || runIds.isEmpty()) {
+            return Map.of();
+        }
+        List<Object[]> rows = getEntityManager()
+                .createQuery(
+                        "SELECT rtp.runTime.id, rtp.player.id FROM RunTimePlayer rtp WHERE rtp.runTime.id IN :runIds",
+                        Object[].class)
+                .setParameter("runIds", runIds)
+                .getResultList();
+        Map<Long, Set<Long>> playerIds = new HashMap<>();
+        for (Object[] row : rows) {
+            if (row == null || row.length < 2) {
+                continue;
+            }
+            if (row[0] instanceof Number runId && row[1] instanceof Number playerId) {
+                playerIds.computeIfAbsent(runId.longValue(), key -> new HashSet<>()).add(playerId.longValue());
+            }
+        }
+        return playerIds;
+    }
+
+    /**
+     * Lists the player identifiers of every run of a dungeon.
+     *
+     * @param dungeonId identifier of the dungeon
+     * @return mapping between run identifier and the identifiers of its players
+     */
+    public Map<Long, Set<Long>> listPlayerIdsByDungeon(Long dungeonId) {
+        if (dungeonId == null) {
+            return Map.of();
+        }
+        List<Object[]> rows = getEntityManager()
+                .createQuery(
+                        "SELECT rtp.runTime.id, rtp.player.id FROM RunTimePlayer rtp "
+                                + "WHERE rtp.runTime.dungeon.id = :dungeonId",
+                        Object[].class)
+                .setParameter("dungeonId", dungeonId)
+                .getResultList();
+        Map<Long, Set<Long>> playerIds = new HashMap<>();
+        for (Object[] row : rows) {
+            if (row == null || row.length < 2) {
+                continue;
+            }
+            if (row[0] instanceof Number runId && row[1] instanceof Number playerId) {
+                playerIds.computeIfAbsent(runId.longValue(), key -> new HashSet<>()).add(playerId.longValue());
+            }
+        }
+        return playerIds;
+    }
+
+    /**
+     * Summarises the player links of the indexed runs of every dungeon.
+     *
+     * @return rows of {@code dungeon id, link count, player id sum}
+     */
+    public List<Object[]> listIndexFingerprintColumns() {
+        return getEntityManager()
+                .createQuery(
+                        "SELECT rtp.runTime.dungeon.id, COUNT(rtp), SUM(rtp.player.id) FROM RunTimePlayer rtp "
+                                + "WHERE rtp.runTime.timeInSecond IS NOT NULL AND rtp.runTime.week IS NOT NULL "
+                                + "GROUP BY rtp.runTime.dungeon.id",
+                        Object[].class)
+                .getResultList();
+    }
+
+    /**
+     * Lists, for every player link, the columns needed to maintain the best run of the player in each dungeon.
+     *
+     * @param playerIds players to restrict the rows to, {@code null} for every player
+     * @param dungeonId dungeon to restrict the rows to, {@code null} for every dungeon
+     * @return rows of {@code player id, run id, dungeon id, value, week}
+     */
+    public List<Object[]> listBestCandidateColumns(Collection<Long> playerIds, Long dungeonId) {
+        if (playerIds != null && playerIds.isEmpty()) {
+            return List.of();
+        }
+        StringBuilder jpql = new StringBuilder(
+                "SELECT rtp.player.id, run.id, run.dungeon.id, run.timeInSecond, run.week FROM RunTimePlayer rtp "
+                        + "JOIN rtp.runTime run WHERE run.timeInSecond IS NOT NULL AND run.dungeon IS NOT NULL");
+        if (playerIds != null) {
+            jpql.append(" AND rtp.player.id IN :playerIds");
+        }
+        if (dungeonId != null) {
+            jpql.append(" AND run.dungeon.id = :dungeonId");
+        }
+        var query = getEntityManager().createQuery(jpql.toString(), Object[].class);
+        if (playerIds != null) {
+            query.setParameter("playerIds", playerIds);
+        }
+        if (dungeonId != null) {
+            query.setParameter("dungeonId", dungeonId);
+        }
+        return query.getResultList();
+    }
+
+    /**
+     * Counts the runs every provided player shared with each of its partners.
+     *
+     * @param playerIds identifiers of the players
+     * @param partnersInSet {@code true} to only count the partners that are part of {@code playerIds}
+     * @return rows of {@code player id, partner id, shared run count}
+     */
+    public List<Object[]> listPartnerCountColumns(Collection<Long> playerIds, boolean partnersInSet) {
+        if (playerIds == null || playerIds.isEmpty()) {
+            return List.of();
+        }
+        return getEntityManager()
+                .createQuery(
+                        "SELECT own.player.id, other.player.id, COUNT(other) FROM RunTimePlayer own "
+                                + "JOIN RunTimePlayer other ON other.runTime = own.runTime "
+                                + "WHERE own.player.id IN :playerIds AND other.player.id <> own.player.id"
+                                + (partnersInSet ? " AND other.player.id IN :playerIds" : "")
+                                + " GROUP BY own.player.id, other.player.id",
+                        Object[].class)
+                .setParameter("playerIds", playerIds)
+                .getResultList();
+    }
+
+    /**
+     * Counts, for every pair of players, the runs they completed together among the runs of the provided players.
+     *
+     * @param playerIds identifiers of the players whose runs are read
+     * @param weeks weeks to restrict the runs to, {@code null} for every week
+     * @return rows of {@code player id, player name, teammate id, teammate name, shared run count}, one per pair with
+     *         the lower identifier first; every player is also paired with itself, counting its own runs
+     */
+    public List<Object[]> listSharedRunCountColumns(Collection<Long> playerIds, Collection<Integer> weeks) {
+        if (playerIds == null || playerIds.isEmpty() || (weeks != null && weeks.isEmpty())) {
+            return List.of();
+        }
+        var query = getEntityManager()
+                .createQuery(
+                        "SELECT mate.player.id, mate.player.playerName, peer.player.id, peer.player.playerName, "
+                                + "COUNT(DISTINCT own.runTime.id) FROM RunTimePlayer own "
+                                + "JOIN RunTimePlayer mate ON mate.runTime = own.runTime "
+                                + "JOIN RunTimePlayer peer ON peer.runTime = own.runTime "
+                                + "WHERE own.player.id IN :playerIds AND mate.player.id <= peer.player.id"
+                                + (weeks != null ? " AND own.runTime.week IN :weeks" : "")
+                                + " GROUP BY mate.player.id, mate.player.playerName, peer.player.id, "
+                                + "peer.player.playerName",
+                        Object[].class)
+                .setParameter("playerIds", playerIds);
+        if (weeks != null) {
+            query.setParameter("weeks", weeks);
+        }
+        return query.getResultList();
+    }
+
+    /**
+     * Lists which time runs the provided players took part in.
+     *
+     * @param playerIds identifiers of the players, {@code null} for every player
+     * @return rows of {@code player id, run id} ordered by player then run
+     */
+    public List<Object[]> listPlayerRunIdColumns(Collection<Long> playerIds) {
+        if (playerIds != null && playerIds.isEmpty()) {
+            return List.of();
+        }
+        var query = getEntityManager()
+                .createQuery(
+                        "SELECT rtp.player.id, rtp.runTime.id FROM RunTimePlayer rtp"
+                                + (playerIds != null ? " WHERE rtp.player.id IN :playerIds" : "")
+                                + " ORDER BY rtp.player.id, rtp.runTime.id",
+                        Object[].class);
+        if (playerIds != null) {
+            query.setParameter("playerIds", playerIds);
+        }
+        return query.getResultList();
+    }
 }
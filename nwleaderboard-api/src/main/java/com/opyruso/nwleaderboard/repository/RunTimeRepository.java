@@ -7,10 +7,13 @@ import io.quarkus.panache.common.Page;
 import io.quarkus.panache.common.Parameters;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.persistence.NoResultException;
+import jakarta.persistence.TypedQuery;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Repository for {@link RunTime} entities extracted from contributor uploads.
@@ -62,6 +65,38 @@ public class RunTimeRepository implements PanacheRepository<RunTime> {
                 .list();
     }
 
+    /**
+     * Returns the identifiers of the provided time runs matching the optional filters, highest identifier first.
+     *
+     * @param runIds identifiers of the runs to choose from
+     * @param limit maximum number of identifiers to return
+     * @return identifiers of the matching runs
+     */
+    public List<Long> listIdsAmong(Integer week, Integer timeInSeconds, Region region, Collection<Long> runIds, int limit) {
+        if (runIds == null || runIds.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        StringBuilder query = new StringBuilder("SELECT run.id FROM RunTime run WHERE run.id IN :runIds");
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("runIds", runIds);
+        if (week != null) {
+            query.append(" AND run.week = :week");
+            parameters.put("week", week);
+        }
+        if (timeInSeconds != null) {
+            query.append(" AND run.timeInSecond = :time");
+            parameters.put("time", timeInSeconds);
+        }
+        if (region != null && region.getId() != null && !region.getId().isBlank()) {
+            query.append(" AND run.region.id = :region");
+            parameters.put("region", region.getId());
+        }
+        query.append(" ORDER BY run.id DESC");
+        TypedQuery<Long> typed = getEntityManager().createQuery(query.toString(), Long.class);
+        parameters.forEach(typed::setParameter);
+        return typed.setMaxResults(limit).getResultList();
+    }
+
     /**
      * Returns a page of time runs ordered by completion time for the provided dungeon.
      */
@@ -259,6 +294,46 @@ public class RunTimeRepository implements PanacheRepository<RunTime> {
         return position > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) position;
     }
 
+    /**
+     * Calculates, with one statement, the ranking position of each provided run within its dungeon leaderboard.
+     *
+     * @param runIds identifiers of the runs
+     * @param weeks weeks to rank the runs against, {@code null} for every week
+     * @return mapping between run identifier and one-based position, runs without a time being left out
+     */
+    public Map<Long, Integer> findPositionsInDungeon(Collection<Long> runIds, Collection<Integer> weeks) {
+        if (runIds == null || runIds.isEmpty() || (weeks != null && weeks.isEmpty())) {
+            return Map.of();
+        }
+        StringBuilder jpql = new StringBuilder(
+                "SELECT run.id, COUNT(other) FROM RunTime run "
+                        + "LEFT JOIN RunTime other ON other.dungeon = run.dungeon ");
+        if (weeks != null) {
+            jpql.append("AND other.week IN :weeks ");
+        }
+        jpql.append(
+                "AND (other.timeInSecond < run.timeInSecond "
+                        + "OR (other.timeInSecond = run.timeInSecond AND COALESCE(other.week, -1) > COALESCE(run.week, -1)) "
+                        + "OR (other.timeInSecond = run.timeInSecond AND COALESCE(other.week, -1) = COALESCE(run.week, -1) "
+                        + "AND other.id < run.id)) "
+                        + "WHERE run.id IN :runIds AND run.timeInSecond IS NOT NULL AND run.dungeon IS NOT NULL "
+                        + "GROUP BY run.id");
+        var query = getEntityManager()
+                .createQuery(jpql.toString(), Object[].class)
+                .setParameter("runIds", runIds);
+        if (weeks != null) {
+            query.setParameter("weeks", weeks);
+        }
+        Map<Long, Integer> positions = new HashMap<>();
+        for (Object[] row : query.getResultList()) {
+            if (row != null && row.length >= 2 && row[0] instanceof Number runId
+                    && row[1] instanceof Number betterCount) {
+                positions.put(runId.longValue(), (int) Math.min(Integer.MAX_VALUE, betterCount.longValue() + 1));
+            }
+        }
+        return positions;
+    }
+
     /**
      * Finds runs matching the provided dungeon, week and time.
      *
@@ -332,72 +407,6 @@ public class RunTimeRepository implements PanacheRepository<RunTime> {
         return find(jpql.toString(), parameters).list();
     }
 
-    /** Returns the fastest time recorded for each provided dungeon identifier. */
-    public Map<Long, Integer> findMinimumTimesByDungeonIds(
-            Collection<Long> dungeonIds, Collection<Integer> weeks) {
-        if (dungeonIds == null || dungeonIds.isEmpty() || (weeks != null && weeks.isEmpty())) {
-            return Map.of();
-        }
-        StringBuilder query = new StringBuilder(
-                "SELECT run.dungeon.id, MIN(run.timeInSecond) FROM RunTime run WHERE run.dungeon.id IN :dungeons");
-        if (weeks != null && !weeks.isEmpty()) {
-            query.append(" AND run.week IN :weeks");
-        }
-        query.append(" GROUP BY run.dungeon.id");
-        var typedQuery = getEntityManager().createQuery(query.toString(), Object[].class);
-        typedQuery.setParameter("dungeons", dungeonIds);
-        if (weeks != null && !weeks.isEmpty()) {
-            typedQuery.setParameter("weeks", weeks);
-        }
-        List<Object[]> rows = typedQuery.getResultList();
-        Map<Long, Integer> result = new HashMap<>();
-        for (Object[] row : rows) {
-            if (row == null || row.length < 2) {
-                continue;
-            }
-            Object dungeonId = row[0];
-            Object time = row[1];
-            if (!(dungeonId instanceof Long) || !(time instanceof Number)) {
-                continue;
-            }
-            result.put((Long) dungeonId, ((Number) time).intValue());
-        }
-        return result;
-    }
-
-    /** Returns the slowest time recorded for each provided dungeon identifier. */
-    public Map<Long, Integer> findMaximumTimesByDungeonIds(
-            Collection<Long> dungeonIds, Collection<Integer> weeks) {
-        if (dungeonIds == null || dungeonIds.isEmpty() || (weeks != null && weeks.isEmpty())) {
-            return Map.of();
-        }
-        StringBuilder query = new StringBuilder(
-                "SELECT run.dungeon.id, MAX(run.timeInSecond) FROM RunTime run WHERE run.dungeon.id IN :dungeons");
-        if (weeks != null && !weeks.isEmpty()) {
-            query.append(" AND run.week IN :weeks");
-        }
-        query.append(" GROUP BY run.dungeon.id");
-        var typedQuery = getEntityManager().createQuery(query.toString(), Object[].class);
-        typedQuery.setParameter("dungeons", dungeonIds);
-        if (weeks != null && !weeks.isEmpty()) {
-            typedQuery.setParameter("weeks", weeks);
-        }
-        List<Object[]> rows = typedQuery.getResultList();
-        Map<Long, Integer> result = new HashMap<>();
-        for (Object[] row : rows) {
-            if (row == null || row.length < 2) {
-                continue;
-            }
-            Object dungeonId = row[0];
-            Object time = row[1];
-            if (!(dungeonId instanceof Long) || !(time instanceof Number)) {
-                continue;
-            }
-            result.put((Long) dungeonId, ((Number) time).intValue());
-        }
-        return result;
-    }
-
     /** Returns the highest recorded week for time runs or {@code null} when none exist. */
     public Integer findHighestWeek() {
         try {
@@ -462,4 +471,97 @@ public class RunTimeRepository implements PanacheRepository<RunTime> {
         }
         return result;
     }
+
+    /**
+     * Returns the fingerprints among the provided ones that are already stored.
+     *
+     * @param fingerprints candidate fingerprints
+     * @return subset of fingerprints matching an existing time run
+     */
+    public Set<String> listExistingFingerprints(Collection<String> fingerprints) {
+        if (fingerprints == null || fingerprints.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(getEntityManager()
+                .createQuery("SELECT r.fingerprint FROM RunTime r WHERE r.fingerprint IN :fingerprints", String.class)
+                .setParameter("fingerprints", fingerprints)
+                .getResultList());
+    }
+
+    /** Returns the time run holding the provided fingerprint or {@code null} when none does. */
+    public RunTime findByFingerprint(String fingerprint) {
+        if (fingerprint == null || fingerprint.isBlank()) {
+            return null;
+        }
+        return find("fingerprint", fingerprint).firstResult();
+    }
+
+    /** Returns the time runs matching the provided identifiers with their dungeon loaded. */
+    public List<RunTime> listByIdsWithDungeon(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return List.of();
+        }
+        return find("SELECT run FROM RunTime run JOIN FETCH run.dungeon WHERE run.id IN ?1", ids).list();
+    }
+
+    /** Returns the time runs matching the provided identifiers. */
+    public List<RunTime> listByIds(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return List.of();
+        }
+        return list("id IN ?1", ids);
+    }
+
+    /**
+     * Returns a batch of time runs that have no fingerprint yet, ordered by identifier.
+     *
+     * @param afterId identifier after which the batch starts, {@code null} to start from the first run
+     * @param limit maximum number of runs to return
+     * @return runs without fingerprint
+     */
+    public List<RunTime> listWithoutFingerprint(Long afterId, int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        return find("fingerprint IS NULL AND id > ?1 ORDER BY id ASC", afterId != null ? afterId : 0L)
+                .page(Page.ofSize(limit))
+                .list();
+    }
+
+    /**
+     * Lists the columns of every run of a dungeon needed by the in-memory run index.
+     *
+     * @param dungeonId identifier of the dungeon
+     * @return rows of {@code id, timeInSecond, week, region id}
+     */
+    public List<Object[]> listIndexColumnsByDungeon(Long dungeonId) {
+        if (dungeonId == null) {
+            return List.of();
+        }
+        return getEntityManager()
+                .createQuery(
+                        "SELECT run.id, run.timeInSecond, run.week, run.region.id FROM RunTime run "
+                                + "WHERE run.dungeon.id = :dungeonId",
+                        Object[].class)
+                .setParameter("dungeonId", dungeonId)
+                .getResultList();
+    }
+
+    /**
+     * Summarises the indexed runs of every dungeon so that a restored run index can be compared with the database. The
+     * last column XORs a CRC32 of every run, so that edits keeping the counts and sums unchanged, such as a new region,
+     * are detected too; it is computed in SQL, which JPQL has no function for.
+     *
+     * @return rows of {@code dungeon id, run count, max id, value sum, week sum, runs with a region, run hash}
+     */
+    @SuppressWarnings("unchecked")
+    public List<Object[]> listIndexFingerprintColumns() {
+        return getEntityManager()
+                .createNativeQuery(
+                        "SELECT id_dungeon, COUNT(*), MAX(id_run), SUM(time_in_second), SUM(week), "
+                                + "SUM(CASE WHEN id_region IS NULL THEN 0 ELSE 1 END), "
+                                + "BIT_XOR(CRC32(CONCAT_WS('|', id_run, time_in_second, week, COALESCE(id_region, '')))) "
+                                + "FROM run_time WHERE time_in_second IS NOT NULL AND week IS NOT NULL GROUP BY id_dungeon")
+                .getResultList();
+    }
 }
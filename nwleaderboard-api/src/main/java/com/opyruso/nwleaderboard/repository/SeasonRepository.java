@@ -5,6 +5,7 @@ import io.quarkus.hibernate.orm.panache.PanacheRepositoryBase;
 import jakarta.enterprise.context.ApplicationScoped;
 import java.time.LocalDate;
 import java.util.List;
+import org.hibernate.jpa.HibernateHints;
 
 /**
  * Repository exposing CRUD operations for {@link Season} entities.
@@ -13,11 +14,21 @@ import java.util.List;
 public class SeasonRepository implements PanacheRepositoryBase<Season, Integer> {
 
     public List<Season> listAllOrderByDateBeginDesc() {
-        return find("ORDER BY dateBegin DESC, id DESC").list();
+        return find("ORDER BY dateBegin DESC, id DESC").withHint(HibernateHints.HINT_CACHEABLE, true).list();
     }
 
     public Season findLatestByDateBegin() {
-        return find("ORDER BY dateBegin DESC").firstResult();
+        return find("ORDER BY dateBegin DESC").withHint(HibernateHints.HINT_CACHEABLE, true).firstResult();
+    }
+
+    /** Returns the season covering the provided date, the most recent one when several overlap. */
+    public Season findCurrent(LocalDate date) {
+        if (date == null) {
+            return null;
+        }
+        return find("dateBegin <= ?1 AND dateEnd >= ?1 ORDER BY id DESC", date)
+                .withHint(HibernateHints.HINT_CACHEABLE, true)
+                .firstResult();
     }
 
     public boolean existsById(Integer id) {
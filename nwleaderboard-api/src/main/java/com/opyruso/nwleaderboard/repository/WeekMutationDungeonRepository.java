@@ -8,6 +8,7 @@ import jakarta.enterprise.context.ApplicationScoped;
 import java.util.Collection;
 import java.util.List;
 import java.util.Set;
+import org.hibernate.jpa.HibernateHints;
 
 /**
  * Repository exposing CRUD operations for {@link WeekMutationDungeon} entities.
@@ -26,6 +27,7 @@ public class WeekMutationDungeonRepository implements PanacheRepositoryBase<Week
                                 + "JOIN FETCH w.mutationCurse "
                                 + "LEFT JOIN FETCH w.season",
                         WeekMutationDungeon.class)
+                .setHint(HibernateHints.HINT_CACHEABLE, true)
                 .getResultList();
     }
 
@@ -41,7 +43,7 @@ public class WeekMutationDungeonRepository implements PanacheRepositoryBase<Week
         if (ids == null || ids.isEmpty()) {
             return List.of();
         }
-        return find("id IN ?1", ids).list();
+        return find("id IN ?1", ids).withHint(HibernateHints.HINT_CACHEABLE, true).list();
     }
 
     public List<Integer> findWeekNumbersByFilters(
@@ -63,7 +65,9 @@ public class WeekMutationDungeonRepository implements PanacheRepositoryBase<Week
         }
         jpql.append(" ORDER BY w.id.week DESC");
 
-        var query = getEntityManager().createQuery(jpql.toString(), Integer.class).setParameter("dungeonId", dungeonId);
+        var query = getEntityManager().createQuery(jpql.toString(), Integer.class)
+                .setParameter("dungeonId", dungeonId)
+                .setHint(HibernateHints.HINT_CACHEABLE, true);
         if (typeIds != null && !typeIds.isEmpty()) {
             query.setParameter("typeIds", typeIds);
         }
@@ -88,7 +92,9 @@ public class WeekMutationDungeonRepository implements PanacheRepositoryBase<Week
         }
         jpql.append(" ORDER BY w.id.week DESC");
 
-        var query = getEntityManager().createQuery(jpql.toString(), Integer.class).setParameter("seasonId", seasonId);
+        var query = getEntityManager().createQuery(jpql.toString(), Integer.class)
+                .setParameter("seasonId", seasonId)
+                .setHint(HibernateHints.HINT_CACHEABLE, true);
         if (dungeonId != null) {
             query.setParameter("dungeonId", dungeonId);
         }
@@ -122,6 +128,7 @@ public class WeekMutationDungeonRepository implements PanacheRepositoryBase<Week
     public List<Integer> listDistinctWeeksDescending() {
         return getEntityManager()
                 .createQuery("SELECT DISTINCT w.id.week FROM WeekMutationDungeon w ORDER BY w.id.week DESC", Integer.class)
+                .setHint(HibernateHints.HINT_CACHEABLE, true)
                 .getResultList();
     }
 }
@@ -0,0 +1,144 @@
+package com.opyruso.nwleaderboard.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.opyruso.nwleaderboard.entity.Dungeon;
+import com.opyruso.nwleaderboard.entity.Season;
+import com.opyruso.nwleaderboard.repository.DungeonRepository;
+import com.opyruso.nwleaderboard.repository.SeasonRepository;
+import io.quarkus.arc.Arc;
+import io.quarkus.arc.ManagedContext;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.interceptor.Interceptor;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.health.HealthCheck;
+import org.eclipse.microprofile.health.HealthCheckResponse;
+import org.eclipse.microprofile.health.Readiness;
+import org.jboss.logging.Logger;
+
+/**
+ * Precomputes the views every visitor lands on right after a deploy: the highlights, the default score and time pages
+ * and charts of every highlighted dungeon for the current season and all seasons, and the individual rankings. The
+ * pages and charts end up in the {@link LeaderboardResponseCache}; the other views only warm the Hibernate metadata,
+ * the second-level cache, the JSON serialisers and the JIT.
+ *
+ * <p>The warm-up runs on a background thread once the application has started and the instance reports itself as
+ * not ready, with the {@code warming} status, until it completes.</p>
+ */
+@ApplicationScoped
+@Readiness
+public class CacheWarmupService implements HealthCheck {
+
+    private static final Logger LOG = Logger.getLogger(CacheWarmupService.class);
+
+    private static final String CHECK_NAME = "cache-warmup";
+
+    @ConfigProperty(name = "cache-warmup.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @Inject
+    LeaderboardService leaderboardService;
+
+    @Inject
+    LeaderboardResponseCache responseCache;
+
+    @Inject
+    IndividualRankingService individualRankingService;
+
+    @Inject
+    DungeonRepository dungeonRepository;
+
+    @Inject
+    SeasonRepository seasonRepository;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    private volatile boolean warming = true;
+
+    /** Starts after the run indexes are loaded so the warm-up reads from them. */
+    void startWarmup(@Observes @Priority(Interceptor.Priority.APPLICATION + 2000) StartupEvent event) {
+        if (!enabled) {
+            warming = false;
+            return;
+        }
+        Thread.ofVirtual().name("cache-warmup").start(this::warmup);
+    }
+
+    @Override
+    public HealthCheckResponse call() {
+        return HealthCheckResponse.named(CHECK_NAME)
+                .status(!warming)
+                .withData("status", warming ? "warming" : "ready")
+                .build();
+    }
+
+    private void warmup() {
+        long start = System.nanoTime();
+        ManagedContext requestContext = Arc.container().requestContext();
+        requestContext.activate();
+        try {
+            List<Dungeon> dungeons = dungeonRepository.listHighlighted();
+            Season currentSeason = seasonRepository.findCurrent(LocalDate.now());
+            List<Integer> seasonIds = new ArrayList<>();
+            seasonIds.add(null);
+            if (currentSeason != null) {
+                seasonIds.add(currentSeason.getId());
+            }
+
+            warm("highlights", () -> leaderboardService.getHighlights());
+            for (Integer seasonId : seasonIds) {
+                for (Dungeon dungeon : dungeons) {
+                    warmDungeon(dungeon.getId(), seasonId);
+                }
+                for (IndividualRankingService.Mode mode : IndividualRankingService.Mode.values()) {
+                    warm("individual ranking " + mode, () -> individualRankingService.getRanking(mode, seasonId));
+                }
+            }
+            LOG.infof("Warmed %d highlighted dungeons in %d ms", dungeons.size(),
+                    (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            LOG.warn("Cache warm-up failed, the instance is marked ready anyway", e);
+        } finally {
+            requestContext.terminate();
+            warming = false;
+        }
+    }
+
+    private void warmDungeon(Long dungeonId, Integer seasonId) {
+        for (LeaderboardResponseCache.View view : LeaderboardResponseCache.View.values()) {
+            LeaderboardResponseCache.Key key =
+                    responseCache.key(view, dungeonId, null, null, null, null, null, null, null, seasonId);
+            try {
+                responseCache.getOrLoad(key, () -> switch (view) {
+                    case SCORE_PAGE -> leaderboardService.getScoreEntries(
+                            dungeonId, null, null, null, null, null, null, null, seasonId);
+                    case SCORE_CHART -> leaderboardService.getScoreChartData(
+                            dungeonId, null, null, null, null, null, seasonId);
+                    case TIME_PAGE -> leaderboardService.getTimeEntries(
+                            dungeonId, null, null, null, null, null, null, null, seasonId);
+                    case TIME_CHART -> leaderboardService.getTimeChartData(
+                            dungeonId, null, null, null, null, null, seasonId);
+                });
+            } catch (RuntimeException e) {
+                LOG.warnf(e, "Unable to warm %s of dungeon %s for season %s", view, dungeonId, seasonId);
+            }
+        }
+    }
+
+    private void warm(String name, Supplier<?> view) {
+        try {
+            objectMapper.writeValueAsBytes(view.get());
+        } catch (JsonProcessingException | RuntimeException e) {
+            LOG.warnf(e, "Unable to warm %s", name);
+        }
+    }
+}
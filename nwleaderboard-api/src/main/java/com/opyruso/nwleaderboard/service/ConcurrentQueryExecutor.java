@@ -0,0 +1,103 @@
+package com.opyruso.nwleaderboard.service;
+
+import io.quarkus.arc.Arc;
+import io.quarkus.arc.ManagedContext;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+
+/**
+ * Runs independent read queries concurrently on virtual threads. Every query gets its own request context, hence its
+ * own Hibernate session, switched to read-only with flushing disabled; entities it returns are detached, so the
+ * queries must fetch whatever the caller reads from them. At most {@code concurrent-queries.max-concurrency} queries
+ * run at the same time across the application so that fan-outs cannot exhaust the connection pool.
+ *
+ * <p>With {@code concurrent-queries.enabled=false} the queries run one after another on the calling thread, which
+ * keeps the previous behaviour available.</p>
+ */
+@ApplicationScoped
+public class ConcurrentQueryExecutor {
+
+    @ConfigProperty(name = "concurrent-queries.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "concurrent-queries.max-concurrency", defaultValue = "8")
+    int maxConcurrency;
+
+    @Inject
+    Session session;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private Semaphore permits;
+
+    @PostConstruct
+    void init() {
+        permits = new Semaphore(Math.max(1, maxConcurrency));
+    }
+
+    /**
+     * Starts a read query.
+     *
+     * @param query query to run, must only read
+     * @return pending result, to be read with {@link #join}
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> query) {
+        if (!enabled) {
+            try {
+                return CompletableFuture.completedFuture(query.get());
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        return CompletableFuture.supplyAsync(() -> runReadOnly(query), executor);
+    }
+
+    /**
+     * Waits for a query started with {@link #submit} and rethrows its failure unwrapped.
+     *
+     * @param pending pending result
+     * @return result of the query
+     */
+    public <T> T join(CompletableFuture<T> pending) {
+        try {
+            return pending.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> T runReadOnly(Supplier<T> query) {
+        permits.acquireUninterruptibly();
+        ManagedContext requestContext = Arc.container().requestContext();
+        requestContext.activate();
+        try {
+            session.setDefaultReadOnly(true);
+            session.setHibernateFlushMode(FlushMode.MANUAL);
+            return query.get();
+        } finally {
+            requestContext.terminate();
+            permits.release();
+        }
+    }
+}
@@ -89,6 +89,7 @@ public class ContributorExtractionService {
     private static final double GLOBAL_CONTRAST_FACTOR = 1.25d;
 
     private static final String DEFAULT_WHITELIST = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789 _-:/().'";
+    private static final String VALUE_WHITELIST = "0123456789:";
 
     private static final Pattern WEEK_PATTERN = Pattern.compile("(?i)(?:week|semaine)?\\s*(\\d{1,3})");
     private static final Pattern TIME_PATTERN = Pattern.compile("(?:(\\d{1,2}):)?(\\d{1,2}):(\\d{2})");
@@ -106,6 +107,9 @@ public class ContributorExtractionService {
     @Inject
     ScanLeaderboardService scanLeaderboardService;
 
+    @Inject
+    DigitTemplateRecognizer digitTemplateRecognizer;
+
     private final JaroWinklerSimilarity similarity = new JaroWinklerSimilarity();
 
     /**
@@ -761,7 +765,7 @@ public class ContributorExtractionService {
             return null;
         }
 
-        List<Dungeon> dungeons = dungeonRepository.listAll();
+        List<Dungeon> dungeons = dungeonRepository.listAllCached();
         if (dungeons.isEmpty()) {
             return null;
         }
@@ -1112,8 +1116,7 @@ public class ContributorExtractionService {
 
             Rectangle valueRect = new Rectangle(SCORE_AREA.x, SCORE_AREA.y + yOffset, SCORE_AREA.width,
                     SCORE_AREA.height);
-            OcrResult valueOcr = runOcr(originalImage, preparedImage, valueRect, TessPageSegMode.PSM_SINGLE_LINE,
-                    "0123456789:");
+            OcrResult valueOcr = runValueOcr(originalImage, preparedImage, valueRect);
 
             Integer scoreCandidate = declaredMode == ContributionMode.TIME ? null : parseScore(valueOcr.text());
             Integer timeCandidate = parseTime(valueOcr.text());
@@ -1261,6 +1264,31 @@ public class ContributorExtractionService {
         return new OcrResult(bounded, originalRegion, preprocessed, text, confidence);
     }
 
+    /**
+     * Reads the score/time value field with the digit template matcher and only falls back to Tesseract when the
+     * matcher is not confident enough. Confident Tesseract readings are fed back to the matcher as templates.
+     */
+    private OcrResult runValueOcr(BufferedImage originalImage, BufferedImage preparedImage, Rectangle area) {
+        BufferedImage reference = preparedImage != null ? preparedImage : originalImage;
+        Rectangle bounded = clampToImage(area, reference);
+        if (bounded.width <= 0 || bounded.height <= 0) {
+            return new OcrResult(bounded, null, null, null, null);
+        }
+
+        BufferedImage valueRegion = crop(reference, bounded);
+        DigitTemplateRecognizer.Recognition recognition = digitTemplateRecognizer.recognize(valueRegion);
+        if (recognition != null) {
+            BufferedImage originalRegion = originalImage != null ? crop(originalImage, bounded) : null;
+            BufferedImage preprocessed = preprocessForOcr(valueRegion);
+            return new OcrResult(bounded, originalRegion, preprocessed != null ? preprocessed : valueRegion,
+                    recognition.text(), recognition.confidence());
+        }
+
+        OcrResult ocr = runOcr(originalImage, preparedImage, area, TessPageSegMode.PSM_SINGLE_LINE, VALUE_WHITELIST);
+        digitTemplateRecognizer.learn(valueRegion, ocr.text(), ocr.confidence());
+        return ocr;
+    }
+
     private Double averageConfidence(List<Word> words) {
         if (words == null || words.isEmpty()) {
             return null;
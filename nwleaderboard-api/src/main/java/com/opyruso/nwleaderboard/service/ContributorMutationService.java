@@ -13,6 +13,7 @@ import com.opyruso.nwleaderboard.entity.MutationPromotion;
 import com.opyruso.nwleaderboard.entity.MutationType;
 import com.opyruso.nwleaderboard.entity.Season;
 import com.opyruso.nwleaderboard.entity.WeekMutationDungeon;
+import com.opyruso.nwleaderboard.event.WeekCalendarChanged;
 import com.opyruso.nwleaderboard.repository.DungeonRepository;
 import com.opyruso.nwleaderboard.repository.MutationCurseRepository;
 import com.opyruso.nwleaderboard.repository.MutationElementRepository;
@@ -57,6 +58,9 @@ public class ContributorMutationService {
     @Inject
     SeasonRepository seasonRepository;
 
+    @Inject
+    DataChangeEventBus dataChangeEventBus;
+
     @Transactional
     public List<ContributorMutationEntryResponse> listMutations() {
         return weekMutationDungeonRepository.listAllWithRelations().stream()
@@ -102,6 +106,7 @@ public class ContributorMutationService {
         entity.setSeason(season);
 
         weekMutationDungeonRepository.persist(entity);
+        dataChangeEventBus.publish(new WeekCalendarChanged());
         return toResponse(entity);
     }
 
@@ -150,6 +155,7 @@ public class ContributorMutationService {
         if (!hasUpdates) {
             throw new ContributorMutationException("No updates were provided.", Status.BAD_REQUEST);
         }
+        dataChangeEventBus.publish(new WeekCalendarChanged());
         return toResponse(entity);
     }
 
@@ -162,11 +168,12 @@ public class ContributorMutationService {
             throw new ContributorMutationException("Mutation not found.", Status.NOT_FOUND);
         }
         weekMutationDungeonRepository.delete(entity);
+        dataChangeEventBus.publish(new WeekCalendarChanged());
     }
 
     @Transactional
     public ContributorMutationOptionsResponse listOptions() {
-        List<ContributorMutationDungeonOption> dungeons = dungeonRepository.listAll().stream()
+        List<ContributorMutationDungeonOption> dungeons = dungeonRepository.listAllCached().stream()
                 .filter(Objects::nonNull)
                 .map(this::toDungeonOption)
                 .sorted(this::compareDungeonOptions)
@@ -1,16 +1,25 @@
 package com.opyruso.nwleaderboard.service;
 
+import com.opyruso.nwleaderboard.entity.Dungeon;
 import com.opyruso.nwleaderboard.entity.Player;
+import com.opyruso.nwleaderboard.entity.PlayerNameListener;
+import com.opyruso.nwleaderboard.entity.RunScore;
 import com.opyruso.nwleaderboard.entity.RunScorePlayer;
 import com.opyruso.nwleaderboard.entity.RunScorePlayerId;
+import com.opyruso.nwleaderboard.entity.RunTime;
 import com.opyruso.nwleaderboard.entity.RunTimePlayer;
 import com.opyruso.nwleaderboard.entity.RunTimePlayerId;
+import com.opyruso.nwleaderboard.event.PlayerChanged;
+import com.opyruso.nwleaderboard.event.PlayerMerged;
+import com.opyruso.nwleaderboard.event.RunsChanged;
 import com.opyruso.nwleaderboard.repository.PlayerRepository;
 import com.opyruso.nwleaderboard.repository.RunScorePlayerRepository;
 import com.opyruso.nwleaderboard.repository.RunTimePlayerRepository;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -35,6 +44,12 @@ public class ContributorPlayerService {
     @Inject
     RunTimePlayerRepository runTimePlayerRepository;
 
+    @Inject
+    RunFingerprintService runFingerprintService;
+
+    @Inject
+    DataChangeEventBus dataChangeEventBus;
+
     /**
      * Lists all players ordered alphabetically by name.
      *
@@ -57,6 +72,7 @@ public class ContributorPlayerService {
     public PlayerWithRuns updateValidity(Long playerId, boolean valid) {
         Player player = requirePlayer(playerId);
         player.setValid(valid);
+        dataChangeEventBus.publish(new PlayerChanged(player.getId()));
         return buildSummary(player);
     }
 
@@ -75,8 +91,11 @@ public class ContributorPlayerService {
             throw new ContributorPlayerException("Player name is required");
         }
 
-        if (player.getPlayerName() != null && player.getPlayerName().equalsIgnoreCase(cleaned)) {
+        // A player flagged as clashing with another name is merged into it when renamed to that name.
+        if (player.getPlayerName() != null && player.getPlayerName().equalsIgnoreCase(cleaned)
+                && !PlayerNameListener.isConflictName(player.getNormalisedName())) {
             player.setPlayerName(cleaned);
+            dataChangeEventBus.publish(new PlayerChanged(player.getId()));
             return new RenameResult(buildSummary(player), null);
         }
 
@@ -85,17 +104,44 @@ public class ContributorPlayerService {
             Player target = duplicate.get();
             if (Objects.equals(target.getId(), player.getId())) {
                 player.setPlayerName(cleaned);
+                dataChangeEventBus.publish(new PlayerChanged(player.getId()));
                 return new RenameResult(buildSummary(player), null);
             }
             ensureSameRegionForMerge(player, target);
+            Long sourceId = player.getId();
             mergePlayers(player, target);
-            return new RenameResult(buildSummary(target), player.getId());
+            dataChangeEventBus.publish(new PlayerMerged(sourceId, target.getId()));
+            return new RenameResult(buildSummary(target), sourceId);
         }
 
+        // No other player holds the name any more, so a flagged player gets its plain normalised name back.
+        player.setNormalisedName(PlayerNameListener.normalise(cleaned));
         player.setPlayerName(cleaned);
+        dataChangeEventBus.publish(new PlayerChanged(player.getId()));
         return new RenameResult(buildSummary(player), null);
     }
 
+    /**
+     * Merges a player into another one holding the same normalised name, as found by the normalised name backfill.
+     *
+     * @param sourceId identifier of the player to merge and delete
+     * @param targetId identifier of the player keeping the runs
+     * @return {@code true} when merged, {@code false} when a player is missing or the players belong to different
+     *     regions
+     */
+    @Transactional
+    public boolean mergeDuplicate(Long sourceId, Long targetId) {
+        Player source = sourceId != null ? playerRepository.findById(sourceId) : null;
+        Player target = targetId != null ? playerRepository.findById(targetId) : null;
+        if (source == null || target == null || Objects.equals(sourceId, targetId)
+                || !Objects.equals(normaliseRegionId(source), normaliseRegionId(target))) {
+            return false;
+        }
+        mergePlayers(source, target);
+        dataChangeEventBus.publish(new PlayerMerged(sourceId, target.getId()));
+        return true;
+    }
+
     /**
      * Updates the main character association for the provided player.
      *
@@ -110,6 +156,7 @@ public class ContributorPlayerService {
 
         if (cleaned == null || cleaned.isBlank()) {
             player.setMainCharacter(null);
+            dataChangeEventBus.publish(new PlayerChanged(player.getId()));
             return buildSummary(player);
         }
 
@@ -120,6 +167,7 @@ public class ContributorPlayerService {
         Player main = mainCandidate.get();
         if (Objects.equals(main.getId(), player.getId())) {
             player.setMainCharacter(null);
+            dataChangeEventBus.publish(new PlayerChanged(player.getId()));
             return buildSummary(player);
         }
 
@@ -138,7 +186,9 @@ public class ContributorPlayerService {
                 continue;
             }
             dependant.setMainCharacter(resolved);
+            dataChangeEventBus.publish(new PlayerChanged(dependant.getId()));
         }
+        dataChangeEventBus.publish(new PlayerChanged(player.getId()));
         return buildSummary(player);
     }
 
@@ -167,8 +217,8 @@ public class ContributorPlayerService {
 
     private void mergePlayers(Player source, Player target) {
         Player resolvedTarget = resolveMain(target);
-        mergeScoreAssociations(source, target);
-        mergeTimeAssociations(source, target);
+        List<RunScore> scoreRuns = mergeScoreAssociations(source, target);
+        List<RunTime> timeRuns = mergeTimeAssociations(source, target);
         List<Player> dependants = playerRepository.listByMainCharacterId(source.getId());
         for (Player dependant : dependants) {
             if (dependant == null || Objects.equals(dependant.getId(), source.getId())) {
@@ -178,6 +228,25 @@ public class ContributorPlayerService {
         }
         playerRepository.delete(source);
         playerRepository.flush();
+        // The merged runs now reference other player identifiers, so their fingerprint has changed.
+        runFingerprintService.refreshScoreFingerprints(scoreRuns);
+        runFingerprintService.refreshTimeFingerprints(timeRuns);
+        dataChangeEventBus.publishPlayerRunsChanged(List.of(source.getId(), target.getId()), null);
+        // The run indexes still reference the deleted source player until the merged runs are reloaded.
+        Map<Long, Set<Integer>> scoreWeeks = new HashMap<>();
+        scoreRuns.forEach(run -> addWeek(scoreWeeks, run.getDungeon(), run.getWeek()));
+        scoreWeeks.forEach((dungeonId, weeks) -> dataChangeEventBus.publishRunsChanged(
+                dungeonId, RunsChanged.Mode.SCORE, weeks.toArray(Integer[]::new)));
+        Map<Long, Set<Integer>> timeWeeks = new HashMap<>();
+        timeRuns.forEach(run -> addWeek(timeWeeks, run.getDungeon(), run.getWeek()));
+        timeWeeks.forEach((dungeonId, weeks) -> dataChangeEventBus.publishRunsChanged(
+                dungeonId, RunsChanged.Mode.TIME, weeks.toArray(Integer[]::new)));
+    }
+
+    private static void addWeek(Map<Long, Set<Integer>> weeksByDungeon, Dungeon dungeon, Integer week) {
+        if (dungeon != null && dungeon.getId() != null) {
+            weeksByDungeon.computeIfAbsent(dungeon.getId(), id -> new HashSet<>()).add(week);
+        }
     }
 
     private List<PlayerWithRuns> attachRunCounts(List<Player> players) {
@@ -210,17 +279,19 @@ public class ContributorPlayerService {
         return new PlayerWithRuns(player, scoreRuns, timeRuns, alternates);
     }
 
-    private void mergeScoreAssociations(Player source, Player target) {
+    private List<RunScore> mergeScoreAssociations(Player source, Player target) {
         List<RunScorePlayer> sourceAssociations = runScorePlayerRepository.listByPlayerId(source.getId());
         if (sourceAssociations.isEmpty()) {
-            return;
+            return List.of();
         }
+        List<RunScore> mergedRuns = new ArrayList<>();
         Set<Long> targetRunIds = new HashSet<>(runScorePlayerRepository.listRunIdsByPlayer(target.getId()));
         for (RunScorePlayer association : sourceAssociations) {
             if (association.getRunScore() == null || association.getRunScore().getId() == null) {
                 continue;
             }
             Long runId = association.getRunScore().getId();
+            mergedRuns.add(association.getRunScore());
             if (targetRunIds.contains(runId)) {
                 runScorePlayerRepository.delete(association);
                 continue;
@@ -233,19 +304,22 @@ public class ContributorPlayerService {
             runScorePlayerRepository.delete(association);
             targetRunIds.add(runId);
         }
+        return mergedRuns;
     }
 
-    private void mergeTimeAssociations(Player source, Player target) {
+    private List<RunTime> mergeTimeAssociations(Player source, Player target) {
         List<RunTimePlayer> sourceAssociations = runTimePlayerRepository.listByPlayerId(source.getId());
         if (sourceAssociations.isEmpty()) {
-            return;
+            return List.of();
         }
+        List<RunTime> mergedRuns = new ArrayList<>();
         Set<Long> targetRunIds = new HashSet<>(runTimePlayerRepository.listRunIdsByPlayer(target.getId()));
         for (RunTimePlayer association : sourceAssociations) {
             if (association.getRunTime() == null || association.getRunTime().getId() == null) {
                 continue;
             }
             Long runId = association.getRunTime().getId();
+            mergedRuns.add(association.getRunTime());
             if (targetRunIds.contains(runId)) {
                 runTimePlayerRepository.delete(association);
                 continue;
@@ -258,6 +332,7 @@ public class ContributorPlayerService {
             runTimePlayerRepository.delete(association);
             targetRunIds.add(runId);
         }
+        return mergedRuns;
     }
 
     private Player requirePlayer(Long playerId) {
@@ -15,6 +15,7 @@ import com.opyruso.nwleaderboard.entity.RunTimePlayer;
 import com.opyruso.nwleaderboard.entity.RunTimePlayerId;
 import com.opyruso.nwleaderboard.entity.WeekMutationDungeon;
 import com.opyruso.nwleaderboard.entity.WeekMutationDungeonId;
+import com.opyruso.nwleaderboard.event.RunsChanged;
 import com.opyruso.nwleaderboard.repository.PlayerRepository;
 import com.opyruso.nwleaderboard.repository.RunScorePlayerRepository;
 import com.opyruso.nwleaderboard.repository.RunScoreRepository;
@@ -26,6 +27,7 @@ import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 import jakarta.ws.rs.core.Response.Status;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -35,6 +37,8 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -43,6 +47,8 @@ import java.util.stream.Collectors;
 @ApplicationScoped
 public class ContributorRunService {
 
+    private static final int RUN_ID_CHUNK_SIZE = 1000;
+
     private enum RunType {
         SCORE,
         TIME
@@ -69,6 +75,15 @@ public class ContributorRunService {
     @Inject
     WeekMutationDungeonRepository weekMutationDungeonRepository;
 
+    @Inject
+    RunFingerprintService runFingerprintService;
+
+    @Inject
+    DataChangeEventBus dataChangeEventBus;
+
+    @Inject
+    RunPlayerIndexService runPlayerIndexService;
+
     @Transactional(Transactional.TxType.SUPPORTS)
     public List<ContributorRunSummaryResponse> searchRuns(
             String rawType,
@@ -85,6 +100,7 @@ public class ContributorRunService {
         List<String> normalisedPlayerFilters = normalisePlayerFilters(playerFilters);
         int safeLimit = limit != null && limit > 0 ? Math.min(limit, 200) : 50;
         int fetchLimit = Math.min(safeLimit * 4, 400);
+        List<List<Long>> playerGroups = resolvePlayerFilters(normalisedPlayerFilters);
 
         return switch (type) {
             case SCORE -> {
@@ -94,7 +110,13 @@ public class ContributorRunService {
                 }
                 Integer safeWeek = normaliseOptionalPositive(week, "week");
                 Integer safeScore = normaliseOptionalPositive(score, "score");
-                List<RunScore> runs = runScoreRepository.listRecentRuns(safeWeek, safeScore, region, fetchLimit);
+                List<RunScore> runs = playerGroups.isEmpty()
+                        ? runScoreRepository.listRecentRuns(safeWeek, safeScore, region, fetchLimit)
+                        : listLatestRunsAmong(
+                                runPlayerIndexService.findRunIds(playerGroups, RunsChanged.Mode.SCORE), fetchLimit,
+                                (chunk, chunkLimit) -> runScoreRepository.listIdsAmong(
+                                        safeWeek, safeScore, region, chunk, chunkLimit),
+                                runScoreRepository::listByIds, RunScore::getId);
                 yield buildScoreSummaries(runs, seasonId, normalisedPlayerFilters, safeLimit);
             }
             case TIME -> {
@@ -104,13 +126,19 @@ public class ContributorRunService {
                 }
                 Integer safeWeek = normaliseOptionalPositive(week, "week");
                 Integer safeTime = normaliseOptionalPositive(time, "time");
-                List<RunTime> runs = runTimeRepository.listRecentRuns(safeWeek, safeTime, region, fetchLimit);
+                List<RunTime> runs = playerGroups.isEmpty()
+                        ? runTimeRepository.listRecentRuns(safeWeek, safeTime, region, fetchLimit)
+                        : listLatestRunsAmong(
+                                runPlayerIndexService.findRunIds(playerGroups, RunsChanged.Mode.TIME), fetchLimit,
+                                (chunk, chunkLimit) -> runTimeRepository.listIdsAmong(
+                                        safeWeek, safeTime, region, chunk, chunkLimit),
+                                runTimeRepository::listByIds, RunTime::getId);
                 yield buildTimeSummaries(runs, seasonId, normalisedPlayerFilters, safeLimit);
             }
         };
     }
 
-    @Transactional
+    @Transactional(rollbackOn = ContributorRunException.class)
     public ContributorRunSummaryResponse updateRun(String rawType, Long runId, ContributorRunUpdateRequest request)
             throws ContributorRunException {
         RunType type = normaliseType(rawType);
@@ -178,6 +206,41 @@ public class ContributorRunService {
         return List.copyOf(result);
     }
 
+    /** Resolves every player name filter to the players whose name contains it. */
+    private List<List<Long>> resolvePlayerFilters(List<String> playerFilters) {
+        List<List<Long>> groups = new ArrayList<>(playerFilters.size());
+        for (String filter : playerFilters) {
+            groups.add(playerRepository.listIdsByNameContaining(filter));
+        }
+        return groups;
+    }
+
+    /**
+     * Picks the latest recorded candidate runs matching the filters. The identifiers are filtered one chunk at a time,
+     * starting from the highest ones, until enough are found, and only the selected runs are loaded.
+     */
+    private <T> List<T> listLatestRunsAmong(
+            long[] runIds,
+            int limit,
+            BiFunction<List<Long>, Integer, List<Long>> filterIds,
+            Function<List<Long>, List<T>> load,
+            Function<T, Long> idOf) {
+        List<Long> selected = new ArrayList<>(Math.min(limit, runIds.length));
+        for (int to = runIds.length; to > 0 && selected.size() < limit; to -= RUN_ID_CHUNK_SIZE) {
+            int from = Math.max(0, to - RUN_ID_CHUNK_SIZE);
+            selected.addAll(filterIds.apply(
+                    Arrays.stream(runIds, from, to).boxed().toList(), limit - selected.size()));
+        }
+        if (selected.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, T> runsById = new HashMap<>();
+        for (T run : load.apply(selected)) {
+            runsById.put(idOf.apply(run), run);
+        }
+        return selected.stream().map(runsById::get).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
     private List<ContributorRunSummaryResponse> buildScoreSummaries(
             List<RunScore> runs, Integer seasonFilter, List<String> playerFilters, int limit) {
         if (runs == null || runs.isEmpty() || limit <= 0) {
@@ -422,6 +485,8 @@ public class ContributorRunService {
         if (run == null) {
             throw new ContributorRunException("Run not found.", Status.NOT_FOUND);
         }
+        Integer originalWeek = run.getWeek();
+        Set<Long> touchedPlayerIds = new HashSet<>(listRunScorePlayerIds(runId));
         if (request != null) {
             if (request.time() != null) {
                 throw new ContributorRunException("Time cannot be provided for score runs.", Status.BAD_REQUEST);
@@ -442,8 +507,16 @@ public class ContributorRunService {
             if (request.replacement() != null) {
                 replaceScorePlayer(run, request.replacement());
             }
+            refreshScoreFingerprint(run);
         }
         runScoreRepository.flush();
+        touchedPlayerIds.addAll(listRunScorePlayerIds(runId));
+        dataChangeEventBus.publishPlayerRunsChanged(touchedPlayerIds, RunsChanged.Mode.SCORE);
+        dataChangeEventBus.publishRunsChanged(
+                run.getDungeon() != null ? run.getDungeon().getId() : null,
+                RunsChanged.Mode.SCORE,
+                originalWeek,
+                run.getWeek());
         List<ContributorRunSummaryResponse> summaries =
                 buildScoreSummaries(List.of(run), null, List.of(), 1);
         return summaries.isEmpty() ? null : summaries.get(0);
@@ -455,6 +528,8 @@ public class ContributorRunService {
         if (run == null) {
             throw new ContributorRunException("Run not found.", Status.NOT_FOUND);
         }
+        Integer originalWeek = run.getWeek();
+        Set<Long> touchedPlayerIds = new HashSet<>(listRunTimePlayerIds(runId));
         if (request != null) {
             if (request.score() != null) {
                 throw new ContributorRunException("Score cannot be provided for time runs.", Status.BAD_REQUEST);
@@ -475,13 +550,32 @@ public class ContributorRunService {
             if (request.replacement() != null) {
                 replaceTimePlayer(run, request.replacement());
             }
+            refreshTimeFingerprint(run);
         }
         runTimeRepository.flush();
+        touchedPlayerIds.addAll(listRunTimePlayerIds(runId));
+        dataChangeEventBus.publishPlayerRunsChanged(touchedPlayerIds, RunsChanged.Mode.TIME);
+        dataChangeEventBus.publishRunsChanged(
+                run.getDungeon() != null ? run.getDungeon().getId() : null,
+                RunsChanged.Mode.TIME,
+                originalWeek,
+                run.getWeek());
         List<ContributorRunSummaryResponse> summaries =
                 buildTimeSummaries(List.of(run), null, List.of(), 1);
         return summaries.isEmpty() ? null : summaries.get(0);
     }
 
+    private void refreshScoreFingerprint(RunScore run) throws ContributorRunException {
+        Set<Long> playerIds = runScorePlayerRepository.listPlayerIdsByRunIds(List.of(run.getId()))
+                .getOrDefault(run.getId(), Set.of());
+        String fingerprint = runFingerprintService.scoreFingerprint(run, playerIds);
+        RunScore existing = runScoreRepository.findByFingerprint(fingerprint);
+        if (existing != null && !existing.getId().equals(run.getId())) {
+            throw new ContributorRunException("Another run with the same data already exists.", Status.CONFLICT);
+        }
+        run.setFingerprint(fingerprint);
+    }
+
     private void replaceScorePlayer(RunScore run, ContributorRunReplacementRequest replacement)
             throws ContributorRunException {
         if (replacement == null) {
@@ -532,6 +626,17 @@ public class ContributorRunService {
         target.setPlayer(replacementPlayer);
     }
 
+    private void refreshTimeFingerprint(RunTime run) throws ContributorRunException {
+        Set<Long> playerIds = runTimePlayerRepository.listPlayerIdsByRunIds(List.of(run.getId()))
+                .getOrDefault(run.getId(), Set.of());
+        String fingerprint = runFingerprintService.timeFingerprint(run, playerIds);
+        RunTime existing = runTimeRepository.findByFingerprint(fingerprint);
+        if (existing != null && !existing.getId().equals(run.getId())) {
+            throw new ContributorRunException("Another run with the same data already exists.", Status.CONFLICT);
+        }
+        run.setFingerprint(fingerprint);
+    }
+
     private void replaceTimePlayer(RunTime run, ContributorRunReplacementRequest replacement)
             throws ContributorRunException {
         if (replacement == null) {
@@ -605,12 +710,16 @@ public class ContributorRunService {
         if (run == null) {
             throw new ContributorRunException("Run not found.", Status.NOT_FOUND);
         }
+        Set<Long> touchedPlayerIds = listRunScorePlayerIds(runId);
         runScorePlayerRepository.deleteByRunId(runId);
         boolean deleted = runScoreRepository.deleteById(runId);
         runScoreRepository.flush();
         if (!deleted) {
             throw new ContributorRunException("Unable to delete run.", Status.BAD_GATEWAY);
         }
+        dataChangeEventBus.publishPlayerRunsChanged(touchedPlayerIds, RunsChanged.Mode.SCORE);
+        dataChangeEventBus.publishRunsChanged(
+                run.getDungeon() != null ? run.getDungeon().getId() : null, RunsChanged.Mode.SCORE, run.getWeek());
     }
 
     private void deleteTimeRun(Long runId) throws ContributorRunException {
@@ -618,12 +727,24 @@ public class ContributorRunService {
         if (run == null) {
             throw new ContributorRunException("Run not found.", Status.NOT_FOUND);
         }
+        Set<Long> touchedPlayerIds = listRunTimePlayerIds(runId);
         runTimePlayerRepository.deleteByRunId(runId);
         boolean deleted = runTimeRepository.deleteById(runId);
         runTimeRepository.flush();
         if (!deleted) {
             throw new ContributorRunException("Unable to delete run.", Status.BAD_GATEWAY);
         }
+        dataChangeEventBus.publishPlayerRunsChanged(touchedPlayerIds, RunsChanged.Mode.TIME);
+        dataChangeEventBus.publishRunsChanged(
+                run.getDungeon() != null ? run.getDungeon().getId() : null, RunsChanged.Mode.TIME, run.getWeek());
+    }
+
+    private Set<Long> listRunScorePlayerIds(Long runId) {
+        return runScorePlayerRepository.listPlayerIdsByRunIds(List.of(runId)).getOrDefault(runId, Set.of());
+    }
+
+    private Set<Long> listRunTimePlayerIds(Long runId) {
+        return runTimePlayerRepository.listPlayerIdsByRunIds(List.of(runId)).getOrDefault(runId, Set.of());
     }
 
     public static class ContributorRunException extends Exception {
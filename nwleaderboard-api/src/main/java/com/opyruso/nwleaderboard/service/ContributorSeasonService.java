@@ -4,6 +4,7 @@ import com.opyruso.nwleaderboard.dto.ContributorSeasonCreateRequest;
 import com.opyruso.nwleaderboard.dto.ContributorSeasonEntryResponse;
 import com.opyruso.nwleaderboard.dto.ContributorSeasonUpdateRequest;
 import com.opyruso.nwleaderboard.entity.Season;
+import com.opyruso.nwleaderboard.event.WeekCalendarChanged;
 import com.opyruso.nwleaderboard.repository.SeasonRepository;
 import com.opyruso.nwleaderboard.repository.WeekMutationDungeonRepository;
 import jakarta.enterprise.context.ApplicationScoped;
@@ -30,6 +31,9 @@ public class ContributorSeasonService {
     @Inject
     WeekMutationDungeonRepository weekMutationDungeonRepository;
 
+    @Inject
+    DataChangeEventBus dataChangeEventBus;
+
     @Transactional
     public List<ContributorSeasonEntryResponse> listSeasons() {
         return seasonRepository.listAllOrderByDateBeginDesc().stream()
@@ -61,6 +65,7 @@ public class ContributorSeasonService {
         } catch (PersistenceException e) {
             throw new ContributorSeasonException("Unable to create season.", Status.CONFLICT, e);
         }
+        dataChangeEventBus.publish(new WeekCalendarChanged());
         return toResponse(season);
     }
 
@@ -101,6 +106,7 @@ public class ContributorSeasonService {
         if (!updateIdentifier) {
             season.setDateBegin(nextBegin);
             season.setDateEnd(nextEnd);
+            dataChangeEventBus.publish(new WeekCalendarChanged());
             return toResponse(season);
         }
 
@@ -139,6 +145,7 @@ public class ContributorSeasonService {
         weekMutationDungeonRepository.reassignSeason(season, replacement);
         seasonRepository.delete(season);
         seasonRepository.flush();
+        dataChangeEventBus.publish(new WeekCalendarChanged());
         return toResponse(replacement);
     }
 
@@ -158,6 +165,7 @@ public class ContributorSeasonService {
                     Status.CONFLICT,
                     e);
         }
+        dataChangeEventBus.publish(new WeekCalendarChanged());
     }
 
     private ContributorSeasonEntryResponse toResponse(Season season) {
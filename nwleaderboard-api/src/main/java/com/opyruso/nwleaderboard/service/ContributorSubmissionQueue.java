@@ -0,0 +1,364 @@
+package com.opyruso.nwleaderboard.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.opyruso.nwleaderboard.dto.ContributionRunDto;
+import com.opyruso.nwleaderboard.entity.ContributorSubmission;
+import com.opyruso.nwleaderboard.event.RunsChanged;
+import com.opyruso.nwleaderboard.service.ContributorSubmissionService.ContributorSubmissionException;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Write-behind queue for contributor submissions. Validated payloads are published to the
+ * {@code <root>.submissions} topic and acknowledged immediately with a tracking identifier; a background consumer then
+ * stores them in batches through {@link ContributorSubmissionService}. Committed {@link RunsChanged} events are
+ * forwarded to the {@code <root>.runs-changed} topic.
+ *
+ * <p>Offsets are only committed once a submission is settled, stored or rejected. When the database cannot be reached
+ * the consumer seeks back to the first unsettled submission of each partition and retries after a growing delay, and
+ * the consumer itself is recreated after any unexpected failure. Statuses are kept in the
+ * {@code contributor_submission} table so that every instance can report them.</p>
+ */
+@ApplicationScoped
+public class ContributorSubmissionQueue {
+
+    private static final Logger LOG = Logger.getLogger(ContributorSubmissionQueue.class);
+
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(1);
+    private static final long SEND_TIMEOUT_SECONDS = 10L;
+    private static final long MIN_RETRY_DELAY_MS = 500L;
+    private static final long MAX_RETRY_DELAY_MS = 30_000L;
+
+    @ConfigProperty(name = "submission.queue.enabled", defaultValue = "false")
+    boolean enabled;
+
+    @ConfigProperty(name = "submission.queue.batch-size", defaultValue = "50")
+    int batchSize;
+
+    @ConfigProperty(name = "kafka.bootstrap.servers")
+    String bootstrapServers;
+
+    @ConfigProperty(name = "kafka.topicname.root")
+    String topicRoot;
+
+    @Inject
+    ContributorSubmissionService submissionService;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    private volatile KafkaProducer<String, String> producer;
+    private volatile KafkaConsumer<String, String> consumer;
+    private volatile boolean running;
+    private Thread consumerThread;
+
+    void start(@Observes StartupEvent event) {
+        if (!enabled) {
+            return;
+        }
+        producer = new KafkaProducer<>(producerProperties());
+        running = true;
+        consumerThread = new Thread(this::consume, "submission-queue-consumer");
+        consumerThread.setDaemon(true);
+        consumerThread.start();
+        LOG.infof("Contributor submissions are queued on %s", submissionsTopic());
+    }
+
+    void stop(@Observes ShutdownEvent event) {
+        running = false;
+        KafkaConsumer<String, String> currentConsumer = consumer;
+        if (currentConsumer != null) {
+            currentConsumer.wakeup();
+        }
+        if (consumerThread != null) {
+            try {
+                consumerThread.join(TimeUnit.SECONDS.toMillis(SEND_TIMEOUT_SECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (producer != null) {
+            producer.close(Duration.ofSeconds(SEND_TIMEOUT_SECONDS));
+        }
+    }
+
+    /** Indicates whether submissions go through the queue instead of being stored synchronously. */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Validates and publishes a submission.
+     *
+     * @param payload runs submitted by the contributor
+     * @return tracking identifier of the queued submission
+     * @throws ContributorSubmissionException if the payload is malformed
+     * @throws IllegalStateException if the submission could not be published
+     */
+    public String enqueue(List<ContributionRunDto> payload) throws ContributorSubmissionException {
+        submissionService.validatePayload(payload);
+        if (producer == null) {
+            throw new IllegalStateException("Submission queue is not running");
+        }
+        String trackingId = UUID.randomUUID().toString();
+        String value;
+        try {
+            value = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to queue submission", e);
+        }
+        // Recorded before publishing so that the consumer can never be overtaken by the queued status.
+        submissionService.recordSubmissionStatus(trackingId, ContributorSubmission.QUEUED, null);
+        try {
+            producer.send(new ProducerRecord<>(submissionsTopic(), trackingId, value))
+                    .get(SEND_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            return trackingId;
+        } catch (ExecutionException | TimeoutException e) {
+            submissionService.recordSubmissionStatus(trackingId, ContributorSubmission.FAILED, "Unable to queue");
+            throw new IllegalStateException("Unable to queue submission", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            submissionService.recordSubmissionStatus(trackingId, ContributorSubmission.FAILED, "Unable to queue");
+            throw new IllegalStateException("Interrupted while queueing submission", e);
+        }
+    }
+
+    /**
+     * Returns the processing status of a queued submission.
+     *
+     * @param trackingId identifier returned by {@link #enqueue(List)}
+     * @return status or {@code null} when unknown
+     */
+    public SubmissionStatus getStatus(String trackingId) {
+        ContributorSubmission submission = submissionService.findSubmission(trackingId);
+        return submission != null ? new SubmissionStatus(submission.getStatus(), submission.getMessage()) : null;
+    }
+
+    /** Polls until shutdown, recreating the consumer after any unexpected failure. */
+    private void consume() {
+        long retryDelay = MIN_RETRY_DELAY_MS;
+        while (running) {
+            KafkaConsumer<String, String> currentConsumer = new KafkaConsumer<>(consumerProperties());
+            consumer = currentConsumer;
+            try {
+                currentConsumer.subscribe(List.of(submissionsTopic()));
+                while (running) {
+                    ConsumerRecords<String, String> records = currentConsumer.poll(POLL_TIMEOUT);
+                    if (records.isEmpty()) {
+                        continue;
+                    }
+                    if (applyBatch(currentConsumer, records)) {
+                        retryDelay = MIN_RETRY_DELAY_MS;
+                    } else {
+                        pause(retryDelay);
+                        retryDelay = Math.min(retryDelay * 2, MAX_RETRY_DELAY_MS);
+                    }
+                }
+            } catch (WakeupException e) {
+                if (running) {
+                    LOG.error("Submission queue consumer woken up unexpectedly, restarting it", e);
+                }
+            } catch (RuntimeException e) {
+                // Uncommitted submissions are delivered again to the new consumer.
+                LOG.error("Submission queue consumer failed, restarting it", e);
+                pause(retryDelay);
+                retryDelay = Math.min(retryDelay * 2, MAX_RETRY_DELAY_MS);
+            } finally {
+                currentConsumer.close();
+            }
+        }
+    }
+
+    /**
+     * Stores a polled batch and commits the offsets of the settled submissions. Each partition is rewound to its first
+     * submission that could not be settled, so that it is polled again.
+     *
+     * @return {@code false} when some submissions must be retried
+     */
+    private boolean applyBatch(KafkaConsumer<String, String> currentConsumer,
+            ConsumerRecords<String, String> records) {
+        List<QueuedSubmission> submissions = new ArrayList<>(records.count());
+        List<ContributionRunDto> runs = new ArrayList<>();
+        for (ConsumerRecord<String, String> record : records) {
+            List<ContributionRunDto> payload;
+            try {
+                payload = objectMapper.readValue(record.value(), new TypeReference<List<ContributionRunDto>>() {});
+                runs.addAll(payload);
+            } catch (JsonProcessingException e) {
+                LOG.errorf(e, "Dropping unreadable submission %s", record.key());
+                payload = null;
+            }
+            submissions.add(new QueuedSubmission(record.key(),
+                    new TopicPartition(record.topic(), record.partition()), record.offset(), payload));
+        }
+
+        boolean batchStored = false;
+        if (!runs.isEmpty()) {
+            try {
+                submissionService.persistRuns(runs);
+                batchStored = true;
+            } catch (ContributorSubmissionException | RuntimeException e) {
+                // One invalid submission rolls back the whole batch: store them one by one to isolate it.
+                LOG.debugf(e, "Batch of %d submissions failed, retrying individually", submissions.size());
+            }
+        }
+
+        Map<TopicPartition, OffsetAndMetadata> settled = new HashMap<>();
+        Set<TopicPartition> rewound = new HashSet<>();
+        for (QueuedSubmission submission : submissions) {
+            if (rewound.contains(submission.partition())) {
+                continue;
+            }
+            if (settle(submission, batchStored)) {
+                settled.put(submission.partition(), new OffsetAndMetadata(submission.offset() + 1));
+            } else {
+                currentConsumer.seek(submission.partition(), submission.offset());
+                rewound.add(submission.partition());
+            }
+        }
+        if (!settled.isEmpty()) {
+            currentConsumer.commitSync(settled);
+        }
+        return rewound.isEmpty();
+    }
+
+    /**
+     * Stores a submission unless its batch already was, and records its outcome.
+     *
+     * @return {@code false} when the database could not be reached and the submission must be retried
+     */
+    private boolean settle(QueuedSubmission submission, boolean stored) {
+        try {
+            if (submission.runs() == null) {
+                submissionService.recordSubmissionStatus(
+                        submission.trackingId(), ContributorSubmission.FAILED, "Unreadable submission");
+                return true;
+            }
+            if (!stored) {
+                try {
+                    submissionService.persistRuns(submission.runs());
+                } catch (ContributorSubmissionException e) {
+                    LOG.infof("Rejected queued submission %s: %s", submission.trackingId(), e.getMessage());
+                    submissionService.recordSubmissionStatus(
+                            submission.trackingId(), ContributorSubmission.FAILED, e.getMessage());
+                    return true;
+                }
+            }
+            submissionService.recordSubmissionStatus(submission.trackingId(), ContributorSubmission.STORED, null);
+            return true;
+        } catch (RuntimeException e) {
+            // Runs already stored are recognised by their fingerprint when the submission is retried.
+            LOG.errorf(e, "Unable to store queued submission %s, it will be retried", submission.trackingId());
+            return false;
+        }
+    }
+
+    /** Waits before a retry, giving up early on shutdown. */
+    private void pause(long delayMs) {
+        long deadline = System.currentTimeMillis() + delayMs;
+        try {
+            while (running && System.currentTimeMillis() < deadline) {
+                Thread.sleep(Math.min(100L, delayMs));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    /** Forwards committed run changes, whatever their origin, to the {@code <root>.runs-changed} topic. */
+    void publishRunsChanged(@Observes RunsChanged change) {
+        KafkaProducer<String, String> currentProducer = producer;
+        if (currentProducer == null || change == null) {
+            return;
+        }
+        try {
+            RunsChangedMessage message = new RunsChangedMessage(
+                    change.dungeonId(), change.mode().name().toLowerCase(Locale.ROOT), new TreeSet<>(change.weeks()));
+            currentProducer.send(new ProducerRecord<>(runsChangedTopic(), String.valueOf(change.dungeonId()),
+                    objectMapper.writeValueAsString(message)));
+        } catch (JsonProcessingException e) {
+            LOG.warnf(e, "Unable to publish runs-changed event for dungeon %s", change.dungeonId());
+        }
+    }
+
+    private Properties producerProperties() {
+        Properties properties = new Properties();
+        properties.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        properties.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class.getName());
+        properties.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class.getName());
+        properties.put(ProducerConfig.ACKS_CONFIG, "all");
+        properties.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        return properties;
+    }
+
+    private Properties consumerProperties() {
+        Properties properties = new Properties();
+        properties.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        properties.put(ConsumerConfig.GROUP_ID_CONFIG, topicRoot + ".submission-writer");
+        properties.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class.getName());
+        properties.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class.getName());
+        properties.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        properties.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        properties.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, Math.max(1, batchSize));
+        return properties;
+    }
+
+    private String submissionsTopic() {
+        return topicRoot + ".submissions";
+    }
+
+    private String runsChangedTopic() {
+        return topicRoot + ".runs-changed";
+    }
+
+    /** Polled submission, {@code runs} being {@code null} when the record could not be read. */
+    private record QueuedSubmission(
+            String trackingId, TopicPartition partition, long offset, List<ContributionRunDto> runs) {
+    }
+
+    private record RunsChangedMessage(Long dungeonId, String mode, TreeSet<Integer> weeks) {
+    }
+
+    /**
+     * Processing status of a queued submission.
+     *
+     * @param status {@code queued}, {@code stored} or {@code failed}
+     * @param message failure reason when the submission was rejected
+     */
+    public record SubmissionStatus(String status, String message) {
+    }
+}
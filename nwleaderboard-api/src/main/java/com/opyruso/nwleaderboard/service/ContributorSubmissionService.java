@@ -2,8 +2,10 @@ package com.opyruso.nwleaderboard.service;
 
 import com.opyruso.nwleaderboard.dto.ContributionPlayerDto;
 import com.opyruso.nwleaderboard.dto.ContributionRunDto;
+import com.opyruso.nwleaderboard.entity.ContributorSubmission;
 import com.opyruso.nwleaderboard.entity.Dungeon;
 import com.opyruso.nwleaderboard.entity.Player;
+import com.opyruso.nwleaderboard.entity.PlayerNameListener;
 import com.opyruso.nwleaderboard.entity.Region;
 import com.opyruso.nwleaderboard.entity.RunScore;
 import com.opyruso.nwleaderboard.entity.RunScorePlayer;
@@ -11,6 +13,10 @@ import com.opyruso.nwleaderboard.entity.RunScorePlayerId;
 import com.opyruso.nwleaderboard.entity.RunTime;
 import com.opyruso.nwleaderboard.entity.RunTimePlayer;
 import com.opyruso.nwleaderboard.entity.RunTimePlayerId;
+import com.opyruso.nwleaderboard.event.PlayerChanged;
+import com.opyruso.nwleaderboard.event.PlayerCreated;
+import com.opyruso.nwleaderboard.event.RunsChanged;
+import com.opyruso.nwleaderboard.repository.ContributorSubmissionRepository;
 import com.opyruso.nwleaderboard.repository.DungeonRepository;
 import com.opyruso.nwleaderboard.repository.PlayerRepository;
 import com.opyruso.nwleaderboard.repository.RunScorePlayerRepository;
@@ -20,13 +26,18 @@ import com.opyruso.nwleaderboard.repository.RunTimeRepository;
 import com.opyruso.nwleaderboard.service.RegionService;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import jakarta.persistence.PersistenceException;
 import jakarta.transaction.Transactional;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
+import org.hibernate.exception.ConstraintViolationException;
 import org.jboss.logging.Logger;
 
 /**
@@ -58,55 +69,160 @@ public class ContributorSubmissionService {
     @Inject
     RegionService regionService;
 
+    @Inject
+    RunFingerprintService runFingerprintService;
+
+    @Inject
+    DataChangeEventBus dataChangeEventBus;
+
+    @Inject
+    ContributorSubmissionRepository contributorSubmissionRepository;
+
     /**
      * Persists the provided runs in a single transaction.
      *
+     * <p>Dungeons and players are resolved with a handful of set-based queries, duplicates are detected with a single
+     * fingerprint lookup per mode and the new runs and their participants are flushed once at the end so Hibernate can
+     * send them as JDBC batches.</p>
+     *
      * @param payload list of runs submitted by the contributor
      * @throws ContributorSubmissionException if validation fails or referenced entities are missing
      */
-    @Transactional
+    @Transactional(rollbackOn = ContributorSubmissionException.class)
     public void persistRuns(List<ContributionRunDto> payload) throws ContributorSubmissionException {
+        validatePayload(payload);
+
+        Map<Long, Dungeon> dungeons = loadDungeons(payload);
+        PlayerLookup players = loadPlayers(payload);
+        Map<String, Region> regions = new HashMap<>();
+
+        List<PendingRun> pendingRuns = new ArrayList<>(payload.size());
+        for (ContributionRunDto dto : payload) {
+            PendingRun pending = prepareRun(dto, dungeons, players, regions);
+            if (pending != null) {
+                pendingRuns.add(pending);
+            }
+        }
+
+        Set<String> knownScoreRuns = new HashSet<>(runScoreRepository.listExistingFingerprints(
+                fingerprints(pendingRuns, RunMode.SCORE)));
+        Set<String> knownTimeRuns = new HashSet<>(runTimeRepository.listExistingFingerprints(
+                fingerprints(pendingRuns, RunMode.TIME)));
+
+        Map<RunsChanged.Mode, Set<Long>> touchedPlayers = new HashMap<>();
+        for (PendingRun pending : pendingRuns) {
+            Set<String> knownRuns = pending.mode() == RunMode.SCORE ? knownScoreRuns : knownTimeRuns;
+            if (!knownRuns.add(pending.fingerprint())) {
+                LOG.infof("Skipping duplicate %s run for dungeon %s (week %s, value %s, players: %s)",
+                        pending.mode().name().toLowerCase(Locale.ROOT), pending.dungeon().getId(),
+                        pending.week(), pending.value(), describePlayers(pending.players()));
+                continue;
+            }
+            if (pending.mode() == RunMode.SCORE) {
+                persistScoreRun(pending);
+            } else {
+                persistTimeRun(pending);
+            }
+            RunsChanged.Mode mode = pending.mode() == RunMode.SCORE ? RunsChanged.Mode.SCORE : RunsChanged.Mode.TIME;
+            // Buffered until the commit, so a failing flush below discards it.
+            dataChangeEventBus.publishRunsChanged(pending.dungeon().getId(), mode, pending.week());
+            Set<Long> playerIds = touchedPlayers.computeIfAbsent(mode, key -> new HashSet<>());
+            for (Player player : pending.players()) {
+                playerIds.add(player.getId());
+            }
+        }
+        try {
+            runScoreRepository.flush();
+        } catch (PersistenceException e) {
+            if (isFingerprintViolation(e)) {
+                // A concurrent submission stored some of these runs first: a retry skips them by fingerprint.
+                throw new ConcurrentSubmissionException("Some of these runs were stored concurrently, please retry", e);
+            }
+            throw e;
+        }
+        touchedPlayers.forEach((mode, playerIds) -> dataChangeEventBus.publishPlayerRunsChanged(playerIds, mode));
+    }
+
+    private static boolean isFingerprintViolation(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                String constraint = violation.getConstraintName();
+                if (constraint == null) {
+                    return false;
+                }
+                // MariaDB may prefix the index name with its table.
+                String name = constraint.toLowerCase(Locale.ROOT);
+                return name.endsWith(RunScore.FINGERPRINT_CONSTRAINT) || name.endsWith(RunTime.FINGERPRINT_CONSTRAINT);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks the parts of a submission that do not require the database so malformed payloads can be rejected before
+     * they are queued.
+     *
+     * @param payload list of runs submitted by the contributor
+     * @throws ContributorSubmissionException if a run is malformed
+     */
+    public void validatePayload(List<ContributionRunDto> payload) throws ContributorSubmissionException {
         if (payload == null || payload.isEmpty()) {
             throw new ContributorSubmissionException("No runs provided");
         }
-
         for (ContributionRunDto dto : payload) {
-            storeRun(dto);
+            if (dto != null) {
+                validateRun(dto);
+            }
         }
     }
 
-    private void storeRun(ContributionRunDto dto) throws ContributorSubmissionException {
-        if (dto == null) {
-            return;
-        }
+    /**
+     * Records the processing status of a queued submission.
+     *
+     * @param trackingId identifier of the submission
+     * @param status one of the {@link ContributorSubmission} statuses
+     * @param message failure reason, {@code null} otherwise
+     */
+    @Transactional
+    public void recordSubmissionStatus(String trackingId, String status, String message) {
+        ContributorSubmission submission = contributorSubmissionRepository.findById(trackingId);
+        if (submission == null) {
+            submission = new ContributorSubmission();
+            submission.setTrackingId(trackingId);
+            contributorSubmissionRepository.persist(submission);
+        }
+        submission.setStatus(status);
+        submission.setMessage(message != null && message.length() > 512 ? message.substring(0, 512) : message);
+    }
+
+    /**
+     * Returns the processing status of a queued submission.
+     *
+     * @param trackingId identifier of the submission
+     * @return submission or {@code null} when unknown
+     */
+    @Transactional(Transactional.TxType.SUPPORTS)
+    public ContributorSubmission findSubmission(String trackingId) {
+        return trackingId != null ? contributorSubmissionRepository.findById(trackingId) : null;
+    }
 
+    private void validateRun(ContributionRunDto dto) throws ContributorSubmissionException {
         Integer week = dto.week();
         if (week == null || week <= 0) {
             throw new ContributorSubmissionException("Week must be a positive integer");
         }
 
-        Long dungeonId = dto.dungeonId();
-        if (dungeonId == null) {
+        if (dto.dungeonId() == null) {
             throw new ContributorSubmissionException("Dungeon identifier is required");
         }
 
-        Dungeon dungeon = dungeonRepository.findById(dungeonId);
-        if (dungeon == null) {
-            throw new ContributorSubmissionException("Unknown dungeon with id " + dungeonId);
-        }
-
         Integer expectedPlayerCount = dto.expectedPlayerCount();
         if (expectedPlayerCount == null || expectedPlayerCount <= 0) {
             throw new ContributorSubmissionException("Expected player count must be a positive integer");
         }
-        Integer configuredCount = dungeon.getPlayerCount();
-        if (configuredCount != null && configuredCount > 0 && !configuredCount.equals(expectedPlayerCount)) {
-            throw new ContributorSubmissionException("Player count does not match dungeon configuration");
-        }
 
         Integer score = dto.score();
         Integer time = dto.time();
-
         if ((score == null || score <= 0) && (time == null || time <= 0)) {
             throw new ContributorSubmissionException("Each run must contain either a positive score or time");
         }
@@ -120,27 +236,108 @@ public class ContributorSubmissionService {
             throw new ContributorSubmissionException(
                     "Run contains " + players.size() + " players but expected " + expectedPlayerCount);
         }
+    }
+
+    private PendingRun prepareRun(
+            ContributionRunDto dto, Map<Long, Dungeon> dungeons, PlayerLookup lookup, Map<String, Region> regions)
+            throws ContributorSubmissionException {
+        if (dto == null) {
+            return null;
+        }
+
+        Integer week = dto.week();
+        Long dungeonId = dto.dungeonId();
+        Dungeon dungeon = dungeons.get(dungeonId);
+        if (dungeon == null) {
+            throw new ContributorSubmissionException("Unknown dungeon with id " + dungeonId);
+        }
+
+        Integer configuredCount = dungeon.getPlayerCount();
+        if (configuredCount != null && configuredCount > 0 && !configuredCount.equals(dto.expectedPlayerCount())) {
+            throw new ContributorSubmissionException("Player count does not match dungeon configuration");
+        }
+
+        Integer score = dto.score();
+        Integer time = dto.time();
+        List<ContributionPlayerDto> players = normalisePlayers(dto.players());
 
-        Region region = regionService.resolveRegionOrDefault(dto.region());
-        List<Player> resolvedPlayers = resolvePlayers(players, region);
+        String regionKey = dto.region() != null ? dto.region().strip().toUpperCase(Locale.ROOT) : "";
+        Region region = regions.get(regionKey);
+        if (region == null) {
+            region = regionService.resolveRegionOrDefault(dto.region());
+            regions.put(regionKey, region);
+        }
+        List<Player> resolvedPlayers = resolvePlayers(players, region, lookup);
 
+        RunMode mode;
+        Integer value;
         if (score != null && score > 0) {
-            if (scoreRunAlreadyExists(week, dungeon, score, resolvedPlayers, region)) {
-                LOG.infof("Skipping duplicate score run for dungeon %s (week %s, score %s, players: %s)",
-                        dungeon.getId(), week, score, describePlayers(resolvedPlayers));
-                return;
-            }
-            persistScoreRun(week, dungeon, score, resolvedPlayers, region);
+            mode = RunMode.SCORE;
+            value = score;
         } else if (time != null && time > 0) {
-            if (timeRunAlreadyExists(week, dungeon, time, resolvedPlayers, region)) {
-                LOG.infof("Skipping duplicate time run for dungeon %s (week %s, time %s, players: %s)",
-                        dungeon.getId(), week, time, describePlayers(resolvedPlayers));
-                return;
-            }
-            persistTimeRun(week, dungeon, time, resolvedPlayers, region);
+            mode = RunMode.TIME;
+            value = time;
         } else {
             throw new ContributorSubmissionException("Run data is incomplete");
         }
+        Set<Long> playerIds = playerIds(resolvedPlayers);
+        String fingerprint = mode == RunMode.SCORE
+                ? runFingerprintService.scoreFingerprint(dungeon.getId(), week, region.getId(), value, playerIds)
+                : runFingerprintService.timeFingerprint(dungeon.getId(), week, region.getId(), value, playerIds);
+        return new PendingRun(mode, fingerprint, week, dungeon, value, region, resolvedPlayers);
+    }
+
+    private Map<Long, Dungeon> loadDungeons(List<ContributionRunDto> payload) {
+        Set<Long> ids = payload.stream()
+                .filter(Objects::nonNull)
+                .map(ContributionRunDto::dungeonId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, Dungeon> dungeons = new HashMap<>();
+        for (Dungeon dungeon : dungeonRepository.listByIds(ids)) {
+            dungeons.put(dungeon.getId(), dungeon);
+        }
+        return dungeons;
+    }
+
+    private PlayerLookup loadPlayers(List<ContributionRunDto> payload) {
+        Set<Long> ids = new HashSet<>();
+        Set<String> names = new HashSet<>();
+        for (ContributionRunDto dto : payload) {
+            if (dto == null) {
+                continue;
+            }
+            for (ContributionPlayerDto player : normalisePlayers(dto.players())) {
+                if (player.playerId() != null) {
+                    ids.add(player.playerId());
+                } else {
+                    names.add(player.playerName());
+                }
+            }
+        }
+        PlayerLookup lookup = new PlayerLookup();
+        for (Player player : playerRepository.listByIds(ids)) {
+            lookup.byId.put(player.getId(), player);
+        }
+        for (Player player : playerRepository.listByPlayerNamesIgnoreCase(names)) {
+            lookup.byName.putIfAbsent(lookupKey(player.getPlayerName()), player);
+        }
+        return lookup;
+    }
+
+    private Set<String> fingerprints(List<PendingRun> pendingRuns, RunMode mode) {
+        return pendingRuns.stream()
+                .filter(run -> run.mode() == mode)
+                .map(PendingRun::fingerprint)
+                .collect(Collectors.toSet());
+    }
+
+    private Set<Long> playerIds(List<Player> players) {
+        Set<Long> ids = new HashSet<>();
+        for (Player player : players) {
+            ids.add(player.getId());
+        }
+        return Set.copyOf(ids);
     }
 
     private String describePlayers(List<Player> players) {
@@ -179,115 +376,29 @@ public class ContributorSubmissionService {
         return cleaned.isEmpty() ? null : cleaned;
     }
 
-    private List<Player> resolvePlayers(List<ContributionPlayerDto> players, Region region)
+    private String lookupKey(String name) {
+        return PlayerNameListener.normalise(name);
+    }
+
+    private List<Player> resolvePlayers(List<ContributionPlayerDto> players, Region region, PlayerLookup lookup)
             throws ContributorSubmissionException {
         List<Player> resolved = new ArrayList<>(players.size());
         for (ContributionPlayerDto dto : players) {
-            resolved.add(resolvePlayer(dto, region));
+            resolved.add(resolvePlayer(dto, region, lookup));
         }
         return resolved;
     }
 
-    private boolean scoreRunAlreadyExists(
-            Integer week, Dungeon dungeon, Integer score, List<Player> players, Region region) {
-        if (week == null || dungeon == null || score == null || players == null || players.isEmpty()) {
-            return false;
-        }
-
-        List<RunScore> candidates =
-                runScoreRepository.listByDungeonWeekAndScore(dungeon.getId(), week, score, region);
-        if (candidates.isEmpty()) {
-            return false;
-        }
-
-        Set<Long> expectedPlayerIds = players.stream().map(Player::getId).collect(Collectors.toSet());
-        if (expectedPlayerIds.contains(null) || expectedPlayerIds.size() != players.size()) {
-            return false;
-        }
-
-        List<Long> runIds = candidates.stream()
-                .map(RunScore::getId)
-                .filter(id -> id != null)
-                .collect(Collectors.toList());
-        if (runIds.isEmpty()) {
-            return false;
-        }
-
-        Map<Long, List<RunScorePlayer>> associations = runScorePlayerRepository.listWithPlayersByRunIds(runIds).stream()
-                .collect(Collectors.groupingBy(rsp -> rsp.getRunScore().getId()));
-
-        for (Long runId : runIds) {
-            List<RunScorePlayer> links = associations.get(runId);
-            if (links == null || links.size() != expectedPlayerIds.size()) {
-                continue;
-            }
-
-            Set<Long> candidatePlayerIds = links.stream()
-                    .map(link -> link.getPlayer() != null ? link.getPlayer().getId() : null)
-                    .collect(Collectors.toSet());
-            if (!candidatePlayerIds.contains(null) && candidatePlayerIds.equals(expectedPlayerIds)) {
-                return true;
-            }
-        }
-
-        return false;
-    }
-
-    private boolean timeRunAlreadyExists(
-            Integer week, Dungeon dungeon, Integer time, List<Player> players, Region region) {
-        if (week == null || dungeon == null || time == null || players == null || players.isEmpty()) {
-            return false;
-        }
-
-        List<RunTime> candidates =
-                runTimeRepository.listByDungeonWeekAndTime(dungeon.getId(), week, time, region);
-        if (candidates.isEmpty()) {
-            return false;
-        }
-
-        Set<Long> expectedPlayerIds = players.stream().map(Player::getId).collect(Collectors.toSet());
-        if (expectedPlayerIds.contains(null) || expectedPlayerIds.size() != players.size()) {
-            return false;
-        }
-
-        List<Long> runIds = candidates.stream()
-                .map(RunTime::getId)
-                .filter(id -> id != null)
-                .collect(Collectors.toList());
-        if (runIds.isEmpty()) {
-            return false;
-        }
-
-        Map<Long, List<RunTimePlayer>> associations = runTimePlayerRepository.listWithPlayersByRunIds(runIds).stream()
-                .collect(Collectors.groupingBy(rtp -> rtp.getRunTime().getId()));
-
-        for (Long runId : runIds) {
-            List<RunTimePlayer> links = associations.get(runId);
-            if (links == null || links.size() != expectedPlayerIds.size()) {
-                continue;
-            }
-
-            Set<Long> candidatePlayerIds = links.stream()
-                    .map(link -> link.getPlayer() != null ? link.getPlayer().getId() : null)
-                    .collect(Collectors.toSet());
-            if (!candidatePlayerIds.contains(null) && candidatePlayerIds.equals(expectedPlayerIds)) {
-                return true;
-            }
-        }
-
-        return false;
-    }
-
-    private void persistScoreRun(Integer week, Dungeon dungeon, Integer score, List<Player> players, Region region)
-            throws ContributorSubmissionException {
+    private void persistScoreRun(PendingRun pending) {
         RunScore run = new RunScore();
-        run.setWeek(week);
-        run.setDungeon(dungeon);
-        run.setRegion(region);
-        run.setScore(score);
-        runScoreRepository.persistAndFlush(run);
-
-        for (Player player : players) {
+        run.setWeek(pending.week());
+        run.setDungeon(pending.dungeon());
+        run.setRegion(pending.region());
+        run.setScore(pending.value());
+        run.setFingerprint(pending.fingerprint());
+        runScoreRepository.persist(run);
+
+        for (Player player : pending.players()) {
             RunScorePlayer association = new RunScorePlayer();
             association.setRunScore(run);
             association.setPlayer(player);
@@ -296,16 +407,16 @@ public class ContributorSubmissionService {
         }
     }
 
-    private void persistTimeRun(Integer week, Dungeon dungeon, Integer time, List<Player> players, Region region)
-            throws ContributorSubmissionException {
+    private void persistTimeRun(PendingRun pending) {
         RunTime run = new RunTime();
-        run.setWeek(week);
-        run.setDungeon(dungeon);
-        run.setRegion(region);
-        run.setTimeInSecond(time);
-        runTimeRepository.persistAndFlush(run);
-
-        for (Player player : players) {
+        run.setWeek(pending.week());
+        run.setDungeon(pending.dungeon());
+        run.setRegion(pending.region());
+        run.setTimeInSecond(pending.value());
+        run.setFingerprint(pending.fingerprint());
+        runTimeRepository.persist(run);
+
+        for (Player player : pending.players()) {
             RunTimePlayer association = new RunTimePlayer();
             association.setRunTime(run);
             association.setPlayer(player);
@@ -314,7 +425,8 @@ public class ContributorSubmissionService {
         }
     }
 
-    private Player resolvePlayer(ContributionPlayerDto dto, Region region) throws ContributorSubmissionException {
+    private Player resolvePlayer(ContributionPlayerDto dto, Region region, PlayerLookup lookup)
+            throws ContributorSubmissionException {
         if (dto == null) {
             throw new ContributorSubmissionException("Missing player information");
         }
@@ -323,12 +435,13 @@ public class ContributorSubmissionService {
         Long playerId = dto.playerId();
         String name = normalisePlayerName(dto.playerName());
         if (playerId != null) {
-            Player existing = playerRepository.findById(playerId);
+            Player existing = lookup.byId.get(playerId);
             if (existing == null) {
                 throw new ContributorSubmissionException("Unknown player id " + playerId);
             }
             if (name != null && !existing.getPlayerName().equalsIgnoreCase(name)) {
                 existing.setPlayerName(name);
+                dataChangeEventBus.publish(new PlayerChanged(existing.getId()));
             }
             ensurePlayerRegionCompatibility(existing, effectiveRegion);
             if (existing.getRegion() == null) {
@@ -341,20 +454,21 @@ public class ContributorSubmissionService {
             throw new ContributorSubmissionException("Player name is required");
         }
 
-        Optional<Player> existing = playerRepository.findByPlayerNameIgnoreCase(name);
-        if (existing.isPresent()) {
-            Player resolved = existing.get();
-            ensurePlayerRegionCompatibility(resolved, effectiveRegion);
-            if (resolved.getRegion() == null) {
-                resolved.setRegion(effectiveRegion);
+        Player existing = lookup.byName.get(lookupKey(name));
+        if (existing != null) {
+            ensurePlayerRegionCompatibility(existing, effectiveRegion);
+            if (existing.getRegion() == null) {
+                existing.setRegion(effectiveRegion);
             }
-            return resolved;
+            return existing;
         }
 
         Player player = new Player();
         player.setPlayerName(name);
         player.setRegion(effectiveRegion);
-        playerRepository.persistAndFlush(player);
+        playerRepository.persist(player);
+        dataChangeEventBus.publish(new PlayerCreated(player.getId()));
+        lookup.byName.put(lookupKey(name), player);
         return player;
     }
 
@@ -383,6 +497,21 @@ public class ContributorSubmissionService {
         }
     }
 
+    private enum RunMode {
+        SCORE,
+        TIME
+    }
+
+    private record PendingRun(RunMode mode, String fingerprint, Integer week, Dungeon dungeon, Integer value,
+            Region region, List<Player> players) {
+    }
+
+    /** Players loaded up-front for the whole submission, including the ones created while resolving it. */
+    private static final class PlayerLookup {
+        private final Map<Long, Player> byId = new HashMap<>();
+        private final Map<String, Player> byName = new HashMap<>();
+    }
+
     /**
      * Exception raised when the contributor submission cannot be stored.
      */
@@ -398,4 +527,17 @@ public class ContributorSubmissionService {
             super(message, cause);
         }
     }
+
+    /**
+     * Exception thrown when runs of a submission were stored concurrently by another one. Unlike
+     * {@link ContributorSubmissionException} the submission is valid and succeeds once retried.
+     */
+    public static class ConcurrentSubmissionException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        public ConcurrentSubmissionException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
 }
@@ -0,0 +1,161 @@
+package com.opyruso.nwleaderboard.service;
+
+import com.opyruso.nwleaderboard.event.DataChangeEvent;
+import com.opyruso.nwleaderboard.event.PlayerRunsChanged;
+import com.opyruso.nwleaderboard.event.RunsChanged;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.jboss.logging.Logger;
+
+/**
+ * Publishes {@link DataChangeEvent data change events} to CDI observers once the current transaction has committed.
+ * Events published during a transaction are buffered and coalesced (one {@link RunsChanged} per dungeon and mode with
+ * the union of the weeks, one {@link PlayerRunsChanged} per mode with the union of the players) and discarded on
+ * rollback. Outside of a transaction they are fired immediately.
+ *
+ * <p>Observers declare {@code @Observes} on the concrete event type they care about and run on the committing thread,
+ * so they must stay cheap: invalidate, do not rebuild.</p>
+ */
+@ApplicationScoped
+public class DataChangeEventBus {
+
+    private static final Logger LOG = Logger.getLogger(DataChangeEventBus.class);
+
+    private static final Object PENDING_EVENTS_KEY = new Object();
+
+    @Inject
+    TransactionSynchronizationRegistry transactionSynchronizationRegistry;
+
+    @Inject
+    Event<DataChangeEvent> events;
+
+    /**
+     * Publishes an event after the current transaction commits.
+     *
+     * @param event event to publish
+     */
+    public void publish(DataChangeEvent event) {
+        if (event == null) {
+            return;
+        }
+        if (transactionSynchronizationRegistry.getTransactionStatus() != Status.STATUS_ACTIVE) {
+            fire(List.of(event));
+            return;
+        }
+        PendingEvents pending = (PendingEvents) transactionSynchronizationRegistry.getResource(PENDING_EVENTS_KEY);
+        if (pending == null) {
+            pending = new PendingEvents();
+            transactionSynchronizationRegistry.putResource(PENDING_EVENTS_KEY, pending);
+            transactionSynchronizationRegistry.registerInterposedSynchronization(pending);
+        }
+        pending.add(event);
+    }
+
+    /**
+     * Publishes the runs changed for a dungeon after the current transaction commits.
+     *
+     * @param dungeonId identifier of the dungeon
+     * @param mode leaderboard the runs belong to
+     * @param weeks weeks holding the changed runs
+     */
+    public void publishRunsChanged(Long dungeonId, RunsChanged.Mode mode, Integer... weeks) {
+        if (dungeonId == null || mode == null) {
+            return;
+        }
+        Set<Integer> distinctWeeks = new HashSet<>();
+        for (Integer week : weeks) {
+            if (week != null) {
+                distinctWeeks.add(week);
+            }
+        }
+        publish(new RunsChanged(dungeonId, mode, distinctWeeks));
+    }
+
+    /**
+     * Publishes the players whose runs changed after the current transaction commits.
+     *
+     * @param playerIds players whose runs were created, edited, deleted or moved
+     * @param mode leaderboard the runs belong to, {@code null} for both
+     */
+    public void publishPlayerRunsChanged(Collection<Long> playerIds, RunsChanged.Mode mode) {
+        if (playerIds == null) {
+            return;
+        }
+        Set<Long> distinctIds = new HashSet<>();
+        for (Long playerId : playerIds) {
+            if (playerId != null) {
+                distinctIds.add(playerId);
+            }
+        }
+        if (!distinctIds.isEmpty()) {
+            publish(new PlayerRunsChanged(distinctIds, mode));
+        }
+    }
+
+    private void fire(List<DataChangeEvent> pending) {
+        for (DataChangeEvent event : pending) {
+            try {
+                events.fire(event);
+            } catch (RuntimeException e) {
+                // The data is already committed: a failing observer must not hide the other events.
+                LOG.errorf(e, "Data change observer failed for %s", event);
+            }
+        }
+    }
+
+    private final class PendingEvents implements Synchronization {
+
+        private final Map<Object, DataChangeEvent> buffered = new LinkedHashMap<>();
+
+        void add(DataChangeEvent event) {
+            if (event instanceof RunsChanged runs) {
+                String key = "runs:" + runs.mode() + ":" + runs.dungeonId();
+                DataChangeEvent existing = buffered.get(key);
+                if (existing instanceof RunsChanged previous) {
+                    Set<Integer> weeks = new LinkedHashSet<>(previous.weeks());
+                    weeks.addAll(runs.weeks());
+                    buffered.put(key, new RunsChanged(runs.dungeonId(), runs.mode(), weeks));
+                } else {
+                    buffered.put(key, runs);
+                }
+                return;
+            }
+            if (event instanceof PlayerRunsChanged players) {
+                String key = "players:" + players.mode();
+                if (buffered.get(key) instanceof PlayerRunsChanged previous) {
+                    Set<Long> playerIds = new LinkedHashSet<>(previous.playerIds());
+                    playerIds.addAll(players.playerIds());
+                    buffered.put(key, new PlayerRunsChanged(playerIds, players.mode()));
+                } else {
+                    buffered.put(key, players);
+                }
+                return;
+            }
+            // Records compare by value, so repeated identical events collapse into one.
+            buffered.putIfAbsent(event, event);
+        }
+
+        @Override
+        public void beforeCompletion() {
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            if (status == Status.STATUS_COMMITTED) {
+                fire(new ArrayList<>(buffered.values()));
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.opyruso.nwleaderboard.service;
+
+import com.opyruso.nwleaderboard.entity.Season;
+import com.opyruso.nwleaderboard.event.DungeonsChanged;
+import com.opyruso.nwleaderboard.event.PlayerChanged;
+import com.opyruso.nwleaderboard.event.PlayerMerged;
+import com.opyruso.nwleaderboard.event.RunsChanged;
+import com.opyruso.nwleaderboard.event.WeekCalendarChanged;
+import com.opyruso.nwleaderboard.repository.SeasonRepository;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.core.EntityTag;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps monotonic data versions bumped by committed {@link com.opyruso.nwleaderboard.event.DataChangeEvent data
+ * changes} and turns them into strong entity tags so public resources can answer conditional requests with
+ * {@code 304 Not Modified} without loading the data.
+ *
+ * <p>Three kinds of versions are tracked: one per dungeon and mode for the runs, a shared one for data displayed
+ * alongside runs (player names, mutations, seasons, dungeons) and a global one bumped by every change. Versions live
+ * in memory and every tag carries the start time of the process, so tags never survive a restart. The global tag also
+ * carries the current season.</p>
+ */
+@ApplicationScoped
+public class DataVersionService {
+
+    @Inject
+    SeasonRepository seasonRepository;
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong globalVersion = new AtomicLong();
+    private final AtomicLong sharedVersion = new AtomicLong();
+    private final Map<RunVersionKey, AtomicLong> runVersions = new ConcurrentHashMap<>();
+
+    void onRunsChanged(@Observes RunsChanged event) {
+        if (event.dungeonId() != null && event.mode() != null) {
+            runVersions.computeIfAbsent(new RunVersionKey(event.dungeonId(), event.mode()), key -> new AtomicLong())
+                    .incrementAndGet();
+        }
+        globalVersion.incrementAndGet();
+    }
+
+    void onPlayerChanged(@Observes PlayerChanged event) {
+        bumpShared();
+    }
+
+    void onPlayerMerged(@Observes PlayerMerged event) {
+        bumpShared();
+    }
+
+    void onWeekCalendarChanged(@Observes WeekCalendarChanged event) {
+        bumpShared();
+    }
+
+    void onDungeonsChanged(@Observes DungeonsChanged event) {
+        bumpShared();
+    }
+
+    /** Returns the tag of a leaderboard view of a dungeon for the provided mode. */
+    public EntityTag leaderboardTag(Long dungeonId, RunsChanged.Mode mode) {
+        return tag("lb", String.valueOf(dungeonId), mode.name(),
+                Long.toString(getRunVersion(dungeonId, mode)), Long.toString(sharedVersion.get()));
+    }
+
+    /** Returns the tag of a view combining the score and time runs of a dungeon. */
+    public EntityTag dungeonTag(Long dungeonId) {
+        return tag("dg", String.valueOf(dungeonId),
+                Long.toString(getRunVersion(dungeonId, RunsChanged.Mode.SCORE)),
+                Long.toString(getRunVersion(dungeonId, RunsChanged.Mode.TIME)),
+                Long.toString(sharedVersion.get()));
+    }
+
+    /**
+     * Returns the tag of a view that may depend on any stored data. Such views may pick the season covering today, so
+     * the tag also carries that season, which changes with the date and not with the data.
+     *
+     * @param variant optional discriminator for representations varying on request headers, may be {@code null}
+     * @return entity tag bound to the global version and the current season
+     */
+    public EntityTag globalTag(String variant) {
+        Season currentSeason = seasonRepository.findCurrent(LocalDate.now());
+        return tag("g", Long.toString(globalVersion.get()),
+                currentSeason != null ? String.valueOf(currentSeason.getId()) : "",
+                variant != null ? Integer.toHexString(variant.hashCode()) : "");
+    }
+
+    /** Returns the current global version. */
+    public long getGlobalVersion() {
+        return globalVersion.get();
+    }
+
+    /** Returns the current version of the runs of a dungeon for the provided mode. */
+    public long getRunVersion(Long dungeonId, RunsChanged.Mode mode) {
+        AtomicLong version = runVersions.get(new RunVersionKey(dungeonId, mode));
+        return version != null ? version.get() : 0L;
+    }
+
+    /** Returns the current version of the data displayed alongside runs. */
+    public long getSharedVersion() {
+        return sharedVersion.get();
+    }
+
+    private void bumpShared() {
+        sharedVersion.incrementAndGet();
+        globalVersion.incrementAndGet();
+    }
+
+    private EntityTag tag(String... parts) {
+        return new EntityTag(epoch + "-" + String.join(".", parts));
+    }
+
+    private record RunVersionKey(Long dungeonId, RunsChanged.Mode mode) {
+    }
+}
@@ -0,0 +1,419 @@
+package com.opyruso.nwleaderboard.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import javax.imageio.ImageIO;
+import org.jboss.logging.Logger;
+
+/**
+ * Fast recognizer dedicated to the score/time value field of the scoreboard. The field only ever contains digits and
+ * ':' rendered with the fixed game font, so glyphs are segmented by column projection and classified against reference
+ * templates instead of going through the full LSTM engine.
+ *
+ * <p>Reference templates are loaded from {@code ocr/digit-templates/} on the classpath when available and are otherwise
+ * learnt from confident Tesseract readings of the same field. A learnt glyph only becomes a template once several
+ * readings agree on its character, so that a single confident misreading cannot poison it. Until every supported
+ * character has a template, and every glyph of a value can be matched with enough confidence, the recognizer returns
+ * {@code null} and the caller falls back to Tesseract.</p>
+ */
+@ApplicationScoped
+public class DigitTemplateRecognizer {
+
+    private static final Logger LOG = Logger.getLogger(DigitTemplateRecognizer.class);
+
+    private static final String TEMPLATE_RESOURCE_ROOT = "ocr/digit-templates/";
+    private static final String SUPPORTED_CHARACTERS = "0123456789:";
+    private static final int GRID_WIDTH = 12;
+    private static final int GRID_HEIGHT = 20;
+    private static final int MAX_TEMPLATES_PER_CHARACTER = 8;
+    private static final int MIN_GLYPH_PIXELS = 4;
+    private static final double MIN_MATCH_SCORE = 0.80d;
+    private static final double MIN_MATCH_MARGIN = 0.04d;
+    private static final double MIN_LEARNING_CONFIDENCE = 85.0d;
+    private static final int MIN_LEARNING_CONFIRMATIONS = 3;
+    private static final int MAX_LEARNING_CANDIDATES = 200;
+    private static final double SAME_GLYPH_SIMILARITY = 0.92d;
+
+    private final Map<Character, List<GlyphTemplate>> templates = new ConcurrentHashMap<>();
+    private final List<Candidate> candidates = new ArrayList<>();
+
+    @PostConstruct
+    void loadReferenceTemplates() {
+        for (char character : SUPPORTED_CHARACTERS.toCharArray()) {
+            String name = character == ':' ? "colon" : String.valueOf(character);
+            try (InputStream stream = Thread.currentThread().getContextClassLoader()
+                    .getResourceAsStream(TEMPLATE_RESOURCE_ROOT + name + ".png")) {
+                if (stream == null) {
+                    continue;
+                }
+                BufferedImage image = ImageIO.read(stream);
+                List<GlyphTemplate> glyphs = segment(image);
+                if (glyphs.size() == 1) {
+                    addTemplate(character, glyphs.get(0));
+                } else {
+                    LOG.warnf("Ignoring digit template %s: expected a single glyph but found %d", name, glyphs.size());
+                }
+            } catch (IOException e) {
+                LOG.debugf(e, "Unable to load digit template %s", name);
+            }
+        }
+    }
+
+    /**
+     * Recognizes the digits contained in the provided value crop.
+     *
+     * @param region crop of the value field (dark glyphs on a light background or the opposite)
+     * @return the recognized text with its confidence, or {@code null} when Tesseract should be used instead
+     */
+    public Recognition recognize(BufferedImage region) {
+        if (region == null || !hasEveryCharacter()) {
+            return null;
+        }
+        List<GlyphTemplate> glyphs = segment(region);
+        if (glyphs.isEmpty()) {
+            return null;
+        }
+        StringBuilder text = new StringBuilder(glyphs.size());
+        double lowestScore = 1.0d;
+        for (GlyphTemplate glyph : glyphs) {
+            char bestCharacter = 0;
+            double bestScore = 0.0d;
+            double secondScore = 0.0d;
+            for (Map.Entry<Character, List<GlyphTemplate>> entry : templates.entrySet()) {
+                double characterScore = 0.0d;
+                for (GlyphTemplate template : entry.getValue()) {
+                    characterScore = Math.max(characterScore, similarity(glyph, template));
+                }
+                if (characterScore > bestScore) {
+                    secondScore = bestScore;
+                    bestScore = characterScore;
+                    bestCharacter = entry.getKey();
+                } else if (characterScore > secondScore) {
+                    secondScore = characterScore;
+                }
+            }
+            if (bestCharacter == 0 || bestScore < MIN_MATCH_SCORE || bestScore - secondScore < MIN_MATCH_MARGIN) {
+                return null;
+            }
+            text.append(bestCharacter);
+            lowestScore = Math.min(lowestScore, bestScore);
+        }
+        return new Recognition(text.toString(), lowestScore * 100.0d);
+    }
+
+    /** Indicates whether every supported character has a template, which makes the match margins meaningful. */
+    boolean hasEveryCharacter() {
+        for (char character : SUPPORTED_CHARACTERS.toCharArray()) {
+            List<GlyphTemplate> bucket = templates.get(character);
+            if (bucket == null || bucket.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Records the glyphs of a crop that Tesseract read with high confidence so later values can be matched without it.
+     * A glyph becomes a template once {@value #MIN_LEARNING_CONFIRMATIONS} readings agree on its character and
+     * outnumber the readings disagreeing with them four to one.
+     *
+     * @param region crop that was submitted to Tesseract
+     * @param text text returned by Tesseract
+     * @param confidence confidence reported by Tesseract (0-100)
+     */
+    public void learn(BufferedImage region, String text, Double confidence) {
+        if (region == null || text == null || confidence == null || confidence < MIN_LEARNING_CONFIDENCE) {
+            return;
+        }
+        String characters = text.replaceAll("\\s", "");
+        if (characters.isEmpty()) {
+            return;
+        }
+        for (char character : characters.toCharArray()) {
+            if (SUPPORTED_CHARACTERS.indexOf(character) < 0) {
+                return;
+            }
+        }
+        List<GlyphTemplate> glyphs = segment(region);
+        if (glyphs.size() != characters.length()) {
+            return;
+        }
+        for (int index = 0; index < glyphs.size(); index++) {
+            vote(characters.charAt(index), glyphs.get(index));
+        }
+    }
+
+    private void vote(char character, GlyphTemplate glyph) {
+        GlyphTemplate confirmed = null;
+        synchronized (candidates) {
+            Candidate match = null;
+            double matchScore = SAME_GLYPH_SIMILARITY;
+            for (Candidate candidate : candidates) {
+                double score = similarity(candidate.glyph, glyph);
+                if (score >= matchScore) {
+                    match = candidate;
+                    matchScore = score;
+                }
+            }
+            if (match == null) {
+                if (candidates.size() >= MAX_LEARNING_CANDIDATES) {
+                    candidates.remove(leastVotedCandidate());
+                }
+                match = new Candidate(glyph);
+                candidates.add(match);
+            }
+            int votes = match.votes.merge(character, 1, Integer::sum);
+            int total = match.votes.values().stream().mapToInt(Integer::intValue).sum();
+            if (votes >= MIN_LEARNING_CONFIRMATIONS && votes >= 4 * (total - votes)) {
+                candidates.remove(match);
+                confirmed = match.glyph;
+            }
+        }
+        if (confirmed != null) {
+            addTemplate(character, confirmed);
+        }
+    }
+
+    /**
+     * Returns the candidate to evict when the pool is full: the one with the fewest readings, the oldest first, so
+     * glyphs read once (misreadings, noise) make room for new ones without dropping glyphs about to be confirmed.
+     */
+    private Candidate leastVotedCandidate() {
+        Candidate evicted = null;
+        int fewestVotes = Integer.MAX_VALUE;
+        for (Candidate candidate : candidates) {
+            int votes = candidate.votes.values().stream().mapToInt(Integer::intValue).sum();
+            if (votes < fewestVotes) {
+                evicted = candidate;
+                fewestVotes = votes;
+            }
+        }
+        return evicted;
+    }
+
+    private void addTemplate(char character, GlyphTemplate glyph) {
+        List<GlyphTemplate> bucket = templates.computeIfAbsent(character, key -> new CopyOnWriteArrayList<>());
+        if (bucket.size() >= MAX_TEMPLATES_PER_CHARACTER) {
+            return;
+        }
+        for (GlyphTemplate existing : bucket) {
+            if (similarity(existing, glyph) >= 0.97d) {
+                return;
+            }
+        }
+        bucket.add(glyph);
+    }
+
+    private List<GlyphTemplate> segment(BufferedImage region) {
+        if (region == null || region.getWidth() <= 0 || region.getHeight() <= 0) {
+            return List.of();
+        }
+        boolean[][] foreground = binarise(region);
+        int width = region.getWidth();
+        int height = region.getHeight();
+
+        int[] rowCounts = new int[height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if (foreground[y][x]) {
+                    rowCounts[y]++;
+                }
+            }
+        }
+        int[] band = largestBand(rowCounts);
+        if (band == null) {
+            return List.of();
+        }
+        int top = band[0];
+        int bottom = band[1];
+
+        int[] columnCounts = new int[width];
+        for (int x = 0; x < width; x++) {
+            for (int y = top; y <= bottom; y++) {
+                if (foreground[y][x]) {
+                    columnCounts[x]++;
+                }
+            }
+        }
+
+        List<GlyphTemplate> glyphs = new ArrayList<>();
+        int start = -1;
+        int pixels = 0;
+        for (int x = 0; x <= width; x++) {
+            boolean filled = x < width && columnCounts[x] > 0;
+            if (filled) {
+                if (start < 0) {
+                    start = x;
+                    pixels = 0;
+                }
+                pixels += columnCounts[x];
+            } else if (start >= 0) {
+                if (pixels >= MIN_GLYPH_PIXELS) {
+                    glyphs.add(toTemplate(foreground, start, x - 1, top, bottom));
+                }
+                start = -1;
+            }
+        }
+        return glyphs;
+    }
+
+    private int[] largestBand(int[] rowCounts) {
+        int bestStart = -1;
+        int bestEnd = -1;
+        int bestPixels = 0;
+        int start = -1;
+        int pixels = 0;
+        for (int y = 0; y <= rowCounts.length; y++) {
+            boolean filled = y < rowCounts.length && rowCounts[y] > 0;
+            if (filled) {
+                if (start < 0) {
+                    start = y;
+                    pixels = 0;
+                }
+                pixels += rowCounts[y];
+            } else if (start >= 0) {
+                if (pixels > bestPixels) {
+                    bestPixels = pixels;
+                    bestStart = start;
+                    bestEnd = y - 1;
+                }
+                start = -1;
+            }
+        }
+        return bestStart >= 0 ? new int[] {bestStart, bestEnd} : null;
+    }
+
+    private GlyphTemplate toTemplate(boolean[][] foreground, int left, int right, int top, int bottom) {
+        int glyphWidth = right - left + 1;
+        int glyphHeight = bottom - top + 1;
+        float[] cells = new float[GRID_WIDTH * GRID_HEIGHT];
+        for (int gy = 0; gy < GRID_HEIGHT; gy++) {
+            int y0 = top + gy * glyphHeight / GRID_HEIGHT;
+            int y1 = Math.max(y0 + 1, top + (gy + 1) * glyphHeight / GRID_HEIGHT);
+            for (int gx = 0; gx < GRID_WIDTH; gx++) {
+                int x0 = left + gx * glyphWidth / GRID_WIDTH;
+                int x1 = Math.max(x0 + 1, left + (gx + 1) * glyphWidth / GRID_WIDTH);
+                int filled = 0;
+                int total = 0;
+                for (int y = y0; y < y1 && y <= bottom; y++) {
+                    for (int x = x0; x < x1 && x <= right; x++) {
+                        total++;
+                        if (foreground[y][x]) {
+                            filled++;
+                        }
+                    }
+                }
+                cells[gy * GRID_WIDTH + gx] = total > 0 ? (float) filled / total : 0f;
+            }
+        }
+        return new GlyphTemplate(cells, (float) glyphWidth / glyphHeight);
+    }
+
+    private double similarity(GlyphTemplate left, GlyphTemplate right) {
+        double intersection = 0.0d;
+        double union = 0.0d;
+        for (int index = 0; index < left.cells().length; index++) {
+            intersection += Math.min(left.cells()[index], right.cells()[index]);
+            union += Math.max(left.cells()[index], right.cells()[index]);
+        }
+        if (union <= 0.0d) {
+            return 0.0d;
+        }
+        double shape = intersection / union;
+        float widest = Math.max(left.aspect(), right.aspect());
+        double aspectPenalty = widest > 0f ? Math.abs(left.aspect() - right.aspect()) / widest : 0.0d;
+        return shape * (1.0d - 0.5d * Math.min(1.0d, aspectPenalty));
+    }
+
+    private boolean[][] binarise(BufferedImage region) {
+        int width = region.getWidth();
+        int height = region.getHeight();
+        int[] luminance = new int[width * height];
+        int[] histogram = new int[256];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int rgb = region.getRGB(x, y);
+                int value = (((rgb >> 16) & 0xFF) * 299 + ((rgb >> 8) & 0xFF) * 587 + (rgb & 0xFF) * 114) / 1000;
+                luminance[y * width + x] = value;
+                histogram[value]++;
+            }
+        }
+        int threshold = otsuThreshold(histogram, width * height);
+        int darkPixels = 0;
+        for (int value : luminance) {
+            if (value <= threshold) {
+                darkPixels++;
+            }
+        }
+        // Glyphs are assumed to be the minority class whatever the polarity of the crop.
+        boolean darkForeground = darkPixels * 2 <= luminance.length;
+        boolean[][] foreground = new boolean[height][width];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                boolean dark = luminance[y * width + x] <= threshold;
+                foreground[y][x] = darkForeground == dark;
+            }
+        }
+        return foreground;
+    }
+
+    private int otsuThreshold(int[] histogram, int total) {
+        long sum = 0L;
+        for (int value = 0; value < histogram.length; value++) {
+            sum += (long) value * histogram[value];
+        }
+        long backgroundSum = 0L;
+        int backgroundWeight = 0;
+        double bestVariance = -1.0d;
+        int threshold = 127;
+        for (int value = 0; value < histogram.length; value++) {
+            backgroundWeight += histogram[value];
+            if (backgroundWeight == 0) {
+                continue;
+            }
+            int foregroundWeight = total - backgroundWeight;
+            if (foregroundWeight == 0) {
+                break;
+            }
+            backgroundSum += (long) value * histogram[value];
+            double backgroundMean = (double) backgroundSum / backgroundWeight;
+            double foregroundMean = (double) (sum - backgroundSum) / foregroundWeight;
+            double variance = (double) backgroundWeight * foregroundWeight
+                    * (backgroundMean - foregroundMean) * (backgroundMean - foregroundMean);
+            if (variance > bestVariance) {
+                bestVariance = variance;
+                threshold = value;
+            }
+        }
+        return threshold;
+    }
+
+    /**
+     * Text recognized from a value crop and its confidence on the Tesseract 0-100 scale.
+     */
+    public record Recognition(String text, double confidence) {
+    }
+
+    private record GlyphTemplate(float[] cells, float aspect) {
+    }
+
+    /** Glyph read by Tesseract with the number of readings of each character, until one of them is confirmed. */
+    private static final class Candidate {
+
+        private final GlyphTemplate glyph;
+        private final Map<Character, Integer> votes = new HashMap<>();
+
+        private Candidate(GlyphTemplate glyph) {
+            this.glyph = glyph;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.opyruso.nwleaderboard.service;
+
+import com.opyruso.nwleaderboard.event.RunsChanged;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Value envelope of a dungeon leaderboard for a season: number of runs, lowest and highest value and percentiles.
+ * Envelopes are computed from the {@link RunIndexService run index} and kept until the index of the dungeon is rebuilt
+ * after a write or the week calendar changes, so every profile of the same season reads the same envelope for free.
+ */
+@ApplicationScoped
+public class DungeonEnvelopeService {
+
+    @Inject
+    RunIndexService runIndexService;
+
+    @Inject
+    WeekCalendarService weekCalendarService;
+
+    private final Map<EnvelopeKey, CachedEnvelope> envelopes = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the envelope of a dungeon leaderboard.
+     *
+     * @param dungeonId identifier of the dungeon
+     * @param mode leaderboard to read
+     * @param seasonId season to restrict the runs to, {@code null} for every week
+     * @return envelope, {@link Envelope#EMPTY} when no run matches
+     */
+    @Transactional(Transactional.TxType.SUPPORTS)
+    public Envelope getEnvelope(Long dungeonId, RunsChanged.Mode mode, Integer seasonId) {
+        if (dungeonId == null || mode == null) {
+            return Envelope.EMPTY;
+        }
+        RunIndex index = mode == RunsChanged.Mode.SCORE
+                ? runIndexService.scoreIndex(dungeonId)
+                : runIndexService.timeIndex(dungeonId);
+        WeekCalendar calendar = weekCalendarService.current();
+        EnvelopeKey key = new EnvelopeKey(dungeonId, mode, seasonId);
+        CachedEnvelope cached = envelopes.get(key);
+        if (cached != null && cached.index() == index && cached.calendar() == calendar) {
+            return cached.envelope();
+        }
+
+        List<Integer> weeks = seasonId != null ? calendar.weeksBySeason(null, seasonId) : null;
+        if (weeks != null && weeks.isEmpty()) {
+            // Unknown seasons are not kept so arbitrary identifiers cannot fill the map.
+            return Envelope.EMPTY;
+        }
+        BitSet selection = index.select(weeks, null);
+        Envelope envelope = Envelope.of(index.values(selection), mode == RunsChanged.Mode.TIME);
+        if (index.size() > 0) {
+            envelopes.put(key, new CachedEnvelope(index, calendar, envelope));
+        }
+        return envelope;
+    }
+
+    /** Number of runs, bounds and percentiles of the values of a leaderboard. */
+    public static final class Envelope {
+
+        public static final Envelope EMPTY = new Envelope(new int[0]);
+
+        private final int[] ascending;
+
+        private Envelope(int[] ascending) {
+            this.ascending = ascending;
+        }
+
+        static Envelope of(int[] rankedValues, boolean ascendingRanking) {
+            int[] ascending = new int[rankedValues.length];
+            for (int i = 0; i < rankedValues.length; i++) {
+                ascending[i] = ascendingRanking ? rankedValues[i] : rankedValues[rankedValues.length - 1 - i];
+            }
+            return ascending.length == 0 ? EMPTY : new Envelope(ascending);
+        }
+
+        /** Returns the number of runs. */
+        public int count() {
+            return ascending.length;
+        }
+
+        /** Returns the lowest value or {@code null} when there is no run. */
+        public Integer min() {
+            return ascending.length > 0 ? ascending[0] : null;
+        }
+
+        /** Returns the highest value or {@code null} when there is no run. */
+        public Integer max() {
+            return ascending.length > 0 ? ascending[ascending.length - 1] : null;
+        }
+
+        /**
+         * Returns the nearest-rank percentile of the values in ascending order.
+         *
+         * @param percentile percentile between 0 and 100
+         * @return value or {@code null} when there is no run
+         */
+        public Integer percentile(double percentile) {
+            if (ascending.length == 0) {
+                return null;
+            }
+            double clamped = Math.clamp(percentile, 0.0, 100.0);
+            int rank = (int) Math.ceil(clamped / 100.0 * ascending.length);
+            return ascending[Math.clamp(rank - 1, 0, ascending.length - 1)];
+        }
+    }
+
+    private record EnvelopeKey(Long dungeonId, RunsChanged.Mode mode, Integer seasonId) {
+    }
+
+    private record CachedEnvelope(RunIndex index, WeekCalendar calendar, Envelope envelope) {
+    }
+}
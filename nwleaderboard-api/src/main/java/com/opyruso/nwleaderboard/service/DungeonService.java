@@ -1,6 +1,7 @@
 package com.opyruso.nwleaderboard.service;
 
 import com.opyruso.nwleaderboard.entity.Dungeon;
+import com.opyruso.nwleaderboard.event.DungeonsChanged;
 import com.opyruso.nwleaderboard.repository.DungeonRepository;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
@@ -19,6 +20,9 @@ public class DungeonService {
     @Inject
     DungeonRepository dungeonRepository;
 
+    @Inject
+    DataChangeEventBus dataChangeEventBus;
+
     @Transactional
     public void updateHighlightedDungeons(Collection<Long> highlightedIds) {
         Set<Long> targets = normaliseIds(highlightedIds);
@@ -33,6 +37,7 @@ public class DungeonService {
                 dungeon.setHighlighted(shouldHighlight);
             }
         }
+        dataChangeEventBus.publish(new DungeonsChanged());
     }
 
     private Set<Long> normaliseIds(Collection<Long> ids) {
@@ -1,24 +1,16 @@
 package com.opyruso.nwleaderboard.service;
 
 import com.opyruso.nwleaderboard.dto.IndividualRankingEntryResponse;
-import com.opyruso.nwleaderboard.entity.Player;
-import com.opyruso.nwleaderboard.entity.RunScore;
-import com.opyruso.nwleaderboard.entity.RunScorePlayer;
-import com.opyruso.nwleaderboard.entity.RunTime;
-import com.opyruso.nwleaderboard.entity.RunTimePlayer;
-import com.opyruso.nwleaderboard.repository.RunScorePlayerRepository;
-import com.opyruso.nwleaderboard.repository.RunScoreRepository;
-import com.opyruso.nwleaderboard.repository.RunTimePlayerRepository;
-import com.opyruso.nwleaderboard.repository.RunTimeRepository;
-import com.opyruso.nwleaderboard.repository.WeekMutationDungeonRepository;
+import com.opyruso.nwleaderboard.repository.PlayerRepository;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 import java.text.Collator;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
@@ -35,19 +27,13 @@ public class IndividualRankingService {
     private static final int MAX_PLACEMENT = 10;
 
     @Inject
-    RunScoreRepository runScoreRepository;
+    RunIndexService runIndexService;
 
     @Inject
-    RunScorePlayerRepository runScorePlayerRepository;
+    PlayerRepository playerRepository;
 
     @Inject
-    RunTimeRepository runTimeRepository;
-
-    @Inject
-    RunTimePlayerRepository runTimePlayerRepository;
-
-    @Inject
-    WeekMutationDungeonRepository weekMutationDungeonRepository;
+    WeekCalendarService weekCalendarService;
 
     public enum Mode {
         GLOBAL,
@@ -77,11 +63,12 @@ public class IndividualRankingService {
             return List.of();
         }
 
-        Map<Long, Map<Integer, Integer>> scorePlacements =
-                computeScorePlacements(playerNames, playerRegions, allowedWeeks);
-        Map<Long, Map<Integer, Integer>> timePlacements =
-                computeTimePlacements(playerNames, playerRegions, allowedWeeks);
-        Map<Long, Integer> totalRunsByPlayer = computeTotalRuns(playerNames, playerRegions, allowedWeeks);
+        PlayerDirectory directory = new PlayerDirectory(playerRepository.listIdentityColumns());
+        Map<Long, Map<Integer, Integer>> scorePlacements = computePlacements(
+                runIndexService.scoreIndexes(), false, directory, playerNames, playerRegions, allowedWeeks);
+        Map<Long, Map<Integer, Integer>> timePlacements = computePlacements(
+                runIndexService.timeIndexes(), true, directory, playerNames, playerRegions, allowedWeeks);
+        Map<Long, Integer> totalRunsByPlayer = computeTotalRuns(directory, playerNames, playerRegions, allowedWeeks);
 
         if (scorePlacements.isEmpty() && timePlacements.isEmpty() && totalRunsByPlayer.isEmpty()) {
             return List.of();
@@ -205,7 +192,7 @@ public class IndividualRankingService {
         if (seasonId <= 0) {
             return Set.of();
         }
-        List<Integer> weeks = weekMutationDungeonRepository.findWeekNumbersBySeason(null, seasonId);
+        List<Integer> weeks = weekCalendarService.current().weeksBySeason(null, seasonId);
         if (weeks == null || weeks.isEmpty()) {
             return Set.of();
         }
@@ -231,179 +218,44 @@ public class IndividualRankingService {
         return week != null && allowedWeeks.contains(week);
     }
 
-    private Map<Long, Map<Integer, Integer>> computeScorePlacements(
-            Map<Long, String> playerNames, Map<Long, String> playerRegions, Set<Integer> allowedWeeks) {
-        List<RunScore> runs = runScoreRepository
-                .find("ORDER BY week ASC, score DESC, id ASC")
-                .list();
-        if (runs.isEmpty()) {
-            return Map.of();
-        }
-        Map<Long, List<Player>> playersByRun = loadPlayersForScoreRuns(runs);
-        Map<Integer, List<RunScore>> runsByWeek = new LinkedHashMap<>();
-        for (RunScore run : runs) {
-            if (run == null) {
-                continue;
-            }
-            Integer week = run.getWeek();
-            Integer score = run.getScore();
-            if (week == null || score == null) {
-                continue;
-            }
-            if (!isWeekAllowed(week, allowedWeeks)) {
-                continue;
-            }
-            runsByWeek.computeIfAbsent(week, unused -> new ArrayList<>()).add(run);
-        }
-        Map<Long, Map<Integer, Integer>> placements = new HashMap<>();
-        runsByWeek.forEach((week, weekRuns) -> {
-            if (weekRuns == null || weekRuns.isEmpty()) {
-                return;
-            }
-            weekRuns.sort((left, right) -> {
-                int compareScore = Integer.compare(
-                        right.getScore() != null ? right.getScore() : Integer.MIN_VALUE,
-                        left.getScore() != null ? left.getScore() : Integer.MIN_VALUE);
-                if (compareScore != 0) {
-                    return compareScore;
-                }
-                Long leftId = left.getId();
-                Long rightId = right.getId();
-                if (Objects.equals(leftId, rightId)) {
-                    return 0;
-                }
-                if (leftId == null) {
-                    return 1;
-                }
-                if (rightId == null) {
-                    return -1;
-                }
-                return Long.compare(leftId, rightId);
-            });
-            int placement = 1;
-            for (RunScore run : weekRuns) {
-                if (placement > MAX_PLACEMENT) {
-                    break;
-                }
-                if (run == null || run.getId() == null) {
-                    placement++;
-                    continue;
-                }
-                List<Player> players = playersByRun.getOrDefault(run.getId(), List.of());
-                if (players.isEmpty()) {
-                    placement++;
+    private Map<Long, Map<Integer, Integer>> computePlacements(
+            List<RunIndex> indexes,
+            boolean lowerIsBetter,
+            PlayerDirectory directory,
+            Map<Long, String> playerNames,
+            Map<Long, String> playerRegions,
+            Set<Integer> allowedWeeks) {
+        // Indexes are sorted by value then identifier, so the first runs of a week in every dungeon are the only
+        // candidates for the placements of that week.
+        Map<Integer, List<PlacementCandidate>> candidatesByWeek = new HashMap<>();
+        for (RunIndex index : indexes) {
+            for (Integer week : index.weeks()) {
+                if (!isWeekAllowed(week, allowedWeeks)) {
                     continue;
                 }
-                Set<Long> processed = new HashSet<>();
-                for (Player player : players) {
-                    Player main = resolveMain(player);
-                    if (main == null || main.getId() == null) {
-                        continue;
-                    }
-                    Long mainId = main.getId();
-                    if (!processed.add(mainId)) {
-                        continue;
-                    }
-                    playerNames.merge(
-                            mainId,
-                            normaliseName(main.getPlayerName()),
-                            IndividualRankingService::preferNonEmpty);
-                    String regionId = normaliseRegionId(
-                            main.getRegion() != null ? main.getRegion().getId() : null);
-                    if (regionId != null) {
-                        playerRegions.putIfAbsent(mainId, regionId);
-                    }
-                    Map<Integer, Integer> weeks = placements.computeIfAbsent(mainId, unused -> new HashMap<>());
-                    weeks.merge(week, placement, Math::min);
+                BitSet positions = index.select(List.of(week), null);
+                int taken = 0;
+                for (int position = positions.nextSetBit(0);
+                        position >= 0 && taken < MAX_PLACEMENT;
+                        position = positions.nextSetBit(position + 1), taken++) {
+                    candidatesByWeek.computeIfAbsent(week, unused -> new ArrayList<>()).add(new PlacementCandidate(
+                            index.id(position), index.value(position), index.playerIds(position)));
                 }
-                placement++;
-            }
-        });
-        return placements;
-    }
-
-    private Map<Long, Map<Integer, Integer>> computeTimePlacements(
-            Map<Long, String> playerNames, Map<Long, String> playerRegions, Set<Integer> allowedWeeks) {
-        List<RunTime> runs = runTimeRepository
-                .find("ORDER BY week ASC, timeInSecond ASC, id ASC")
-                .list();
-        if (runs.isEmpty()) {
-            return Map.of();
-        }
-        Map<Long, List<Player>> playersByRun = loadPlayersForTimeRuns(runs);
-        Map<Integer, List<RunTime>> runsByWeek = new LinkedHashMap<>();
-        for (RunTime run : runs) {
-            if (run == null) {
-                continue;
-            }
-            Integer week = run.getWeek();
-            Integer time = run.getTimeInSecond();
-            if (week == null || time == null) {
-                continue;
-            }
-            if (!isWeekAllowed(week, allowedWeeks)) {
-                continue;
             }
-            runsByWeek.computeIfAbsent(week, unused -> new ArrayList<>()).add(run);
         }
+        Comparator<PlacementCandidate> byValue = Comparator.comparingInt(PlacementCandidate::value);
+        Comparator<PlacementCandidate> order = (lowerIsBetter ? byValue : byValue.reversed())
+                .thenComparingLong(PlacementCandidate::runId);
+
         Map<Long, Map<Integer, Integer>> placements = new HashMap<>();
-        runsByWeek.forEach((week, weekRuns) -> {
-            if (weekRuns == null || weekRuns.isEmpty()) {
-                return;
-            }
-            weekRuns.sort((left, right) -> {
-                int compareTime = Integer.compare(
-                        left.getTimeInSecond() != null ? left.getTimeInSecond() : Integer.MAX_VALUE,
-                        right.getTimeInSecond() != null ? right.getTimeInSecond() : Integer.MAX_VALUE);
-                if (compareTime != 0) {
-                    return compareTime;
-                }
-                Long leftId = left.getId();
-                Long rightId = right.getId();
-                if (Objects.equals(leftId, rightId)) {
-                    return 0;
-                }
-                if (leftId == null) {
-                    return 1;
-                }
-                if (rightId == null) {
-                    return -1;
-                }
-                return Long.compare(leftId, rightId);
-            });
+        candidatesByWeek.forEach((week, candidates) -> {
+            candidates.sort(order);
             int placement = 1;
-            for (RunTime run : weekRuns) {
+            for (PlacementCandidate candidate : candidates) {
                 if (placement > MAX_PLACEMENT) {
                     break;
                 }
-                if (run == null || run.getId() == null) {
-                    placement++;
-                    continue;
-                }
-                List<Player> players = playersByRun.getOrDefault(run.getId(), List.of());
-                if (players.isEmpty()) {
-                    placement++;
-                    continue;
-                }
-                Set<Long> processed = new HashSet<>();
-                for (Player player : players) {
-                    Player main = resolveMain(player);
-                    if (main == null || main.getId() == null) {
-                        continue;
-                    }
-                    Long mainId = main.getId();
-                    if (!processed.add(mainId)) {
-                        continue;
-                    }
-                    playerNames.merge(
-                            mainId,
-                            normaliseName(main.getPlayerName()),
-                            IndividualRankingService::preferNonEmpty);
-                    String regionId = normaliseRegionId(
-                            main.getRegion() != null ? main.getRegion().getId() : null);
-                    if (regionId != null) {
-                        playerRegions.putIfAbsent(mainId, regionId);
-                    }
+                for (Long mainId : resolveMains(candidate.playerIds(), directory, playerNames, playerRegions)) {
                     Map<Integer, Integer> weeks = placements.computeIfAbsent(mainId, unused -> new HashMap<>());
                     weeks.merge(week, placement, Math::min);
                 }
@@ -414,130 +266,47 @@ public class IndividualRankingService {
     }
 
     private Map<Long, Integer> computeTotalRuns(
-            Map<Long, String> playerNames, Map<Long, String> playerRegions, Set<Integer> allowedWeeks) {
+            PlayerDirectory directory,
+            Map<Long, String> playerNames,
+            Map<Long, String> playerRegions,
+            Set<Integer> allowedWeeks) {
         Map<Long, Integer> runCounts = new HashMap<>();
-
-        List<RunScore> scoreRuns = runScoreRepository.find("ORDER BY id ASC").list();
-        if (!scoreRuns.isEmpty()) {
-            Map<Long, List<Player>> playersByRun = loadPlayersForScoreRuns(scoreRuns);
-            for (RunScore run : scoreRuns) {
-                if (run == null || run.getId() == null || !isWeekAllowed(run.getWeek(), allowedWeeks)) {
-                    continue;
-                }
-                List<Player> players = playersByRun.getOrDefault(run.getId(), List.of());
-                if (players.isEmpty()) {
-                    continue;
-                }
-                Set<Long> processed = new HashSet<>();
-                for (Player player : players) {
-                    Player main = resolveMain(player);
-                    if (main == null || main.getId() == null) {
-                        continue;
-                    }
-                    Long mainId = main.getId();
-                    if (!processed.add(mainId)) {
-                        continue;
-                    }
-                    playerNames.merge(mainId, normaliseName(main.getPlayerName()), IndividualRankingService::preferNonEmpty);
-                    String regionId = normaliseRegionId(main.getRegion() != null ? main.getRegion().getId() : null);
-                    if (regionId != null) {
-                        playerRegions.putIfAbsent(mainId, regionId);
-                    }
-                    runCounts.merge(mainId, 1, Integer::sum);
-                }
-            }
-        }
-
-        List<RunTime> timeRuns = runTimeRepository.find("ORDER BY id ASC").list();
-        if (!timeRuns.isEmpty()) {
-            Map<Long, List<Player>> playersByRun = loadPlayersForTimeRuns(timeRuns);
-            for (RunTime run : timeRuns) {
-                if (run == null || run.getId() == null || !isWeekAllowed(run.getWeek(), allowedWeeks)) {
+        List<RunIndex> indexes = new ArrayList<>(runIndexService.scoreIndexes());
+        indexes.addAll(runIndexService.timeIndexes());
+        for (RunIndex index : indexes) {
+            for (int position = 0; position < index.size(); position++) {
+                if (!isWeekAllowed(index.week(position), allowedWeeks)) {
                     continue;
                 }
-                List<Player> players = playersByRun.getOrDefault(run.getId(), List.of());
-                if (players.isEmpty()) {
-                    continue;
-                }
-                Set<Long> processed = new HashSet<>();
-                for (Player player : players) {
-                    Player main = resolveMain(player);
-                    if (main == null || main.getId() == null) {
-                        continue;
-                    }
-                    Long mainId = main.getId();
-                    if (!processed.add(mainId)) {
-                        continue;
-                    }
-                    playerNames.merge(mainId, normaliseName(main.getPlayerName()), IndividualRankingService::preferNonEmpty);
-                    String regionId = normaliseRegionId(main.getRegion() != null ? main.getRegion().getId() : null);
-                    if (regionId != null) {
-                        playerRegions.putIfAbsent(mainId, regionId);
-                    }
+                for (Long mainId : resolveMains(index.playerIds(position), directory, playerNames, playerRegions)) {
                     runCounts.merge(mainId, 1, Integer::sum);
                 }
             }
         }
-
         return runCounts;
     }
 
-    private Map<Long, List<Player>> loadPlayersForScoreRuns(List<RunScore> runs) {
-        List<Long> runIds = runs.stream()
-                .filter(Objects::nonNull)
-                .map(RunScore::getId)
-                .filter(Objects::nonNull)
-                .distinct()
-                .toList();
-        if (runIds.isEmpty()) {
-            return Map.of();
-        }
-        List<RunScorePlayer> associations = runScorePlayerRepository.listWithPlayersByRunIds(runIds);
-        Map<Long, LinkedHashMap<Long, Player>> playersByRun = new HashMap<>();
-        for (RunScorePlayer association : associations) {
-            if (association == null || association.getRunScore() == null || association.getPlayer() == null) {
-                continue;
-            }
-            Long runId = association.getRunScore().getId();
-            Player player = association.getPlayer();
-            if (runId == null || player.getId() == null) {
-                continue;
-            }
-            LinkedHashMap<Long, Player> bucket = playersByRun.computeIfAbsent(runId, unused -> new LinkedHashMap<>());
-            bucket.putIfAbsent(player.getId(), player);
-        }
-        Map<Long, List<Player>> result = new HashMap<>();
-        playersByRun.forEach((runId, bucket) -> result.put(runId, List.copyOf(bucket.values())));
-        return result;
-    }
-
-    private Map<Long, List<Player>> loadPlayersForTimeRuns(List<RunTime> runs) {
-        List<Long> runIds = runs.stream()
-                .filter(Objects::nonNull)
-                .map(RunTime::getId)
-                .filter(Objects::nonNull)
-                .distinct()
-                .toList();
-        if (runIds.isEmpty()) {
-            return Map.of();
+    private Set<Long> resolveMains(
+            long[] playerIds,
+            PlayerDirectory directory,
+            Map<Long, String> playerNames,
+            Map<Long, String> playerRegions) {
+        if (playerIds == null || playerIds.length == 0) {
+            return Set.of();
         }
-        List<RunTimePlayer> associations = runTimePlayerRepository.listWithPlayersByRunIds(runIds);
-        Map<Long, LinkedHashMap<Long, Player>> playersByRun = new HashMap<>();
-        for (RunTimePlayer association : associations) {
-            if (association == null || association.getRunTime() == null || association.getPlayer() == null) {
+        Set<Long> mains = new LinkedHashSet<>();
+        for (long playerId : playerIds) {
+            PlayerIdentity main = directory.resolveMain(playerId);
+            if (main == null || !mains.add(main.id())) {
                 continue;
             }
-            Long runId = association.getRunTime().getId();
-            Player player = association.getPlayer();
-            if (runId == null || player.getId() == null) {
-                continue;
+            playerNames.merge(main.id(), normaliseName(main.name()), IndividualRankingService::preferNonEmpty);
+            String regionId = normaliseRegionId(main.regionId());
+            if (regionId != null) {
+                playerRegions.putIfAbsent(main.id(), regionId);
             }
-            LinkedHashMap<Long, Player> bucket = playersByRun.computeIfAbsent(runId, unused -> new LinkedHashMap<>());
-            bucket.putIfAbsent(player.getId(), player);
         }
-        Map<Long, List<Player>> result = new HashMap<>();
-        playersByRun.forEach((runId, bucket) -> result.put(runId, List.copyOf(bucket.values())));
-        return result;
+        return mains;
     }
 
     private static int pointsForPlacement(int placement) {
@@ -578,23 +347,46 @@ public class IndividualRankingService {
         return candidate != null ? candidate : "";
     }
 
-    private Player resolveMain(Player player) {
-        if (player == null) {
-            return null;
+    private record PlacementCandidate(long runId, int value, long[] playerIds) {
+    }
+
+    private record PlayerIdentity(Long id, Long mainId, String name, String regionId) {
+    }
+
+    /** Identity of every player, used to resolve main characters without loading the entities. */
+    private static final class PlayerDirectory {
+
+        private final Map<Long, PlayerIdentity> players = new HashMap<>();
+
+        PlayerDirectory(List<Object[]> rows) {
+            for (Object[] row : rows) {
+                if (row == null || row.length < 4 || !(row[0] instanceof Number id)) {
+                    continue;
+                }
+                Long mainId = row[1] instanceof Number main ? main.longValue() : null;
+                players.put(id.longValue(), new PlayerIdentity(
+                        id.longValue(), mainId, (String) row[2], (String) row[3]));
+            }
         }
-        Player current = player;
-        Set<Long> visited = new HashSet<>();
-        while (current.getMainCharacter() != null) {
-            if (current.getId() != null && !visited.add(current.getId())) {
-                break;
+
+        PlayerIdentity resolveMain(long playerId) {
+            PlayerIdentity current = players.get(playerId);
+            if (current == null) {
+                return null;
             }
-            Player next = current.getMainCharacter();
-            if (next == null || next.equals(current)) {
-                break;
+            Set<Long> visited = new HashSet<>();
+            while (current.mainId() != null) {
+                if (!visited.add(current.id())) {
+                    break;
+                }
+                PlayerIdentity next = players.get(current.mainId());
+                if (next == null || next.id().equals(current.id())) {
+                    break;
+                }
+                current = next;
             }
-            current = next;
+            return current;
         }
-        return current;
     }
 
     private static final class PlayerPoints {
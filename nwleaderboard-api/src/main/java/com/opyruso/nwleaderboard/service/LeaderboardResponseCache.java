@@ -0,0 +1,241 @@
+package com.opyruso.nwleaderboard.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.opyruso.nwleaderboard.event.DungeonsChanged;
+import com.opyruso.nwleaderboard.event.PlayerChanged;
+import com.opyruso.nwleaderboard.event.PlayerMerged;
+import com.opyruso.nwleaderboard.event.RunsChanged;
+import com.opyruso.nwleaderboard.event.WeekCalendarChanged;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Bounded cache of already serialised leaderboard pages and charts. Entries are keyed by the normalised query and the
+ * data versions it was computed from, so a stale entry can never be served; committed data changes additionally evict
+ * the entries of the affected dungeon to release memory early.
+ */
+@ApplicationScoped
+public class LeaderboardResponseCache {
+
+    private static final int GZIP_MIN_LENGTH = 1024;
+
+    @ConfigProperty(name = "leaderboard.response-cache.max-entries", defaultValue = "500")
+    int maxEntries;
+
+    @ConfigProperty(name = "leaderboard.response-cache.gzip", defaultValue = "true")
+    boolean gzipEnabled;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Inject
+    DataVersionService dataVersionService;
+
+    @Inject
+    LeaderboardService leaderboardService;
+
+    @Inject
+    RequestCoalescer requestCoalescer;
+
+    private final Map<Key, CachedResponse> entries = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Key, CachedResponse> eldest) {
+                    return size() > Math.max(1, maxEntries);
+                }
+            });
+
+    /** Views of a dungeon leaderboard that can be cached. */
+    public enum View {
+        SCORE_PAGE(RunsChanged.Mode.SCORE),
+        SCORE_CHART(RunsChanged.Mode.SCORE),
+        TIME_PAGE(RunsChanged.Mode.TIME),
+        TIME_CHART(RunsChanged.Mode.TIME);
+
+        private final RunsChanged.Mode mode;
+
+        View(RunsChanged.Mode mode) {
+            this.mode = mode;
+        }
+
+        public RunsChanged.Mode mode() {
+            return mode;
+        }
+
+        boolean paged() {
+            return this == SCORE_PAGE || this == TIME_PAGE;
+        }
+    }
+
+    /**
+     * Builds the normalised cache key of a leaderboard query. Filters are trimmed, deduplicated and sorted, paging is
+     * sanitised the same way {@link LeaderboardService} does and the current data versions are included.
+     */
+    public Key key(
+            View view,
+            Long dungeonId,
+            Integer page,
+            Integer pageSize,
+            List<String> mutationTypeIds,
+            List<String> mutationPromotionIds,
+            List<String> mutationCurseIds,
+            List<String> regionIds,
+            List<Integer> weekNumbers,
+            Integer seasonId) {
+        boolean paged = view.paged();
+        return new Key(
+                view,
+                dungeonId,
+                paged ? leaderboardService.sanitisePage(page) : 0,
+                paged ? leaderboardService.sanitisePageSize(pageSize) : 0,
+                normaliseIds(mutationTypeIds, false),
+                normaliseIds(mutationPromotionIds, false),
+                normaliseIds(mutationCurseIds, false),
+                normaliseIds(regionIds, true),
+                normaliseWeeks(weekNumbers),
+                seasonId,
+                dataVersionService.getRunVersion(dungeonId, view.mode()),
+                dataVersionService.getSharedVersion());
+    }
+
+    /**
+     * Returns the cached representation for the key, computing and serialising it with the loader on a miss.
+     * Concurrent misses on the same key share a single computation.
+     *
+     * @param key normalised query built with {@link #key}
+     * @param loader computes the response object to serialise
+     * @return serialised response
+     */
+    public CachedResponse getOrLoad(Key key, Supplier<?> loader) {
+        CachedResponse cached = entries.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        return requestCoalescer.execute("leaderboard", key, () -> {
+            CachedResponse computed = encode(loader.get());
+            entries.put(key, computed);
+            return computed;
+        });
+    }
+
+    void onRunsChanged(@Observes RunsChanged event) {
+        synchronized (entries) {
+            entries.keySet().removeIf(key -> Objects.equals(key.dungeonId(), event.dungeonId())
+                    && key.view().mode() == event.mode());
+        }
+    }
+
+    void onPlayerChanged(@Observes PlayerChanged event) {
+        entries.clear();
+    }
+
+    void onPlayerMerged(@Observes PlayerMerged event) {
+        entries.clear();
+    }
+
+    void onWeekCalendarChanged(@Observes WeekCalendarChanged event) {
+        entries.clear();
+    }
+
+    void onDungeonsChanged(@Observes DungeonsChanged event) {
+        entries.clear();
+    }
+
+    private CachedResponse encode(Object value) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to serialise leaderboard response", e);
+        }
+        byte[] gzip = gzipEnabled && json.length >= GZIP_MIN_LENGTH ? gzip(json) : null;
+        return new CachedResponse(json, gzip);
+    }
+
+    private byte[] gzip(byte[] json) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream output = new GZIPOutputStream(buffer)) {
+            output.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+
+    private List<String> normaliseIds(List<String> values, boolean upperCase) {
+        if (values == null) {
+            return List.of();
+        }
+        TreeSet<String> unique = new TreeSet<>();
+        for (String value : values) {
+            if (value == null) {
+                continue;
+            }
+            String trimmed = value.strip();
+            if (!trimmed.isEmpty()) {
+                unique.add(upperCase ? trimmed.toUpperCase(Locale.ROOT) : trimmed);
+            }
+        }
+        return List.copyOf(unique);
+    }
+
+    /**
+     * Keeps {@code null} (every week) apart from a list without any valid week (no week at all), as the leaderboard
+     * service does.
+     */
+    private List<Integer> normaliseWeeks(List<Integer> values) {
+        if (values == null) {
+            return null;
+        }
+        TreeSet<Integer> unique = new TreeSet<>();
+        for (Integer value : values) {
+            if (value != null && value > 0) {
+                unique.add(value);
+            }
+        }
+        return List.copyOf(unique);
+    }
+
+    /**
+     * Normalised leaderboard query bound to the data versions it was computed from. {@code weekNumbers} is {@code null}
+     * when no week filter was requested.
+     */
+    public record Key(
+            View view,
+            Long dungeonId,
+            int page,
+            int pageSize,
+            List<String> mutationTypeIds,
+            List<String> mutationPromotionIds,
+            List<String> mutationCurseIds,
+            List<String> regionIds,
+            List<Integer> weekNumbers,
+            Integer seasonId,
+            long runVersion,
+            long sharedVersion) {
+    }
+
+    /**
+     * Serialised response.
+     *
+     * @param json UTF-8 encoded JSON body
+     * @param gzip gzip compressed body, {@code null} when the body is too small to be worth compressing
+     */
+    public record CachedResponse(byte[] json, byte[] gzip) {
+    }
+}
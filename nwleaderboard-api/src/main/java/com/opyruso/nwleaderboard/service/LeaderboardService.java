@@ -11,21 +11,20 @@ import com.opyruso.nwleaderboard.entity.Dungeon;
 import com.opyruso.nwleaderboard.entity.Player;
 import com.opyruso.nwleaderboard.entity.RunScore;
 import com.opyruso.nwleaderboard.entity.RunTime;
-import com.opyruso.nwleaderboard.entity.WeekMutationDungeon;
-import com.opyruso.nwleaderboard.entity.WeekMutationDungeonId;
+import com.opyruso.nwleaderboard.entity.Season;
 import com.opyruso.nwleaderboard.repository.DungeonRepository;
 import com.opyruso.nwleaderboard.repository.RunScorePlayerRepository;
 import com.opyruso.nwleaderboard.repository.RunScoreRepository;
 import com.opyruso.nwleaderboard.repository.RunTimePlayerRepository;
 import com.opyruso.nwleaderboard.repository.RunTimeRepository;
 import com.opyruso.nwleaderboard.repository.SeasonRepository;
-import com.opyruso.nwleaderboard.repository.WeekMutationDungeonRepository;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 import java.text.Collator;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -63,7 +62,10 @@ public class LeaderboardService {
     DungeonRepository dungeonRepository;
 
     @Inject
-    WeekMutationDungeonRepository weekMutationDungeonRepository;
+    WeekCalendarService weekCalendarService;
+
+    @Inject
+    RunIndexService runIndexService;
 
     @Inject
     SeasonRepository seasonRepository;
@@ -92,35 +94,34 @@ public class LeaderboardService {
             return new LeaderboardPageResponse(List.of(), 0L, 1, safePageSize, 1);
         }
 
-        long totalRuns = runScoreRepository.countByDungeonAndWeeks(dungeonId, weekFilter, regionFilter, seasonId);
+        RunIndex runIndex = runIndexService.scoreIndex(dungeonId);
+        BitSet selection = runIndex.select(weekFilter, regionFilter);
+        long totalRuns = selection.cardinality();
         int totalPages = computeTotalPages(totalRuns, safePageSize);
         int safePage = clampPage(requestedPage, totalPages);
         if (totalRuns == 0) {
             return new LeaderboardPageResponse(List.of(), 0L, safePage, safePageSize, totalPages);
         }
 
-        List<RunScore> runs = runScoreRepository.listByDungeonAndWeeks(
-                dungeonId, weekFilter, regionFilter, seasonId, safePage - 1, safePageSize);
-        Map<Long, List<LeaderboardPlayerResponse>> playersByRun = loadPlayersForScoreRuns(runs);
+        List<RunIndex.IndexedRun> runs = runIndex.page(selection, safePage - 1, safePageSize);
+        Map<Long, List<LeaderboardPlayerResponse>> playersByRun =
+                loadPlayersForScoreRunIds(runs.stream().map(RunIndex.IndexedRun::id).toList());
         Map<MutationKey, MutationIds> mutationCache = new HashMap<>();
         List<LeaderboardEntryResponse> responses = new ArrayList<>(runs.size());
         int startIndex = (safePage - 1) * safePageSize;
         for (int index = 0; index < runs.size(); index++) {
-            RunScore run = runs.get(index);
-            if (run == null) {
-                continue;
-            }
-            Long runId = run.getId();
-            MutationIds mutationIds = resolveMutationIds(run.getWeek(), run.getDungeon(), mutationCache);
+            RunIndex.IndexedRun run = runs.get(index);
+            Long runId = run.id();
+            MutationIds mutationIds = resolveMutationIds(run.week(), dungeonId, mutationCache);
             int position = startIndex + index + 1;
-            String regionId = normaliseRegionId(run.getRegion() != null ? run.getRegion().getId() : null);
+            String regionId = normaliseRegionId(run.regionId());
             responses.add(new LeaderboardEntryResponse(
                     runId,
                     position,
-                    run.getWeek(),
+                    run.week(),
                     regionId,
-                    run.getScore(),
-                    run.getScore(),
+                    run.value(),
+                    run.value(),
                     null,
                     playersByRun.getOrDefault(runId, List.of()),
                     mutationIds.typeId(),
@@ -154,33 +155,32 @@ public class LeaderboardService {
             return new LeaderboardPageResponse(List.of(), 0L, 1, safePageSize, 1);
         }
 
-        long totalRuns = runTimeRepository.countByDungeonAndWeeks(dungeonId, weekFilter, regionFilter, seasonId);
+        RunIndex runIndex = runIndexService.timeIndex(dungeonId);
+        BitSet selection = runIndex.select(weekFilter, regionFilter);
+        long totalRuns = selection.cardinality();
         int totalPages = computeTotalPages(totalRuns, safePageSize);
         int safePage = clampPage(requestedPage, totalPages);
         if (totalRuns == 0) {
             return new LeaderboardPageResponse(List.of(), 0L, safePage, safePageSize, totalPages);
         }
 
-        List<RunTime> runs = runTimeRepository.listByDungeonAndWeeks(
-                dungeonId, weekFilter, regionFilter, seasonId, safePage - 1, safePageSize);
-        Map<Long, List<LeaderboardPlayerResponse>> playersByRun = loadPlayersForTimeRuns(runs);
+        List<RunIndex.IndexedRun> runs = runIndex.page(selection, safePage - 1, safePageSize);
+        Map<Long, List<LeaderboardPlayerResponse>> playersByRun =
+                loadPlayersForTimeRunIds(runs.stream().map(RunIndex.IndexedRun::id).toList());
         Map<MutationKey, MutationIds> mutationCache = new HashMap<>();
         List<LeaderboardEntryResponse> responses = new ArrayList<>(runs.size());
         int startIndex = (safePage - 1) * safePageSize;
         for (int index = 0; index < runs.size(); index++) {
-            RunTime run = runs.get(index);
-            if (run == null) {
-                continue;
-            }
-            Long runId = run.getId();
-            MutationIds mutationIds = resolveMutationIds(run.getWeek(), run.getDungeon(), mutationCache);
+            RunIndex.IndexedRun run = runs.get(index);
+            Long runId = run.id();
+            MutationIds mutationIds = resolveMutationIds(run.week(), dungeonId, mutationCache);
             int position = startIndex + index + 1;
-            Integer time = run.getTimeInSecond();
-            String regionId = normaliseRegionId(run.getRegion() != null ? run.getRegion().getId() : null);
+            Integer time = run.value();
+            String regionId = normaliseRegionId(run.regionId());
             responses.add(new LeaderboardEntryResponse(
                     runId,
                     position,
-                    run.getWeek(),
+                    run.week(),
                     regionId,
                     time,
                     null,
@@ -213,8 +213,9 @@ public class LeaderboardService {
             return new LeaderboardChartResponse(List.of(), null);
         }
 
-        List<ChartAggregate> aggregates = mapChartAggregates(
-                runScoreRepository.aggregateByDungeonAndWeeks(dungeonId, weekFilter, regionFilter, seasonId));
+        RunIndex index = runIndexService.scoreIndex(dungeonId);
+        List<ChartAggregate> aggregates =
+                mapIndexAggregates(index.aggregateByWeek(index.select(weekFilter, regionFilter)));
         return buildChartResponse(aggregates, false);
     }
 
@@ -238,8 +239,9 @@ public class LeaderboardService {
             return new LeaderboardChartResponse(List.of(), null);
         }
 
-        List<ChartAggregate> aggregates = mapChartAggregates(
-                runTimeRepository.aggregateByDungeonAndWeeks(dungeonId, weekFilter, regionFilter, seasonId));
+        RunIndex index = runIndexService.timeIndex(dungeonId);
+        List<ChartAggregate> aggregates =
+                mapIndexAggregates(index.aggregateByWeek(index.select(weekFilter, regionFilter)));
         return buildChartResponse(aggregates, true);
     }
 
@@ -248,15 +250,14 @@ public class LeaderboardService {
         if (dungeonId == null) {
             return List.of();
         }
+        WeekCalendar calendar = weekCalendarService.current();
         if (seasonId != null) {
-            List<Integer> seasonWeeks = normaliseWeekList(
-                    weekMutationDungeonRepository.findWeekNumbersBySeason(dungeonId, seasonId));
+            List<Integer> seasonWeeks = normaliseWeekList(calendar.weeksBySeason(dungeonId, seasonId));
             if (seasonWeeks != null) {
                 return seasonWeeks;
             }
         }
-        List<Integer> weeks = normaliseWeekList(
-                weekMutationDungeonRepository.findWeekNumbersByFilters(dungeonId, null, null, null));
+        List<Integer> weeks = normaliseWeekList(calendar.weeks(dungeonId));
         return weeks != null ? weeks : List.of();
     }
 
@@ -402,11 +403,8 @@ public class LeaderboardService {
 
 
     private Integer resolveCurrentSeasonId() {
-        LocalDate today = LocalDate.now();
-        return seasonRepository.find("dateBegin <= ?1 AND dateEnd >= ?1 ORDER BY id DESC", today)
-                .firstResultOptional()
-                .map(season -> season.getId())
-                .orElse(null);
+        Season current = seasonRepository.findCurrent(LocalDate.now());
+        return current != null ? current.getId() : null;
     }
 
     private HighlightMetricResponse buildHighlightScoreMetric(
@@ -458,13 +456,14 @@ public class LeaderboardService {
     }
 
     private Map<MutationKey, Integer> loadSeasonsForRuns(List<RunScore> scoreRuns, List<RunTime> timeRuns) {
-        LinkedHashSet<WeekMutationDungeonId> ids = new LinkedHashSet<>();
+        WeekCalendar calendar = weekCalendarService.current();
+        Map<MutationKey, Integer> result = new HashMap<>();
         if (scoreRuns != null) {
             for (RunScore run : scoreRuns) {
                 if (run == null || run.getWeek() == null || run.getDungeon() == null || run.getDungeon().getId() == null) {
                     continue;
                 }
-                ids.add(new WeekMutationDungeonId(run.getWeek(), run.getDungeon().getId()));
+                putSeason(result, calendar, run.getWeek(), run.getDungeon().getId());
             }
         }
         if (timeRuns != null) {
@@ -472,25 +471,19 @@ public class LeaderboardService {
                 if (run == null || run.getWeek() == null || run.getDungeon() == null || run.getDungeon().getId() == null) {
                     continue;
                 }
-                ids.add(new WeekMutationDungeonId(run.getWeek(), run.getDungeon().getId()));
+                putSeason(result, calendar, run.getWeek(), run.getDungeon().getId());
             }
         }
-        if (ids.isEmpty()) {
-            return Map.of();
-        }
-        Map<MutationKey, Integer> result = new HashMap<>();
-        List<WeekMutationDungeon> entries = weekMutationDungeonRepository.listByIds(ids);
-        for (WeekMutationDungeon entry : entries) {
-            if (entry == null || entry.getId() == null) {
-                continue;
-            }
-            MutationKey key = new MutationKey(entry.getId().getWeek(), entry.getId().getDungeonId());
-            Integer seasonId = entry.getSeason() != null ? entry.getSeason().getId() : null;
-            result.put(key, seasonId);
-        }
         return result;
     }
 
+    private void putSeason(Map<MutationKey, Integer> target, WeekCalendar calendar, Integer week, Long dungeonId) {
+        WeekCalendar.Entry entry = calendar.find(week, dungeonId);
+        if (entry != null) {
+            target.put(new MutationKey(week, dungeonId), entry.seasonId());
+        }
+    }
+
     private Integer resolveSeasonId(Integer week, Dungeon dungeon, Map<MutationKey, Integer> seasonsByRunKey) {
         if (week == null || dungeon == null || dungeon.getId() == null || seasonsByRunKey == null || seasonsByRunKey.isEmpty()) {
             return null;
@@ -499,11 +492,14 @@ public class LeaderboardService {
     }
 
     private Map<Long, List<LeaderboardPlayerResponse>> loadPlayersForScoreRuns(List<RunScore> runs) {
-        List<Long> runIds = runs.stream()
+        return loadPlayersForScoreRunIds(runs.stream()
                 .map(RunScore::getId)
                 .filter(Objects::nonNull)
                 .distinct()
-                .toList();
+                .toList());
+    }
+
+    private Map<Long, List<LeaderboardPlayerResponse>> loadPlayersForScoreRunIds(List<Long> runIds) {
         if (runIds.isEmpty()) {
             return Map.of();
         }
@@ -517,11 +513,14 @@ public class LeaderboardService {
     }
 
     private Map<Long, List<LeaderboardPlayerResponse>> loadPlayersForTimeRuns(List<RunTime> runs) {
-        List<Long> runIds = runs.stream()
+        return loadPlayersForTimeRunIds(runs.stream()
                 .map(RunTime::getId)
                 .filter(Objects::nonNull)
                 .distinct()
-                .toList();
+                .toList());
+    }
+
+    private Map<Long, List<LeaderboardPlayerResponse>> loadPlayersForTimeRunIds(List<Long> runIds) {
         if (runIds.isEmpty()) {
             return Map.of();
         }
@@ -728,7 +727,7 @@ public class LeaderboardService {
                 || (filter.curseFilterRequested() && filter.curseIds().isEmpty())) {
             return List.of();
         }
-        return weekMutationDungeonRepository.findWeekNumbersByFilters(
+        return weekCalendarService.current().weeksByMutations(
                 dungeonId,
                 filter.typeFilterRequested() ? filter.typeIds() : null,
                 filter.promotionFilterRequested() ? filter.promotionIds() : null,
@@ -742,7 +741,7 @@ public class LeaderboardService {
         if (seasonId <= 0) {
             return List.of();
         }
-        List<Integer> weeks = weekMutationDungeonRepository.findWeekNumbersBySeason(dungeonId, seasonId);
+        List<Integer> weeks = weekCalendarService.current().weeksBySeason(dungeonId, seasonId);
         return normaliseWeekList(weeks);
     }
 
@@ -786,14 +785,14 @@ public class LeaderboardService {
         return List.copyOf(intersection);
     }
 
-    private int sanitisePage(Integer page) {
+    int sanitisePage(Integer page) {
         if (page == null || page < 1) {
             return 1;
         }
         return page;
     }
 
-    private int sanitisePageSize(Integer pageSize) {
+    int sanitisePageSize(Integer pageSize) {
         if (pageSize == null || pageSize <= 0) {
             return DEFAULT_PAGE_SIZE;
         }
@@ -871,24 +870,21 @@ public class LeaderboardService {
         return new LeaderboardChartResponse(weeks, average);
     }
 
-    private List<ChartAggregate> mapChartAggregates(List<Object[]> rows) {
+    private List<ChartAggregate> mapIndexAggregates(List<RunIndex.WeekAggregate> rows) {
         if (rows == null || rows.isEmpty()) {
             return List.of();
         }
         List<ChartAggregate> aggregates = new ArrayList<>(rows.size());
-        for (Object[] row : rows) {
-            if (row == null || row.length < 5) {
-                continue;
-            }
-            Integer week = toInteger(row[0]);
-            Double maxValue = toDouble(row[1]);
-            Double minValue = toDouble(row[2]);
-            Double totalValue = toDouble(row[3]);
-            Long runCount = toLong(row[4]);
-            if (runCount == null || runCount <= 0) {
+        for (RunIndex.WeekAggregate row : rows) {
+            if (row.runCount() <= 0) {
                 continue;
             }
-            aggregates.add(new ChartAggregate(week, minValue, maxValue, totalValue, runCount));
+            aggregates.add(new ChartAggregate(
+                    row.week(),
+                    (double) row.minValue(),
+                    (double) row.maxValue(),
+                    (double) row.totalValue(),
+                    row.runCount()));
         }
         return aggregates.isEmpty() ? List.of() : List.copyOf(aggregates);
     }
@@ -903,28 +899,6 @@ public class LeaderboardService {
         return null;
     }
 
-    private Integer toInteger(Object value) {
-        if (value instanceof Number number) {
-            return number.intValue();
-        }
-        return null;
-    }
-
-    private Double toDouble(Object value) {
-        if (value instanceof Number number) {
-            double numeric = number.doubleValue();
-            return Double.isFinite(numeric) ? numeric : null;
-        }
-        return null;
-    }
-
-    private Long toLong(Object value) {
-        if (value instanceof Number number) {
-            return number.longValue();
-        }
-        return null;
-    }
-
     private Map<String, String> buildNameMap(Dungeon dungeon) {
         if (dungeon == null) {
             return Map.of();
@@ -950,23 +924,24 @@ public class LeaderboardService {
     }
 
     private MutationIds resolveMutationIds(Integer week, Dungeon dungeon, Map<MutationKey, MutationIds> cache) {
-        if (week == null || dungeon == null || dungeon.getId() == null) {
+        return resolveMutationIds(week, dungeon != null ? dungeon.getId() : null, cache);
+    }
+
+    private MutationIds resolveMutationIds(Integer week, Long dungeonId, Map<MutationKey, MutationIds> cache) {
+        if (week == null || dungeonId == null) {
             return MutationIds.EMPTY;
         }
-        MutationKey key = new MutationKey(week, dungeon.getId());
+        MutationKey key = new MutationKey(week, dungeonId);
         return cache.computeIfAbsent(key, mutationKey -> {
-            WeekMutationDungeon mutation =
-                    weekMutationDungeonRepository.findByIds(mutationKey.week(), mutationKey.dungeonId());
+            WeekCalendar.Entry mutation =
+                    weekCalendarService.current().find(mutationKey.week(), mutationKey.dungeonId());
             if (mutation == null) {
                 return MutationIds.EMPTY;
             }
-            String typeId = mutation.getMutationType() != null ? mutation.getMutationType().getId() : null;
-            String promotionId = mutation.getMutationPromotion() != null ? mutation.getMutationPromotion().getId() : null;
-            String curseId = mutation.getMutationCurse() != null ? mutation.getMutationCurse().getId() : null;
-            if (typeId == null && promotionId == null && curseId == null) {
+            if (mutation.typeId() == null && mutation.promotionId() == null && mutation.curseId() == null) {
                 return MutationIds.EMPTY;
             }
-            return new MutationIds(typeId, promotionId, curseId);
+            return new MutationIds(mutation.typeId(), mutation.promotionId(), mutation.curseId());
         });
     }
 
@@ -0,0 +1,271 @@
+package com.opyruso.nwleaderboard.service;
+
+import com.opyruso.nwleaderboard.dto.LeaderboardPlayerResponse;
+import com.opyruso.nwleaderboard.entity.PlayerNameListener;
+import com.opyruso.nwleaderboard.event.PlayerChanged;
+import com.opyruso.nwleaderboard.event.PlayerCreated;
+import com.opyruso.nwleaderboard.event.PlayerMerged;
+import com.opyruso.nwleaderboard.event.RunsChanged;
+import com.opyruso.nwleaderboard.repository.PlayerRepository;
+import com.opyruso.nwleaderboard.repository.RunScorePlayerRepository;
+import com.opyruso.nwleaderboard.repository.RunTimePlayerRepository;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.interceptor.Interceptor;
+import jakarta.transaction.Transactional;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.jboss.logging.Logger;
+
+/**
+ * Answers the player name autocomplete from one resident {@link PlayerNameTrie} per region, ranking the players by
+ * activity, their number of score and time runs. Queries never reach the database.
+ *
+ * <p>The tries are built at startup. Created, renamed and merged players are queued by the data change events and
+ * reloaded on {@code player-autocomplete.refresh-interval}; run changes only mark the activity as stale, and the
+ * activity of every player is recounted on {@code player-autocomplete.activity-refresh-interval}, so rankings may lag
+ * the runs by that long.</p>
+ */
+@ApplicationScoped
+public class PlayerAutocompleteService {
+
+    private static final Logger LOG = Logger.getLogger(PlayerAutocompleteService.class);
+
+    /** Largest number of completions returned by a query. */
+    public static final int MAX_LIMIT = PlayerNameTrie.MAX_COMPLETIONS;
+
+    @Inject
+    PlayerRepository playerRepository;
+
+    @Inject
+    RunScorePlayerRepository runScorePlayerRepository;
+
+    @Inject
+    RunTimePlayerRepository runTimePlayerRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Lock reloadLock = new ReentrantLock();
+    private final Map<String, PlayerNameTrie> tries = new HashMap<>();
+    private final Map<Long, PlayerNameTrie.Completion> completionsByPlayer = new HashMap<>();
+    private final Set<Long> pendingPlayerIds = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean activityStale = new AtomicBoolean();
+
+    /** Runs after the other startup observers, which may still fix up players (see {@link RegionService}). */
+    @Transactional
+    void loadTries(@Observes @Priority(Interceptor.Priority.APPLICATION + 1000) StartupEvent event) {
+        rebuild();
+    }
+
+    void onPlayerCreated(@Observes PlayerCreated event) {
+        queue(event.playerId());
+    }
+
+    void onPlayerChanged(@Observes PlayerChanged event) {
+        queue(event.playerId());
+    }
+
+    void onPlayerMerged(@Observes PlayerMerged event) {
+        queue(event.fromPlayerId());
+        queue(event.toPlayerId());
+    }
+
+    void onRunsChanged(@Observes RunsChanged event) {
+        activityStale.set(true);
+    }
+
+    /**
+     * Returns the most active players whose name starts with the prefix.
+     *
+     * @param rawPrefix prefix typed by the user
+     * @param limit maximum number of results, at most {@link #MAX_LIMIT} (values &lt;= 0 fall back to a sensible
+     *     default)
+     * @param rawRegionId region to search, {@code null} for every region
+     * @return ranked players with their main character
+     */
+    public List<LeaderboardPlayerResponse> autocomplete(String rawPrefix, int limit, String rawRegionId) {
+        String prefix = PlayerNameListener.normalise(rawPrefix);
+        if (prefix == null) {
+            return List.of();
+        }
+        int safeLimit = limit > 0 ? Math.min(limit, MAX_LIMIT) : 10;
+        String regionId = normaliseRegionId(rawRegionId);
+        lock.readLock().lock();
+        try {
+            List<PlayerNameTrie.Completion> completions = new ArrayList<>();
+            if (regionId != null) {
+                PlayerNameTrie trie = tries.get(regionId);
+                if (trie != null) {
+                    completions.addAll(trie.complete(prefix, safeLimit));
+                }
+            } else {
+                for (PlayerNameTrie trie : tries.values()) {
+                    completions.addAll(trie.complete(prefix, safeLimit));
+                }
+                completions.sort(PlayerNameTrie.RANKING);
+            }
+            return completions.stream().limit(safeLimit).map(this::toResponse).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Scheduled(every = "{player-autocomplete.refresh-interval}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    @Transactional(Transactional.TxType.SUPPORTS)
+    void applyPendingChanges() {
+        if (pendingPlayerIds.isEmpty()) {
+            return;
+        }
+        // A rebuild must not swap in tries read before the changes applied here.
+        reloadLock.lock();
+        try {
+            List<Long> playerIds = new ArrayList<>(pendingPlayerIds);
+            if (playerIds.isEmpty()) {
+                return;
+            }
+            pendingPlayerIds.removeAll(playerIds);
+            List<PlayerNameTrie.Completion> completions = new ArrayList<>();
+            try {
+                completions.addAll(toCompletions(playerRepository.listIdentityColumnsByIds(playerIds),
+                        runScorePlayerRepository.countByPlayerIds(playerIds),
+                        runTimePlayerRepository.countByPlayerIds(playerIds)));
+            } catch (RuntimeException e) {
+                pendingPlayerIds.addAll(playerIds);
+                throw e;
+            }
+
+            lock.writeLock().lock();
+            try {
+                // Players missing from the rows were deleted, by a merge for instance.
+                for (Long playerId : playerIds) {
+                    PlayerNameTrie.Completion previous = completionsByPlayer.remove(playerId);
+                    PlayerNameTrie trie = previous != null ? tries.get(previous.regionId()) : null;
+                    if (trie != null) {
+                        trie.remove(playerId);
+                    }
+                }
+                for (PlayerNameTrie.Completion completion : completions) {
+                    tries.computeIfAbsent(completion.regionId(), key -> new PlayerNameTrie()).put(completion);
+                    completionsByPlayer.put(completion.playerId(), completion);
+                }
+                tries.values().removeIf(PlayerNameTrie::isEmpty);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    @Scheduled(every = "{player-autocomplete.activity-refresh-interval}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    @Transactional(Transactional.TxType.SUPPORTS)
+    void refreshActivity() {
+        if (activityStale.getAndSet(false)) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Rebuilds every trie from the database. It holds the lock of {@link #applyPendingChanges()}, so the players queued
+     * meanwhile stay queued and are reloaded after the swap: reloading them again is harmless and covers the changes
+     * committed after the read.
+     */
+    private void rebuild() {
+        long start = System.nanoTime();
+        Map<String, PlayerNameTrie> rebuilt = new HashMap<>();
+        Map<Long, PlayerNameTrie.Completion> byPlayer = new HashMap<>();
+        reloadLock.lock();
+        try {
+            List<PlayerNameTrie.Completion> completions = toCompletions(playerRepository.listIdentityColumns(),
+                    runScorePlayerRepository.countPerPlayer(), runTimePlayerRepository.countPerPlayer());
+            for (PlayerNameTrie.Completion completion : completions) {
+                rebuilt.computeIfAbsent(completion.regionId(), key -> new PlayerNameTrie()).put(completion);
+                byPlayer.put(completion.playerId(), completion);
+            }
+            lock.writeLock().lock();
+            try {
+                tries.clear();
+                tries.putAll(rebuilt);
+                completionsByPlayer.clear();
+                completionsByPlayer.putAll(byPlayer);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            reloadLock.unlock();
+        }
+        LOG.infof("Built the autocomplete tries of %d players in %d regions in %d ms", byPlayer.size(),
+                rebuilt.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /** Reads {@code id, main character id, player name, region id} rows, skipping unnamed players. */
+    private static List<PlayerNameTrie.Completion> toCompletions(
+            List<Object[]> rows, Map<Long, Long> scoreCounts, Map<Long, Long> timeCounts) {
+        List<PlayerNameTrie.Completion> completions = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            if (row == null || row.length < 4 || !(row[0] instanceof Number id)
+                    || !(row[2] instanceof String displayName)) {
+                continue;
+            }
+            String name = PlayerNameListener.normalise(displayName);
+            String regionId = normaliseRegionId(row[3] instanceof String region ? region : null);
+            if (name == null || regionId == null) {
+                continue;
+            }
+            long playerId = id.longValue();
+            Long mainPlayerId = row[1] instanceof Number mainId ? mainId.longValue() : null;
+            long activity = scoreCounts.getOrDefault(playerId, 0L) + timeCounts.getOrDefault(playerId, 0L);
+            completions.add(new PlayerNameTrie.Completion(
+                    playerId, name, displayName, mainPlayerId, regionId, activity));
+        }
+        return completions;
+    }
+
+    /** Must be called under the read lock. */
+    private LeaderboardPlayerResponse toResponse(PlayerNameTrie.Completion completion) {
+        PlayerNameTrie.Completion main = null;
+        Set<Long> visited = new HashSet<>();
+        visited.add(completion.playerId());
+        Long mainPlayerId = completion.mainPlayerId();
+        while (mainPlayerId != null && visited.add(mainPlayerId)) {
+            PlayerNameTrie.Completion next = completionsByPlayer.get(mainPlayerId);
+            if (next == null) {
+                break;
+            }
+            main = next;
+            mainPlayerId = next.mainPlayerId();
+        }
+        return new LeaderboardPlayerResponse(completion.playerId(), completion.displayName(),
+                main != null ? main.playerId() : null, main != null ? main.displayName() : null);
+    }
+
+    private void queue(Long playerId) {
+        if (playerId != null) {
+            pendingPlayerIds.add(playerId);
+        }
+    }
+
+    private static String normaliseRegionId(String raw) {
+        if (raw == null) {
+            return null;
+        }
+        String trimmed = raw.strip();
+        return trimmed.isEmpty() ? null : trimmed.toUpperCase(Locale.ROOT);
+    }
+}
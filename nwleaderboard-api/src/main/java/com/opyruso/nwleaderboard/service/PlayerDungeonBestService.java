@@ -0,0 +1,297 @@
+package com.opyruso.nwleaderboard.service;
+
+import com.opyruso.nwleaderboard.entity.Dungeon;
+import com.opyruso.nwleaderboard.entity.PlayerDungeonBest;
+import com.opyruso.nwleaderboard.entity.PlayerDungeonBestId;
+import com.opyruso.nwleaderboard.event.PlayerRunsChanged;
+import com.opyruso.nwleaderboard.event.RunsChanged;
+import com.opyruso.nwleaderboard.event.WeekCalendarChanged;
+import com.opyruso.nwleaderboard.repository.DungeonRepository;
+import com.opyruso.nwleaderboard.repository.PlayerDungeonBestRepository;
+import com.opyruso.nwleaderboard.repository.RunScorePlayerRepository;
+import com.opyruso.nwleaderboard.repository.RunTimePlayerRepository;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import org.jboss.logging.Logger;
+
+/**
+ * Maintains the {@code player_dungeon_best} read model: the best run of every player in every dungeon, per leaderboard
+ * and season. The players whose runs changed are announced by {@link PlayerRunsChanged} events once the change is
+ * committed, and their rows are recomputed in a new transaction on a background thread: a refresh inside the writing
+ * transaction would read the runs from its own snapshot and could overwrite the rows of a submission committed
+ * meanwhile. The season rows depend on the week calendar, so a calendar change schedules a rebuild of the whole table;
+ * until it has run {@link #isRebuildPending()} tells readers to fall back to the run tables for season views.
+ *
+ * <p>A rebuild commits one dungeon and mode at a time. Refreshes and rebuilds hold the same lock, so they never write
+ * the same rows concurrently; refreshes queued during a rebuild run once it is over.</p>
+ */
+@ApplicationScoped
+public class PlayerDungeonBestService {
+
+    private static final Logger LOG = Logger.getLogger(PlayerDungeonBestService.class);
+
+    @Inject
+    PlayerDungeonBestRepository playerDungeonBestRepository;
+
+    @Inject
+    RunScorePlayerRepository runScorePlayerRepository;
+
+    @Inject
+    RunTimePlayerRepository runTimePlayerRepository;
+
+    @Inject
+    DungeonRepository dungeonRepository;
+
+    @Inject
+    WeekCalendarService weekCalendarService;
+
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private final Lock writeLock = new ReentrantLock();
+    private final Map<RunsChanged.Mode, Set<Long>> pendingPlayerIds = new EnumMap<>(RunsChanged.Mode.class);
+    private final ExecutorService refreshExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public PlayerDungeonBestService() {
+        for (RunsChanged.Mode mode : RunsChanged.Mode.values()) {
+            pendingPlayerIds.put(mode, ConcurrentHashMap.newKeySet());
+        }
+    }
+
+    /** Queues the players whose runs changed and recomputes their rows once their change is committed. */
+    void onPlayerRunsChanged(@Observes PlayerRunsChanged event) {
+        if (event.playerIds().isEmpty()) {
+            return;
+        }
+        for (RunsChanged.Mode mode : RunsChanged.Mode.values()) {
+            if (event.mode() == null || event.mode() == mode) {
+                pendingPlayerIds.get(mode).addAll(event.playerIds());
+            }
+        }
+        refreshExecutor.execute(this::applyPendingRefreshes);
+    }
+
+    @PreDestroy
+    void stopRefreshes() {
+        refreshExecutor.shutdown();
+    }
+
+    /**
+     * Recomputes the rows of the queued players, one transaction per leaderboard. Players whose refresh failed stay
+     * queued for the next change or the next scheduled check.
+     */
+    void applyPendingRefreshes() {
+        writeLock.lock();
+        try {
+            for (RunsChanged.Mode mode : RunsChanged.Mode.values()) {
+                Set<Long> pending = pendingPlayerIds.get(mode);
+                Set<Long> ids = new LinkedHashSet<>(pending);
+                if (ids.isEmpty()) {
+                    continue;
+                }
+                pending.removeAll(ids);
+                try {
+                    QuarkusTransaction.requiringNew().run(() -> refresh(ids, mode));
+                } catch (RuntimeException e) {
+                    pending.addAll(ids);
+                    LOG.errorf(e, "Unable to refresh the %s best runs of %d players", mode, ids.size());
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void refresh(Set<Long> ids, RunsChanged.Mode mode) {
+        // The delete runs first: it waits for the locks of concurrent writers, and the snapshot of the candidates read
+        // below is only taken once it returns.
+        playerDungeonBestRepository.deleteByPlayers(ids, null, mode.name());
+        playerDungeonBestRepository.flush();
+        persistBest(mode, listCandidates(mode, ids, null), weekCalendarService.current());
+    }
+
+    /**
+     * Returns the best run of several accounts in every dungeon, reading the rows of all their players at once.
+     *
+     * @param accounts identifiers of the players of each account, keyed by an account identifier
+     * @param mode leaderboard to read
+     * @param seasonId season to read, {@code null} for every week
+     * @return one run identifier per dungeon for each account with at least one run
+     */
+    @Transactional(Transactional.TxType.SUPPORTS)
+    public Map<Long, List<Long>> listBestRunIdsByAccount(
+            Map<Long, ? extends Collection<Long>> accounts, RunsChanged.Mode mode, Integer seasonId) {
+        if (accounts == null || accounts.isEmpty() || mode == null) {
+            return Map.of();
+        }
+        Set<Long> playerIds = new LinkedHashSet<>();
+        accounts.values().forEach(ids -> ids.stream().filter(Objects::nonNull).forEach(playerIds::add));
+        if (playerIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, List<PlayerDungeonBest>> entriesByPlayer = new HashMap<>();
+        for (PlayerDungeonBest entry : playerDungeonBestRepository.listByPlayers(
+                playerIds, mode.name(), seasonId != null ? seasonId : PlayerDungeonBest.ALL_SEASONS)) {
+            if (entry.getId() != null && entry.getId().getPlayerId() != null) {
+                entriesByPlayer.computeIfAbsent(entry.getId().getPlayerId(), id -> new ArrayList<>()).add(entry);
+            }
+        }
+
+        boolean lowerIsBetter = mode == RunsChanged.Mode.TIME;
+        Map<Long, List<Long>> runIdsByAccount = new HashMap<>();
+        accounts.forEach((accountId, accountPlayerIds) -> {
+            Map<Long, PlayerDungeonBest> bestByDungeon = new HashMap<>();
+            for (Long playerId : new LinkedHashSet<>(accountPlayerIds)) {
+                for (PlayerDungeonBest entry : entriesByPlayer.getOrDefault(playerId, List.of())) {
+                    Long dungeonId = entry.getId().getDungeonId();
+                    if (dungeonId == null || entry.getRunId() == null || entry.getValue() == null) {
+                        continue;
+                    }
+                    PlayerDungeonBest current = bestByDungeon.get(dungeonId);
+                    if (current == null
+                            || isBetter(entry.getValue(), entry.getWeek(), entry.getRunId(), current, lowerIsBetter)) {
+                        bestByDungeon.put(dungeonId, entry);
+                    }
+                }
+            }
+            if (!bestByDungeon.isEmpty()) {
+                runIdsByAccount.put(accountId,
+                        bestByDungeon.values().stream().map(PlayerDungeonBest::getRunId).distinct().toList());
+            }
+        });
+        return runIdsByAccount;
+    }
+
+    /** Returns {@code true} while the season rows may not match the week calendar yet. */
+    public boolean isRebuildPending() {
+        return rebuildPending.get() || rebuilding.get();
+    }
+
+    void onWeekCalendarChanged(@Observes WeekCalendarChanged event) {
+        rebuildPending.set(true);
+    }
+
+    void backfill(@Observes StartupEvent event) {
+        if (playerDungeonBestRepository.count() == 0L) {
+            rebuildAll();
+        }
+    }
+
+    @Scheduled(every = "{player-dungeon-best.rebuild-check-interval}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void rebuildIfPending() {
+        if (rebuildPending.getAndSet(false)) {
+            rebuildAll();
+        }
+        applyPendingRefreshes();
+    }
+
+    private void rebuildAll() {
+        long start = System.nanoTime();
+        writeLock.lock();
+        rebuilding.set(true);
+        try {
+            WeekCalendar calendar = weekCalendarService.current();
+            int rows = 0;
+            for (Dungeon dungeon : dungeonRepository.listAllCached()) {
+                if (dungeon == null || dungeon.getId() == null) {
+                    continue;
+                }
+                for (RunsChanged.Mode mode : RunsChanged.Mode.values()) {
+                    rows += QuarkusTransaction.requiringNew().call(() -> rebuild(dungeon.getId(), mode, calendar));
+                }
+            }
+            LOG.infof("Rebuilt %d player dungeon best rows in %d ms", rows, (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            rebuildPending.set(true);
+            throw e;
+        } finally {
+            rebuilding.set(false);
+            writeLock.unlock();
+        }
+    }
+
+    private int rebuild(Long dungeonId, RunsChanged.Mode mode, WeekCalendar calendar) {
+        playerDungeonBestRepository.deleteByDungeon(dungeonId, mode.name());
+        int rows = persistBest(mode, listCandidates(mode, null, dungeonId), calendar);
+        playerDungeonBestRepository.flush();
+        playerDungeonBestRepository.getEntityManager().clear();
+        return rows;
+    }
+
+    private List<Object[]> listCandidates(RunsChanged.Mode mode, Collection<Long> playerIds, Long dungeonId) {
+        return mode == RunsChanged.Mode.SCORE
+                ? runScorePlayerRepository.listBestCandidateColumns(playerIds, dungeonId)
+                : runTimePlayerRepository.listBestCandidateColumns(playerIds, dungeonId);
+    }
+
+    /**
+     * Keeps, for every player, dungeon and season, the candidate ranking first: best value, then most recent week,
+     * then lowest run identifier, the same order as the leaderboards.
+     */
+    private int persistBest(RunsChanged.Mode mode, List<Object[]> candidates, WeekCalendar calendar) {
+        boolean lowerIsBetter = mode == RunsChanged.Mode.TIME;
+        Map<PlayerDungeonBestId, PlayerDungeonBest> best = new HashMap<>();
+        for (Object[] row : candidates) {
+            if (row == null || row.length < 5 || !(row[0] instanceof Number playerId)
+                    || !(row[1] instanceof Number runId) || !(row[2] instanceof Number dungeonId)
+                    || !(row[3] instanceof Number value)) {
+                continue;
+            }
+            Integer week = row[4] instanceof Number number ? number.intValue() : null;
+            Set<Integer> seasons = new LinkedHashSet<>();
+            seasons.add(PlayerDungeonBest.ALL_SEASONS);
+            seasons.addAll(calendar.seasonsOfWeek(week));
+            for (Integer seasonId : seasons) {
+                PlayerDungeonBestId id = new PlayerDungeonBestId(
+                        playerId.longValue(), dungeonId.longValue(), mode.name(), seasonId);
+                PlayerDungeonBest current = best.get(id);
+                if (current == null || isBetter(value.intValue(), week, runId.longValue(), current, lowerIsBetter)) {
+                    PlayerDungeonBest entry = current != null ? current : new PlayerDungeonBest();
+                    entry.setId(id);
+                    entry.setRunId(runId.longValue());
+                    entry.setValue(value.intValue());
+                    entry.setWeek(week);
+                    best.put(id, entry);
+                }
+            }
+        }
+        for (PlayerDungeonBest entry : best.values()) {
+            playerDungeonBestRepository.persist(entry);
+        }
+        return best.size();
+    }
+
+    private static boolean isBetter(
+            int value, Integer week, long runId, PlayerDungeonBest current, boolean lowerIsBetter) {
+        if (value != current.getValue()) {
+            return lowerIsBetter ? value < current.getValue() : value > current.getValue();
+        }
+        int safeWeek = week != null ? week : -1;
+        int currentWeek = current.getWeek() != null ? current.getWeek() : -1;
+        if (safeWeek != currentWeek) {
+            return safeWeek > currentWeek;
+        }
+        return runId < Objects.requireNonNullElse(current.getRunId(), Long.MAX_VALUE);
+    }
+}
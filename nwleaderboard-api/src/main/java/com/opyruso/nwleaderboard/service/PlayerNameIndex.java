@@ -0,0 +1,358 @@
+package com.opyruso.nwleaderboard.service;
+
+import com.opyruso.nwleaderboard.entity.PlayerNameListener;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Inverted index over the normalised names of the players of one region, answering search-as-you-type queries without
+ * scanning the player table.
+ *
+ * <p>Every name is indexed under its distinct substrings of one to three characters and under its prefixes of one to
+ * three characters, so each query token maps to a few posting lists whose intersection holds every candidate. Players
+ * are numbered in name order when the index is built: posting lists then iterate the names alphabetically and a
+ * search stops as soon as it has enough matches. Players added later are numbered after the sorted range and removed
+ * players leave a tombstone until {@link #compact()} rebuilds the index.</p>
+ *
+ * <p>Matches are ranked by tier: names starting with the query, then names containing it, then names sharing
+ * enough of its trigrams. The index is not thread-safe, {@link PlayerSearchService} guards it.</p>
+ */
+final class PlayerNameIndex {
+
+    static final int PREFIX = 0;
+    static final int SUBSTRING = 1;
+    static final int FUZZY = 2;
+
+    private static final char PREFIX_MARK = '\u0001';
+    private static final int MAX_GRAM = 3;
+    private static final int MIN_COMPACTION_SLOTS = 256;
+    private static final double MIN_FUZZY_SIMILARITY = 0.2;
+
+    private long[] playerIds = new long[16];
+    private String[] names = new String[16];
+    private int size;
+    private int sortedSize;
+    private int liveCount;
+    private final Map<Long, Integer> slots = new HashMap<>();
+    private final Map<String, Postings> postings = new HashMap<>();
+
+    private PlayerNameIndex() {
+    }
+
+    /**
+     * Builds an index numbering the players in name order.
+     *
+     * @param namesByPlayer normalised name of every player
+     * @return index
+     */
+    static PlayerNameIndex build(Map<Long, String> namesByPlayer) {
+        List<Map.Entry<Long, String>> entries = new ArrayList<>(namesByPlayer.entrySet());
+        entries.sort(Map.Entry.<Long, String>comparingByValue().thenComparing(Map.Entry.comparingByKey()));
+        PlayerNameIndex index = new PlayerNameIndex();
+        for (Map.Entry<Long, String> entry : entries) {
+            index.append(entry.getKey(), entry.getValue());
+        }
+        index.sortedSize = index.size;
+        return index;
+    }
+
+    /** Indexes a player under a new name, replacing its previous one. */
+    void put(long playerId, String name) {
+        remove(playerId);
+        append(playerId, name);
+    }
+
+    /** Removes a player from the index. */
+    void remove(long playerId) {
+        Integer slot = slots.remove(playerId);
+        if (slot != null) {
+            names[slot] = null;
+            liveCount--;
+        }
+    }
+
+    boolean isEmpty() {
+        return liveCount == 0;
+    }
+
+    /** Returns {@code true} once enough players were added or removed since the build to slow searches down. */
+    boolean needsCompaction() {
+        int unsorted = size - sortedSize;
+        int removed = size - liveCount;
+        return unsorted > Math.max(MIN_COMPACTION_SLOTS, sortedSize / 20)
+                || removed > Math.max(MIN_COMPACTION_SLOTS, size / 5);
+    }
+
+    /** Rebuilds the index from its live players. */
+    PlayerNameIndex compact() {
+        Map<Long, String> live = new HashMap<>(Math.max(16, liveCount * 2));
+        slots.forEach((playerId, slot) -> live.put(playerId, names[slot]));
+        return build(live);
+    }
+
+    /**
+     * Searches the index.
+     *
+     * @param query parsed query
+     * @param limit maximum number of matches
+     * @return matches ordered by {@link Match#ORDER}
+     */
+    List<Match> search(Query query, int limit) {
+        List<Match> matches = new ArrayList<>();
+        List<Postings> exact = postingsOf(query.grams());
+        if (exact != null) {
+            Postings prefix = postings.get(query.prefixGram());
+            if (prefix != null) {
+                List<Postings> prefixLists = new ArrayList<>(exact);
+                prefixLists.add(prefix);
+                collect(prefixLists, query::matchesPrefix, PREFIX, limit, matches);
+            }
+            if (matches.size() < limit) {
+                collect(exact, name -> !query.matchesPrefix(name) && query.matches(name), SUBSTRING,
+                        limit - matches.size(), matches);
+            }
+        }
+        if (matches.size() < limit) {
+            collectFuzzy(query, limit - matches.size(), matches);
+        }
+        return matches;
+    }
+
+    private void append(long playerId, String name) {
+        if (size == names.length) {
+            playerIds = Arrays.copyOf(playerIds, size * 2);
+            names = Arrays.copyOf(names, size * 2);
+        }
+        int slot = size++;
+        playerIds[slot] = playerId;
+        names[slot] = name;
+        slots.put(playerId, slot);
+        liveCount++;
+        for (String gram : grams(name)) {
+            postings.computeIfAbsent(gram, key -> new Postings()).add(slot);
+        }
+    }
+
+    private static Set<String> grams(String name) {
+        Set<String> grams = new HashSet<>();
+        for (int length = 1; length <= Math.min(MAX_GRAM, name.length()); length++) {
+            grams.add(PREFIX_MARK + name.substring(0, length));
+            for (int start = 0; start + length <= name.length(); start++) {
+                grams.add(name.substring(start, start + length));
+            }
+        }
+        return grams;
+    }
+
+    /** Returns the posting lists of the grams, or {@code null} when one of them matches no player. */
+    private List<Postings> postingsOf(Set<String> grams) {
+        List<Postings> lists = new ArrayList<>(grams.size());
+        for (String gram : grams) {
+            Postings list = postings.get(gram);
+            if (list == null) {
+                return null;
+            }
+            lists.add(list);
+        }
+        return lists;
+    }
+
+    /**
+     * Walks the intersection of the posting lists from the shortest one. Within the sorted range the walk stops after
+     * {@code limit} matches since later slots only hold names further in the alphabet; the players added since the
+     * build are always checked.
+     */
+    private void collect(List<Postings> lists, Predicate<String> accept, int tier, int limit, List<Match> out) {
+        List<Postings> ordered = new ArrayList<>(lists);
+        ordered.sort(Comparator.comparingInt(Postings::size));
+        Postings driver = ordered.get(0);
+        List<Match> found = new ArrayList<>();
+        int sortedFound = 0;
+        for (int i = 0; i < driver.size(); i++) {
+            int slot = driver.get(i);
+            if (slot < sortedSize && sortedFound >= limit) {
+                i = driver.firstIndexAtLeast(sortedSize) - 1;
+                continue;
+            }
+            String name = names[slot];
+            if (name == null || !containsAll(ordered, slot) || !accept.test(name)) {
+                continue;
+            }
+            found.add(new Match(playerIds[slot], name, tier, 0.0));
+            if (slot < sortedSize) {
+                sortedFound++;
+            }
+        }
+        found.sort(Match.ORDER);
+        out.addAll(found.subList(0, Math.min(limit, found.size())));
+    }
+
+    private static boolean containsAll(List<Postings> lists, int slot) {
+        for (int i = 1; i < lists.size(); i++) {
+            if (!lists.get(i).contains(slot)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Adds the names sharing at least a third of the query trigrams and whose trigram sets have a Jaccard similarity
+     * of at least {@link #MIN_FUZZY_SIMILARITY}. Only runs when the exact tiers did not fill the limit, so they
+     * already hold every exact match.
+     */
+    private void collectFuzzy(Query query, int limit, List<Match> out) {
+        List<String> trigrams = query.trigrams();
+        if (trigrams.isEmpty()) {
+            return;
+        }
+        Set<Long> matched = new HashSet<>();
+        out.forEach(match -> matched.add(match.playerId()));
+        int required = (trigrams.size() + 2) / 3;
+        Map<Integer, Integer> shared = new HashMap<>();
+        List<Integer> candidates = new ArrayList<>();
+        for (String trigram : trigrams) {
+            Postings list = postings.get(trigram);
+            if (list == null) {
+                continue;
+            }
+            for (int i = 0; i < list.size(); i++) {
+                int slot = list.get(i);
+                if (shared.merge(slot, 1, Integer::sum) == required) {
+                    candidates.add(slot);
+                }
+            }
+        }
+        List<Match> found = new ArrayList<>();
+        for (int slot : candidates) {
+            String name = names[slot];
+            if (name == null || matched.contains(playerIds[slot])) {
+                continue;
+            }
+            int common = shared.get(slot);
+            int nameTrigrams = Math.max(1, name.length() - 2);
+            double score = common / (double) (trigrams.size() + nameTrigrams - common);
+            if (score >= MIN_FUZZY_SIMILARITY) {
+                found.add(new Match(playerIds[slot], name, FUZZY, score));
+            }
+        }
+        found.sort(Match.ORDER);
+        out.addAll(found.subList(0, Math.min(limit, found.size())));
+    }
+
+    /** Search query: the lowercased tokens a name must contain in order, like the former {@code LIKE '%a%b%'}. */
+    record Query(List<String> tokens) {
+
+        /**
+         * Parses a raw query.
+         *
+         * @param rawQuery query typed by the user
+         * @return parsed query or {@code null} when blank
+         */
+        static Query parse(String rawQuery) {
+            String normalised = PlayerNameListener.normalise(rawQuery);
+            if (normalised == null) {
+                return null;
+            }
+            return new Query(List.of(normalised.split("\\s+")));
+        }
+
+        boolean matches(String name) {
+            int from = 0;
+            for (String token : tokens) {
+                int at = name.indexOf(token, from);
+                if (at < 0) {
+                    return false;
+                }
+                from = at + token.length();
+            }
+            return true;
+        }
+
+        boolean matchesPrefix(String name) {
+            return name.startsWith(tokens.get(0)) && matches(name);
+        }
+
+        /** Grams every matching name contains: the token itself when short, its trigrams otherwise. */
+        Set<String> grams() {
+            Set<String> grams = new LinkedHashSet<>();
+            for (String token : tokens) {
+                if (token.length() <= MAX_GRAM) {
+                    grams.add(token);
+                } else {
+                    grams.addAll(trigrams(token));
+                }
+            }
+            return grams;
+        }
+
+        String prefixGram() {
+            String first = tokens.get(0);
+            return PREFIX_MARK + first.substring(0, Math.min(MAX_GRAM, first.length()));
+        }
+
+        List<String> trigrams() {
+            Set<String> trigrams = new LinkedHashSet<>();
+            for (String token : tokens) {
+                trigrams.addAll(trigrams(token));
+            }
+            return List.copyOf(trigrams);
+        }
+
+        private static List<String> trigrams(String token) {
+            List<String> trigrams = new ArrayList<>();
+            for (int start = 0; start + MAX_GRAM <= token.length(); start++) {
+                trigrams.add(token.substring(start, start + MAX_GRAM));
+            }
+            return trigrams;
+        }
+    }
+
+    /** Matching player with its tier and, for fuzzy matches, its similarity. */
+    record Match(long playerId, String name, int tier, double score) {
+
+        static final Comparator<Match> ORDER = Comparator.comparingInt(Match::tier)
+                .thenComparing(Comparator.comparingDouble(Match::score).reversed())
+                .thenComparing(Match::name)
+                .thenComparingLong(Match::playerId);
+    }
+
+    /** Slots holding a gram, in ascending order since slots are only ever appended. */
+    private static final class Postings {
+
+        private int[] slots = new int[4];
+        private int size;
+
+        void add(int slot) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            slots[size++] = slot;
+        }
+
+        int size() {
+            return size;
+        }
+
+        int get(int index) {
+            return slots[index];
+        }
+
+        boolean contains(int slot) {
+            return Arrays.binarySearch(slots, 0, size, slot) >= 0;
+        }
+
+        int firstIndexAtLeast(int slot) {
+            int at = Arrays.binarySearch(slots, 0, size, slot);
+            return at >= 0 ? at : -at - 1;
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package com.opyruso.nwleaderboard.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Radix trie over the normalised names of the players of one region, answering autocomplete queries by walking the
+ * typed prefix only. Every node keeps the {@link #MAX_COMPLETIONS} best ranked completions of its subtree, ranked by
+ * activity, so a query never visits the subtree itself.
+ *
+ * <p>Insertions offer the new player to the nodes on its path; removals recompute the ranking of the nodes that held
+ * the player from their children, bottom-up, and merge the nodes left with a single child. The trie is not
+ * thread-safe, {@link PlayerAutocompleteService} guards it.</p>
+ */
+final class PlayerNameTrie {
+
+    /** Largest number of completions a node keeps, hence the largest supported limit. */
+    static final int MAX_COMPLETIONS = 20;
+
+    /** Most active players first, then alphabetical order. */
+    static final Comparator<Completion> RANKING = Comparator.comparingLong(Completion::activity).reversed()
+            .thenComparing(Completion::name)
+            .thenComparingLong(Completion::playerId);
+
+    private static final Completion[] NO_COMPLETIONS = new Completion[0];
+    private static final char[] NO_KEYS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    private final Node root = new Node("");
+    private final Map<Long, Completion> completions = new HashMap<>();
+
+    /** Indexes a player, replacing its previous name and activity. */
+    void put(Completion completion) {
+        remove(completion.playerId());
+        insert(completion);
+        completions.put(completion.playerId(), completion);
+    }
+
+    /** Removes a player from the trie. */
+    void remove(long playerId) {
+        Completion existing = completions.remove(playerId);
+        if (existing != null) {
+            delete(existing);
+        }
+    }
+
+    boolean isEmpty() {
+        return completions.isEmpty();
+    }
+
+    /**
+     * Returns the best ranked players whose name starts with the prefix.
+     *
+     * @param prefix normalised prefix
+     * @param limit maximum number of completions, at most {@link #MAX_COMPLETIONS}
+     * @return ranked completions
+     */
+    List<Completion> complete(String prefix, int limit) {
+        Node node = root;
+        String rest = prefix;
+        while (!rest.isEmpty()) {
+            Node child = node.child(rest.charAt(0));
+            if (child == null) {
+                return List.of();
+            }
+            if (rest.length() <= child.label.length()) {
+                return child.label.startsWith(rest) ? head(child.top, limit) : List.of();
+            }
+            if (!rest.startsWith(child.label)) {
+                return List.of();
+            }
+            rest = rest.substring(child.label.length());
+            node = child;
+        }
+        return head(node.top, limit);
+    }
+
+    private void insert(Completion completion) {
+        Node node = root;
+        String rest = completion.name();
+        offer(node, completion);
+        while (!rest.isEmpty()) {
+            int at = node.indexOf(rest.charAt(0));
+            if (at < 0) {
+                Node leaf = new Node(rest);
+                leaf.terminals = new Completion[] {completion};
+                leaf.top = new Completion[] {completion};
+                node.addChild(leaf);
+                return;
+            }
+            Node child = node.children[at];
+            int common = commonPrefixLength(child.label, rest);
+            if (common < child.label.length()) {
+                Node split = new Node(child.label.substring(0, common));
+                child.label = child.label.substring(common);
+                split.addChild(child);
+                split.top = child.top.clone();
+                node.children[at] = split;
+                child = split;
+            }
+            offer(child, completion);
+            rest = rest.substring(common);
+            node = child;
+        }
+        node.terminals = append(node.terminals, completion);
+    }
+
+    private void delete(Completion completion) {
+        List<Node> path = new ArrayList<>();
+        path.add(root);
+        Node node = root;
+        String rest = completion.name();
+        while (!rest.isEmpty()) {
+            Node child = node.child(rest.charAt(0));
+            if (child == null || !rest.startsWith(child.label)) {
+                return;
+            }
+            rest = rest.substring(child.label.length());
+            node = child;
+            path.add(node);
+        }
+        node.terminals = without(node.terminals, completion.playerId());
+
+        // A node outside the top of its subtree cannot be in the top of any ancestor either.
+        for (int i = path.size() - 1; i >= 0; i--) {
+            Node current = path.get(i);
+            if (!contains(current.top, completion.playerId())) {
+                break;
+            }
+            current.top = rank(current);
+        }
+        for (int i = path.size() - 1; i > 0; i--) {
+            compact(path.get(i - 1), path.get(i));
+        }
+    }
+
+    /** Drops an empty node and merges a node without players into its only child. */
+    private static void compact(Node parent, Node node) {
+        if (node.terminals.length > 0) {
+            return;
+        }
+        if (node.children.length == 0) {
+            parent.removeChild(node);
+        } else if (node.children.length == 1) {
+            Node child = node.children[0];
+            node.label = node.label + child.label;
+            node.keys = child.keys;
+            node.children = child.children;
+            node.terminals = child.terminals;
+            node.top = child.top;
+        }
+    }
+
+    private static Completion[] rank(Node node) {
+        List<Completion> candidates = new ArrayList<>(Arrays.asList(node.terminals));
+        for (Node child : node.children) {
+            candidates.addAll(Arrays.asList(child.top));
+        }
+        candidates.sort(RANKING);
+        return candidates.subList(0, Math.min(MAX_COMPLETIONS, candidates.size())).toArray(NO_COMPLETIONS);
+    }
+
+    private static void offer(Node node, Completion completion) {
+        int at = Arrays.binarySearch(node.top, completion, RANKING);
+        int position = at >= 0 ? at : -at - 1;
+        if (position >= MAX_COMPLETIONS) {
+            return;
+        }
+        int length = Math.min(MAX_COMPLETIONS, node.top.length + 1);
+        Completion[] top = new Completion[length];
+        System.arraycopy(node.top, 0, top, 0, position);
+        top[position] = completion;
+        System.arraycopy(node.top, position, top, position + 1, length - position - 1);
+        node.top = top;
+    }
+
+    private static List<Completion> head(Completion[] top, int limit) {
+        return List.of(top).subList(0, Math.min(Math.max(0, limit), top.length));
+    }
+
+    private static int commonPrefixLength(String left, String right) {
+        int max = Math.min(left.length(), right.length());
+        int length = 0;
+        while (length < max && left.charAt(length) == right.charAt(length)) {
+            length++;
+        }
+        return length;
+    }
+
+    private static Completion[] append(Completion[] completions, Completion completion) {
+        Completion[] result = Arrays.copyOf(completions, completions.length + 1);
+        result[completions.length] = completion;
+        return result;
+    }
+
+    private static Completion[] without(Completion[] completions, long playerId) {
+        return Arrays.stream(completions)
+                .filter(completion -> completion.playerId() != playerId)
+                .toArray(Completion[]::new);
+    }
+
+    private static boolean contains(Completion[] completions, long playerId) {
+        for (Completion completion : completions) {
+            if (completion.playerId() == playerId) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Player offered as a completion.
+     *
+     * @param playerId identifier of the player
+     * @param name normalised name the trie is keyed on
+     * @param displayName name as displayed
+     * @param mainPlayerId identifier of the main character, {@code null} for a main character
+     * @param regionId region of the player
+     * @param activity ranking score, the number of runs of the player
+     */
+    record Completion(
+            long playerId, String name, String displayName, Long mainPlayerId, String regionId, long activity) {
+    }
+
+    private static final class Node {
+
+        private String label;
+        private char[] keys = NO_KEYS;
+        private Node[] children = NO_CHILDREN;
+        private Completion[] terminals = NO_COMPLETIONS;
+        private Completion[] top = NO_COMPLETIONS;
+
+        private Node(String label) {
+            this.label = label;
+        }
+
+        int indexOf(char key) {
+            return Arrays.binarySearch(keys, key);
+        }
+
+        Node child(char key) {
+            int at = indexOf(key);
+            return at >= 0 ? children[at] : null;
+        }
+
+        void addChild(Node child) {
+            char key = child.label.charAt(0);
+            int position = -indexOf(key) - 1;
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, position);
+            System.arraycopy(children, 0, newChildren, 0, position);
+            newKeys[position] = key;
+            newChildren[position] = child;
+            System.arraycopy(keys, position, newKeys, position + 1, keys.length - position);
+            System.arraycopy(children, position, newChildren, position + 1, children.length - position);
+            keys = newKeys;
+            children = newChildren;
+        }
+
+        void removeChild(Node child) {
+            int at = indexOf(child.label.charAt(0));
+            if (at < 0 || children[at] != child) {
+                return;
+            }
+            char[] newKeys = new char[keys.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(keys, 0, newKeys, 0, at);
+            System.arraycopy(children, 0, newChildren, 0, at);
+            System.arraycopy(keys, at + 1, newKeys, at, keys.length - at - 1);
+            System.arraycopy(children, at + 1, newChildren, at, children.length - at - 1);
+            keys = newKeys;
+            children = newChildren;
+        }
+    }
+}
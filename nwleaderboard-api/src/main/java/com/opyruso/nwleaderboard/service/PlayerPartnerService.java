@@ -0,0 +1,261 @@
+package com.opyruso.nwleaderboard.service;
+
+import com.opyruso.nwleaderboard.entity.PlayerPartner;
+import com.opyruso.nwleaderboard.entity.PlayerPartnerId;
+import com.opyruso.nwleaderboard.event.PlayerPartnersChanged;
+import com.opyruso.nwleaderboard.event.PlayerRunsChanged;
+import com.opyruso.nwleaderboard.event.RunsChanged;
+import com.opyruso.nwleaderboard.repository.PlayerPartnerRepository;
+import com.opyruso.nwleaderboard.repository.PlayerRepository;
+import com.opyruso.nwleaderboard.repository.RunScorePlayerRepository;
+import com.opyruso.nwleaderboard.repository.RunTimePlayerRepository;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import org.jboss.logging.Logger;
+
+/**
+ * Maintains the {@code player_partner} read model: for every leaderboard, the number of runs each pair of players
+ * completed together. A run only changes the pairs formed by its own players, so the players announced by a
+ * {@link PlayerRunsChanged} event for one leaderboard only have the pairs they form together recounted. A player merge
+ * announces its players for both leaderboards and moves every run of a player, so all of their pairs are recounted.
+ *
+ * <p>The events are published once the change is committed and the pairs are recounted in a new transaction on a
+ * background thread, which reads the runs committed by every concurrent writer rather than the snapshot of the writing
+ * transaction. Each recount publishes a {@link PlayerPartnersChanged} event once committed.</p>
+ *
+ * <p>The adaptability index of a player is read from its rows: distinct partners divided by partner slots, a partner
+ * being counted once per shared run.</p>
+ */
+@ApplicationScoped
+public class PlayerPartnerService {
+
+    private static final Logger LOG = Logger.getLogger(PlayerPartnerService.class);
+
+    private static final int BACKFILL_BATCH_SIZE = 500;
+
+    @Inject
+    PlayerPartnerRepository playerPartnerRepository;
+
+    @Inject
+    PlayerRepository playerRepository;
+
+    @Inject
+    RunScorePlayerRepository runScorePlayerRepository;
+
+    @Inject
+    RunTimePlayerRepository runTimePlayerRepository;
+
+    @Inject
+    DataChangeEventBus dataChangeEventBus;
+
+    private final Lock refreshLock = new ReentrantLock();
+    private final Map<RunsChanged.Mode, Set<Long>> pendingPairs = new EnumMap<>(RunsChanged.Mode.class);
+    private final Set<Long> pendingPlayers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService refreshExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public PlayerPartnerService() {
+        for (RunsChanged.Mode mode : RunsChanged.Mode.values()) {
+            pendingPairs.put(mode, ConcurrentHashMap.newKeySet());
+        }
+    }
+
+    /** Queues the players whose runs changed and recounts their pairs once their change is committed. */
+    void onPlayerRunsChanged(@Observes PlayerRunsChanged event) {
+        if (event.playerIds().isEmpty()) {
+            return;
+        }
+        if (event.mode() == null) {
+            pendingPlayers.addAll(event.playerIds());
+        } else {
+            pendingPairs.get(event.mode()).addAll(event.playerIds());
+        }
+        refreshExecutor.execute(this::applyPendingRefreshes);
+    }
+
+    @PreDestroy
+    void stopRefreshes() {
+        refreshExecutor.shutdown();
+    }
+
+    /**
+     * Recounts the pairs of the queued players, one transaction per queue. Players whose recount failed stay queued
+     * for the next change or the next scheduled retry.
+     */
+    @Scheduled(every = "{player-partner.refresh-retry-interval}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void applyPendingRefreshes() {
+        refreshLock.lock();
+        try {
+            Set<Long> players = drain(pendingPlayers);
+            if (!players.isEmpty()) {
+                try {
+                    QuarkusTransaction.requiringNew().run(() -> refreshPlayers(players));
+                } catch (RuntimeException e) {
+                    pendingPlayers.addAll(players);
+                    LOG.errorf(e, "Unable to recount the partners of %d merged players", players.size());
+                }
+            }
+            for (RunsChanged.Mode mode : RunsChanged.Mode.values()) {
+                Set<Long> ids = drain(pendingPairs.get(mode));
+                if (ids.size() < 2) {
+                    continue;
+                }
+                try {
+                    QuarkusTransaction.requiringNew().run(() -> refreshPairs(ids, mode));
+                } catch (RuntimeException e) {
+                    pendingPairs.get(mode).addAll(ids);
+                    LOG.errorf(e, "Unable to recount the %s pairs of %d players", mode, ids.size());
+                }
+            }
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    /** Recounts the pairs formed by players of runs that were inserted, edited or deleted, before and after. */
+    private void refreshPairs(Set<Long> ids, RunsChanged.Mode mode) {
+        // The delete runs first: it waits for the locks of concurrent writers, and the snapshot of the counts read
+        // below is only taken once it returns.
+        playerPartnerRepository.deletePairs(ids, mode.name());
+        playerPartnerRepository.flush();
+        for (Object[] row : listPartnerCounts(mode, ids, true)) {
+            persist(row, mode, false, ids);
+        }
+        dataChangeEventBus.publish(new PlayerPartnersChanged(ids, mode));
+    }
+
+    /** Recounts every pair of players whose runs were merged, on both leaderboards. */
+    private void refreshPlayers(Set<Long> ids) {
+        playerPartnerRepository.deleteByPlayers(ids);
+        playerPartnerRepository.flush();
+        for (RunsChanged.Mode mode : RunsChanged.Mode.values()) {
+            for (Object[] row : listPartnerCounts(mode, ids, false)) {
+                persist(row, mode, true, ids);
+            }
+        }
+        dataChangeEventBus.publish(new PlayerPartnersChanged(ids, null));
+    }
+
+    /**
+     * Computes the adaptability index of the provided players: the share of their partner slots filled by distinct
+     * partners.
+     *
+     * @param playerIds identifiers of the players
+     * @param mode leaderboard to read
+     * @return mapping between player identifier and index between 0 and 100, players without partner mapping to 0
+     */
+    @Transactional(Transactional.TxType.SUPPORTS)
+    public Map<Long, Integer> adaptabilityIndexes(Collection<Long> playerIds, RunsChanged.Mode mode) {
+        Set<Long> ids = normalise(playerIds);
+        if (ids.isEmpty() || mode == null) {
+            return Map.of();
+        }
+        Map<Long, long[]> summaries = playerPartnerRepository.summariseByPlayers(ids, mode.name());
+        Map<Long, Integer> indexes = new HashMap<>();
+        for (Long playerId : ids) {
+            long[] summary = summaries.get(playerId);
+            long partnerSlots = summary != null ? summary[0] : 0L;
+            long distinctPartners = summary != null ? summary[1] : 0L;
+            double ratio = partnerSlots > 0L
+                    ? Math.clamp((double) distinctPartners / (double) partnerSlots, 0.0, 1.0)
+                    : 0.0;
+            indexes.put(playerId, (int) Math.round(ratio * 100.0));
+        }
+        return indexes;
+    }
+
+    @Transactional
+    void backfill(@Observes StartupEvent event) {
+        if (playerPartnerRepository.count() > 0L) {
+            return;
+        }
+        long start = System.nanoTime();
+        List<Long> playerIds = new ArrayList<>();
+        for (Object[] row : playerRepository.listIdentityColumns()) {
+            if (row != null && row.length > 0 && row[0] instanceof Number id) {
+                playerIds.add(id.longValue());
+            }
+        }
+        int rows = 0;
+        for (int from = 0; from < playerIds.size(); from += BACKFILL_BATCH_SIZE) {
+            Set<Long> batch = new LinkedHashSet<>(
+                    playerIds.subList(from, Math.min(playerIds.size(), from + BACKFILL_BATCH_SIZE)));
+            for (RunsChanged.Mode mode : RunsChanged.Mode.values()) {
+                // Every player is part of a batch, so each one writes its own rows only.
+                for (Object[] row : listPartnerCounts(mode, batch, false)) {
+                    rows += persist(row, mode, false, batch);
+                }
+            }
+            playerPartnerRepository.flush();
+            playerPartnerRepository.getEntityManager().clear();
+        }
+        LOG.infof("Rebuilt %d player partner rows in %d ms", rows, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private List<Object[]> listPartnerCounts(RunsChanged.Mode mode, Collection<Long> playerIds, boolean partnersInSet) {
+        return mode == RunsChanged.Mode.SCORE
+                ? runScorePlayerRepository.listPartnerCountColumns(playerIds, partnersInSet)
+                : runTimePlayerRepository.listPartnerCountColumns(playerIds, partnersInSet);
+    }
+
+    /**
+     * Stores a {@code player id, partner id, shared run count} row. With {@code mirror} the reverse row is stored too
+     * when the partner is not part of {@code playerIds}, since its own rows were deleted but not recounted.
+     */
+    private int persist(Object[] row, RunsChanged.Mode mode, boolean mirror, Set<Long> playerIds) {
+        if (row == null || row.length < 3 || !(row[0] instanceof Number playerId)
+                || !(row[1] instanceof Number partnerId) || !(row[2] instanceof Number runCount)) {
+            return 0;
+        }
+        persist(playerId.longValue(), partnerId.longValue(), mode, runCount.intValue());
+        if (mirror && !playerIds.contains(partnerId.longValue())) {
+            persist(partnerId.longValue(), playerId.longValue(), mode, runCount.intValue());
+            return 2;
+        }
+        return 1;
+    }
+
+    private void persist(long playerId, long partnerId, RunsChanged.Mode mode, int runCount) {
+        PlayerPartner entry = new PlayerPartner();
+        entry.setId(new PlayerPartnerId(playerId, partnerId, mode.name()));
+        entry.setRunCount(runCount);
+        playerPartnerRepository.persist(entry);
+    }
+
+    private static Set<Long> drain(Set<Long> pending) {
+        Set<Long> ids = new LinkedHashSet<>(pending);
+        pending.removeAll(ids);
+        return ids;
+    }
+
+    private static Set<Long> normalise(Collection<Long> playerIds) {
+        Set<Long> ids = new LinkedHashSet<>();
+        if (playerIds != null) {
+            for (Long playerId : playerIds) {
+                if (playerId != null) {
+                    ids.add(playerId);
+                }
+            }
+        }
+        return ids;
+    }
+}
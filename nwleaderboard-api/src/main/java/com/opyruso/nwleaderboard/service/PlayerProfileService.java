@@ -6,31 +6,31 @@ import com.opyruso.nwleaderboard.dto.PlayerProfileResponse;
 import com.opyruso.nwleaderboard.entity.Dungeon;
 import com.opyruso.nwleaderboard.entity.Player;
 import com.opyruso.nwleaderboard.entity.RunScore;
-import com.opyruso.nwleaderboard.entity.RunScorePlayer;
 import com.opyruso.nwleaderboard.entity.RunTime;
+import com.opyruso.nwleaderboard.event.RunsChanged;
 import com.opyruso.nwleaderboard.repository.PlayerRepository;
 import com.opyruso.nwleaderboard.repository.RunScoreRepository;
-import com.opyruso.nwleaderboard.repository.RunScorePlayerRepository;
 import com.opyruso.nwleaderboard.repository.RunTimeRepository;
-import com.opyruso.nwleaderboard.repository.WeekMutationDungeonRepository;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 import java.text.Collator;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 
 /**
- * Aggregates leaderboard information for a single player.
+ * Aggregates leaderboard information for a single player or a batch of players.
  */
 @ApplicationScoped
 public class PlayerProfileService {
@@ -42,137 +42,216 @@ public class PlayerProfileService {
     RunScoreRepository runScoreRepository;
 
     @Inject
-    RunScorePlayerRepository runScorePlayerRepository;
+    RunTimeRepository runTimeRepository;
 
     @Inject
-    RunTimeRepository runTimeRepository;
+    WeekCalendarService weekCalendarService;
 
     @Inject
-    WeekMutationDungeonRepository weekMutationDungeonRepository;
+    PlayerDungeonBestService playerDungeonBestService;
+
+    @Inject
+    ConcurrentQueryExecutor concurrentQueryExecutor;
+
+    @Inject
+    DungeonEnvelopeService dungeonEnvelopeService;
+
+    @Inject
+    PlayerPartnerService playerPartnerService;
 
     @Transactional(Transactional.TxType.SUPPORTS)
     public Optional<PlayerProfileResponse> getProfile(Long playerId, Integer seasonId) {
         if (playerId == null) {
             return Optional.empty();
         }
-        Player player = playerRepository.findById(playerId);
-        if (player == null) {
-            return Optional.empty();
+        return getProfiles(List.of(playerId), seasonId).stream().findFirst();
+    }
+
+    /**
+     * Builds the profiles of several players. Every stage reads the data of all the players with one set-based
+     * statement, so the number of statements does not grow with the number of players.
+     *
+     * @param playerIds identifiers of the players
+     * @param seasonId season to read, {@code null} for every week
+     * @return profiles of the known players, in the requested order
+     */
+    @Transactional(Transactional.TxType.SUPPORTS)
+    public List<PlayerProfileResponse> getProfiles(Collection<Long> playerIds, Integer seasonId) {
+        if (playerIds == null || playerIds.isEmpty()) {
+            return List.of();
+        }
+        Set<Long> requestedIds = new LinkedHashSet<>();
+        for (Long playerId : playerIds) {
+            if (playerId != null) {
+                requestedIds.add(playerId);
+            }
+        }
+        Map<Long, Player> playersById = new HashMap<>();
+        for (Player player : playerRepository.listByIdsWithMain(requestedIds)) {
+            if (player != null && player.getId() != null) {
+                playersById.put(player.getId(), player);
+            }
+        }
+        List<Player> players = requestedIds.stream().map(playersById::get).filter(Objects::nonNull).toList();
+        if (players.isEmpty()) {
+            return List.of();
         }
 
-        Player main = resolveMain(player);
-        boolean isMainAccount = main == null || main.equals(player);
-        List<Player> accountAlternates =
-                isMainAccount ? playerRepository.listByMainCharacterId(player.getId()) : List.of();
-        List<Long> accountPlayerIds = new ArrayList<>();
-        accountPlayerIds.add(player.getId());
-        if (accountAlternates != null) {
-            for (Player alternate : accountAlternates) {
-                if (alternate == null || alternate.getId() == null) {
-                    continue;
-                }
+        // Only main characters list their alternates and aggregate the runs of the whole account.
+        Map<Long, Player> mains = new HashMap<>();
+        Set<Long> mainAccountIds = new LinkedHashSet<>();
+        for (Player player : players) {
+            Player main = resolveMain(player);
+            mains.put(player.getId(), main);
+            if (main == null || main.equals(player)) {
+                mainAccountIds.add(player.getId());
+            }
+        }
+        Map<Long, List<Player>> alternatesByMain = new HashMap<>();
+        for (Player alternate : playerRepository.listByMainCharacterIds(mainAccountIds)) {
+            if (alternate == null || alternate.getId() == null || alternate.getMainCharacter() == null) {
+                continue;
+            }
+            alternatesByMain.computeIfAbsent(alternate.getMainCharacter().getId(), id -> new ArrayList<>())
+                    .add(alternate);
+        }
+        Map<Long, List<Long>> accounts = new LinkedHashMap<>();
+        for (Player player : players) {
+            List<Long> accountPlayerIds = new ArrayList<>();
+            accountPlayerIds.add(player.getId());
+            for (Player alternate : alternatesByMain.getOrDefault(player.getId(), List.of())) {
                 if (!alternate.getId().equals(player.getId())) {
                     accountPlayerIds.add(alternate.getId());
                 }
             }
+            accounts.put(player.getId(), accountPlayerIds);
         }
 
-        LinkedHashMap<Long, PlayerDungeonAggregate> aggregates = new LinkedHashMap<>();
-
         LinkedHashSet<Integer> allowedWeeks = resolveAllowedWeeks(seasonId);
+        List<Long> profilePlayerIds = List.copyOf(accounts.keySet());
 
-        List<RunScore> scoreRuns = runScoreRepository.listBestByPlayers(accountPlayerIds, allowedWeeks);
-        for (RunScore run : scoreRuns) {
-            if (run == null) {
-                continue;
-            }
-            Dungeon dungeon = run.getDungeon();
-            Long dungeonId = dungeon != null ? dungeon.getId() : null;
-            if (dungeonId == null) {
-                continue;
+        // Independent stages run concurrently, each in its own read-only session.
+        CompletableFuture<Map<Long, List<RunScore>>> pendingScoreRuns = concurrentQueryExecutor.submit(
+                () -> listBestScoreRuns(accounts, seasonId, allowedWeeks));
+        CompletableFuture<Map<Long, List<RunTime>>> pendingTimeRuns = concurrentQueryExecutor.submit(
+                () -> listBestTimeRuns(accounts, seasonId, allowedWeeks));
+        CompletableFuture<Map<Long, Integer>> pendingAdaptabilityIndexes = concurrentQueryExecutor.submit(
+                () -> playerPartnerService.adaptabilityIndexes(profilePlayerIds, RunsChanged.Mode.SCORE));
+        CompletableFuture<Map<Long, Integer>> pendingTimeAdaptabilityIndexes = concurrentQueryExecutor.submit(
+                () -> playerPartnerService.adaptabilityIndexes(profilePlayerIds, RunsChanged.Mode.TIME));
+
+        Map<Long, LinkedHashMap<Long, PlayerDungeonAggregate>> aggregatesByPlayer = new HashMap<>();
+        concurrentQueryExecutor.join(pendingScoreRuns).forEach((playerId, runs) -> {
+            LinkedHashMap<Long, PlayerDungeonAggregate> aggregates =
+                    aggregatesByPlayer.computeIfAbsent(playerId, id -> new LinkedHashMap<>());
+            for (RunScore run : runs) {
+                PlayerDungeonAggregate aggregate = aggregateOf(aggregates, run != null ? run.getDungeon() : null);
+                if (aggregate != null && aggregate.bestScore == null) {
+                    aggregate.bestScore = run;
+                }
             }
-            PlayerDungeonAggregate aggregate =
-                    aggregates.computeIfAbsent(dungeonId, id -> new PlayerDungeonAggregate(dungeon));
-            if (aggregate.bestScore == null) {
-                aggregate.bestScore = run;
+        });
+        concurrentQueryExecutor.join(pendingTimeRuns).forEach((playerId, runs) -> {
+            LinkedHashMap<Long, PlayerDungeonAggregate> aggregates =
+                    aggregatesByPlayer.computeIfAbsent(playerId, id -> new LinkedHashMap<>());
+            for (RunTime run : runs) {
+                PlayerDungeonAggregate aggregate = aggregateOf(aggregates, run != null ? run.getDungeon() : null);
+                if (aggregate != null && aggregate.bestTime == null) {
+                    aggregate.bestTime = run;
+                }
             }
-        }
+        });
 
-        List<RunTime> timeRuns = runTimeRepository.listBestByPlayers(accountPlayerIds, allowedWeeks);
-        for (RunTime run : timeRuns) {
-            if (run == null) {
-                continue;
+        Set<Long> scoreRunIds = new LinkedHashSet<>();
+        Set<Long> timeRunIds = new LinkedHashSet<>();
+        aggregatesByPlayer.values().forEach(aggregates -> aggregates.values().forEach(aggregate -> {
+            if (aggregate.bestScore != null && aggregate.bestScore.getId() != null) {
+                scoreRunIds.add(aggregate.bestScore.getId());
             }
-            Dungeon dungeon = run.getDungeon();
-            Long dungeonId = dungeon != null ? dungeon.getId() : null;
-            if (dungeonId == null) {
-                continue;
+            if (aggregate.bestTime != null && aggregate.bestTime.getId() != null) {
+                timeRunIds.add(aggregate.bestTime.getId());
             }
-            PlayerDungeonAggregate aggregate =
-                    aggregates.computeIfAbsent(dungeonId, id -> new PlayerDungeonAggregate(dungeon));
-            if (aggregate.bestTime == null) {
-                aggregate.bestTime = run;
-            }
-        }
+        }));
+        CompletableFuture<Map<Long, Integer>> pendingScorePositions = concurrentQueryExecutor.submit(
+                () -> runScoreRepository.findPositionsInDungeon(scoreRunIds, allowedWeeks));
+        CompletableFuture<Map<Long, Integer>> pendingTimePositions = concurrentQueryExecutor.submit(
+                () -> runTimeRepository.findPositionsInDungeon(timeRunIds, allowedWeeks));
 
-        Map<Long, Integer> minScores =
-                runScoreRepository.findMinimumScoresByDungeonIds(aggregates.keySet(), allowedWeeks);
-        Map<Long, Integer> maxScores =
-                runScoreRepository.findMaximumScoresByDungeonIds(aggregates.keySet(), allowedWeeks);
-        Map<Long, Integer> minTimes =
-                runTimeRepository.findMinimumTimesByDungeonIds(aggregates.keySet(), allowedWeeks);
-        Map<Long, Integer> maxTimes =
-                runTimeRepository.findMaximumTimesByDungeonIds(aggregates.keySet(), allowedWeeks);
-
-        for (Map.Entry<Long, PlayerDungeonAggregate> entry : aggregates.entrySet()) {
-            if (entry == null) {
-                continue;
+        aggregatesByPlayer.values().forEach(aggregates -> aggregates.forEach((dungeonId, aggregate) -> {
+            DungeonEnvelopeService.Envelope scores =
+                    dungeonEnvelopeService.getEnvelope(dungeonId, RunsChanged.Mode.SCORE, seasonId);
+            DungeonEnvelopeService.Envelope times =
+                    dungeonEnvelopeService.getEnvelope(dungeonId, RunsChanged.Mode.TIME, seasonId);
+            aggregate.minScore = scores.min();
+            aggregate.maxScore = scores.max();
+            aggregate.minTime = times.min();
+            aggregate.maxTime = times.max();
+        }));
+        Map<Long, Integer> scorePositions = concurrentQueryExecutor.join(pendingScorePositions);
+        Map<Long, Integer> timePositions = concurrentQueryExecutor.join(pendingTimePositions);
+        aggregatesByPlayer.values().forEach(aggregates -> aggregates.values().forEach(aggregate -> {
+            if (aggregate.bestScore != null) {
+                aggregate.scorePosition = scorePositions.get(aggregate.bestScore.getId());
             }
-            Long dungeonId = entry.getKey();
-            PlayerDungeonAggregate aggregate = entry.getValue();
-            if (dungeonId == null || aggregate == null) {
-                continue;
+            if (aggregate.bestTime != null) {
+                aggregate.timePosition = timePositions.get(aggregate.bestTime.getId());
             }
-            aggregate.minScore = minScores.get(dungeonId);
-            aggregate.maxScore = maxScores.get(dungeonId);
-            aggregate.minTime = minTimes.get(dungeonId);
-            aggregate.maxTime = maxTimes.get(dungeonId);
+        }));
+
+        Map<Long, Integer> adaptabilityIndexes = concurrentQueryExecutor.join(pendingAdaptabilityIndexes);
+        Map<Long, Integer> timeAdaptabilityIndexes = concurrentQueryExecutor.join(pendingTimeAdaptabilityIndexes);
+        List<PlayerProfileResponse> profiles = new ArrayList<>(players.size());
+        for (Player player : players) {
+            Long playerId = player.getId();
+            profiles.add(createProfile(
+                    player,
+                    mains.get(playerId),
+                    mainAccountIds.contains(playerId) ? alternatesByMain.getOrDefault(playerId, List.of()) : List.of(),
+                    aggregatesByPlayer.getOrDefault(playerId, new LinkedHashMap<>()),
+                    adaptabilityIndexes.getOrDefault(playerId, 0),
+                    timeAdaptabilityIndexes.getOrDefault(playerId, 0)));
         }
+        return List.copyOf(profiles);
+    }
 
-        List<PlayerDungeonBestResponse> dungeonSummaries = buildDungeonSummaries(aggregates, allowedWeeks);
+    private PlayerProfileResponse createProfile(
+            Player player,
+            Player main,
+            List<Player> accountAlternates,
+            Map<Long, PlayerDungeonAggregate> aggregates,
+            Integer adaptabilityIndex,
+            Integer timeAdaptabilityIndex) {
+        List<PlayerDungeonBestResponse> dungeonSummaries = buildDungeonSummaries(aggregates);
 
         Long mainId = main != null && !main.equals(player) ? main.getId() : null;
         String mainName = main != null && !main.equals(player) ? main.getPlayerName() : null;
         List<PlayerProfileAlternateResponse> alternatePlayers = List.of();
-        if (isMainAccount) {
-            if (accountAlternates != null && !accountAlternates.isEmpty()) {
-                Collator nameCollator = Collator.getInstance(Locale.ENGLISH);
-                nameCollator.setStrength(Collator.PRIMARY);
-                List<PlayerProfileAlternateResponse> summaries = new ArrayList<>();
-                for (Player alternate : accountAlternates) {
-                    if (alternate == null || alternate.getId() == null) {
-                        continue;
-                    }
-                    String altName = alternate.getPlayerName();
-                    if (altName != null) {
-                        altName = altName.strip();
-                    }
-                    if (altName == null || altName.isEmpty()) {
-                        continue;
-                    }
-                    summaries.add(new PlayerProfileAlternateResponse(alternate.getId(), altName));
+        if (!accountAlternates.isEmpty()) {
+            Collator nameCollator = Collator.getInstance(Locale.ENGLISH);
+            nameCollator.setStrength(Collator.PRIMARY);
+            List<PlayerProfileAlternateResponse> summaries = new ArrayList<>();
+            for (Player alternate : accountAlternates) {
+                if (alternate == null || alternate.getId() == null) {
+                    continue;
                 }
-                summaries.sort(
-                        (left, right) ->
-                                nameCollator.compare(
-                                        left.playerName() != null ? left.playerName() : "",
-                                        right.playerName() != null ? right.playerName() : ""));
-                alternatePlayers = List.copyOf(summaries);
+                String altName = alternate.getPlayerName();
+                if (altName != null) {
+                    altName = altName.strip();
+                }
+                if (altName == null || altName.isEmpty()) {
+                    continue;
+                }
+                summaries.add(new PlayerProfileAlternateResponse(alternate.getId(), altName));
             }
+            summaries.sort(
+                    (left, right) ->
+                            nameCollator.compare(
+                                    left.playerName() != null ? left.playerName() : "",
+                                    right.playerName() != null ? right.playerName() : ""));
+            alternatePlayers = List.copyOf(summaries);
         }
         String regionId = normaliseRegionId(player.getRegion() != null ? player.getRegion().getId() : null);
-        Integer adaptabilityIndex = calculateAdaptabilityIndex(player.getId());
-        PlayerProfileResponse response = new PlayerProfileResponse(
+        return new PlayerProfileResponse(
                 player.getId(),
                 player.getPlayerName(),
                 regionId,
@@ -180,51 +259,69 @@ public class PlayerProfileService {
                 mainName,
                 dungeonSummaries,
                 adaptabilityIndex,
+                timeAdaptabilityIndex,
                 alternatePlayers);
-        return Optional.of(response);
     }
 
-    private Integer calculateAdaptabilityIndex(Long playerId) {
-        if (playerId == null) {
-            return 0;
+    private static PlayerDungeonAggregate aggregateOf(Map<Long, PlayerDungeonAggregate> aggregates, Dungeon dungeon) {
+        Long dungeonId = dungeon != null ? dungeon.getId() : null;
+        if (dungeonId == null) {
+            return null;
         }
-        List<RunScorePlayer> associations = runScorePlayerRepository.listByPlayerId(playerId);
-        if (associations == null || associations.isEmpty()) {
-            return 0;
+        return aggregates.computeIfAbsent(dungeonId, id -> new PlayerDungeonAggregate(dungeon));
+    }
+
+    private Map<Long, List<RunScore>> listBestScoreRuns(
+            Map<Long, List<Long>> accounts, Integer seasonId, Collection<Integer> allowedWeeks) {
+        if (allowedWeeks != null && allowedWeeks.isEmpty()) {
+            return Map.of();
         }
-        List<Long> runIds = associations.stream()
-                .filter(association -> association != null && association.getRunScore() != null)
-                .map(association -> association.getRunScore().getId())
-                .filter(id -> id != null)
-                .distinct()
-                .collect(Collectors.toList());
-        if (runIds.isEmpty()) {
-            return 0;
+        if (seasonId != null && playerDungeonBestService.isRebuildPending()) {
+            Map<Long, List<RunScore>> runs = new HashMap<>();
+            accounts.forEach((playerId, accountPlayerIds) ->
+                    runs.put(playerId, runScoreRepository.listBestByPlayers(accountPlayerIds, allowedWeeks)));
+            return runs;
         }
-        List<RunScorePlayer> runParticipants = runScorePlayerRepository.listWithPlayersByRunIds(runIds);
-        if (runParticipants == null || runParticipants.isEmpty()) {
-            return 0;
+        Map<Long, List<Long>> runIds =
+                playerDungeonBestService.listBestRunIdsByAccount(accounts, RunsChanged.Mode.SCORE, seasonId);
+        return groupRuns(runIds, runScoreRepository.listByIdsWithDungeon(distinctRunIds(runIds)), RunScore::getId);
+    }
+
+    private Map<Long, List<RunTime>> listBestTimeRuns(
+            Map<Long, List<Long>> accounts, Integer seasonId, Collection<Integer> allowedWeeks) {
+        if (allowedWeeks != null && allowedWeeks.isEmpty()) {
+            return Map.of();
         }
-        long totalPartners = 0L;
-        Set<Long> uniquePartners = new HashSet<>();
-        for (RunScorePlayer association : runParticipants) {
-            if (association == null || association.getPlayer() == null) {
-                continue;
-            }
-            Player teammate = association.getPlayer();
-            Long teammateId = teammate.getId();
-            if (teammateId == null || teammateId.equals(playerId)) {
-                continue;
-            }
-            totalPartners++;
-            uniquePartners.add(teammateId);
+        if (seasonId != null && playerDungeonBestService.isRebuildPending()) {
+            Map<Long, List<RunTime>> runs = new HashMap<>();
+            accounts.forEach((playerId, accountPlayerIds) ->
+                    runs.put(playerId, runTimeRepository.listBestByPlayers(accountPlayerIds, allowedWeeks)));
+            return runs;
         }
-        if (totalPartners <= 0L) {
-            return 0;
+        Map<Long, List<Long>> runIds =
+                playerDungeonBestService.listBestRunIdsByAccount(accounts, RunsChanged.Mode.TIME, seasonId);
+        return groupRuns(runIds, runTimeRepository.listByIdsWithDungeon(distinctRunIds(runIds)), RunTime::getId);
+    }
+
+    private static Set<Long> distinctRunIds(Map<Long, List<Long>> runIdsByAccount) {
+        Set<Long> runIds = new LinkedHashSet<>();
+        runIdsByAccount.values().forEach(runIds::addAll);
+        return runIds;
+    }
+
+    /** Hands every account the runs loaded for it; accounts sharing a run share the same entity. */
+    private static <R> Map<Long, List<R>> groupRuns(
+            Map<Long, List<Long>> runIdsByAccount, List<R> runs, Function<R, Long> idOf) {
+        Map<Long, R> runsById = new HashMap<>();
+        for (R run : runs) {
+            if (run != null && idOf.apply(run) != null) {
+                runsById.put(idOf.apply(run), run);
+            }
         }
-        double ratio = uniquePartners.isEmpty() ? 0.0 : (double) uniquePartners.size() / (double) totalPartners;
-        ratio = Math.max(0.0, Math.min(1.0, ratio));
-        return (int) Math.round(ratio * 100.0);
+        Map<Long, List<R>> grouped = new HashMap<>();
+        runIdsByAccount.forEach((accountId, runIds) -> grouped.put(accountId,
+                runIds.stream().map(runsById::get).filter(Objects::nonNull).toList()));
+        return grouped;
     }
 
     private LinkedHashSet<Integer> resolveAllowedWeeks(Integer seasonId) {
@@ -235,7 +332,7 @@ public class PlayerProfileService {
         if (seasonId <= 0) {
             return weeks;
         }
-        List<Integer> result = weekMutationDungeonRepository.findWeekNumbersBySeason(null, seasonId);
+        List<Integer> result = weekCalendarService.current().weeksBySeason(null, seasonId);
         if (result == null || result.isEmpty()) {
             return weeks;
         }
@@ -247,8 +344,7 @@ public class PlayerProfileService {
         return weeks;
     }
 
-    private List<PlayerDungeonBestResponse> buildDungeonSummaries(
-            Map<Long, PlayerDungeonAggregate> aggregates, Collection<Integer> allowedWeeks) {
+    private List<PlayerDungeonBestResponse> buildDungeonSummaries(Map<Long, PlayerDungeonAggregate> aggregates) {
         if (aggregates == null || aggregates.isEmpty()) {
             return List.of();
         }
@@ -257,7 +353,7 @@ public class PlayerProfileService {
             if (aggregate == null || aggregate.dungeon == null || aggregate.dungeon.getId() == null) {
                 continue;
             }
-            summaries.add(createSummary(aggregate, allowedWeeks));
+            summaries.add(createSummary(aggregate));
         }
         Collator collator = Collator.getInstance(Locale.ENGLISH);
         collator.setStrength(Collator.PRIMARY);
@@ -269,8 +365,7 @@ public class PlayerProfileService {
         return List.copyOf(summaries);
     }
 
-    private PlayerDungeonBestResponse createSummary(
-            PlayerDungeonAggregate aggregate, Collection<Integer> allowedWeeks) {
+    private PlayerDungeonBestResponse createSummary(PlayerDungeonAggregate aggregate) {
         Dungeon dungeon = aggregate.dungeon;
         Map<String, String> names = buildNameMap(dungeon);
         String fallbackName = names.getOrDefault("en", valueOrEmpty(dungeon != null ? dungeon.getNameLocalEn() : null));
@@ -278,14 +373,12 @@ public class PlayerProfileService {
         RunTime bestTime = aggregate.bestTime;
         Integer scoreValue = bestScore != null ? bestScore.getScore() : null;
         Integer scoreWeek = bestScore != null ? bestScore.getWeek() : null;
-        Integer scorePosition =
-                bestScore != null ? runScoreRepository.findPositionInDungeon(bestScore, allowedWeeks) : null;
+        Integer scorePosition = aggregate.scorePosition;
         Integer minScore = aggregate.minScore;
         Integer maxScore = aggregate.maxScore;
         Integer timeValue = bestTime != null ? bestTime.getTimeInSecond() : null;
         Integer timeWeek = bestTime != null ? bestTime.getWeek() : null;
-        Integer timePosition =
-                bestTime != null ? runTimeRepository.findPositionInDungeon(bestTime, allowedWeeks) : null;
+        Integer timePosition = aggregate.timePosition;
         Integer minTime = aggregate.minTime;
         Integer maxTime = aggregate.maxTime;
         Long dungeonId = dungeon != null ? dungeon.getId() : null;
@@ -345,6 +438,8 @@ public class PlayerProfileService {
         private final Dungeon dungeon;
         private RunScore bestScore;
         private RunTime bestTime;
+        private Integer scorePosition;
+        private Integer timePosition;
         private Integer minScore;
         private Integer maxScore;
         private Integer minTime;
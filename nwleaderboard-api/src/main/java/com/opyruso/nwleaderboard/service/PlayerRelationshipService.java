@@ -4,12 +4,9 @@ import com.opyruso.nwleaderboard.dto.PlayerRelationshipEdgeResponse;
 import com.opyruso.nwleaderboard.dto.PlayerRelationshipGraphResponse;
 import com.opyruso.nwleaderboard.dto.PlayerRelationshipNodeResponse;
 import com.opyruso.nwleaderboard.entity.Player;
-import com.opyruso.nwleaderboard.entity.RunScorePlayer;
-import com.opyruso.nwleaderboard.entity.RunTimePlayer;
 import com.opyruso.nwleaderboard.repository.PlayerRepository;
 import com.opyruso.nwleaderboard.repository.RunScorePlayerRepository;
 import com.opyruso.nwleaderboard.repository.RunTimePlayerRepository;
-import com.opyruso.nwleaderboard.repository.WeekMutationDungeonRepository;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
@@ -43,7 +40,7 @@ public class PlayerRelationshipService {
     RunTimePlayerRepository runTimePlayerRepository;
 
     @Inject
-    WeekMutationDungeonRepository weekMutationDungeonRepository;
+    WeekCalendarService weekCalendarService;
 
     @Transactional(Transactional.TxType.SUPPORTS)
     public Optional<PlayerRelationshipGraphResponse> getRelationships(Long playerId, Integer seasonId) {
@@ -93,10 +90,10 @@ public class PlayerRelationshipService {
         runPlayerIds.add(origin.getId());
         runPlayerIds.addAll(accountPlayers.keySet());
 
-        Map<Long, Set<Long>> runParticipants = new HashMap<>();
+        Map<PlayerPair, Integer> sharedRuns = new HashMap<>();
         Map<Long, String> playerNames = new HashMap<>();
-        collectScoreRuns(runPlayerIds, runParticipants, playerNames, allowedWeeks);
-        collectTimeRuns(runPlayerIds, runParticipants, playerNames, allowedWeeks);
+        collectScoreRuns(runPlayerIds, sharedRuns, playerNames, allowedWeeks);
+        collectTimeRuns(runPlayerIds, sharedRuns, playerNames, allowedWeeks);
 
         for (Map.Entry<Long, String> entry : playerNames.entrySet()) {
             if (entry == null || entry.getKey() == null) {
@@ -108,8 +105,6 @@ public class PlayerRelationshipService {
             builder.applyGroup(nodeGroups.get(playerKey));
         }
 
-        Map<PlayerPair, Integer> sharedRuns = computeSharedRuns(runParticipants);
-
         Map<Long, Set<Long>> externalAccountLinks = mapExternalAccountLinks(
                 accountRoot,
                 accountPlayers.keySet(),
@@ -128,38 +123,6 @@ public class PlayerRelationshipService {
         return Optional.of(new PlayerRelationshipGraphResponse(nodeResponses, edges));
     }
 
-    private Map<PlayerPair, Integer> computeSharedRuns(Map<Long, Set<Long>> runParticipants) {
-        Map<PlayerPair, Integer> sharedRuns = new HashMap<>();
-        for (Set<Long> participants : runParticipants.values()) {
-            if (participants == null || participants.size() < 2) {
-                continue;
-            }
-            List<Long> ordered = participants.stream()
-                    .filter(Objects::nonNull)
-                    .distinct()
-                    .sorted()
-                    .toList();
-            int size = ordered.size();
-            for (int i = 0; i < size - 1; i++) {
-                Long left = ordered.get(i);
-                if (left == null) {
-                    continue;
-                }
-                for (int j = i + 1; j < size; j++) {
-                    Long right = ordered.get(j);
-                    if (right == null) {
-                        continue;
-                    }
-                    PlayerPair pair = PlayerPair.of(left, right);
-                    if (pair != null) {
-                        sharedRuns.merge(pair, 1, Integer::sum);
-                    }
-                }
-            }
-        }
-        return sharedRuns;
-    }
-
     private List<PlayerRelationshipEdgeResponse> buildEdges(
             Player origin, Set<Long> accountNodeIds, Map<PlayerPair, Integer> sharedRuns) {
         if (sharedRuns.isEmpty()) {
@@ -385,7 +348,7 @@ public class PlayerRelationshipService {
         if (seasonId <= 0) {
             return Set.of();
         }
-        List<Integer> result = weekMutationDungeonRepository.findWeekNumbersBySeason(null, seasonId);
+        List<Integer> result = weekCalendarService.current().weeksBySeason(null, seasonId);
         if (result == null || result.isEmpty()) {
             return Set.of();
         }
@@ -400,83 +363,45 @@ public class PlayerRelationshipService {
 
     private void collectScoreRuns(
             Collection<Long> playerIds,
-            Map<Long, Set<Long>> runParticipants,
+            Map<PlayerPair, Integer> sharedRuns,
             Map<Long, String> playerNames,
             Set<Integer> allowedWeeks) {
         if (playerIds == null || playerIds.isEmpty()) {
             return;
         }
-        if (allowedWeeks != null && allowedWeeks.isEmpty()) {
-            return;
-        }
-        Set<Long> runIds = new LinkedHashSet<>();
-        for (Long playerId : playerIds) {
-            if (playerId == null) {
-                continue;
-            }
-            runIds.addAll(runScorePlayerRepository.listRunIdsByPlayer(playerId));
-        }
-        if (runIds.isEmpty()) {
-            return;
-        }
-        List<RunScorePlayer> associations =
-                runScorePlayerRepository.listWithPlayersByRunIds(new ArrayList<>(runIds));
-        for (RunScorePlayer association : associations) {
-            if (association == null || association.getRunScore() == null || association.getPlayer() == null) {
-                continue;
-            }
-            Long runId = association.getRunScore().getId();
-            Long participantId = association.getPlayer().getId();
-            Integer runWeek = association.getRunScore().getWeek();
-            if (runId == null || participantId == null) {
-                continue;
-            }
-            if (allowedWeeks != null && (runWeek == null || !allowedWeeks.contains(runWeek))) {
-                continue;
-            }
-            runParticipants.computeIfAbsent(runId, ignored -> new LinkedHashSet<>()).add(participantId);
-            playerNames.putIfAbsent(participantId, safeName(association.getPlayer().getPlayerName()));
-        }
+        collectSharedRuns(
+                runScorePlayerRepository.listSharedRunCountColumns(playerIds, allowedWeeks), sharedRuns, playerNames);
     }
 
     private void collectTimeRuns(
             Collection<Long> playerIds,
-            Map<Long, Set<Long>> runParticipants,
+            Map<PlayerPair, Integer> sharedRuns,
             Map<Long, String> playerNames,
             Set<Integer> allowedWeeks) {
         if (playerIds == null || playerIds.isEmpty()) {
             return;
         }
-        if (allowedWeeks != null && allowedWeeks.isEmpty()) {
-            return;
-        }
-        Set<Long> runIds = new LinkedHashSet<>();
-        for (Long playerId : playerIds) {
-            if (playerId == null) {
-                continue;
-            }
-            runIds.addAll(runTimePlayerRepository.listRunIdsByPlayer(playerId));
-        }
-        if (runIds.isEmpty()) {
-            return;
-        }
-        List<RunTimePlayer> associations =
-                runTimePlayerRepository.listWithPlayersByRunIds(new ArrayList<>(runIds));
-        for (RunTimePlayer association : associations) {
-            if (association == null || association.getRunTime() == null || association.getPlayer() == null) {
-                continue;
-            }
-            Long runId = association.getRunTime().getId();
-            Long participantId = association.getPlayer().getId();
-            Integer runWeek = association.getRunTime().getWeek();
-            if (runId == null || participantId == null) {
+        collectSharedRuns(
+                runTimePlayerRepository.listSharedRunCountColumns(playerIds, allowedWeeks), sharedRuns, playerNames);
+    }
+
+    /**
+     * Adds {@code player id, player name, teammate id, teammate name, shared run count} rows to the shared run counts.
+     * The rows pairing a player with itself only carry its name.
+     */
+    private void collectSharedRuns(
+            List<Object[]> rows, Map<PlayerPair, Integer> sharedRuns, Map<Long, String> playerNames) {
+        for (Object[] row : rows) {
+            if (row == null || row.length < 5 || !(row[0] instanceof Number playerId)
+                    || !(row[2] instanceof Number teammateId) || !(row[4] instanceof Number count)) {
                 continue;
             }
-            if (allowedWeeks != null && (runWeek == null || !allowedWeeks.contains(runWeek))) {
-                continue;
+            playerNames.putIfAbsent(playerId.longValue(), safeName(row[1] instanceof String name ? name : null));
+            playerNames.putIfAbsent(teammateId.longValue(), safeName(row[3] instanceof String name ? name : null));
+            if (playerId.longValue() != teammateId.longValue()) {
+                sharedRuns.merge(PlayerPair.of(playerId.longValue(), teammateId.longValue()), count.intValue(),
+                        Integer::sum);
             }
-            runParticipants.computeIfAbsent(runId, ignored -> new LinkedHashSet<>()).add(participantId);
-            playerNames.putIfAbsent(participantId, safeName(association.getPlayer().getPlayerName()));
         }
     }
 
@@ -0,0 +1,240 @@
+package com.opyruso.nwleaderboard.service;
+
+import com.opyruso.nwleaderboard.entity.Player;
+import com.opyruso.nwleaderboard.entity.PlayerNameListener;
+import com.opyruso.nwleaderboard.event.PlayerChanged;
+import com.opyruso.nwleaderboard.event.PlayerCreated;
+import com.opyruso.nwleaderboard.event.PlayerMerged;
+import com.opyruso.nwleaderboard.repository.PlayerRepository;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.interceptor.Interceptor;
+import jakarta.transaction.Transactional;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Answers the player search box from one resident {@link PlayerNameIndex} per region instead of a {@code LIKE} scan of
+ * the player table. The indexes are built at startup; created, renamed and merged players are queued by the data
+ * change events and applied by the next search, which reloads only those players.
+ *
+ * <p>With {@code player-search.index.enabled=false} searches go to {@link PlayerRepository#searchByName} again.</p>
+ */
+@ApplicationScoped
+public class PlayerSearchService {
+
+    private static final Logger LOG = Logger.getLogger(PlayerSearchService.class);
+
+    @ConfigProperty(name = "player-search.index.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @Inject
+    PlayerRepository playerRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Lock reloadLock = new ReentrantLock();
+    private final Map<String, PlayerNameIndex> partitions = new HashMap<>();
+    private final Map<Long, String> regionByPlayer = new HashMap<>();
+    private final Set<Long> pendingPlayerIds = ConcurrentHashMap.newKeySet();
+    private volatile boolean loaded;
+
+    /** Runs after the other startup observers, which may still fix up players (see {@link RegionService}). */
+    @Transactional
+    void loadIndex(@Observes @Priority(Interceptor.Priority.APPLICATION + 1000) StartupEvent event) {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    void onPlayerCreated(@Observes PlayerCreated event) {
+        queue(event.playerId());
+    }
+
+    void onPlayerChanged(@Observes PlayerChanged event) {
+        queue(event.playerId());
+    }
+
+    void onPlayerMerged(@Observes PlayerMerged event) {
+        queue(event.fromPlayerId());
+        queue(event.toPlayerId());
+    }
+
+    /**
+     * Searches players by name: names starting with the query first, then names containing its words in order, then
+     * names close to it, each tier in alphabetical order.
+     *
+     * @param rawQuery query typed by the user
+     * @param limit maximum number of results (values &lt;= 0 fall back to a sensible default)
+     * @param rawRegionId region to search, {@code null} for every region
+     * @return ranked players
+     */
+    @Transactional(Transactional.TxType.SUPPORTS)
+    public List<Player> search(String rawQuery, int limit, String rawRegionId) {
+        if (!enabled) {
+            return playerRepository.searchByName(rawQuery, limit, rawRegionId);
+        }
+        PlayerNameIndex.Query query = PlayerNameIndex.Query.parse(rawQuery);
+        if (query == null) {
+            return List.of();
+        }
+        int safeLimit = limit > 0 ? Math.min(limit, 50) : 10;
+        if (!loaded) {
+            rebuild();
+        }
+        applyPendingChanges();
+
+        String regionId = normaliseRegionId(rawRegionId);
+        List<PlayerNameIndex.Match> matches = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            if (regionId != null) {
+                PlayerNameIndex partition = partitions.get(regionId);
+                if (partition != null) {
+                    matches.addAll(partition.search(query, safeLimit));
+                }
+            } else {
+                for (PlayerNameIndex partition : partitions.values()) {
+                    matches.addAll(partition.search(query, safeLimit));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        matches.sort(PlayerNameIndex.Match.ORDER);
+        List<Long> ids = matches.stream().limit(safeLimit).map(PlayerNameIndex.Match::playerId).toList();
+
+        Map<Long, Player> players = new HashMap<>();
+        for (Player player : playerRepository.listByIdsWithMain(ids)) {
+            players.put(player.getId(), player);
+        }
+        return ids.stream().map(players::get).filter(Objects::nonNull).toList();
+    }
+
+    private synchronized void rebuild() {
+        if (loaded) {
+            return;
+        }
+        long start = System.nanoTime();
+        Map<String, Map<Long, String>> namesByRegion = new HashMap<>();
+        Map<Long, String> regions = new HashMap<>();
+        for (Object[] row : playerRepository.listIdentityColumns()) {
+            Identity identity = Identity.of(row);
+            if (identity != null) {
+                namesByRegion.computeIfAbsent(identity.regionId(), key -> new HashMap<>())
+                        .put(identity.playerId(), identity.name());
+                regions.put(identity.playerId(), identity.regionId());
+            }
+        }
+        lock.writeLock().lock();
+        try {
+            partitions.clear();
+            namesByRegion.forEach((regionId, names) -> partitions.put(regionId, PlayerNameIndex.build(names)));
+            regionByPlayer.clear();
+            regionByPlayer.putAll(regions);
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        LOG.infof("Indexed the names of %d players in %d regions in %d ms", regions.size(), partitions.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Reloads the queued players. Reloads run one at a time, so that a player read before a change can never be applied
+     * after the same player read once it was committed.
+     */
+    private void applyPendingChanges() {
+        if (pendingPlayerIds.isEmpty()) {
+            return;
+        }
+        reloadLock.lock();
+        try {
+            List<Long> playerIds = new ArrayList<>(pendingPlayerIds);
+            if (playerIds.isEmpty()) {
+                return;
+            }
+            pendingPlayerIds.removeAll(playerIds);
+            List<Identity> identities = new ArrayList<>();
+            try {
+                for (Object[] row : playerRepository.listIdentityColumnsByIds(playerIds)) {
+                    Identity identity = Identity.of(row);
+                    if (identity != null) {
+                        identities.add(identity);
+                    }
+                }
+            } catch (RuntimeException e) {
+                pendingPlayerIds.addAll(playerIds);
+                throw e;
+            }
+
+            lock.writeLock().lock();
+            try {
+                // Players missing from the rows were deleted, by a merge for instance.
+                for (Long playerId : playerIds) {
+                    String regionId = regionByPlayer.remove(playerId);
+                    PlayerNameIndex partition = regionId != null ? partitions.get(regionId) : null;
+                    if (partition != null) {
+                        partition.remove(playerId);
+                    }
+                }
+                for (Identity identity : identities) {
+                    partitions.computeIfAbsent(identity.regionId(), key -> PlayerNameIndex.build(Map.of()))
+                            .put(identity.playerId(), identity.name());
+                    regionByPlayer.put(identity.playerId(), identity.regionId());
+                }
+                partitions.replaceAll((regionId, partition) ->
+                        partition.needsCompaction() ? partition.compact() : partition);
+                partitions.values().removeIf(PlayerNameIndex::isEmpty);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    private void queue(Long playerId) {
+        if (playerId != null) {
+            pendingPlayerIds.add(playerId);
+        }
+    }
+
+    private static String normaliseRegionId(String raw) {
+        if (raw == null) {
+            return null;
+        }
+        String trimmed = raw.strip();
+        return trimmed.isEmpty() ? null : trimmed.toUpperCase(Locale.ROOT);
+    }
+
+    private record Identity(long playerId, String name, String regionId) {
+
+        /** Reads a {@code id, main character id, player name, region id} row, skipping unnamed players. */
+        static Identity of(Object[] row) {
+            if (row == null || row.length < 4 || !(row[0] instanceof Number id)) {
+                return null;
+            }
+            String name = PlayerNameListener.normalise(row[2] instanceof String playerName ? playerName : null);
+            String regionId = normaliseRegionId(row[3] instanceof String region ? region : null);
+            if (name == null || regionId == null) {
+                return null;
+            }
+            return new Identity(id.longValue(), name, regionId);
+        }
+    }
+}
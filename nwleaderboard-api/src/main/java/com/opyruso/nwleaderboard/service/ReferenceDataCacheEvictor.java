@@ -0,0 +1,50 @@
+package com.opyruso.nwleaderboard.service;
+
+import com.opyruso.nwleaderboard.entity.Dungeon;
+import com.opyruso.nwleaderboard.entity.MutationCurse;
+import com.opyruso.nwleaderboard.entity.MutationElement;
+import com.opyruso.nwleaderboard.entity.MutationPromotion;
+import com.opyruso.nwleaderboard.entity.MutationType;
+import com.opyruso.nwleaderboard.entity.Season;
+import com.opyruso.nwleaderboard.entity.WeekMutationDungeon;
+import com.opyruso.nwleaderboard.event.DungeonsChanged;
+import com.opyruso.nwleaderboard.event.WeekCalendarChanged;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+
+/**
+ * Evicts the second-level cache of the reference entities once a contributor change to them has committed. Hibernate
+ * already keeps the cache consistent for the changes it performs itself; this eviction covers the bulk season
+ * reassignments and keeps the cached list queries from outliving a calendar or dungeon update.
+ */
+@ApplicationScoped
+public class ReferenceDataCacheEvictor {
+
+    @Inject
+    EntityManagerFactory entityManagerFactory;
+
+    void onWeekCalendarChanged(@Observes WeekCalendarChanged event) {
+        Cache cache = cache();
+        cache.evictEntityData(Season.class);
+        cache.evictEntityData(WeekMutationDungeon.class);
+        cache.evictEntityData(MutationType.class);
+        cache.evictEntityData(MutationElement.class);
+        cache.evictEntityData(MutationPromotion.class);
+        cache.evictEntityData(MutationCurse.class);
+        cache.evictQueryRegions();
+    }
+
+    void onDungeonsChanged(@Observes DungeonsChanged event) {
+        Cache cache = cache();
+        cache.evictEntityData(Dungeon.class);
+        cache.evictQueryRegions();
+    }
+
+    private Cache cache() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getCache();
+    }
+}
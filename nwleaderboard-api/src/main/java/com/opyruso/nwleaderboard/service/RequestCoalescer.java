@@ -0,0 +1,107 @@
+package com.opyruso.nwleaderboard.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import org.eclipse.microprofile.config.Config;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Single-flight layer for expensive read queries: concurrent callers asking for the same key share the computation
+ * started by the first one instead of running the same SQL in parallel. Followers wait at most the timeout configured
+ * for the flight ({@code request-coalescing.<name>.timeout-ms}, falling back to
+ * {@code request-coalescing.timeout-ms}) and then compute the result themselves.
+ *
+ * <p>Keys must identify the request completely, including the data versions it depends on, so that a caller arriving
+ * after a data change never joins a flight started before it.</p>
+ */
+@ApplicationScoped
+public class RequestCoalescer {
+
+    private static final Logger LOG = Logger.getLogger(RequestCoalescer.class);
+
+    private static final String METRIC_NAME = "nwleaderboard.request.coalescing";
+
+    @ConfigProperty(name = "request-coalescing.timeout-ms", defaultValue = "15000")
+    long defaultTimeoutMillis;
+
+    @Inject
+    Config config;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    private final Map<FlightKey, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Long> timeouts = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the result of the in-flight computation for the key or runs the loader when there is none.
+     *
+     * @param name name of the flight, used for the timeout configuration and the metrics
+     * @param key normalised request
+     * @param loader computes the result, runs on the calling thread
+     * @return computed or shared result
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String name, Object key, Supplier<T> loader) {
+        FlightKey flightKey = new FlightKey(name, key);
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(flightKey, flight);
+        if (existing == null) {
+            record(name, "leader");
+            try {
+                T value = loader.get();
+                flight.complete(value);
+                return value;
+            } catch (RuntimeException | Error e) {
+                flight.completeExceptionally(e);
+                throw e;
+            } finally {
+                inFlight.remove(flightKey, flight);
+            }
+        }
+
+        try {
+            Object value = existing.get(timeoutMillis(name), TimeUnit.MILLISECONDS);
+            record(name, "coalesced");
+            return (T) value;
+        } catch (TimeoutException e) {
+            record(name, "timeout");
+            LOG.debugf("Coalesced %s request timed out, computing it separately", name);
+            return loader.get();
+        } catch (ExecutionException e) {
+            record(name, "coalesced");
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException("Coalesced " + name + " request failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for coalesced " + name + " request", e);
+        }
+    }
+
+    private long timeoutMillis(String name) {
+        return timeouts.computeIfAbsent(name, key -> config
+                .getOptionalValue("request-coalescing." + key + ".timeout-ms", Long.class)
+                .orElse(defaultTimeoutMillis));
+    }
+
+    private void record(String name, String outcome) {
+        meterRegistry.counter(METRIC_NAME, "name", name, "outcome", outcome).increment();
+    }
+
+    private record FlightKey(String name, Object key) {
+    }
+}
@@ -0,0 +1,239 @@
+package com.opyruso.nwleaderboard.service;
+
+import com.opyruso.nwleaderboard.entity.RunScore;
+import com.opyruso.nwleaderboard.entity.RunTime;
+import com.opyruso.nwleaderboard.repository.RunScorePlayerRepository;
+import com.opyruso.nwleaderboard.repository.RunScoreRepository;
+import com.opyruso.nwleaderboard.repository.RunTimePlayerRepository;
+import com.opyruso.nwleaderboard.repository.RunTimeRepository;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.jboss.logging.Logger;
+
+/**
+ * Computes and maintains the fingerprint stored on every run. The fingerprint is a SHA-256 hash of the dungeon, week,
+ * region, mode, value and sorted player identifiers of a run, so two submissions of the same run always share it and
+ * the unique index on the column rejects the second one. A stored run duplicating another one cannot hold the same
+ * fingerprint: it is flagged with {@link #duplicateFingerprint} instead, so that it can be reviewed and is not picked up
+ * again by the startup backfill.
+ */
+@ApplicationScoped
+public class RunFingerprintService {
+
+    private static final Logger LOG = Logger.getLogger(RunFingerprintService.class);
+
+    private static final int BACKFILL_BATCH_SIZE = 500;
+    private static final String DUPLICATE_MARKER = "#dup-";
+    /** Length of the hash prefix kept in a duplicate flag, leaving room for the marker and a run id in the column. */
+    private static final int DUPLICATE_HASH_LENGTH = 40;
+
+    @Inject
+    RunScoreRepository runScoreRepository;
+
+    @Inject
+    RunScorePlayerRepository runScorePlayerRepository;
+
+    @Inject
+    RunTimeRepository runTimeRepository;
+
+    @Inject
+    RunTimePlayerRepository runTimePlayerRepository;
+
+    /**
+     * Computes the fingerprint of the runs stored before the column existed, one transaction per batch so that a large
+     * table neither holds every run in the persistence context nor one long transaction.
+     */
+    void backfillFingerprints(@Observes StartupEvent event) {
+        int scoreRuns = 0;
+        Batch batch = new Batch(0, null);
+        do {
+            Long afterId = batch.lastId();
+            batch = QuarkusTransaction.requiringNew().call(() -> backfillScoreBatch(afterId));
+            scoreRuns += batch.size();
+        } while (batch.size() > 0);
+        int timeRuns = 0;
+        batch = new Batch(0, null);
+        do {
+            Long afterId = batch.lastId();
+            batch = QuarkusTransaction.requiringNew().call(() -> backfillTimeBatch(afterId));
+            timeRuns += batch.size();
+        } while (batch.size() > 0);
+        if (scoreRuns > 0 || timeRuns > 0) {
+            LOG.infof("Computed fingerprints for %d score runs and %d time runs", scoreRuns, timeRuns);
+        }
+    }
+
+    private Batch backfillScoreBatch(Long afterId) {
+        List<RunScore> runs = runScoreRepository.listWithoutFingerprint(afterId, BACKFILL_BATCH_SIZE);
+        if (runs.isEmpty()) {
+            return new Batch(0, afterId);
+        }
+        refreshScoreFingerprints(runs);
+        Long lastId = runs.get(runs.size() - 1).getId();
+        runScoreRepository.getEntityManager().clear();
+        return new Batch(runs.size(), lastId);
+    }
+
+    private Batch backfillTimeBatch(Long afterId) {
+        List<RunTime> runs = runTimeRepository.listWithoutFingerprint(afterId, BACKFILL_BATCH_SIZE);
+        if (runs.isEmpty()) {
+            return new Batch(0, afterId);
+        }
+        refreshTimeFingerprints(runs);
+        Long lastId = runs.get(runs.size() - 1).getId();
+        runTimeRepository.getEntityManager().clear();
+        return new Batch(runs.size(), lastId);
+    }
+
+    /** Computes the fingerprint of a score run described by its individual attributes. */
+    public String scoreFingerprint(Long dungeonId, Integer week, String regionId, Integer score,
+            Collection<Long> playerIds) {
+        return fingerprint("score", dungeonId, week, regionId, score, playerIds);
+    }
+
+    /** Computes the fingerprint of a time run described by its individual attributes. */
+    public String timeFingerprint(Long dungeonId, Integer week, String regionId, Integer time,
+            Collection<Long> playerIds) {
+        return fingerprint("time", dungeonId, week, regionId, time, playerIds);
+    }
+
+    /** Computes the fingerprint of a stored score run with the provided players. */
+    public String scoreFingerprint(RunScore run, Collection<Long> playerIds) {
+        return scoreFingerprint(
+                run.getDungeon() != null ? run.getDungeon().getId() : null,
+                run.getWeek(),
+                run.getRegion() != null ? run.getRegion().getId() : null,
+                run.getScore(),
+                playerIds);
+    }
+
+    /** Computes the fingerprint of a stored time run with the provided players. */
+    public String timeFingerprint(RunTime run, Collection<Long> playerIds) {
+        return timeFingerprint(
+                run.getDungeon() != null ? run.getDungeon().getId() : null,
+                run.getWeek(),
+                run.getRegion() != null ? run.getRegion().getId() : null,
+                run.getTimeInSecond(),
+                playerIds);
+    }
+
+    /**
+     * Flags a run duplicating the run holding the provided fingerprint. The flag starts with the hash, so the original
+     * run can be found with a prefix search, and ends with the run identifier, so it stays unique.
+     *
+     * @param fingerprint fingerprint held by the original run
+     * @param runId identifier of the duplicate run
+     * @return flagged fingerprint
+     */
+    public static String duplicateFingerprint(String fingerprint, Long runId) {
+        String hash = fingerprint != null ? fingerprint : "";
+        return hash.substring(0, Math.min(hash.length(), DUPLICATE_HASH_LENGTH)) + DUPLICATE_MARKER + runId;
+    }
+
+    /**
+     * Recomputes the fingerprint of the provided score runs from their current players. A run whose new fingerprint
+     * is already held by another run is a duplicate of it: it is flagged with {@link #duplicateFingerprint} and a
+     * warning is logged so it can be reviewed instead of failing the whole operation on the unique index.
+     *
+     * @param runs managed score runs
+     */
+    public void refreshScoreFingerprints(Collection<RunScore> runs) {
+        List<RunScore> targets = runs == null ? List.of()
+                : runs.stream().filter(run -> run != null && run.getId() != null).toList();
+        if (targets.isEmpty()) {
+            return;
+        }
+        Map<Long, Set<Long>> players = runScorePlayerRepository.listPlayerIdsByRunIds(
+                targets.stream().map(RunScore::getId).collect(Collectors.toSet()));
+        Map<Long, String> fingerprints = new HashMap<>();
+        for (RunScore run : targets) {
+            fingerprints.put(run.getId(), scoreFingerprint(run, players.getOrDefault(run.getId(), Set.of())));
+        }
+        // Release the current values first so runs swapping fingerprints within the batch do not collide.
+        targets.forEach(run -> run.setFingerprint(null));
+        runScoreRepository.flush();
+        Set<String> taken = runScoreRepository.listExistingFingerprints(fingerprints.values());
+        for (RunScore run : targets) {
+            String fingerprint = fingerprints.get(run.getId());
+            if (!taken.add(fingerprint)) {
+                LOG.warnf("Score run %s duplicates the stored run with fingerprint %s", run.getId(), fingerprint);
+                run.setFingerprint(duplicateFingerprint(fingerprint, run.getId()));
+                continue;
+            }
+            run.setFingerprint(fingerprint);
+        }
+        runScoreRepository.flush();
+    }
+
+    /**
+     * Recomputes the fingerprint of the provided time runs from their current players, see
+     * {@link #refreshScoreFingerprints(Collection)}.
+     *
+     * @param runs managed time runs
+     */
+    public void refreshTimeFingerprints(Collection<RunTime> runs) {
+        List<RunTime> targets = runs == null ? List.of()
+                : runs.stream().filter(run -> run != null && run.getId() != null).toList();
+        if (targets.isEmpty()) {
+            return;
+        }
+        Map<Long, Set<Long>> players = runTimePlayerRepository.listPlayerIdsByRunIds(
+                targets.stream().map(RunTime::getId).collect(Collectors.toSet()));
+        Map<Long, String> fingerprints = new HashMap<>();
+        for (RunTime run : targets) {
+            fingerprints.put(run.getId(), timeFingerprint(run, players.getOrDefault(run.getId(), Set.of())));
+        }
+        targets.forEach(run -> run.setFingerprint(null));
+        runTimeRepository.flush();
+        Set<String> taken = runTimeRepository.listExistingFingerprints(fingerprints.values());
+        for (RunTime run : targets) {
+            String fingerprint = fingerprints.get(run.getId());
+            if (!taken.add(fingerprint)) {
+                LOG.warnf("Time run %s duplicates the stored run with fingerprint %s", run.getId(), fingerprint);
+                run.setFingerprint(duplicateFingerprint(fingerprint, run.getId()));
+                continue;
+            }
+            run.setFingerprint(fingerprint);
+        }
+        runTimeRepository.flush();
+    }
+
+    private String fingerprint(String mode, Long dungeonId, Integer week, String regionId, Integer value,
+            Collection<Long> playerIds) {
+        String players = playerIds == null ? ""
+                : playerIds.stream()
+                        .filter(Objects::nonNull)
+                        .distinct()
+                        .sorted()
+                        .map(String::valueOf)
+                        .collect(Collectors.joining(","));
+        String region = regionId != null ? regionId.strip().toUpperCase(Locale.ROOT) : "";
+        String source = String.join("|", mode, String.valueOf(dungeonId), String.valueOf(week), region,
+                String.valueOf(value), players);
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(source.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /** Number of runs of a backfill batch and identifier of its last run. */
+    private record Batch(int size, Long lastId) {
+    }
+}
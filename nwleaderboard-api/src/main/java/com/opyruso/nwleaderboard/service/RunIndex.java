@@ -0,0 +1,379 @@
+package com.opyruso.nwleaderboard.service;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemoryLayout;
+import java.lang.foreign.MemoryLayout.PathElement;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.StructLayout;
+import java.lang.foreign.ValueLayout;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+import org.jboss.logging.Logger;
+
+/**
+ * Immutable columnar copy of the runs of one dungeon for one leaderboard. Runs are stored off-heap as fixed-width
+ * records ({@code id, dungeon, week, value, region, players}) in ranking order: best value first, then most recent
+ * week, then lowest identifier. A bitmap of run positions is kept for every week and region, so any filter
+ * combination is a bitmap OR per filter and an AND across filters, after which pages are read by scanning the
+ * selected positions in order.
+ *
+ * <p>The records live in a {@link MemorySegment} allocated from an automatic arena: the memory is released once the
+ * index is no longer referenced, and the heap only holds the bitmaps and the small region table.</p>
+ */
+public final class RunIndex {
+
+    private static final Logger LOG = Logger.getLogger(RunIndex.class);
+
+    /** Maximum number of players stored per run. */
+    public static final int MAX_PLAYERS = 10;
+
+    private static final StructLayout RECORD = MemoryLayout.structLayout(
+            ValueLayout.JAVA_LONG.withName("id"),
+            ValueLayout.JAVA_LONG.withName("dungeon"),
+            ValueLayout.JAVA_INT.withName("week"),
+            ValueLayout.JAVA_INT.withName("value"),
+            ValueLayout.JAVA_SHORT.withName("region"),
+            ValueLayout.JAVA_SHORT.withName("playerCount"),
+            MemoryLayout.paddingLayout(4),
+            MemoryLayout.sequenceLayout(MAX_PLAYERS, ValueLayout.JAVA_LONG).withName("players"));
+
+    private static final long ID_OFFSET = RECORD.byteOffset(PathElement.groupElement("id"));
+    private static final long DUNGEON_OFFSET = RECORD.byteOffset(PathElement.groupElement("dungeon"));
+    private static final long WEEK_OFFSET = RECORD.byteOffset(PathElement.groupElement("week"));
+    private static final long VALUE_OFFSET = RECORD.byteOffset(PathElement.groupElement("value"));
+    private static final long REGION_OFFSET = RECORD.byteOffset(PathElement.groupElement("region"));
+    private static final long PLAYER_COUNT_OFFSET = RECORD.byteOffset(PathElement.groupElement("playerCount"));
+    private static final long PLAYERS_OFFSET = RECORD.byteOffset(PathElement.groupElement("players"));
+
+    private final int size;
+    private final MemorySegment records;
+    private final String[] regionTable;
+    private final Map<Integer, BitSet> weekBitmaps;
+    private final Map<String, BitSet> regionBitmaps;
+
+    private RunIndex(int size, MemorySegment records, String[] regionTable) {
+        this.size = size;
+        this.records = records;
+        this.regionTable = regionTable;
+        Map<Integer, BitSet> byWeek = new HashMap<>();
+        Map<String, BitSet> byRegion = new HashMap<>();
+        for (int position = 0; position < size; position++) {
+            byWeek.computeIfAbsent(week(position), key -> new BitSet()).set(position);
+            String region = region(position);
+            if (region != null) {
+                byRegion.computeIfAbsent(region, key -> new BitSet()).set(position);
+            }
+        }
+        this.weekBitmaps = byWeek;
+        this.regionBitmaps = byRegion;
+    }
+
+    /**
+     * Builds the index from projected rows.
+     *
+     * @param dungeonId identifier of the dungeon the runs belong to
+     * @param rows rows of {@code id, value, week, region id}
+     * @param playersByRun player identifiers of each run
+     * @param lowerIsBetter {@code true} when the lowest value ranks first
+     * @return index of the rows
+     */
+    static RunIndex build(
+            Long dungeonId, List<Object[]> rows, Map<Long, Set<Long>> playersByRun, boolean lowerIsBetter) {
+        List<Object[]> valid = rows == null ? List.of()
+                : rows.stream()
+                        .filter(row -> row != null && row.length >= 4 && row[0] != null && row[1] != null
+                                && row[2] != null)
+                        .toList();
+        Comparator<Object[]> byValue = Comparator.comparingInt(row -> ((Number) row[1]).intValue());
+        Comparator<Object[]> order = (lowerIsBetter ? byValue : byValue.reversed())
+                .thenComparing(Comparator.<Object[]>comparingInt(row -> ((Number) row[2]).intValue()).reversed())
+                .thenComparingLong(row -> ((Number) row[0]).longValue());
+        Object[][] sorted = valid.toArray(new Object[0][]);
+        Arrays.sort(sorted, order);
+
+        int size = sorted.length;
+        MemorySegment records = Arena.ofAuto().allocate(RECORD.byteSize() * Math.max(1, size), RECORD.byteAlignment());
+        Map<String, Short> regionCodes = new LinkedHashMap<>();
+        Map<Long, Set<Long>> players = playersByRun != null ? playersByRun : Map.of();
+        long dungeon = dungeonId != null ? dungeonId : 0L;
+        for (int position = 0; position < size; position++) {
+            Object[] row = sorted[position];
+            long id = ((Number) row[0]).longValue();
+            long base = position * RECORD.byteSize();
+            records.set(ValueLayout.JAVA_LONG, base + ID_OFFSET, id);
+            records.set(ValueLayout.JAVA_LONG, base + DUNGEON_OFFSET, dungeon);
+            records.set(ValueLayout.JAVA_INT, base + WEEK_OFFSET, ((Number) row[2]).intValue());
+            records.set(ValueLayout.JAVA_INT, base + VALUE_OFFSET, ((Number) row[1]).intValue());
+            String region = row[3] instanceof String value && !value.isBlank() ? value.strip() : null;
+            short regionCode = region != null
+                    ? regionCodes.computeIfAbsent(region, key -> (short) (regionCodes.size() + 1))
+                    : 0;
+            records.set(ValueLayout.JAVA_SHORT, base + REGION_OFFSET, regionCode);
+
+            long[] playerIds = players.getOrDefault(id, Set.of()).stream()
+                    .mapToLong(Long::longValue)
+                    .sorted()
+                    .toArray();
+            if (playerIds.length > MAX_PLAYERS) {
+                LOG.warnf("Run %d has %d players, only the first %d are indexed", id, playerIds.length, MAX_PLAYERS);
+            }
+            int playerCount = Math.min(playerIds.length, MAX_PLAYERS);
+            records.set(ValueLayout.JAVA_SHORT, base + PLAYER_COUNT_OFFSET, (short) playerCount);
+            MemorySegment.copy(playerIds, 0, records, ValueLayout.JAVA_LONG, base + PLAYERS_OFFSET, playerCount);
+        }
+        String[] regionTable = new String[regionCodes.size() + 1];
+        regionCodes.forEach((region, code) -> regionTable[code] = region);
+        return new RunIndex(size, records, regionTable);
+    }
+
+    /**
+     * Restores an index from records previously written from {@link #records()}, for instance a slice of a
+     * memory-mapped snapshot file.
+     *
+     * @param size number of records
+     * @param records records in ranking order
+     * @param regionTable region identifiers indexed by their code, the first entry being unused
+     * @return index reading the provided records
+     */
+    static RunIndex restore(int size, MemorySegment records, String[] regionTable) {
+        if (size < 0 || records == null || records.byteSize() < size * RECORD.byteSize()
+                || regionTable == null || regionTable.length == 0) {
+            throw new IllegalArgumentException("Invalid run index records");
+        }
+        return new RunIndex(size, records, regionTable.clone());
+    }
+
+    /** Returns the size in bytes of one record. */
+    static long recordSize() {
+        return RECORD.byteSize();
+    }
+
+    /** Returns the records of the index. */
+    MemorySegment records() {
+        return records.asSlice(0, size * RECORD.byteSize());
+    }
+
+    /** Returns the region identifiers indexed by their code. */
+    String[] regionTable() {
+        return regionTable.clone();
+    }
+
+    /**
+     * Summarises the indexed runs so that a restored index can be compared with the database without reading the
+     * runs themselves.
+     */
+    public Fingerprint fingerprint() {
+        long maxId = 0L;
+        long valueSum = 0L;
+        long weekSum = 0L;
+        long regionCount = 0L;
+        long playerLinks = 0L;
+        long playerIdSum = 0L;
+        long runHash = 0L;
+        CRC32 crc = new CRC32();
+        for (int position = 0; position < size; position++) {
+            maxId = Math.max(maxId, id(position));
+            valueSum += value(position);
+            weekSum += week(position);
+            String region = region(position);
+            if (region != null) {
+                regionCount++;
+            }
+            // Same text as CONCAT_WS('|', id, value, week, region) in the repositories.
+            crc.reset();
+            crc.update((id(position) + "|" + value(position) + "|" + week(position) + "|"
+                    + (region != null ? region : "")).getBytes(StandardCharsets.UTF_8));
+            runHash ^= crc.getValue();
+            for (long playerId : playerIds(position)) {
+                playerLinks++;
+                playerIdSum += playerId;
+            }
+        }
+        return new Fingerprint(size, maxId, valueSum, weekSum, regionCount, runHash, playerLinks, playerIdSum);
+    }
+
+    /** Returns the number of indexed runs. */
+    public int size() {
+        return size;
+    }
+
+    /** Returns the number of bytes held off-heap by the records. */
+    public long offHeapBytes() {
+        return records.byteSize();
+    }
+
+    /** Returns the weeks holding at least one run. */
+    public Set<Integer> weeks() {
+        return Set.copyOf(weekBitmaps.keySet());
+    }
+
+    /** Returns the identifier of the run at the provided position. */
+    public long id(int position) {
+        return records.get(ValueLayout.JAVA_LONG, position * RECORD.byteSize() + ID_OFFSET);
+    }
+
+    /** Returns the dungeon of the run at the provided position. */
+    public long dungeonId(int position) {
+        return records.get(ValueLayout.JAVA_LONG, position * RECORD.byteSize() + DUNGEON_OFFSET);
+    }
+
+    /** Returns the week of the run at the provided position. */
+    public int week(int position) {
+        return records.get(ValueLayout.JAVA_INT, position * RECORD.byteSize() + WEEK_OFFSET);
+    }
+
+    /** Returns the score or time of the run at the provided position. */
+    public int value(int position) {
+        return records.get(ValueLayout.JAVA_INT, position * RECORD.byteSize() + VALUE_OFFSET);
+    }
+
+    /** Returns the region of the run at the provided position or {@code null} when unknown. */
+    public String region(int position) {
+        short code = records.get(ValueLayout.JAVA_SHORT, position * RECORD.byteSize() + REGION_OFFSET);
+        return code > 0 && code < regionTable.length ? regionTable[code] : null;
+    }
+
+    /** Returns the sorted player identifiers of the run at the provided position. */
+    public long[] playerIds(int position) {
+        long base = position * RECORD.byteSize();
+        int count = Math.clamp(records.get(ValueLayout.JAVA_SHORT, base + PLAYER_COUNT_OFFSET), 0, MAX_PLAYERS);
+        long[] playerIds = new long[count];
+        MemorySegment.copy(records, ValueLayout.JAVA_LONG, base + PLAYERS_OFFSET, playerIds, 0, count);
+        return playerIds;
+    }
+
+    /**
+     * Selects the runs matching the filters.
+     *
+     * @param weekFilter allowed weeks, {@code null} for every week
+     * @param regionFilter allowed region identifiers, {@code null} or empty for every region
+     * @return bitmap of the selected run positions
+     */
+    public BitSet select(Collection<Integer> weekFilter, Collection<String> regionFilter) {
+        BitSet selection;
+        if (weekFilter == null) {
+            selection = new BitSet(size);
+            selection.set(0, size);
+        } else {
+            selection = union(weekFilter, weekBitmaps);
+        }
+        if (regionFilter != null && !regionFilter.isEmpty() && !selection.isEmpty()) {
+            selection.and(union(regionFilter, regionBitmaps));
+        }
+        return selection;
+    }
+
+    /**
+     * Returns a page of the selected runs in ranking order.
+     *
+     * @param selection bitmap returned by {@link #select}
+     * @param pageIndex zero based page index
+     * @param pageSize number of runs per page
+     * @return runs of the page
+     */
+    public List<IndexedRun> page(BitSet selection, int pageIndex, int pageSize) {
+        if (selection == null || pageIndex < 0 || pageSize <= 0) {
+            return List.of();
+        }
+        long skip = (long) pageIndex * pageSize;
+        int position = selection.nextSetBit(0);
+        while (position >= 0 && skip > 0) {
+            position = selection.nextSetBit(position + 1);
+            skip--;
+        }
+        List<IndexedRun> page = new ArrayList<>(pageSize);
+        while (position >= 0 && page.size() < pageSize) {
+            page.add(new IndexedRun(id(position), week(position), region(position), value(position)));
+            position = selection.nextSetBit(position + 1);
+        }
+        return page;
+    }
+
+    /**
+     * Aggregates the selected runs per week.
+     *
+     * @param selection bitmap returned by {@link #select}
+     * @return aggregates ordered by ascending week
+     */
+    public List<WeekAggregate> aggregateByWeek(BitSet selection) {
+        if (selection == null || selection.isEmpty()) {
+            return List.of();
+        }
+        TreeMap<Integer, long[]> totals = new TreeMap<>();
+        for (int position = selection.nextSetBit(0); position >= 0; position = selection.nextSetBit(position + 1)) {
+            int value = value(position);
+            long[] total = totals.computeIfAbsent(week(position),
+                    key -> new long[] {Long.MIN_VALUE, Long.MAX_VALUE, 0L, 0L});
+            total[0] = Math.max(total[0], value);
+            total[1] = Math.min(total[1], value);
+            total[2] += value;
+            total[3]++;
+        }
+        List<WeekAggregate> aggregates = new ArrayList<>(totals.size());
+        totals.forEach((week, total) -> aggregates.add(new WeekAggregate(week, total[0], total[1], total[2], total[3])));
+        return aggregates;
+    }
+
+    /**
+     * Returns the values of the selected runs in ranking order.
+     *
+     * @param selection bitmap returned by {@link #select}
+     * @return values, best first
+     */
+    public int[] values(BitSet selection) {
+        if (selection == null || selection.isEmpty()) {
+            return new int[0];
+        }
+        int[] values = new int[selection.cardinality()];
+        int index = 0;
+        for (int position = selection.nextSetBit(0); position >= 0; position = selection.nextSetBit(position + 1)) {
+            values[index++] = value(position);
+        }
+        return values;
+    }
+
+    private static <K> BitSet union(Collection<K> keys, Map<K, BitSet> bitmaps) {
+        BitSet union = new BitSet();
+        for (K key : keys) {
+            BitSet bitmap = key != null ? bitmaps.get(key) : null;
+            if (bitmap != null) {
+                union.or(bitmap);
+            }
+        }
+        return union;
+    }
+
+    /** Run read from the index. */
+    public record IndexedRun(long id, int week, String regionId, int value) {
+    }
+
+    /**
+     * Summary of the indexed runs: their number, highest identifier, sums of values and weeks, number of runs with a
+     * region, XOR of the CRC32 of every run and number and sum of the player links.
+     */
+    public record Fingerprint(
+            long runCount,
+            long maxId,
+            long valueSum,
+            long weekSum,
+            long regionCount,
+            long runHash,
+            long playerLinks,
+            long playerIdSum) {
+    }
+
+    /** Minimum, maximum, sum and number of the values of a week. */
+    public record WeekAggregate(int week, long maxValue, long minValue, long totalValue, long runCount) {
+    }
+}
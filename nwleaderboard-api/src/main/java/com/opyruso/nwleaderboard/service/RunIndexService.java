@@ -0,0 +1,278 @@
+package com.opyruso.nwleaderboard.service;
+
+import com.opyruso.nwleaderboard.entity.Dungeon;
+import com.opyruso.nwleaderboard.event.RunsChanged;
+import com.opyruso.nwleaderboard.repository.DungeonRepository;
+import com.opyruso.nwleaderboard.repository.RunScorePlayerRepository;
+import com.opyruso.nwleaderboard.repository.RunScoreRepository;
+import com.opyruso.nwleaderboard.repository.RunTimePlayerRepository;
+import com.opyruso.nwleaderboard.repository.RunTimeRepository;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.interceptor.Interceptor;
+import jakarta.transaction.Transactional;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Keeps one off-heap {@link RunIndex} per dungeon and leaderboard. Every index is loaded from the database at startup
+ * and marked outdated by the {@link RunsChanged} events the write services publish on commit; the next reader rebuilds
+ * the index of the affected dungeon and mode only.
+ *
+ * <p>Up-to-date indexes are periodically written to a {@link RunIndexSnapshot} on local disk. At startup the snapshot
+ * is mapped back and every index whose {@link RunIndex.Fingerprint} still matches the database is used as is; only the
+ * indexes of the dungeons changed since the snapshot, or every index when the snapshot is missing, unreadable or older
+ * than the configured maximum age, are rebuilt.</p>
+ */
+@ApplicationScoped
+public class RunIndexService {
+
+    private static final Logger LOG = Logger.getLogger(RunIndexService.class);
+
+    @Inject
+    RunScoreRepository runScoreRepository;
+
+    @Inject
+    RunTimeRepository runTimeRepository;
+
+    @Inject
+    RunScorePlayerRepository runScorePlayerRepository;
+
+    @Inject
+    RunTimePlayerRepository runTimePlayerRepository;
+
+    @Inject
+    DungeonRepository dungeonRepository;
+
+    @ConfigProperty(name = "run-index.snapshot.enabled", defaultValue = "true")
+    boolean snapshotEnabled;
+
+    @ConfigProperty(name = "run-index.snapshot.path", defaultValue = "/var/lib/nwleaderboard/run-index.snapshot")
+    String snapshotPath;
+
+    @ConfigProperty(name = "run-index.snapshot.max-age", defaultValue = "P1D")
+    Duration snapshotMaxAge;
+
+    private final Map<IndexKey, AtomicLong> revisions = new ConcurrentHashMap<>();
+    private final Map<IndexKey, Snapshot> snapshots = new ConcurrentHashMap<>();
+    private final Set<RunIndex> writtenIndexes =
+            Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+
+    /** Runs after the other startup observers, which may still fix up runs (see {@link RegionService}). */
+    @Transactional
+    void loadIndexes(@Observes @Priority(Interceptor.Priority.APPLICATION + 1000) StartupEvent event) {
+        int restored = restoreSnapshot();
+        List<RunIndex> scoreIndexes = scoreIndexes();
+        List<RunIndex> timeIndexes = timeIndexes();
+        long runs = 0L;
+        long bytes = 0L;
+        for (RunIndex index : scoreIndexes) {
+            runs += index.size();
+            bytes += index.offHeapBytes();
+        }
+        for (RunIndex index : timeIndexes) {
+            runs += index.size();
+            bytes += index.offHeapBytes();
+        }
+        LOG.infof("Loaded %d runs in the run index (%d KiB off-heap, %d indexes restored from the snapshot)",
+                runs, bytes / 1024, restored);
+    }
+
+    void writeSnapshotOnShutdown(@Observes ShutdownEvent event) {
+        writeSnapshot();
+    }
+
+    /** Writes the up-to-date indexes to the snapshot file when any of them changed since the last write. */
+    @Scheduled(every = "{run-index.snapshot.interval}", delayed = "{run-index.snapshot.interval}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    synchronized void writeSnapshot() {
+        if (!snapshotEnabled) {
+            return;
+        }
+        List<RunIndexSnapshot.Section> sections = new ArrayList<>();
+        snapshots.forEach((key, snapshot) -> {
+            if (snapshot.revision() == revision(key)) {
+                sections.add(new RunIndexSnapshot.Section(key.dungeonId(), key.mode(), snapshot.index()));
+            }
+        });
+        if (sections.size() == writtenIndexes.size()
+                && sections.stream().allMatch(section -> writtenIndexes.contains(section.index()))) {
+            return;
+        }
+        try {
+            RunIndexSnapshot.write(Path.of(snapshotPath), sections);
+            writtenIndexes.clear();
+            sections.forEach(section -> writtenIndexes.add(section.index()));
+            LOG.debugf("Wrote %d run indexes to %s", sections.size(), snapshotPath);
+        } catch (IOException | RuntimeException e) {
+            LOG.warnf(e, "Unable to write the run index snapshot %s", snapshotPath);
+        }
+    }
+
+    private int restoreSnapshot() {
+        if (!snapshotEnabled) {
+            return 0;
+        }
+        RunIndexSnapshot.Content content;
+        try {
+            content = RunIndexSnapshot.read(Path.of(snapshotPath));
+        } catch (IOException | RuntimeException e) {
+            LOG.warnf(e, "Ignoring unreadable run index snapshot %s", snapshotPath);
+            return 0;
+        }
+        if (content == null) {
+            LOG.infof("No run index snapshot found at %s, rebuilding every index", snapshotPath);
+            return 0;
+        }
+        if (content.writtenAt().plus(snapshotMaxAge).isBefore(Instant.now())) {
+            LOG.infof("Run index snapshot written at %s is older than %s, rebuilding every index",
+                    content.writtenAt(), snapshotMaxAge);
+            return 0;
+        }
+
+        Map<IndexKey, RunIndex.Fingerprint> fingerprints = currentFingerprints();
+        int restored = 0;
+        for (RunIndexSnapshot.Section section : content.sections()) {
+            IndexKey key = new IndexKey(section.dungeonId(), section.mode());
+            if (section.index().fingerprint().equals(fingerprints.get(key))) {
+                snapshots.put(key, new Snapshot(revision(key), section.index()));
+                writtenIndexes.add(section.index());
+                restored++;
+            }
+        }
+        return restored;
+    }
+
+    /** Summarises the runs of every dungeon the same way {@link RunIndex#fingerprint()} does. */
+    private Map<IndexKey, RunIndex.Fingerprint> currentFingerprints() {
+        Map<IndexKey, RunIndex.Fingerprint> fingerprints = new HashMap<>();
+        collectFingerprints(fingerprints, RunsChanged.Mode.SCORE,
+                runScoreRepository.listIndexFingerprintColumns(),
+                runScorePlayerRepository.listIndexFingerprintColumns());
+        collectFingerprints(fingerprints, RunsChanged.Mode.TIME,
+                runTimeRepository.listIndexFingerprintColumns(),
+                runTimePlayerRepository.listIndexFingerprintColumns());
+        return fingerprints;
+    }
+
+    private void collectFingerprints(
+            Map<IndexKey, RunIndex.Fingerprint> target,
+            RunsChanged.Mode mode,
+            List<Object[]> runRows,
+            List<Object[]> playerRows) {
+        Map<Long, long[]> players = new HashMap<>();
+        for (Object[] row : playerRows) {
+            if (row != null && row.length >= 3 && row[0] instanceof Number dungeonId) {
+                players.put(dungeonId.longValue(), new long[] {toLong(row[1]), toLong(row[2])});
+            }
+        }
+        for (Object[] row : runRows) {
+            if (row == null || row.length < 7 || !(row[0] instanceof Number dungeonId)) {
+                continue;
+            }
+            long[] links = players.getOrDefault(dungeonId.longValue(), new long[2]);
+            target.put(new IndexKey(dungeonId.longValue(), mode), new RunIndex.Fingerprint(
+                    toLong(row[1]), toLong(row[2]), toLong(row[3]), toLong(row[4]), toLong(row[5]), toLong(row[6]),
+                    links[0], links[1]));
+        }
+    }
+
+    private static long toLong(Object value) {
+        return value instanceof Number number ? number.longValue() : 0L;
+    }
+
+    void onRunsChanged(@Observes RunsChanged event) {
+        if (event.dungeonId() == null || event.mode() == null) {
+            return;
+        }
+        revisions.computeIfAbsent(new IndexKey(event.dungeonId(), event.mode()), key -> new AtomicLong())
+                .incrementAndGet();
+    }
+
+    /** Returns the index of the score runs of a dungeon. */
+    @Transactional(Transactional.TxType.SUPPORTS)
+    public RunIndex scoreIndex(Long dungeonId) {
+        return index(new IndexKey(dungeonId, RunsChanged.Mode.SCORE));
+    }
+
+    /** Returns the index of the time runs of a dungeon. */
+    @Transactional(Transactional.TxType.SUPPORTS)
+    public RunIndex timeIndex(Long dungeonId) {
+        return index(new IndexKey(dungeonId, RunsChanged.Mode.TIME));
+    }
+
+    /** Returns the score run indexes of every dungeon. */
+    @Transactional(Transactional.TxType.SUPPORTS)
+    public List<RunIndex> scoreIndexes() {
+        return dungeonIds().stream().map(this::scoreIndex).toList();
+    }
+
+    /** Returns the time run indexes of every dungeon. */
+    @Transactional(Transactional.TxType.SUPPORTS)
+    public List<RunIndex> timeIndexes() {
+        return dungeonIds().stream().map(this::timeIndex).toList();
+    }
+
+    private List<Long> dungeonIds() {
+        return dungeonRepository.listAllCached().stream()
+                .map(Dungeon::getId)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    private RunIndex index(IndexKey key) {
+        long revision = revision(key);
+        Snapshot current = snapshots.get(key);
+        if (current != null && current.revision() == revision) {
+            return current.index();
+        }
+        RunIndex index = key.mode() == RunsChanged.Mode.SCORE
+                ? RunIndex.build(key.dungeonId(),
+                        runScoreRepository.listIndexColumnsByDungeon(key.dungeonId()),
+                        runScorePlayerRepository.listPlayerIdsByDungeon(key.dungeonId()),
+                        false)
+                : RunIndex.build(key.dungeonId(),
+                        runTimeRepository.listIndexColumnsByDungeon(key.dungeonId()),
+                        runTimePlayerRepository.listPlayerIdsByDungeon(key.dungeonId()),
+                        true);
+        if (index.size() == 0) {
+            // Unknown dungeons are not kept so arbitrary identifiers cannot fill the map.
+            return index;
+        }
+        // A slower rebuild started before a newer one must not replace it.
+        snapshots.merge(key, new Snapshot(revision, index),
+                (previous, fresh) -> previous.revision() >= fresh.revision() ? previous : fresh);
+        LOG.debugf("Indexed %d %s runs of dungeon %s", index.size(), key.mode(), key.dungeonId());
+        return index;
+    }
+
+    private long revision(IndexKey key) {
+        AtomicLong revision = revisions.get(key);
+        return revision != null ? revision.get() : 0L;
+    }
+
+    private record IndexKey(Long dungeonId, RunsChanged.Mode mode) {
+    }
+
+    private record Snapshot(long revision, RunIndex index) {
+    }
+}
@@ -0,0 +1,190 @@
+package com.opyruso.nwleaderboard.service;
+
+import com.opyruso.nwleaderboard.event.RunsChanged;
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary snapshot of the run indexes, written to local disk so that a restarted instance can map the records back
+ * instead of rebuilding every index from the database.
+ *
+ * <p>The file starts with a header ({@code magic, format version, byte order mark, section count, record size,
+ * written at}) followed by one section per index ({@code dungeon id, mode, run count, region count, region table
+ * length, region table, records}). Values are written in the native byte order and every section is aligned on eight
+ * bytes, so the records of a section are used in place from the mapped file. Files written by another format version,
+ * record layout or byte order are rejected.</p>
+ */
+final class RunIndexSnapshot {
+
+    private static final int MAGIC = 0x4E57_5249;
+    private static final int FORMAT_VERSION = 1;
+    private static final int BYTE_ORDER_MARK = 0x0102_0304;
+    private static final int HEADER_SIZE = 32;
+    private static final int SECTION_HEADER_SIZE = 24;
+
+    private RunIndexSnapshot() {
+    }
+
+    /**
+     * Maps a snapshot file.
+     *
+     * @param file snapshot file
+     * @return content of the snapshot or {@code null} when the file does not exist
+     * @throws IOException when the file cannot be read
+     * @throws IllegalArgumentException when the file is not a valid snapshot of the current format
+     */
+    static Content read(Path file) throws IOException {
+        MemorySegment segment;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), Arena.ofAuto());
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        try {
+            return parse(segment);
+        } catch (IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Truncated run index snapshot", e);
+        }
+    }
+
+    private static Content parse(MemorySegment segment) {
+        if (segment.byteSize() < HEADER_SIZE
+                || segment.get(ValueLayout.JAVA_INT, 0) != MAGIC
+                || segment.get(ValueLayout.JAVA_INT, 4) != FORMAT_VERSION
+                || segment.get(ValueLayout.JAVA_INT, 8) != BYTE_ORDER_MARK
+                || segment.get(ValueLayout.JAVA_LONG, 16) != RunIndex.recordSize()) {
+            throw new IllegalArgumentException("Unsupported run index snapshot format");
+        }
+        int sectionCount = segment.get(ValueLayout.JAVA_INT, 12);
+        Instant writtenAt = Instant.ofEpochMilli(segment.get(ValueLayout.JAVA_LONG, 24));
+        RunsChanged.Mode[] modes = RunsChanged.Mode.values();
+
+        List<Section> sections = new ArrayList<>(Math.max(0, sectionCount));
+        long offset = HEADER_SIZE;
+        for (int i = 0; i < sectionCount; i++) {
+            long dungeonId = segment.get(ValueLayout.JAVA_LONG, offset);
+            int mode = segment.get(ValueLayout.JAVA_INT, offset + 8);
+            int size = segment.get(ValueLayout.JAVA_INT, offset + 12);
+            int regionCount = segment.get(ValueLayout.JAVA_INT, offset + 16);
+            int regionBytes = segment.get(ValueLayout.JAVA_INT, offset + 20);
+            if (mode < 0 || mode >= modes.length || size < 0 || regionCount < 0 || regionBytes < 0) {
+                throw new IllegalArgumentException("Corrupted run index snapshot section " + i);
+            }
+            offset += SECTION_HEADER_SIZE;
+
+            String[] regionTable = new String[regionCount + 1];
+            long regionOffset = offset;
+            for (int code = 1; code <= regionCount; code++) {
+                int length = Short.toUnsignedInt(segment.get(ValueLayout.JAVA_SHORT_UNALIGNED, regionOffset));
+                byte[] bytes = segment.asSlice(regionOffset + 2, length).toArray(ValueLayout.JAVA_BYTE);
+                regionTable[code] = new String(bytes, StandardCharsets.UTF_8);
+                regionOffset += 2 + length;
+            }
+            offset = align(offset + regionBytes);
+
+            long recordBytes = size * RunIndex.recordSize();
+            RunIndex index = RunIndex.restore(size, segment.asSlice(offset, recordBytes), regionTable);
+            offset += recordBytes;
+            sections.add(new Section(dungeonId, modes[mode], index));
+        }
+        return new Content(writtenAt, sections);
+    }
+
+    /**
+     * Writes the sections to a temporary file next to the target and atomically moves it in place, so that readers
+     * never see a partially written snapshot.
+     *
+     * @param file snapshot file
+     * @param sections indexes to write
+     * @throws IOException when the file cannot be written
+     */
+    static void write(Path file, List<Section> sections) throws IOException {
+        Path target = file.toAbsolutePath();
+        Path directory = target.getParent();
+        if (directory != null) {
+            Files.createDirectories(directory);
+        }
+        Path temporary = Files.createTempFile(directory, target.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer header = buffer(HEADER_SIZE);
+                header.putInt(MAGIC)
+                        .putInt(FORMAT_VERSION)
+                        .putInt(BYTE_ORDER_MARK)
+                        .putInt(sections.size())
+                        .putLong(RunIndex.recordSize())
+                        .putLong(System.currentTimeMillis());
+                writeFully(channel, header.flip());
+                for (Section section : sections) {
+                    writeSection(channel, section);
+                }
+                channel.force(true);
+            }
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private static void writeSection(FileChannel channel, Section section) throws IOException {
+        RunIndex index = section.index();
+        String[] regionTable = index.regionTable();
+        List<byte[]> regions = new ArrayList<>(regionTable.length);
+        int regionBytes = 0;
+        for (int code = 1; code < regionTable.length; code++) {
+            byte[] bytes = regionTable[code] != null ? regionTable[code].getBytes(StandardCharsets.UTF_8) : new byte[0];
+            regions.add(bytes);
+            regionBytes += 2 + bytes.length;
+        }
+
+        ByteBuffer header = buffer((int) align(SECTION_HEADER_SIZE + regionBytes));
+        header.putLong(section.dungeonId())
+                .putInt(section.mode().ordinal())
+                .putInt(index.size())
+                .putInt(regions.size())
+                .putInt(regionBytes);
+        for (byte[] bytes : regions) {
+            header.putShort((short) bytes.length).put(bytes);
+        }
+        header.position(header.limit());
+        writeFully(channel, header.flip());
+        writeFully(channel, index.records().asByteBuffer());
+    }
+
+    private static ByteBuffer buffer(int size) {
+        return ByteBuffer.allocate(size).order(ByteOrder.nativeOrder());
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static long align(long offset) {
+        return (offset + 7) & ~7L;
+    }
+
+    /** Index of a dungeon and leaderboard stored in a snapshot. */
+    record Section(long dungeonId, RunsChanged.Mode mode, RunIndex index) {
+    }
+
+    /** Sections of a snapshot and the moment it was written. */
+    record Content(Instant writtenAt, List<Section> sections) {
+    }
+}
@@ -0,0 +1,122 @@
+package com.opyruso.nwleaderboard.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+/**
+ * Inverted index from players to the runs of one leaderboard they took part in. Every player maps to the sorted
+ * identifiers of its runs, so the runs shared by several players are the intersection of their lists and never
+ * depend on how old the runs are. The index is not thread-safe, {@link RunPlayerIndexService} guards it.
+ */
+final class RunPlayerIndex {
+
+    private static final long[] NO_RUNS = new long[0];
+
+    /** Above this size ratio an intersection probes the longer list by binary search instead of merging both. */
+    private static final int GALLOP_RATIO = 8;
+
+    private final Map<Long, long[]> runsByPlayer = new HashMap<>();
+    private long postingCount;
+
+    /**
+     * Replaces the runs of a player.
+     *
+     * @param playerId identifier of the player
+     * @param runIds identifiers of its runs in ascending order, empty to remove the player
+     */
+    void put(long playerId, long[] runIds) {
+        long[] previous = runIds.length > 0 ? runsByPlayer.put(playerId, runIds) : runsByPlayer.remove(playerId);
+        postingCount += runIds.length - (previous != null ? previous.length : 0);
+    }
+
+    int playerCount() {
+        return runsByPlayer.size();
+    }
+
+    long postingCount() {
+        return postingCount;
+    }
+
+    /**
+     * Returns the runs every group took part in, a group taking part in a run when any of its players did.
+     *
+     * @param groups players of each group
+     * @return identifiers of the matching runs in ascending order
+     */
+    long[] runsWithAll(Collection<? extends Collection<Long>> groups) {
+        if (groups.isEmpty()) {
+            return NO_RUNS;
+        }
+        List<long[]> lists = new ArrayList<>(groups.size());
+        for (Collection<Long> group : groups) {
+            long[] runs = runsOfAny(group);
+            if (runs.length == 0) {
+                return NO_RUNS;
+            }
+            lists.add(runs);
+        }
+        lists.sort(Comparator.comparingInt(runs -> runs.length));
+        long[] result = lists.get(0);
+        for (int i = 1; i < lists.size() && result.length > 0; i++) {
+            result = intersect(result, lists.get(i));
+        }
+        return result;
+    }
+
+    private long[] runsOfAny(Collection<Long> playerIds) {
+        List<long[]> lists = new ArrayList<>();
+        for (Long playerId : playerIds) {
+            long[] runs = playerId != null ? runsByPlayer.get(playerId) : null;
+            if (runs != null) {
+                lists.add(runs);
+            }
+        }
+        if (lists.size() <= 1) {
+            return lists.isEmpty() ? NO_RUNS : lists.get(0);
+        }
+        // Players of a group rarely share runs, so sorting the concatenation beats merging the lists pairwise.
+        return lists.stream().flatMapToLong(LongStream::of).sorted().distinct().toArray();
+    }
+
+    /** Intersects two ascending lists, the first one being the shorter. */
+    private static long[] intersect(long[] shorter, long[] longer) {
+        long[] result = new long[shorter.length];
+        int size = 0;
+        if (longer.length / GALLOP_RATIO > shorter.length) {
+            int from = 0;
+            for (long runId : shorter) {
+                int at = Arrays.binarySearch(longer, from, longer.length, runId);
+                if (at >= 0) {
+                    result[size++] = runId;
+                    from = at + 1;
+                } else {
+                    from = -at - 1;
+                }
+                if (from >= longer.length) {
+                    break;
+                }
+            }
+        } else {
+            int i = 0;
+            int j = 0;
+            while (i < shorter.length && j < longer.length) {
+                if (shorter[i] < longer[j]) {
+                    i++;
+                } else if (shorter[i] > longer[j]) {
+                    j++;
+                } else {
+                    result[size++] = shorter[i];
+                    i++;
+                    j++;
+                }
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+}
@@ -0,0 +1,246 @@
+package com.opyruso.nwleaderboard.service;
+
+import com.opyruso.nwleaderboard.dto.LeaderboardPlayerResponse;
+import com.opyruso.nwleaderboard.dto.TeammateRunResponse;
+import com.opyruso.nwleaderboard.entity.Player;
+import com.opyruso.nwleaderboard.entity.RunScore;
+import com.opyruso.nwleaderboard.entity.RunScorePlayer;
+import com.opyruso.nwleaderboard.entity.RunTime;
+import com.opyruso.nwleaderboard.entity.RunTimePlayer;
+import com.opyruso.nwleaderboard.event.PlayerRunsChanged;
+import com.opyruso.nwleaderboard.event.RunsChanged;
+import com.opyruso.nwleaderboard.repository.RunScorePlayerRepository;
+import com.opyruso.nwleaderboard.repository.RunScoreRepository;
+import com.opyruso.nwleaderboard.repository.RunTimePlayerRepository;
+import com.opyruso.nwleaderboard.repository.RunTimeRepository;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.interceptor.Interceptor;
+import jakarta.transaction.Transactional;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.jboss.logging.Logger;
+
+/**
+ * Answers "runs played together by these players" from one resident {@link RunPlayerIndex} per leaderboard, loaded
+ * from the run player tables at startup. Players whose runs changed are queued by {@link PlayerRunsChanged} events
+ * and their runs are reloaded by the next query.
+ */
+@ApplicationScoped
+public class RunPlayerIndexService {
+
+    private static final Logger LOG = Logger.getLogger(RunPlayerIndexService.class);
+
+    @Inject
+    RunScorePlayerRepository runScorePlayerRepository;
+
+    @Inject
+    RunTimePlayerRepository runTimePlayerRepository;
+
+    @Inject
+    RunScoreRepository runScoreRepository;
+
+    @Inject
+    RunTimeRepository runTimeRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<RunsChanged.Mode, RunPlayerIndex> indexes = new EnumMap<>(RunsChanged.Mode.class);
+    private final Map<RunsChanged.Mode, Set<Long>> pendingPlayerIds = new EnumMap<>(RunsChanged.Mode.class);
+    private final Map<RunsChanged.Mode, Lock> reloadLocks = new EnumMap<>(RunsChanged.Mode.class);
+
+    public RunPlayerIndexService() {
+        for (RunsChanged.Mode mode : RunsChanged.Mode.values()) {
+            pendingPlayerIds.put(mode, ConcurrentHashMap.newKeySet());
+            reloadLocks.put(mode, new ReentrantLock());
+        }
+    }
+
+    /** Runs after the other startup observers, which may still fix up runs (see {@link RegionService}). */
+    @Transactional
+    void loadIndexes(@Observes @Priority(Interceptor.Priority.APPLICATION + 1000) StartupEvent event) {
+        for (RunsChanged.Mode mode : RunsChanged.Mode.values()) {
+            long start = System.nanoTime();
+            RunPlayerIndex index = new RunPlayerIndex();
+            listPlayerRunIds(mode, null).forEach(index::put);
+            lock.writeLock().lock();
+            try {
+                indexes.put(mode, index);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            LOG.infof("Indexed %d %s run players of %d players in %d ms", index.postingCount(),
+                    mode.name().toLowerCase(Locale.ROOT), index.playerCount(),
+                    (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    void onPlayerRunsChanged(@Observes PlayerRunsChanged event) {
+        for (RunsChanged.Mode mode : RunsChanged.Mode.values()) {
+            if (event.mode() == null || event.mode() == mode) {
+                pendingPlayerIds.get(mode).addAll(event.playerIds());
+            }
+        }
+    }
+
+    /**
+     * Returns the runs every group took part in, a group taking part in a run when any of its players did.
+     *
+     * @param playerGroups players of each group
+     * @param mode leaderboard to read
+     * @return identifiers of the matching runs in ascending order
+     */
+    @Transactional(Transactional.TxType.SUPPORTS)
+    public long[] findRunIds(Collection<? extends Collection<Long>> playerGroups, RunsChanged.Mode mode) {
+        if (playerGroups == null || playerGroups.isEmpty() || mode == null) {
+            return new long[0];
+        }
+        applyPendingChanges(mode);
+        lock.readLock().lock();
+        try {
+            RunPlayerIndex index = indexes.get(mode);
+            return index != null ? index.runsWithAll(playerGroups) : new long[0];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Lists the runs all provided players took part in, most recently recorded first.
+     *
+     * @param playerIds identifiers of the players
+     * @param mode leaderboard to read
+     * @param limit maximum number of runs
+     * @return runs with their players
+     */
+    @Transactional(Transactional.TxType.SUPPORTS)
+    public List<TeammateRunResponse> listRunsWithPlayers(Collection<Long> playerIds, RunsChanged.Mode mode, int limit) {
+        if (playerIds == null || playerIds.isEmpty() || mode == null || limit <= 0) {
+            return List.of();
+        }
+        List<List<Long>> groups = new LinkedHashSet<>(playerIds).stream().map(List::of).toList();
+        long[] runIds = findRunIds(groups, mode);
+        List<Long> selected = new ArrayList<>(Math.min(limit, runIds.length));
+        for (int i = runIds.length - 1; i >= 0 && selected.size() < limit; i--) {
+            selected.add(runIds[i]);
+        }
+        if (selected.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, List<LeaderboardPlayerResponse>> playersByRun = new HashMap<>();
+        Map<Long, TeammateRunResponse> runs = new HashMap<>();
+        if (mode == RunsChanged.Mode.SCORE) {
+            for (RunScorePlayer association : runScorePlayerRepository.listWithPlayersByRunIds(selected)) {
+                if (association.getRunScore() != null) {
+                    addPlayer(playersByRun, association.getRunScore().getId(), association.getPlayer());
+                }
+            }
+            for (RunScore run : runScoreRepository.listByIdsWithDungeon(selected)) {
+                runs.put(run.getId(), new TeammateRunResponse(run.getId(), run.getDungeon().getId(), run.getWeek(),
+                        run.getRegion() != null ? run.getRegion().getId() : null, run.getScore(), null,
+                        playersByRun.get(run.getId())));
+            }
+        } else {
+            for (RunTimePlayer association : runTimePlayerRepository.listWithPlayersByRunIds(selected)) {
+                if (association.getRunTime() != null) {
+                    addPlayer(playersByRun, association.getRunTime().getId(), association.getPlayer());
+                }
+            }
+            for (RunTime run : runTimeRepository.listByIdsWithDungeon(selected)) {
+                runs.put(run.getId(), new TeammateRunResponse(run.getId(), run.getDungeon().getId(), run.getWeek(),
+                        run.getRegion() != null ? run.getRegion().getId() : null, null, run.getTimeInSecond(),
+                        playersByRun.get(run.getId())));
+            }
+        }
+        return selected.stream().map(runs::get).filter(Objects::nonNull).toList();
+    }
+
+    /**
+     * Reloads the queued players of a leaderboard. Reloads of the same leaderboard run one at a time, so that runs read
+     * before a change can never be applied after the runs read once it was committed.
+     */
+    private void applyPendingChanges(RunsChanged.Mode mode) {
+        Set<Long> pending = pendingPlayerIds.get(mode);
+        if (pending.isEmpty()) {
+            return;
+        }
+        Lock reloadLock = reloadLocks.get(mode);
+        reloadLock.lock();
+        try {
+            List<Long> playerIds = new ArrayList<>(pending);
+            if (playerIds.isEmpty()) {
+                return;
+            }
+            pending.removeAll(playerIds);
+            Map<Long, long[]> runsByPlayer;
+            try {
+                runsByPlayer = listPlayerRunIds(mode, playerIds);
+            } catch (RuntimeException e) {
+                pending.addAll(playerIds);
+                throw e;
+            }
+
+            lock.writeLock().lock();
+            try {
+                RunPlayerIndex index = indexes.get(mode);
+                if (index != null) {
+                    // Players missing from the rows have no run left.
+                    for (Long playerId : playerIds) {
+                        index.put(playerId, runsByPlayer.getOrDefault(playerId, new long[0]));
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    /** Reads the runs of the players, ordered by the repositories by player then run. */
+    private Map<Long, long[]> listPlayerRunIds(RunsChanged.Mode mode, Collection<Long> playerIds) {
+        List<Object[]> rows = mode == RunsChanged.Mode.SCORE
+                ? runScorePlayerRepository.listPlayerRunIdColumns(playerIds)
+                : runTimePlayerRepository.listPlayerRunIdColumns(playerIds);
+        Map<Long, long[]> runsByPlayer = new HashMap<>();
+        int from = 0;
+        while (from < rows.size()) {
+            Object playerId = rows.get(from)[0];
+            int to = from;
+            while (to < rows.size() && rows.get(to)[0].equals(playerId)) {
+                to++;
+            }
+            runsByPlayer.put(((Number) playerId).longValue(), rows.subList(from, to).stream()
+                    .mapToLong(row -> ((Number) row[1]).longValue())
+                    .distinct()
+                    .toArray());
+            from = to;
+        }
+        return runsByPlayer;
+    }
+
+    private static void addPlayer(Map<Long, List<LeaderboardPlayerResponse>> playersByRun, Long runId, Player player) {
+        if (runId == null || player == null) {
+            return;
+        }
+        Player main = player.getMainCharacter();
+        playersByRun.computeIfAbsent(runId, key -> new ArrayList<>()).add(new LeaderboardPlayerResponse(
+                player.getId(), player.getPlayerName(), main != null ? main.getId() : null,
+                main != null ? main.getPlayerName() : null));
+    }
+}
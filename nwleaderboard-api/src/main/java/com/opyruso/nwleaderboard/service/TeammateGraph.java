@@ -0,0 +1,335 @@
+package com.opyruso.nwleaderboard.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Teammate graph of one leaderboard: players are vertices and every pair of players sharing runs is an edge weighted
+ * by the number of runs they share. Edges are stored in both directions.
+ *
+ * <p>The graph is held in compressed sparse row form: the partners of the vertex at index {@code i} are the slots
+ * {@code offsets[i]} to {@code offsets[i + 1]} of {@code targets} and {@code weights}. Updates do not touch these
+ * arrays: the new partners of a changed player go to an overlay read before them, and {@link #compact()} folds the
+ * overlay back into a new graph. The graph is not thread-safe, {@link TeammateGraphService} guards it.</p>
+ */
+final class TeammateGraph {
+
+    private static final int MIN_COMPACTION_OVERLAY = 256;
+
+    private final long[] playerIds;
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] weights;
+    private final Map<Long, Partners> overlay = new HashMap<>();
+
+    private TeammateGraph(long[] playerIds, int[] offsets, int[] targets, int[] weights) {
+        this.playerIds = playerIds;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+    }
+
+    /**
+     * Builds a graph from its directed edges.
+     *
+     * @param edges edges, expected in both directions
+     * @return graph
+     */
+    static TeammateGraph build(Edges edges) {
+        long[] ids = new long[edges.size * 2];
+        System.arraycopy(edges.from, 0, ids, 0, edges.size);
+        System.arraycopy(edges.to, 0, ids, edges.size, edges.size);
+        long[] vertices = Arrays.stream(ids).sorted().distinct().toArray();
+
+        int[] offsets = new int[vertices.length + 1];
+        int[] sources = new int[edges.size];
+        for (int i = 0; i < edges.size; i++) {
+            sources[i] = Arrays.binarySearch(vertices, edges.from[i]);
+            offsets[sources[i] + 1]++;
+        }
+        for (int i = 0; i < vertices.length; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+        int[] next = Arrays.copyOf(offsets, vertices.length);
+        int[] targets = new int[edges.size];
+        int[] weights = new int[edges.size];
+        for (int i = 0; i < edges.size; i++) {
+            int slot = next[sources[i]]++;
+            targets[slot] = Arrays.binarySearch(vertices, edges.to[i]);
+            weights[slot] = edges.weight[i];
+        }
+        return new TeammateGraph(vertices, offsets, targets, weights);
+    }
+
+    /**
+     * Returns the partners of a player.
+     *
+     * @param playerId identifier of the player
+     * @return partners with the number of runs shared with each one
+     */
+    Partners partners(long playerId) {
+        Partners changed = overlay.get(playerId);
+        if (changed != null) {
+            return changed;
+        }
+        int vertex = Arrays.binarySearch(playerIds, playerId);
+        if (vertex < 0) {
+            return Partners.NONE;
+        }
+        int from = offsets[vertex];
+        int length = offsets[vertex + 1] - from;
+        long[] partnerIds = new long[length];
+        for (int i = 0; i < length; i++) {
+            partnerIds[i] = playerIds[targets[from + i]];
+        }
+        return new Partners(partnerIds, Arrays.copyOfRange(weights, from, from + length));
+    }
+
+    /**
+     * Replaces every partner of the provided players. Their partners outside the map are updated too, edges being
+     * symmetric.
+     *
+     * @param partnersByPlayer shared run count of every partner of each changed player, an empty map removing the
+     *     player from the graph
+     */
+    void replace(Map<Long, Map<Long, Integer>> partnersByPlayer) {
+        Set<Long> affected = new HashSet<>();
+        partnersByPlayer.forEach((playerId, partners) -> {
+            for (long partnerId : partners(playerId).partnerIds()) {
+                affected.add(partnerId);
+            }
+            affected.addAll(partners.keySet());
+        });
+        affected.removeAll(partnersByPlayer.keySet());
+
+        Map<Long, Partners> updates = new HashMap<>();
+        for (Long playerId : affected) {
+            Map<Long, Integer> partners = partners(playerId).toMap();
+            partners.keySet().removeAll(partnersByPlayer.keySet());
+            partnersByPlayer.forEach((changedId, changedPartners) -> {
+                Integer weight = changedPartners.get(playerId);
+                if (weight != null) {
+                    partners.put(changedId, weight);
+                }
+            });
+            updates.put(playerId, Partners.of(partners));
+        }
+        partnersByPlayer.forEach((playerId, partners) -> updates.put(playerId, Partners.of(partners)));
+        overlay.putAll(updates);
+    }
+
+    /** Returns {@code true} once enough players changed since the build to be worth a compaction. */
+    boolean needsCompaction() {
+        return overlay.size() > Math.max(MIN_COMPACTION_OVERLAY, playerIds.length / 20);
+    }
+
+    boolean hasOverlay() {
+        return !overlay.isEmpty();
+    }
+
+    /** Builds a new graph holding the edges of this one and of its overlay. */
+    TeammateGraph compact() {
+        Edges edges = new Edges();
+        for (int vertex = 0; vertex < playerIds.length; vertex++) {
+            if (overlay.containsKey(playerIds[vertex])) {
+                continue;
+            }
+            for (int slot = offsets[vertex]; slot < offsets[vertex + 1]; slot++) {
+                edges.add(playerIds[vertex], playerIds[targets[slot]], weights[slot]);
+            }
+        }
+        overlay.forEach((playerId, partners) -> {
+            for (int i = 0; i < partners.partnerIds().length; i++) {
+                edges.add(playerId, partners.partnerIds()[i], partners.weights()[i]);
+            }
+        });
+        return build(edges);
+    }
+
+    int edgeCount() {
+        return targets.length;
+    }
+
+    /**
+     * Explores the teammates of a player layer by layer. Each layer keeps the {@code limit} players sharing the most
+     * runs with the players kept in the previous layer, and only those are expanded further, which bounds the work to
+     * {@code depth * limit} adjacency reads.
+     *
+     * @param origin identifier of the player to start from
+     * @param depth number of layers, 1 for direct teammates
+     * @param limit number of players kept per layer
+     * @return reached players, layer by layer and by decreasing weight within a layer
+     */
+    List<Reach> explore(long origin, int depth, int limit) {
+        Set<Long> seen = new HashSet<>();
+        seen.add(origin);
+        List<Long> frontier = List.of(origin);
+        List<Reach> reached = new ArrayList<>();
+        for (int layer = 1; layer <= depth && !frontier.isEmpty(); layer++) {
+            Map<Long, long[]> candidates = new LinkedHashMap<>();
+            for (Long playerId : frontier) {
+                Partners partners = partners(playerId);
+                for (int i = 0; i < partners.partnerIds().length; i++) {
+                    long partnerId = partners.partnerIds()[i];
+                    if (seen.contains(partnerId)) {
+                        continue;
+                    }
+                    // weight, strongest link, player holding it
+                    long[] candidate = candidates.computeIfAbsent(partnerId, key -> new long[3]);
+                    candidate[0] += partners.weights()[i];
+                    if (partners.weights()[i] > candidate[1]) {
+                        candidate[1] = partners.weights()[i];
+                        candidate[2] = playerId;
+                    }
+                }
+            }
+            seen.addAll(candidates.keySet());
+            int currentLayer = layer;
+            List<Reach> kept = candidates.entrySet().stream()
+                    .map(entry -> new Reach(entry.getKey(), currentLayer, entry.getValue()[0],
+                            currentLayer > 1 ? entry.getValue()[2] : null))
+                    .sorted(Reach.ORDER)
+                    .limit(limit)
+                    .toList();
+            reached.addAll(kept);
+            frontier = kept.stream().map(Reach::playerId).toList();
+        }
+        return reached;
+    }
+
+    /**
+     * Finds a shortest chain of teammates between two players with a bidirectional breadth-first search, expanding
+     * the smaller side first.
+     *
+     * @param from identifier of the first player
+     * @param to identifier of the second player
+     * @param maxHops longest chain searched, in edges
+     * @return players of the chain from {@code from} to {@code to}, empty when none was found
+     */
+    List<Long> shortestPath(long from, long to, int maxHops) {
+        if (from == to) {
+            return List.of(from);
+        }
+        Map<Long, Long> fromParents = new HashMap<>();
+        Map<Long, Long> toParents = new HashMap<>();
+        fromParents.put(from, null);
+        toParents.put(to, null);
+        List<Long> fromFrontier = List.of(from);
+        List<Long> toFrontier = List.of(to);
+        for (int hops = 0; hops < maxHops && !fromFrontier.isEmpty() && !toFrontier.isEmpty(); hops++) {
+            boolean forward = fromFrontier.size() <= toFrontier.size();
+            Map<Long, Long> parents = forward ? fromParents : toParents;
+            Map<Long, Long> otherParents = forward ? toParents : fromParents;
+            List<Long> next = new ArrayList<>();
+            for (Long playerId : forward ? fromFrontier : toFrontier) {
+                for (long partnerId : partners(playerId).partnerIds()) {
+                    if (parents.containsKey(partnerId)) {
+                        continue;
+                    }
+                    parents.put(partnerId, playerId);
+                    if (otherParents.containsKey(partnerId)) {
+                        return joinPath(partnerId, fromParents, toParents);
+                    }
+                    next.add(partnerId);
+                }
+            }
+            if (forward) {
+                fromFrontier = next;
+            } else {
+                toFrontier = next;
+            }
+        }
+        return List.of();
+    }
+
+    private static List<Long> joinPath(long meeting, Map<Long, Long> fromParents, Map<Long, Long> toParents) {
+        List<Long> path = new ArrayList<>();
+        for (Long current = meeting; current != null; current = fromParents.get(current)) {
+            path.add(current);
+        }
+        Collections.reverse(path);
+        for (Long current = toParents.get(meeting); current != null; current = toParents.get(current)) {
+            path.add(current);
+        }
+        return path;
+    }
+
+    /** Growable list of directed edges used to build a graph. */
+    static final class Edges {
+
+        private long[] from = new long[16];
+        private long[] to = new long[16];
+        private int[] weight = new int[16];
+        private int size;
+
+        void add(long playerId, long partnerId, int runCount) {
+            if (size == from.length) {
+                from = Arrays.copyOf(from, size * 2);
+                to = Arrays.copyOf(to, size * 2);
+                weight = Arrays.copyOf(weight, size * 2);
+            }
+            from[size] = playerId;
+            to[size] = partnerId;
+            weight[size] = runCount;
+            size++;
+        }
+    }
+
+    /** Partners of a player with the number of runs shared with each one, at the same index. */
+    record Partners(long[] partnerIds, int[] weights) {
+
+        static final Partners NONE = new Partners(new long[0], new int[0]);
+
+        static Partners of(Map<Long, Integer> partners) {
+            long[] partnerIds = new long[partners.size()];
+            int[] weights = new int[partners.size()];
+            int i = 0;
+            for (Map.Entry<Long, Integer> entry : partners.entrySet()) {
+                partnerIds[i] = entry.getKey();
+                weights[i] = entry.getValue();
+                i++;
+            }
+            return new Partners(partnerIds, weights);
+        }
+
+        Map<Long, Integer> toMap() {
+            Map<Long, Integer> partners = new HashMap<>();
+            for (int i = 0; i < partnerIds.length; i++) {
+                partners.put(partnerIds[i], weights[i]);
+            }
+            return partners;
+        }
+
+        /** Returns the runs shared with a partner, 0 when it is not one. */
+        int weightOf(long partnerId) {
+            for (int i = 0; i < partnerIds.length; i++) {
+                if (partnerIds[i] == partnerId) {
+                    return weights[i];
+                }
+            }
+            return 0;
+        }
+    }
+
+    /**
+     * Player reached while exploring.
+     *
+     * @param playerId identifier of the player
+     * @param depth layer the player was reached at, 1 for direct teammates
+     * @param weight runs shared with the players kept in the previous layer
+     * @param viaPlayerId player of the previous layer sharing the most runs with it, {@code null} on the first layer
+     */
+    record Reach(long playerId, int depth, long weight, Long viaPlayerId) {
+
+        static final Comparator<Reach> ORDER = Comparator.comparingLong(Reach::weight).reversed()
+                .thenComparingLong(Reach::playerId);
+    }
+}
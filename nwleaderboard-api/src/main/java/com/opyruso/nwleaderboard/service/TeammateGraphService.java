@@ -0,0 +1,257 @@
+package com.opyruso.nwleaderboard.service;
+
+import com.opyruso.nwleaderboard.dto.LeaderboardPlayerResponse;
+import com.opyruso.nwleaderboard.dto.TeammateNetworkEntryResponse;
+import com.opyruso.nwleaderboard.dto.TeammateNetworkResponse;
+import com.opyruso.nwleaderboard.dto.TeammatePathResponse;
+import com.opyruso.nwleaderboard.dto.TeammatePathStepResponse;
+import com.opyruso.nwleaderboard.entity.Player;
+import com.opyruso.nwleaderboard.event.PlayerPartnersChanged;
+import com.opyruso.nwleaderboard.event.RunsChanged;
+import com.opyruso.nwleaderboard.repository.PlayerPartnerRepository;
+import com.opyruso.nwleaderboard.repository.PlayerRepository;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.interceptor.Interceptor;
+import jakarta.transaction.Transactional;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.jboss.logging.Logger;
+
+/**
+ * Serves multi-hop teammate queries from one resident {@link TeammateGraph} per leaderboard, loaded from the
+ * {@code player_partner} read model at startup. Players whose pairs were recounted are queued by
+ * {@link PlayerPartnersChanged} events and reloaded into the graph overlay by the next query; the overlay is folded
+ * back into the compressed arrays once large enough, or on {@code teammate-graph.compaction-interval}.
+ *
+ * <p>The graph counts the runs of every week, like {@code player_partner}.</p>
+ */
+@ApplicationScoped
+public class TeammateGraphService {
+
+    private static final Logger LOG = Logger.getLogger(TeammateGraphService.class);
+
+    @Inject
+    PlayerPartnerRepository playerPartnerRepository;
+
+    @Inject
+    PlayerRepository playerRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<RunsChanged.Mode, TeammateGraph> graphs = new EnumMap<>(RunsChanged.Mode.class);
+    private final Map<RunsChanged.Mode, Set<Long>> pendingPlayerIds = new EnumMap<>(RunsChanged.Mode.class);
+    private final Map<RunsChanged.Mode, Lock> reloadLocks = new EnumMap<>(RunsChanged.Mode.class);
+
+    public TeammateGraphService() {
+        for (RunsChanged.Mode mode : RunsChanged.Mode.values()) {
+            pendingPlayerIds.put(mode, ConcurrentHashMap.newKeySet());
+            reloadLocks.put(mode, new ReentrantLock());
+        }
+    }
+
+    /**
+     * Runs after the other startup observers, which may still backfill the partners (see
+     * {@link PlayerPartnerService}).
+     */
+    @Transactional
+    void loadGraphs(@Observes @Priority(Interceptor.Priority.APPLICATION + 1000) StartupEvent event) {
+        for (RunsChanged.Mode mode : RunsChanged.Mode.values()) {
+            long start = System.nanoTime();
+            TeammateGraph.Edges edges = new TeammateGraph.Edges();
+            for (Object[] row : playerPartnerRepository.listEdgeColumns(null, mode.name())) {
+                if (row != null && row.length >= 3 && row[0] instanceof Number playerId
+                        && row[1] instanceof Number partnerId && row[2] instanceof Number runCount) {
+                    edges.add(playerId.longValue(), partnerId.longValue(), runCount.intValue());
+                }
+            }
+            TeammateGraph graph = TeammateGraph.build(edges);
+            lock.writeLock().lock();
+            try {
+                graphs.put(mode, graph);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            LOG.infof("Loaded the %s teammate graph with %d edges in %d ms", mode.name().toLowerCase(Locale.ROOT),
+                    graph.edgeCount(), (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    void onPlayerPartnersChanged(@Observes PlayerPartnersChanged event) {
+        for (RunsChanged.Mode mode : RunsChanged.Mode.values()) {
+            if (event.mode() == null || event.mode() == mode) {
+                pendingPlayerIds.get(mode).addAll(event.playerIds());
+            }
+        }
+    }
+
+    /**
+     * Explores the teammates of a player: its direct teammates, then their own teammates and so on, keeping at each
+     * hop the players sharing the most runs with the previous one.
+     *
+     * @param playerId identifier of the player
+     * @param mode leaderboard to read
+     * @param depth number of hops
+     * @param limit number of players kept per hop
+     * @return teammates, or empty when the player does not exist
+     */
+    @Transactional(Transactional.TxType.SUPPORTS)
+    public Optional<TeammateNetworkResponse> getNetwork(Long playerId, RunsChanged.Mode mode, int depth, int limit) {
+        if (playerId == null || mode == null || playerRepository.findById(playerId) == null) {
+            return Optional.empty();
+        }
+        applyPendingChanges(mode);
+        List<TeammateGraph.Reach> reached;
+        lock.readLock().lock();
+        try {
+            TeammateGraph graph = graphs.get(mode);
+            reached = graph != null ? graph.explore(playerId, depth, limit) : List.of();
+        } finally {
+            lock.readLock().unlock();
+        }
+        Map<Long, LeaderboardPlayerResponse> players =
+                loadPlayers(reached.stream().map(TeammateGraph.Reach::playerId).toList());
+        List<TeammateNetworkEntryResponse> teammates = new ArrayList<>();
+        for (TeammateGraph.Reach reach : reached) {
+            LeaderboardPlayerResponse player = players.get(reach.playerId());
+            if (player != null) {
+                teammates.add(new TeammateNetworkEntryResponse(
+                        player, reach.depth(), reach.weight(), reach.viaPlayerId()));
+            }
+        }
+        return Optional.of(new TeammateNetworkResponse(playerId, modeName(mode), teammates));
+    }
+
+    /**
+     * Finds a shortest chain of teammates linking two players.
+     *
+     * @param fromPlayerId identifier of the first player
+     * @param toPlayerId identifier of the second player
+     * @param mode leaderboard to read
+     * @param maxHops longest chain searched
+     * @return chain, not connected when none is at most {@code maxHops} long, or empty when a player does not exist
+     */
+    @Transactional(Transactional.TxType.SUPPORTS)
+    public Optional<TeammatePathResponse> findPath(
+            Long fromPlayerId, Long toPlayerId, RunsChanged.Mode mode, int maxHops) {
+        if (fromPlayerId == null || toPlayerId == null || mode == null) {
+            return Optional.empty();
+        }
+        Map<Long, LeaderboardPlayerResponse> endpoints = loadPlayers(List.of(fromPlayerId, toPlayerId));
+        if (!endpoints.containsKey(fromPlayerId) || !endpoints.containsKey(toPlayerId)) {
+            return Optional.empty();
+        }
+        applyPendingChanges(mode);
+        List<Long> path;
+        List<Integer> sharedRuns = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            TeammateGraph graph = graphs.get(mode);
+            path = graph != null ? graph.shortestPath(fromPlayerId, toPlayerId, maxHops) : List.of();
+            for (int i = 1; i < path.size(); i++) {
+                sharedRuns.add(graph.partners(path.get(i - 1)).weightOf(path.get(i)));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        Map<Long, LeaderboardPlayerResponse> players = loadPlayers(path);
+        List<TeammatePathStepResponse> steps = new ArrayList<>();
+        for (int i = 0; i < path.size(); i++) {
+            steps.add(new TeammatePathStepResponse(players.get(path.get(i)), i > 0 ? sharedRuns.get(i - 1) : null));
+        }
+        return Optional.of(new TeammatePathResponse(
+                fromPlayerId, toPlayerId, modeName(mode), !path.isEmpty(), steps));
+    }
+
+    @Scheduled(every = "{teammate-graph.compaction-interval}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void compact() {
+        lock.writeLock().lock();
+        try {
+            graphs.replaceAll((mode, graph) -> graph.hasOverlay() ? graph.compact() : graph);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reloads the queued players of a leaderboard. Reloads of the same leaderboard run one at a time, so that edges read
+     * before a change can never be applied after the edges read once it was committed.
+     */
+    private void applyPendingChanges(RunsChanged.Mode mode) {
+        Set<Long> pending = pendingPlayerIds.get(mode);
+        if (pending.isEmpty()) {
+            return;
+        }
+        Lock reloadLock = reloadLocks.get(mode);
+        reloadLock.lock();
+        try {
+            List<Long> playerIds = new ArrayList<>(pending);
+            if (playerIds.isEmpty()) {
+                return;
+            }
+            pending.removeAll(playerIds);
+            Map<Long, Map<Long, Integer>> partnersByPlayer = new HashMap<>();
+            playerIds.forEach(playerId -> partnersByPlayer.put(playerId, new HashMap<>()));
+            try {
+                for (Object[] row : playerPartnerRepository.listEdgeColumns(playerIds, mode.name())) {
+                    if (row != null && row.length >= 3 && row[0] instanceof Number playerId
+                            && row[1] instanceof Number partnerId && row[2] instanceof Number runCount) {
+                        partnersByPlayer.get(playerId.longValue()).put(partnerId.longValue(), runCount.intValue());
+                    }
+                }
+            } catch (RuntimeException e) {
+                pending.addAll(playerIds);
+                throw e;
+            }
+
+            lock.writeLock().lock();
+            try {
+                TeammateGraph graph = graphs.get(mode);
+                if (graph != null) {
+                    graph.replace(partnersByPlayer);
+                    if (graph.needsCompaction()) {
+                        graphs.put(mode, graph.compact());
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    private Map<Long, LeaderboardPlayerResponse> loadPlayers(Collection<Long> playerIds) {
+        if (playerIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, LeaderboardPlayerResponse> players = new HashMap<>();
+        for (Player player : playerRepository.listByIdsWithMain(new LinkedHashSet<>(playerIds))) {
+            Player main = player.getMainCharacter();
+            players.put(player.getId(), new LeaderboardPlayerResponse(player.getId(), player.getPlayerName(),
+                    main != null ? main.getId() : null, main != null ? main.getPlayerName() : null));
+        }
+        return players;
+    }
+
+    private static String modeName(RunsChanged.Mode mode) {
+        return mode.name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,178 @@
+package com.opyruso.nwleaderboard.service;
+
+import com.opyruso.nwleaderboard.entity.WeekMutationDungeon;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Immutable snapshot of the {@code week_mutation_dungeon} table. It resolves the mutations and season of a week for a
+ * dungeon and keeps, per dungeon, the weeks of every mutation type, promotion and curse so that mutation filters are
+ * answered with set intersections instead of queries. Week lists are always returned in descending order.
+ */
+public final class WeekCalendar {
+
+    static final WeekCalendar EMPTY = new WeekCalendar(List.of());
+
+    private static final Comparator<Integer> DESCENDING = Comparator.reverseOrder();
+
+    private final Map<Long, NavigableMap<Integer, Entry>> entriesByDungeon;
+    private final Map<Long, Map<String, NavigableSet<Integer>>> typeWeeks;
+    private final Map<Long, Map<String, NavigableSet<Integer>>> promotionWeeks;
+    private final Map<Long, Map<String, NavigableSet<Integer>>> curseWeeks;
+    private final Map<Integer, Map<Long, NavigableSet<Integer>>> seasonWeeksByDungeon;
+    private final Map<Integer, NavigableSet<Integer>> seasonWeeks;
+
+    private WeekCalendar(List<Entry> entries) {
+        Map<Long, NavigableMap<Integer, Entry>> byDungeon = new HashMap<>();
+        Map<Long, Map<String, NavigableSet<Integer>>> types = new HashMap<>();
+        Map<Long, Map<String, NavigableSet<Integer>>> promotions = new HashMap<>();
+        Map<Long, Map<String, NavigableSet<Integer>>> curses = new HashMap<>();
+        Map<Integer, Map<Long, NavigableSet<Integer>>> seasonsByDungeon = new HashMap<>();
+        Map<Integer, NavigableSet<Integer>> seasons = new HashMap<>();
+        for (Entry entry : entries) {
+            byDungeon.computeIfAbsent(entry.dungeonId(), key -> new TreeMap<>(DESCENDING)).put(entry.week(), entry);
+            index(types, entry.dungeonId(), entry.typeId(), entry.week());
+            index(promotions, entry.dungeonId(), entry.promotionId(), entry.week());
+            index(curses, entry.dungeonId(), entry.curseId(), entry.week());
+            if (entry.seasonId() != null) {
+                seasonsByDungeon.computeIfAbsent(entry.seasonId(), key -> new HashMap<>())
+                        .computeIfAbsent(entry.dungeonId(), key -> new TreeSet<>(DESCENDING))
+                        .add(entry.week());
+                seasons.computeIfAbsent(entry.seasonId(), key -> new TreeSet<>(DESCENDING)).add(entry.week());
+            }
+        }
+        this.entriesByDungeon = byDungeon;
+        this.typeWeeks = types;
+        this.promotionWeeks = promotions;
+        this.curseWeeks = curses;
+        this.seasonWeeksByDungeon = seasonsByDungeon;
+        this.seasonWeeks = seasons;
+    }
+
+    /** Builds a calendar from fully loaded week mutation rows. */
+    static WeekCalendar of(Collection<WeekMutationDungeon> rows) {
+        if (rows == null || rows.isEmpty()) {
+            return EMPTY;
+        }
+        List<Entry> entries = rows.stream()
+                .filter(row -> row != null && row.getId() != null && row.getId().getWeek() != null
+                        && row.getId().getDungeonId() != null)
+                .map(row -> new Entry(
+                        row.getId().getWeek(),
+                        row.getId().getDungeonId(),
+                        row.getMutationType() != null ? row.getMutationType().getId() : null,
+                        row.getMutationPromotion() != null ? row.getMutationPromotion().getId() : null,
+                        row.getMutationCurse() != null ? row.getMutationCurse().getId() : null,
+                        row.getMutationElement() != null ? row.getMutationElement().getId() : null,
+                        row.getSeason() != null ? row.getSeason().getId() : null))
+                .toList();
+        return new WeekCalendar(entries);
+    }
+
+    /** Returns the configuration of a week for a dungeon or {@code null} when none is stored. */
+    public Entry find(Integer week, Long dungeonId) {
+        if (week == null || dungeonId == null) {
+            return null;
+        }
+        NavigableMap<Integer, Entry> entries = entriesByDungeon.get(dungeonId);
+        return entries != null ? entries.get(week) : null;
+    }
+
+    /** Returns every configured week of a dungeon. */
+    public List<Integer> weeks(Long dungeonId) {
+        NavigableMap<Integer, Entry> entries = dungeonId != null ? entriesByDungeon.get(dungeonId) : null;
+        return entries != null ? List.copyOf(entries.keySet()) : List.of();
+    }
+
+    /**
+     * Returns the weeks of a dungeon matching the mutation filters. Within a filter any identifier may match, across
+     * filters every one must match; a {@code null} filter is ignored.
+     */
+    public List<Integer> weeksByMutations(
+            Long dungeonId, Set<String> typeIds, Set<String> promotionIds, Set<String> curseIds) {
+        NavigableMap<Integer, Entry> entries = dungeonId != null ? entriesByDungeon.get(dungeonId) : null;
+        if (entries == null) {
+            return List.of();
+        }
+        NavigableSet<Integer> result = new TreeSet<>(entries.navigableKeySet());
+        retainMatching(result, typeWeeks.get(dungeonId), typeIds);
+        retainMatching(result, promotionWeeks.get(dungeonId), promotionIds);
+        retainMatching(result, curseWeeks.get(dungeonId), curseIds);
+        return List.copyOf(result);
+    }
+
+    /** Returns the weeks of a season, restricted to a dungeon when one is provided. */
+    public List<Integer> weeksBySeason(Long dungeonId, Integer seasonId) {
+        if (seasonId == null) {
+            return List.of();
+        }
+        NavigableSet<Integer> weeks;
+        if (dungeonId != null) {
+            Map<Long, NavigableSet<Integer>> byDungeon = seasonWeeksByDungeon.get(seasonId);
+            weeks = byDungeon != null ? byDungeon.get(dungeonId) : null;
+        } else {
+            weeks = seasonWeeks.get(seasonId);
+        }
+        return weeks != null ? List.copyOf(weeks) : List.of();
+    }
+
+    /** Returns the seasons whose weeks, across every dungeon, include the provided week. */
+    public Set<Integer> seasonsOfWeek(Integer week) {
+        if (week == null) {
+            return Set.of();
+        }
+        Set<Integer> seasons = new TreeSet<>();
+        seasonWeeks.forEach((seasonId, weeks) -> {
+            if (weeks.contains(week)) {
+                seasons.add(seasonId);
+            }
+        });
+        return seasons;
+    }
+
+    private static void index(
+            Map<Long, Map<String, NavigableSet<Integer>>> target, Long dungeonId, String attributeId, Integer week) {
+        if (attributeId == null) {
+            return;
+        }
+        target.computeIfAbsent(dungeonId, key -> new HashMap<>())
+                .computeIfAbsent(attributeId, key -> new TreeSet<>(DESCENDING))
+                .add(week);
+    }
+
+    private static void retainMatching(
+            NavigableSet<Integer> weeks, Map<String, NavigableSet<Integer>> index, Set<String> ids) {
+        if (ids == null || weeks.isEmpty()) {
+            return;
+        }
+        Map<String, NavigableSet<Integer>> safeIndex = index != null ? index : Collections.emptyMap();
+        Set<Integer> matching = new TreeSet<>(DESCENDING);
+        for (String id : ids) {
+            NavigableSet<Integer> idWeeks = safeIndex.get(id);
+            if (idWeeks != null) {
+                matching.addAll(idWeeks);
+            }
+        }
+        weeks.retainAll(matching);
+    }
+
+    /** Mutations and season configured for a week of a dungeon. */
+    public record Entry(
+            Integer week,
+            Long dungeonId,
+            String typeId,
+            String promotionId,
+            String curseId,
+            String elementId,
+            Integer seasonId) {
+    }
+}
@@ -0,0 +1,65 @@
+package com.opyruso.nwleaderboard.service;
+
+import com.opyruso.nwleaderboard.event.WeekCalendarChanged;
+import com.opyruso.nwleaderboard.repository.WeekMutationDungeonRepository;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import org.jboss.logging.Logger;
+
+/**
+ * Holds the resident {@link WeekCalendar}. Committed mutation or season changes only mark the calendar as outdated;
+ * the next reader rebuilds it from the database and swaps it in atomically while concurrent readers keep using the
+ * previous snapshot.
+ */
+@ApplicationScoped
+public class WeekCalendarService {
+
+    private static final Logger LOG = Logger.getLogger(WeekCalendarService.class);
+
+    @Inject
+    WeekMutationDungeonRepository weekMutationDungeonRepository;
+
+    private final AtomicLong revision = new AtomicLong();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private volatile Snapshot snapshot;
+
+    void onWeekCalendarChanged(@Observes WeekCalendarChanged event) {
+        revision.incrementAndGet();
+    }
+
+    /** Returns the current calendar, rebuilding it first when the stored configuration changed. */
+    @Transactional(Transactional.TxType.SUPPORTS)
+    public WeekCalendar current() {
+        Snapshot current = snapshot;
+        if (current != null && current.revision() == revision.get()) {
+            return current.calendar();
+        }
+        if (current != null && !rebuildLock.tryLock()) {
+            // Another reader is already rebuilding: the previous snapshot is good enough meanwhile.
+            return current.calendar();
+        }
+        if (current == null) {
+            rebuildLock.lock();
+        }
+        try {
+            current = snapshot;
+            long expected = revision.get();
+            if (current != null && current.revision() == expected) {
+                return current.calendar();
+            }
+            WeekCalendar calendar = WeekCalendar.of(weekMutationDungeonRepository.listAllWithRelations());
+            snapshot = new Snapshot(expected, calendar);
+            LOG.debugf("Week calendar rebuilt at revision %d", expected);
+            return calendar;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private record Snapshot(long revision, WeekCalendar calendar) {
+    }
+}
@@ -0,0 +1,222 @@
+package com.opyruso.nwleaderboard.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.opyruso.nwleaderboard.dto.ContributionPlayerDto;
+import com.opyruso.nwleaderboard.dto.ContributionRunDto;
+import com.opyruso.nwleaderboard.entity.ContributorSubmission;
+import com.opyruso.nwleaderboard.service.ContributorSubmissionService.ConcurrentSubmissionException;
+import com.opyruso.nwleaderboard.service.ContributorSubmissionService.ContributorSubmissionException;
+import io.github.embeddedkafka.EmbeddedKafka;
+import io.github.embeddedkafka.EmbeddedKafkaConfig;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Runs the submission queue against an in-process Kafka broker, the database being replaced by an in-memory
+ * submission service.
+ */
+class ContributorSubmissionQueueTest {
+
+    private static final EmbeddedKafkaConfig KAFKA = EmbeddedKafkaConfig.defaultConfig();
+    private static final long UNKNOWN_DUNGEON = 999L;
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final List<ContributorSubmissionQueue> queues = new ArrayList<>();
+
+    @BeforeAll
+    static void startBroker() {
+        EmbeddedKafka.start(KAFKA);
+    }
+
+    @AfterAll
+    static void stopBroker() {
+        EmbeddedKafka.stop();
+    }
+
+    @AfterEach
+    void stopQueues() {
+        queues.forEach(queue -> queue.stop(null));
+    }
+
+    @Test
+    void storesQueuedSubmission() throws Exception {
+        InMemorySubmissionService service = new InMemorySubmissionService();
+        ContributorSubmissionQueue queue = startQueue(service, new ObjectMapper());
+
+        String trackingId = queue.enqueue(run(1L, 1200));
+
+        assertEquals(ContributorSubmission.STORED, awaitStatus(queue, trackingId, ContributorSubmission.STORED));
+        assertEquals(1, service.storedRuns.size());
+    }
+
+    @Test
+    void rejectsInvalidSubmissionWithoutBlockingOthers() throws Exception {
+        InMemorySubmissionService service = new InMemorySubmissionService();
+        ContributorSubmissionQueue queue = startQueue(service, new ObjectMapper());
+
+        String rejectedId = queue.enqueue(run(UNKNOWN_DUNGEON, 1200));
+        String storedId = queue.enqueue(run(1L, 1300));
+
+        assertEquals(ContributorSubmission.FAILED, awaitStatus(queue, rejectedId, ContributorSubmission.FAILED));
+        assertEquals("Unknown dungeon with id " + UNKNOWN_DUNGEON, queue.getStatus(rejectedId).message());
+        assertEquals(ContributorSubmission.STORED, awaitStatus(queue, storedId, ContributorSubmission.STORED));
+        assertEquals(1, service.storedRuns.size());
+    }
+
+    @Test
+    void retriesSubmissionWhileDatabaseIsUnavailable() throws Exception {
+        InMemorySubmissionService service = new InMemorySubmissionService();
+        // The batch attempt and the individual attempt of the first poll, then the batch attempt of the retry.
+        service.outages.set(3);
+        ContributorSubmissionQueue queue = startQueue(service, new ObjectMapper());
+
+        String trackingId = queue.enqueue(run(1L, 1200));
+
+        assertEquals(ContributorSubmission.STORED, awaitStatus(queue, trackingId, ContributorSubmission.STORED));
+        assertEquals(0, service.outages.get());
+        assertEquals(1, service.storedRuns.size());
+    }
+
+    @Test
+    void retriesSubmissionStoredConcurrently() throws Exception {
+        InMemorySubmissionService service = new InMemorySubmissionService();
+        // The batch attempt and the individual attempt of the first poll.
+        service.conflicts.set(2);
+        ContributorSubmissionQueue queue = startQueue(service, new ObjectMapper());
+
+        String trackingId = queue.enqueue(run(1L, 1200));
+
+        assertEquals(ContributorSubmission.STORED, awaitStatus(queue, trackingId, ContributorSubmission.STORED));
+        assertEquals(0, service.conflicts.get());
+        assertEquals(1, service.storedRuns.size());
+    }
+
+    @Test
+    void restartsConsumerAfterUnexpectedFailure() throws Exception {
+        InMemorySubmissionService service = new InMemorySubmissionService();
+        FailingObjectMapper mapper = new FailingObjectMapper();
+        mapper.failures.set(1);
+        ContributorSubmissionQueue queue = startQueue(service, mapper);
+
+        String trackingId = queue.enqueue(run(1L, 1200));
+
+        assertEquals(ContributorSubmission.STORED, awaitStatus(queue, trackingId, ContributorSubmission.STORED));
+        assertEquals(0, mapper.failures.get());
+        assertEquals(1, service.storedRuns.size());
+    }
+
+    private ContributorSubmissionQueue startQueue(InMemorySubmissionService service, ObjectMapper mapper)
+            throws Exception {
+        ContributorSubmissionQueue queue = new ContributorSubmissionQueue();
+        queue.enabled = true;
+        queue.batchSize = 10;
+        queue.bootstrapServers = "localhost:" + KAFKA.kafkaPort();
+        queue.topicRoot = "test-" + UUID.randomUUID();
+        queue.submissionService = service;
+        queue.objectMapper = mapper;
+
+        Properties properties = new Properties();
+        properties.put(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, queue.bootstrapServers);
+        try (Admin admin = Admin.create(properties)) {
+            admin.createTopics(List.of(new NewTopic(queue.topicRoot + ".submissions", 1, (short) 1))).all().get();
+        }
+        queue.start(null);
+        queues.add(queue);
+        return queue;
+    }
+
+    private static String awaitStatus(ContributorSubmissionQueue queue, String trackingId, String expected)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        ContributorSubmissionQueue.SubmissionStatus status = queue.getStatus(trackingId);
+        while ((status == null || !expected.equals(status.status())) && System.nanoTime() < deadline) {
+            Thread.sleep(100L);
+            status = queue.getStatus(trackingId);
+        }
+        assertNotNull(status, "Unknown submission " + trackingId);
+        return status.status();
+    }
+
+    private static List<ContributionRunDto> run(long dungeonId, int score) {
+        return List.of(new ContributionRunDto(12, dungeonId, score, null, 1, "EUC",
+                List.of(new ContributionPlayerDto("Player" + score, null))));
+    }
+
+    /**
+     * Stores runs and statuses in memory, failing the next {@code outages} storage attempts as the database would and
+     * the next {@code conflicts} ones as a concurrent submission of the same runs would.
+     */
+    static final class InMemorySubmissionService extends ContributorSubmissionService {
+
+        final List<ContributionRunDto> storedRuns = new CopyOnWriteArrayList<>();
+        final Map<String, ContributorSubmission> submissions = new ConcurrentHashMap<>();
+        final AtomicInteger outages = new AtomicInteger();
+        final AtomicInteger conflicts = new AtomicInteger();
+
+        @Override
+        public void persistRuns(List<ContributionRunDto> payload) throws ContributorSubmissionException {
+            validatePayload(payload);
+            if (outages.getAndUpdate(remaining -> Math.max(0, remaining - 1)) > 0) {
+                throw new IllegalStateException("Database unavailable");
+            }
+            if (conflicts.getAndUpdate(remaining -> Math.max(0, remaining - 1)) > 0) {
+                throw new ConcurrentSubmissionException("Stored concurrently", new IllegalStateException());
+            }
+            for (ContributionRunDto run : payload) {
+                if (run.dungeonId() == UNKNOWN_DUNGEON) {
+                    throw new ContributorSubmissionException("Unknown dungeon with id " + run.dungeonId());
+                }
+            }
+            storedRuns.addAll(payload);
+        }
+
+        @Override
+        public void recordSubmissionStatus(String trackingId, String status, String message) {
+            ContributorSubmission submission = new ContributorSubmission();
+            submission.setTrackingId(trackingId);
+            submission.setStatus(status);
+            submission.setMessage(message);
+            submissions.put(trackingId, submission);
+        }
+
+        @Override
+        public ContributorSubmission findSubmission(String trackingId) {
+            return trackingId != null ? submissions.get(trackingId) : null;
+        }
+    }
+
+    /** Fails the next {@code failures} reads of a submission with an unexpected exception. */
+    static final class FailingObjectMapper extends ObjectMapper {
+
+        private static final long serialVersionUID = 1L;
+
+        final AtomicInteger failures = new AtomicInteger();
+
+        @Override
+        public <T> T readValue(String content, TypeReference<T> valueTypeRef) throws JsonProcessingException {
+            if (failures.getAndUpdate(remaining -> Math.max(0, remaining - 1)) > 0) {
+                throw new IllegalStateException("Unexpected failure");
+            }
+            return super.readValue(content, valueTypeRef);
+        }
+    }
+}
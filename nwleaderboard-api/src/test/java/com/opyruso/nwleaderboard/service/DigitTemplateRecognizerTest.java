@@ -0,0 +1,168 @@
+package com.opyruso.nwleaderboard.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Feeds the recognizer value crops rendered like the scoreboard field: light anti-aliased glyphs on a dark background.
+ */
+class DigitTemplateRecognizerTest {
+
+    private static final Font FONT = new Font(Font.SANS_SERIF, Font.BOLD, 26);
+    private static final String ALL_CHARACTERS = "0123456789:";
+    /** Agreeing readings needed before a glyph becomes a template. */
+    private static final int READINGS_TO_CONFIRM = 3;
+
+    @BeforeAll
+    static void useHeadlessToolkit() {
+        System.setProperty("java.awt.headless", "true");
+    }
+
+    @Test
+    void fallsBackToTesseractUntilEveryCharacterIsLearnt() {
+        DigitTemplateRecognizer recognizer = new DigitTemplateRecognizer();
+        for (int reading = 0; reading < 5; reading++) {
+            recognizer.learn(crop("0123"), "0123", 99.0d);
+        }
+
+        assertFalse(recognizer.hasEveryCharacter());
+        assertNull(recognizer.recognize(crop("0123")));
+    }
+
+    @Test
+    void recognisesValuesOnceEveryCharacterIsConfirmed() {
+        DigitTemplateRecognizer recognizer = trainedRecognizer();
+
+        assertTrue(recognizer.hasEveryCharacter());
+        assertRecognised(recognizer, "45:07");
+        assertRecognised(recognizer, "1287");
+        assertRecognised(recognizer, "9036");
+    }
+
+    @Test
+    void ignoresGlyphsReadOnce() {
+        DigitTemplateRecognizer recognizer = new DigitTemplateRecognizer();
+        recognizer.learn(crop(ALL_CHARACTERS), ALL_CHARACTERS, 99.0d);
+        recognizer.learn(crop(ALL_CHARACTERS), ALL_CHARACTERS, 99.0d);
+
+        assertFalse(recognizer.hasEveryCharacter());
+        assertNull(recognizer.recognize(crop("12:34")));
+    }
+
+    @Test
+    void ignoresLowConfidenceReadings() {
+        DigitTemplateRecognizer recognizer = new DigitTemplateRecognizer();
+        for (int reading = 0; reading < 5; reading++) {
+            recognizer.learn(crop(ALL_CHARACTERS), ALL_CHARACTERS, 80.0d);
+        }
+
+        assertFalse(recognizer.hasEveryCharacter());
+    }
+
+    @Test
+    void confidentMisreadingDoesNotPoisonTemplates() {
+        DigitTemplateRecognizer recognizer = new DigitTemplateRecognizer();
+        recognizer.learn(crop("7"), "1", 99.0d);
+        for (int reading = 0; reading < 4; reading++) {
+            recognizer.learn(crop(ALL_CHARACTERS), ALL_CHARACTERS, 99.0d);
+        }
+
+        assertRecognised(recognizer, "7");
+        assertRecognised(recognizer, "17");
+    }
+
+    @Test
+    void keepsLearningOnceTheCandidatePoolIsFullOfNoise() {
+        DigitTemplateRecognizer recognizer = new DigitTemplateRecognizer();
+        Random random = new Random(42L);
+        for (int reading = 0; reading < 250; reading++) {
+            recognizer.learn(noiseCrop(random), "8", 99.0d);
+        }
+        for (int reading = 0; reading < READINGS_TO_CONFIRM; reading++) {
+            recognizer.learn(crop(ALL_CHARACTERS), ALL_CHARACTERS, 99.0d);
+        }
+
+        assertTrue(recognizer.hasEveryCharacter());
+        assertRecognised(recognizer, "45:07");
+    }
+
+    private static DigitTemplateRecognizer trainedRecognizer() {
+        DigitTemplateRecognizer recognizer = new DigitTemplateRecognizer();
+        for (int reading = 0; reading < READINGS_TO_CONFIRM; reading++) {
+            recognizer.learn(crop(ALL_CHARACTERS), ALL_CHARACTERS, 95.0d);
+        }
+        return recognizer;
+    }
+
+    private static void assertRecognised(DigitTemplateRecognizer recognizer, String value) {
+        DigitTemplateRecognizer.Recognition recognition = recognizer.recognize(crop(value));
+        assertNotNull(recognition, "No recognition for " + value);
+        assertEquals(value, recognition.text());
+        assertTrue(recognition.confidence() >= 80.0d);
+    }
+
+    /** Renders a single glyph of random blocks, framed on its left and top so that it is segmented as one glyph. */
+    private static BufferedImage noiseCrop(Random random) {
+        int cell = 2;
+        int columns = 12;
+        int rows = 20;
+        int margin = 12;
+        BufferedImage image = new BufferedImage(
+                columns * cell + 2 * margin, rows * cell + 2 * margin, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(new Color(24, 22, 20));
+        graphics.fillRect(0, 0, image.getWidth(), image.getHeight());
+        graphics.setColor(new Color(236, 226, 204));
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                if (row == 0 || column == 0 || random.nextBoolean()) {
+                    graphics.fillRect(margin + column * cell, margin + row * cell, cell, cell);
+                }
+            }
+        }
+        graphics.dispose();
+        return image;
+    }
+
+    /** Renders a value crop, glyphs being drawn one by one so that they never touch like in the game font. */
+    private static BufferedImage crop(String value) {
+        BufferedImage probe = new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB);
+        Graphics2D probeGraphics = probe.createGraphics();
+        FontMetrics metrics = probeGraphics.getFontMetrics(FONT);
+        probeGraphics.dispose();
+
+        int spacing = 4;
+        int width = 8;
+        for (char character : value.toCharArray()) {
+            width += metrics.charWidth(character) + spacing;
+        }
+        int height = metrics.getHeight() + 8;
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(new Color(24, 22, 20));
+        graphics.fillRect(0, 0, width, height);
+        graphics.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        graphics.setFont(FONT);
+        graphics.setColor(new Color(236, 226, 204));
+        int x = 4;
+        for (char character : value.toCharArray()) {
+            graphics.drawString(String.valueOf(character), x, 4 + metrics.getAscent());
+            x += metrics.charWidth(character) + spacing;
+        }
+        graphics.dispose();
+        return image;
+    }
+}
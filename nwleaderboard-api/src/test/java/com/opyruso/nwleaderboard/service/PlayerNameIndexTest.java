@@ -0,0 +1,119 @@
+package com.opyruso.nwleaderboard.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Searches name indexes built from normalised names, before and after players are added, renamed and removed.
+ */
+class PlayerNameIndexTest {
+
+    @Test
+    void ranksPrefixMatchesBeforeSubstringMatches() {
+        PlayerNameIndex index = PlayerNameIndex.build(names());
+
+        List<PlayerNameIndex.Match> matches = search(index, "mar", 10);
+
+        assertEquals(List.of(3L, 1L, 5L, 2L, 4L), playerIds(matches));
+        assertEquals(List.of(PlayerNameIndex.PREFIX, PlayerNameIndex.PREFIX, PlayerNameIndex.PREFIX,
+                        PlayerNameIndex.SUBSTRING, PlayerNameIndex.SUBSTRING),
+                matches.stream().map(PlayerNameIndex.Match::tier).toList());
+        assertEquals(List.of(3L, 1L), playerIds(search(index, "mar", 2)));
+        assertEquals(List.of(2L), playerIds(search(index, "mar ok", 1)));
+    }
+
+    @Test
+    void fallsBackToFuzzyMatchesRankedBySimilarity() {
+        PlayerNameIndex index = PlayerNameIndex.build(names());
+
+        List<PlayerNameIndex.Match> matches = search(index, "marcos", 10);
+
+        assertEquals(List.of(1L, 3L, 7L), playerIds(matches));
+        assertTrue(matches.stream().allMatch(match -> match.tier() == PlayerNameIndex.FUZZY));
+        assertEquals(0.75, matches.get(0).score(), 1e-9);
+        assertEquals(List.of(), search(index, "zzz", 10));
+    }
+
+    @Test
+    void ordersNameTiesByPlayerId() {
+        PlayerNameIndex index = PlayerNameIndex.build(Map.of(9L, "twin", 4L, "twin", 6L, "twins"));
+
+        assertEquals(List.of(4L, 9L, 6L), playerIds(search(index, "tw", 10)));
+    }
+
+    @Test
+    void removedPlayersLeaveTombstonesOutOfResults() {
+        PlayerNameIndex index = PlayerNameIndex.build(names());
+        index.remove(3L);
+        index.remove(2L);
+        index.remove(42L);
+
+        assertEquals(List.of(1L, 5L, 4L), playerIds(search(index, "mar", 10)));
+        assertEquals(List.of(1L, 7L), playerIds(search(index, "marcos", 10)));
+        assertFalse(index.isEmpty());
+
+        names().keySet().forEach(index::remove);
+        assertTrue(index.isEmpty());
+        assertEquals(List.of(), search(index, "mar", 10));
+    }
+
+    @Test
+    void playersAddedAfterTheBuildRankByName() {
+        PlayerNameIndex index = PlayerNameIndex.build(names());
+        index.put(6L, "marbles");
+        index.put(1L, "zeta");
+
+        assertEquals(List.of(6L, 3L, 5L, 2L, 4L), playerIds(search(index, "mar", 10)));
+        // The sorted range stops early, the players added later are always checked.
+        assertEquals(List.of(6L), playerIds(search(index, "mar", 1)));
+        assertEquals(List.of(1L), playerIds(search(index, "zet", 10)));
+    }
+
+    @Test
+    void compactionKeepsSearchResults() {
+        PlayerNameIndex index = PlayerNameIndex.build(names());
+        for (long playerId = 100L; playerId < 400L; playerId++) {
+            index.put(playerId, "player" + playerId);
+        }
+        index.put(6L, "marbles");
+        index.put(1L, "zeta");
+        index.remove(3L);
+        index.remove(150L);
+
+        assertTrue(index.needsCompaction());
+        PlayerNameIndex compacted = index.compact();
+
+        assertFalse(compacted.needsCompaction());
+        for (String query : List.of("mar", "m", "ar", "mar ok", "marcos", "zet", "player1", "player15", "yer 3")) {
+            for (int limit : List.of(1, 3, 20)) {
+                assertEquals(search(index, query, limit), search(compacted, query, limit), query + " / " + limit);
+            }
+        }
+    }
+
+    /** Three names start with "mar" and two contain it; the last one only shares trigrams with "marco". */
+    private static Map<Long, String> names() {
+        Map<Long, String> names = new HashMap<>();
+        names.put(1L, "marco");
+        names.put(2L, "amarok");
+        names.put(3L, "marcel");
+        names.put(4L, "omar");
+        names.put(5L, "maro");
+        names.put(7L, "barcode");
+        return names;
+    }
+
+    private static List<PlayerNameIndex.Match> search(PlayerNameIndex index, String query, int limit) {
+        return index.search(PlayerNameIndex.Query.parse(query), limit);
+    }
+
+    private static List<Long> playerIds(List<PlayerNameIndex.Match> matches) {
+        return matches.stream().map(PlayerNameIndex.Match::playerId).toList();
+    }
+}
@@ -0,0 +1,116 @@
+package com.opyruso.nwleaderboard.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Completes prefixes against tries of normalised names, checking the ranking kept by every node as players come and go.
+ */
+class PlayerNameTrieTest {
+
+    @Test
+    void ranksByActivityThenNameThenPlayerId() {
+        PlayerNameTrie trie = trie();
+
+        assertEquals(List.of(2L, 3L, 1L, 4L), playerIds(trie.complete("al", 10)));
+        assertEquals(List.of(5L, 2L), playerIds(trie.complete("", 2)));
+    }
+
+    @Test
+    void completesPrefixesEndingInsideANode() {
+        PlayerNameTrie trie = trie();
+
+        assertEquals(List.of(2L, 1L, 4L), playerIds(trie.complete("ali", 10)));
+        assertEquals(List.of(1L, 4L), playerIds(trie.complete("alic", 10)));
+        assertEquals(List.of(5L), playerIds(trie.complete("b", 10)));
+        assertEquals(List.of(), trie.complete("alix", 10));
+        assertEquals(List.of(), trie.complete("alicea", 10));
+        assertEquals(List.of(), trie.complete("c", 10));
+    }
+
+    @Test
+    void putReplacesTheNameAndActivityOfAPlayer() {
+        PlayerNameTrie trie = trie();
+        trie.put(completion(1L, "zed", 1L));
+        trie.put(completion(3L, "albert", 50L));
+
+        assertEquals(List.of(2L, 4L), playerIds(trie.complete("ali", 10)));
+        assertEquals(List.of(1L), playerIds(trie.complete("z", 10)));
+        assertEquals(List.of(3L, 2L, 4L), playerIds(trie.complete("al", 10)));
+    }
+
+    @Test
+    void removalRanksTheNextPlayerIntoFullNodes() {
+        PlayerNameTrie trie = new PlayerNameTrie();
+        int players = PlayerNameTrie.MAX_COMPLETIONS + 5;
+        for (long playerId = 0L; playerId < players; playerId++) {
+            trie.put(completion(playerId, String.format("p%02d", playerId), playerId));
+        }
+        List<Long> expected = LongStream.iterate(players - 2L, id -> id - 1L)
+                .limit(PlayerNameTrie.MAX_COMPLETIONS)
+                .boxed()
+                .toList();
+
+        trie.remove(players - 1L);
+
+        assertEquals(expected, playerIds(trie.complete("p", PlayerNameTrie.MAX_COMPLETIONS)));
+        assertEquals(expected, playerIds(trie.complete("", PlayerNameTrie.MAX_COMPLETIONS)));
+    }
+
+    @Test
+    void removalMergesNodesLeftWithASingleChild() {
+        PlayerNameTrie trie = new PlayerNameTrie();
+        trie.put(completion(1L, "al", 1L));
+        trie.put(completion(2L, "alice", 2L));
+        trie.put(completion(3L, "alina", 3L));
+
+        trie.remove(1L);
+        trie.remove(3L);
+
+        assertEquals(List.of(2L), playerIds(trie.complete("a", 10)));
+        assertEquals(List.of(2L), playerIds(trie.complete("al", 10)));
+        assertEquals(List.of(2L), playerIds(trie.complete("alic", 10)));
+        assertEquals(List.of(), trie.complete("alin", 10));
+
+        trie.put(completion(4L, "alina", 4L));
+        assertEquals(List.of(4L, 2L), playerIds(trie.complete("ali", 10)));
+        assertFalse(trie.isEmpty());
+    }
+
+    @Test
+    void becomesEmptyOnceEveryPlayerIsRemoved() {
+        PlayerNameTrie trie = trie();
+        for (long playerId = 1L; playerId <= 5L; playerId++) {
+            trie.remove(playerId);
+        }
+        trie.remove(42L);
+
+        assertTrue(trie.isEmpty());
+        assertEquals(List.of(), trie.complete("", 10));
+        assertEquals(List.of(), trie.complete("al", 10));
+    }
+
+    /** Players 1 and 3 tie on activity, players 1 and 4 share their name. */
+    private static PlayerNameTrie trie() {
+        PlayerNameTrie trie = new PlayerNameTrie();
+        trie.put(completion(1L, "alice", 5L));
+        trie.put(completion(2L, "alina", 9L));
+        trie.put(completion(3L, "albert", 5L));
+        trie.put(completion(4L, "alice", 2L));
+        trie.put(completion(5L, "bob", 20L));
+        return trie;
+    }
+
+    private static PlayerNameTrie.Completion completion(long playerId, String name, long activity) {
+        return new PlayerNameTrie.Completion(playerId, name, name, null, "EU", activity);
+    }
+
+    private static List<Long> playerIds(List<PlayerNameTrie.Completion> completions) {
+        return completions.stream().map(PlayerNameTrie.Completion::playerId).toList();
+    }
+}
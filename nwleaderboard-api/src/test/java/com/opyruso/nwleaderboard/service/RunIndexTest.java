@@ -0,0 +1,143 @@
+package com.opyruso.nwleaderboard.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Builds run indexes from projected rows of {@code id, value, week, region id}, like the repositories return them.
+ */
+class RunIndexTest {
+
+    private static final long DUNGEON_ID = 7L;
+
+    @Test
+    void ranksBestValueThenMostRecentWeekThenLowestId() {
+        RunIndex index = RunIndex.build(DUNGEON_ID, rows(), Map.of(), false);
+
+        assertEquals(List.of(3L, 5L, 2L, 1L, 4L), ids(index, index.select(null, null)));
+        assertEquals(DUNGEON_ID, index.dungeonId(0));
+    }
+
+    @Test
+    void ranksLowestValueFirstWhenLowerIsBetter() {
+        RunIndex index = RunIndex.build(DUNGEON_ID, rows(), Map.of(), true);
+
+        assertEquals(List.of(4L, 1L, 3L, 5L, 2L), ids(index, index.select(null, null)));
+    }
+
+    @Test
+    void selectsUnionWithinFiltersAndIntersectionAcrossThem() {
+        RunIndex index = RunIndex.build(DUNGEON_ID, rows(), Map.of(), false);
+
+        assertEquals(List.of(3L, 5L, 4L), ids(index, index.select(List.of(12), null)));
+        assertEquals(List.of(3L, 1L), ids(index, index.select(null, List.of("EU"))));
+        assertEquals(List.of(5L, 2L), ids(index, index.select(List.of(11, 12), List.of("US"))));
+        assertEquals(List.of(3L, 5L, 2L, 1L), ids(index, index.select(null, List.of("EU", "US"))));
+        assertEquals(List.of(), ids(index, index.select(List.of(99), null)));
+        assertEquals(List.of(), ids(index, index.select(List.of(), null)));
+        assertEquals(List.of(), ids(index, index.select(null, List.of("SA"))));
+    }
+
+    @Test
+    void pagesFollowTheRankingOfTheSelection() {
+        RunIndex index = RunIndex.build(DUNGEON_ID, rows(), Map.of(), false);
+        BitSet selection = index.select(null, null);
+
+        assertEquals(List.of(2L, 1L), index.page(selection, 1, 2).stream().map(RunIndex.IndexedRun::id).toList());
+        assertEquals(List.of(4L), index.page(selection, 2, 2).stream().map(RunIndex.IndexedRun::id).toList());
+        assertEquals(List.of(), index.page(selection, 3, 2));
+        assertEquals(new RunIndex.IndexedRun(3L, 12, "EU", 150), index.page(selection, 0, 1).get(0));
+    }
+
+    @Test
+    void aggregatesTheSelectedRunsPerWeek() {
+        RunIndex index = RunIndex.build(DUNGEON_ID, rows(), Map.of(), false);
+
+        assertEquals(List.of(
+                        new RunIndex.WeekAggregate(10, 100L, 100L, 100L, 1L),
+                        new RunIndex.WeekAggregate(11, 150L, 150L, 150L, 1L),
+                        new RunIndex.WeekAggregate(12, 150L, 90L, 390L, 3L)),
+                index.aggregateByWeek(index.select(null, null)));
+        assertEquals(List.of(new RunIndex.WeekAggregate(12, 150L, 150L, 300L, 2L)),
+                index.aggregateByWeek(index.select(List.of(12), List.of("EU", "US"))));
+        assertEquals(List.of(), index.aggregateByWeek(new BitSet()));
+        assertArrayEquals(new int[] {150, 150, 90}, index.values(index.select(List.of(12), null)));
+        assertEquals(Set.of(10, 11, 12), index.weeks());
+    }
+
+    @Test
+    void storesSortedPlayersUpToTheLimit() {
+        Map<Long, Set<Long>> players = new HashMap<>();
+        players.put(3L, Set.of(9L, 2L, 5L));
+        players.put(1L, LongStream.rangeClosed(1L, RunIndex.MAX_PLAYERS + 2).boxed().collect(Collectors.toSet()));
+        RunIndex index = RunIndex.build(DUNGEON_ID, rows(), players, false);
+
+        assertArrayEquals(new long[] {2L, 5L, 9L}, index.playerIds(0));
+        assertArrayEquals(LongStream.rangeClosed(1L, RunIndex.MAX_PLAYERS).toArray(), index.playerIds(3));
+        assertArrayEquals(new long[0], index.playerIds(1));
+    }
+
+    @Test
+    void skipsIncompleteRowsAndKeepsUnknownRegions() {
+        List<Object[]> rows = new ArrayList<>(rows());
+        rows.add(new Object[] {6L, null, 12, "EU"});
+        rows.add(new Object[] {7L, 120, null, "EU"});
+        rows.add(null);
+        rows.add(new Object[] {8L, 120, 13, " "});
+        RunIndex index = RunIndex.build(DUNGEON_ID, rows, Map.of(), false);
+
+        assertEquals(6, index.size());
+        assertEquals(List.of(3L, 5L, 2L, 8L, 1L, 4L), ids(index, index.select(null, null)));
+        assertNull(index.region(3));
+        assertEquals(List.of(), ids(index, index.select(List.of(13), List.of("EU", "US"))));
+    }
+
+    @Test
+    void restoredIndexReadsTheSameRuns() {
+        Map<Long, Set<Long>> players = Map.of(2L, Set.of(4L, 8L));
+        RunIndex index = RunIndex.build(DUNGEON_ID, rows(), players, false);
+        RunIndex restored = RunIndex.restore(index.size(), index.records(), index.regionTable());
+
+        assertEquals(index.fingerprint(), restored.fingerprint());
+        assertEquals(index.page(index.select(List.of(11, 12), List.of("US")), 0, 10),
+                restored.page(restored.select(List.of(11, 12), List.of("US")), 0, 10));
+        assertArrayEquals(new long[] {4L, 8L}, restored.playerIds(2));
+    }
+
+    @Test
+    void emptyIndexSelectsNothing() {
+        RunIndex index = RunIndex.build(DUNGEON_ID, List.of(), Map.of(), false);
+
+        assertEquals(0, index.size());
+        assertTrue(index.select(null, null).isEmpty());
+        assertEquals(List.of(), index.page(index.select(null, null), 0, 10));
+        assertEquals(0, index.values(index.select(null, null)).length);
+    }
+
+    /** Two runs tie on value and week, two share the value in different weeks, one has no region. */
+    private static List<Object[]> rows() {
+        return Arrays.asList(
+                new Object[] {1L, 100, 10, "EU"},
+                new Object[] {2L, 150, 11, "US"},
+                new Object[] {5L, 150, 12, "US"},
+                new Object[] {3L, 150, 12, "EU"},
+                new Object[] {4L, 90, 12, null});
+    }
+
+    private static List<Long> ids(RunIndex index, BitSet selection) {
+        return index.page(selection, 0, 100).stream().map(RunIndex.IndexedRun::id).toList();
+    }
+}
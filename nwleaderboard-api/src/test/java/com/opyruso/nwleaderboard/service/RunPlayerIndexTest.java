@@ -0,0 +1,82 @@
+package com.opyruso.nwleaderboard.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Intersects the runs of groups of players, a group taking part in a run when any of its players did.
+ */
+class RunPlayerIndexTest {
+
+    private static final long[] NO_RUNS = new long[0];
+
+    @Test
+    void returnsTheRunsSharedByEveryGroup() {
+        RunPlayerIndex index = index();
+
+        assertArrayEquals(new long[] {3L, 5L}, index.runsWithAll(List.of(List.of(1L), List.of(2L))));
+        assertArrayEquals(new long[] {5L}, index.runsWithAll(List.of(List.of(1L), List.of(2L), List.of(3L))));
+        assertArrayEquals(new long[] {1L, 3L, 5L, 7L}, index.runsWithAll(List.of(List.of(1L))));
+        assertArrayEquals(NO_RUNS, index.runsWithAll(List.of()));
+    }
+
+    @Test
+    void groupsMatchTheRunsOfAnyOfTheirPlayers() {
+        RunPlayerIndex index = index();
+
+        assertArrayEquals(new long[] {3L, 5L, 7L}, index.runsWithAll(List.of(List.of(1L), List.of(2L, 3L))));
+        assertArrayEquals(new long[] {3L, 4L, 5L, 7L, 9L}, index.runsWithAll(List.of(List.of(2L, 3L))));
+    }
+
+    @Test
+    void playersWithoutRunsOnlyEmptyTheirOwnGroup() {
+        RunPlayerIndex index = index();
+
+        assertArrayEquals(NO_RUNS, index.runsWithAll(List.of(List.of(1L), List.of(42L))));
+        assertArrayEquals(NO_RUNS, index.runsWithAll(List.of(List.of(42L), List.of(43L))));
+        assertArrayEquals(new long[] {3L, 5L}, index.runsWithAll(List.of(List.of(1L), List.of(42L, 2L))));
+        assertArrayEquals(new long[] {3L, 5L}, index.runsWithAll(List.of(List.of(1L), Arrays.asList(null, 2L))));
+        assertArrayEquals(NO_RUNS, index.runsWithAll(List.of(List.of(1L), List.of())));
+    }
+
+    @Test
+    void probesLongListsForShortOnes() {
+        RunPlayerIndex index = new RunPlayerIndex();
+        index.put(10L, LongStream.range(0L, 1_000L).toArray());
+        index.put(11L, new long[] {5L, 500L, 999L, 2_000L});
+        index.put(12L, new long[] {-1L, 2_000L});
+
+        assertArrayEquals(new long[] {5L, 500L, 999L}, index.runsWithAll(List.of(List.of(10L), List.of(11L))));
+        assertArrayEquals(new long[] {2_000L}, index.runsWithAll(List.of(List.of(11L), List.of(12L))));
+        assertArrayEquals(NO_RUNS, index.runsWithAll(List.of(List.of(10L), List.of(12L))));
+    }
+
+    @Test
+    void putReplacesAndRemovesTheRunsOfAPlayer() {
+        RunPlayerIndex index = index();
+        assertEquals(3, index.playerCount());
+        assertEquals(10L, index.postingCount());
+
+        index.put(2L, new long[] {7L});
+        index.put(3L, NO_RUNS);
+        index.put(3L, NO_RUNS);
+
+        assertEquals(2, index.playerCount());
+        assertEquals(5L, index.postingCount());
+        assertArrayEquals(new long[] {7L}, index.runsWithAll(List.of(List.of(1L), List.of(2L))));
+        assertArrayEquals(NO_RUNS, index.runsWithAll(List.of(List.of(3L))));
+    }
+
+    private static RunPlayerIndex index() {
+        RunPlayerIndex index = new RunPlayerIndex();
+        index.put(1L, new long[] {1L, 3L, 5L, 7L});
+        index.put(2L, new long[] {3L, 4L, 5L});
+        index.put(3L, new long[] {5L, 7L, 9L});
+        return index;
+    }
+}
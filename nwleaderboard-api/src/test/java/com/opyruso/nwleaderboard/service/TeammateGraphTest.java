@@ -0,0 +1,151 @@
+package com.opyruso.nwleaderboard.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Explores small teammate graphs, before and after their overlay is folded back by a compaction.
+ */
+class TeammateGraphTest {
+
+    @Test
+    void storesEdgesInBothDirections() {
+        TeammateGraph graph = graph();
+
+        assertEquals(Map.of(2L, 5, 3L, 2), graph.partners(1L).toMap());
+        assertEquals(Map.of(2L, 3, 3L, 1, 5L, 4), graph.partners(4L).toMap());
+        assertEquals(5, graph.partners(2L).weightOf(1L));
+        assertEquals(0, graph.partners(2L).weightOf(5L));
+        assertEquals(Map.of(), graph.partners(42L).toMap());
+        assertEquals(14, graph.edgeCount());
+    }
+
+    @Test
+    void exploresLayersByDecreasingWeightThenPlayerId() {
+        TeammateGraph graph = graph();
+
+        assertEquals(List.of(new TeammateGraph.Reach(2L, 1, 5L, null), new TeammateGraph.Reach(3L, 1, 2L, null)),
+                graph.explore(1L, 1, 10));
+        // Player 4 shares 3 runs with player 2 and 1 with player 3, its strongest link being player 2.
+        assertEquals(List.of(
+                        new TeammateGraph.Reach(2L, 1, 5L, null),
+                        new TeammateGraph.Reach(3L, 1, 2L, null),
+                        new TeammateGraph.Reach(4L, 2, 4L, 2L),
+                        new TeammateGraph.Reach(5L, 3, 4L, 4L)),
+                graph.explore(1L, 5, 10));
+        assertEquals(List.of(new TeammateGraph.Reach(6L, 1, 1L, null), new TeammateGraph.Reach(8L, 1, 1L, null)),
+                graph.explore(7L, 2, 10));
+    }
+
+    @Test
+    void expandsOnlyThePlayersKeptInEachLayer() {
+        TeammateGraph graph = graph();
+
+        assertEquals(List.of(new TeammateGraph.Reach(2L, 1, 5L, null), new TeammateGraph.Reach(4L, 2, 3L, 2L)),
+                graph.explore(1L, 2, 1));
+        assertEquals(List.of(), graph.explore(42L, 3, 10));
+    }
+
+    @Test
+    void findsShortestChainsWithinTheHopLimit() {
+        TeammateGraph graph = graph();
+
+        assertChain(graph, graph.shortestPath(1L, 5L, 3), 1L, 5L, 3);
+        assertEquals(List.of(2L, 4L), graph.shortestPath(2L, 4L, 1));
+        assertEquals(List.of(), graph.shortestPath(1L, 5L, 2));
+        assertEquals(List.of(), graph.shortestPath(1L, 6L, 10));
+        assertEquals(List.of(1L), graph.shortestPath(1L, 1L, 0));
+    }
+
+    @Test
+    void replaceUpdatesThePartnersOfChangedPlayers() {
+        TeammateGraph graph = graph();
+
+        graph.replace(Map.of(3L, Map.of(5L, 7)));
+
+        assertTrue(graph.hasOverlay());
+        assertEquals(Map.of(5L, 7), graph.partners(3L).toMap());
+        assertEquals(Map.of(2L, 5), graph.partners(1L).toMap());
+        assertEquals(Map.of(2L, 3, 5L, 4), graph.partners(4L).toMap());
+        assertEquals(Map.of(3L, 7, 4L, 4), graph.partners(5L).toMap());
+        assertEquals(List.of(1L, 2L, 4L, 5L, 3L), graph.shortestPath(1L, 3L, 4));
+    }
+
+    @Test
+    void replaceWithNoPartnersRemovesThePlayer() {
+        TeammateGraph graph = graph();
+
+        graph.replace(Map.of(2L, Map.of()));
+
+        assertEquals(Map.of(), graph.partners(2L).toMap());
+        assertEquals(Map.of(3L, 2), graph.partners(1L).toMap());
+        assertEquals(List.of(1L, 3L, 4L, 5L), graph.shortestPath(1L, 5L, 3));
+        assertEquals(List.of(), graph.explore(2L, 2, 10));
+    }
+
+    @Test
+    void replaceAddsPlayersMissingFromTheBuild() {
+        TeammateGraph graph = graph();
+
+        graph.replace(Map.of(9L, Map.of(1L, 2, 6L, 1)));
+
+        assertEquals(Map.of(2L, 5, 3L, 2, 9L, 2), graph.partners(1L).toMap());
+        assertChain(graph, graph.shortestPath(5L, 6L, 5), 5L, 6L, 5);
+    }
+
+    @Test
+    void compactionKeepsPartnersExplorationsAndPaths() {
+        TeammateGraph graph = graph();
+        graph.replace(Map.of(3L, Map.of(5L, 7)));
+        graph.replace(Map.of(9L, Map.of(1L, 2, 6L, 1), 8L, Map.of()));
+
+        TeammateGraph compacted = graph.compact();
+
+        assertFalse(compacted.hasOverlay());
+        assertEquals(14, compacted.edgeCount());
+        for (long playerId = 1L; playerId <= 9L; playerId++) {
+            assertEquals(graph.partners(playerId).toMap(), compacted.partners(playerId).toMap());
+            for (int limit : List.of(1, 2, 10)) {
+                assertEquals(graph.explore(playerId, 4, limit), compacted.explore(playerId, 4, limit));
+            }
+            // Both graphs are now trees, so every chain is unique.
+            for (long otherId = 1L; otherId <= 9L; otherId++) {
+                assertEquals(graph.shortestPath(playerId, otherId, 8), compacted.shortestPath(playerId, otherId, 8));
+            }
+        }
+        assertEquals(List.of(1L, 2L, 4L, 5L, 3L), compacted.shortestPath(1L, 3L, 4));
+        assertEquals(List.of(3L, 5L, 4L, 2L, 1L, 9L, 6L), compacted.shortestPath(3L, 6L, 6));
+    }
+
+    private static void assertChain(TeammateGraph graph, List<Long> path, long from, long to, int hops) {
+        assertEquals(hops + 1, path.size(), "Unexpected chain " + path);
+        assertEquals(from, path.get(0).longValue());
+        assertEquals(to, path.get(hops).longValue());
+        for (int i = 1; i < path.size(); i++) {
+            assertTrue(graph.partners(path.get(i - 1)).weightOf(path.get(i)) > 0, "Broken chain " + path);
+        }
+    }
+
+    /** Two chains from player 1 to player 5 and a separate component of players 6, 7 and 8. */
+    private static TeammateGraph graph() {
+        TeammateGraph.Edges edges = new TeammateGraph.Edges();
+        link(edges, 1L, 2L, 5);
+        link(edges, 1L, 3L, 2);
+        link(edges, 2L, 4L, 3);
+        link(edges, 3L, 4L, 1);
+        link(edges, 4L, 5L, 4);
+        link(edges, 6L, 7L, 1);
+        link(edges, 7L, 8L, 1);
+        return TeammateGraph.build(edges);
+    }
+
+    private static void link(TeammateGraph.Edges edges, long playerId, long partnerId, int runCount) {
+        edges.add(playerId, partnerId, runCount);
+        edges.add(partnerId, playerId, runCount);
+    }
+}